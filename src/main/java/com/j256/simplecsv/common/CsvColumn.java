@@ -9,6 +9,7 @@ import java.text.DecimalFormat;
 import com.j256.simplecsv.converter.Converter;
 import com.j256.simplecsv.converter.VoidConverter;
 import com.j256.simplecsv.processor.CsvProcessor;
+import com.j256.simplecsv.processor.CsvReadSession;
 
 /**
  * Annotation to be added to a field or method to mark it as a column in a CSV file.
@@ -82,8 +83,9 @@ public @interface CsvColumn {
 	 * Set to false if a column is optional and can be skipped in the input altogether. If this is false then the column
 	 * doesn't have to be in the header or the lines at all. Default is true.
 	 * 
-	 * <b>WARNING:</b> If you are using optional ordering, the same CsvProcessor cannot be used with multiple files at
-	 * the same time since the column lists can be dynamic depending on the input file being read.
+	 * <b>WARNING:</b> If you are using optional ordering, the readHeader and readRow methods of the same CsvProcessor
+	 * cannot be used with multiple files at the same time since the column lists can be dynamic depending on the input
+	 * file being read. Use a separate {@link CsvReadSession} for each file instead.
 	 */
 	public boolean mustBeSupplied() default true;
 
@@ -1,18 +1,25 @@
 package com.j256.simplecsv.converter;
 
-import java.text.DecimalFormat;
 import java.text.ParseException;
 
 import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.OutputBuffer;
 import com.j256.simplecsv.processor.ParseError;
 import com.j256.simplecsv.processor.ParseError.ErrorType;
 
 /**
- * Abstract converter for Java Number types.
+ * Abstract converter for Java Number types. The format is compiled into a {@link CompiledDecimalFormat} which can be
+ * shared by multiple threads. Integer values without a format are written directly into the output buffer.
  * 
  * @author graywatson
  */
-public abstract class AbstractNumberConverter<T extends Number> implements Converter<T, DecimalFormat> {
+public abstract class AbstractNumberConverter<T extends Number>
+		implements OutputBufferConverter<T, CompiledDecimalFormat>, OutputAlphabetConverter<T, CompiledDecimalFormat> {
+
+	/** characters written by {@link Long#toString()} and the like */
+	protected static final String INTEGER_ALPHABET = "-0123456789";
+	/** characters written by {@link Double#toString()} including NaN and Infinity */
+	protected static final String FLOATING_POINT_ALPHABET = "-.0123456789EINaftiny";
 
 	/**
 	 * Convert a number to the appropriate Java type.
@@ -24,8 +31,23 @@ public abstract class AbstractNumberConverter<T extends Number> implements Conve
 	 */
 	protected abstract T parseString(String value) throws NumberFormatException;
 
+	/**
+	 * Parse a string into the appropriate Java type setting the parse-error if it is invalid. The built-in converters
+	 * override this to validate the value without throwing which is much faster on bad data. The default
+	 * implementation catches the exception from {@link #parseString(String)}.
+	 */
+	protected T parseString(String value, ParseError parseError) {
+		try {
+			return parseString(value);
+		} catch (NumberFormatException nfe) {
+			parseError.setErrorType(ErrorType.INVALID_FORMAT);
+			parseError.setMessage(nfe.getMessage());
+			return null;
+		}
+	}
+
 	@Override
-	public boolean isNeedsQuotes(DecimalFormat decimalFormat) {
+	public boolean isNeedsQuotes(CompiledDecimalFormat decimalFormat) {
 		if (decimalFormat == null) {
 			return false;
 		} else {
@@ -33,23 +55,40 @@ public abstract class AbstractNumberConverter<T extends Number> implements Conve
 		}
 	}
 
+	@Override
+	public String getOutputAlphabet(CompiledDecimalFormat decimalFormat) {
+		if (decimalFormat == null) {
+			return getUnformattedAlphabet();
+		} else {
+			return decimalFormat.getOutputAlphabet();
+		}
+	}
+
+	/**
+	 * Returns the characters that can be written by the toString() method of the type. By default this is the
+	 * integer characters.
+	 */
+	protected String getUnformattedAlphabet() {
+		return INTEGER_ALPHABET;
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return true;
 	}
 
 	@Override
-	public DecimalFormat configure(String format, long flags, ColumnInfo<T> fieldInfo) {
+	public CompiledDecimalFormat configure(String format, long flags, ColumnInfo<T> fieldInfo) {
 		if (format == null) {
 			return null;
 		} else {
-			return new DecimalFormat(format);
+			return CompiledDecimalFormat.compile(format, false, false);
 		}
 	}
 
 	@Override
 	public String javaToString(ColumnInfo<T> columnInfo, T value) {
-		DecimalFormat decimalFormat = (DecimalFormat) columnInfo.getConfigInfo();
+		CompiledDecimalFormat decimalFormat = (CompiledDecimalFormat) columnInfo.getConfigInfo();
 		if (value == null) {
 			return null;
 		} else if (decimalFormat == null) {
@@ -59,23 +98,36 @@ public abstract class AbstractNumberConverter<T extends Number> implements Conve
 		}
 	}
 
+	@Override
+	public void javaToBuffer(ColumnInfo<T> columnInfo, T value, OutputBuffer buffer) {
+		CompiledDecimalFormat decimalFormat = (CompiledDecimalFormat) columnInfo.getConfigInfo();
+		if (decimalFormat == null && (value instanceof Integer || value instanceof Long || value instanceof Short
+				|| value instanceof Byte)) {
+			buffer.append(value.longValue());
+		} else {
+			buffer.append(javaToString(columnInfo, value));
+		}
+	}
+
 	@Override
 	public T stringToJava(String line, int lineNumber, int linePos, ColumnInfo<T> columnInfo, String value,
 			ParseError parseError) throws ParseException {
-		DecimalFormat decimalFormat = (DecimalFormat) columnInfo.getConfigInfo();
+		CompiledDecimalFormat decimalFormat = (CompiledDecimalFormat) columnInfo.getConfigInfo();
 		if (value.length() == 0) {
 			return null;
 		} else if (decimalFormat == null) {
-			try {
-				return parseString(value);
-			} catch (NumberFormatException nfe) {
-				parseError.setErrorType(ErrorType.INVALID_FORMAT);
-				parseError.setMessage(nfe.getMessage());
+			T result = parseString(value, parseError);
+			if (parseError.isError()) {
 				parseError.setLinePos(linePos);
-				return null;
 			}
+			return result;
 		} else {
-			return numberToValue(decimalFormat.parse(value));
+			Number number = decimalFormat.parse(value, 0, value.length());
+			if (number == null) {
+				ParseUtils.setUnparseableNumber(value, linePos, parseError);
+				return null;
+			}
+			return numberToValue(number);
 		}
 	}
 }
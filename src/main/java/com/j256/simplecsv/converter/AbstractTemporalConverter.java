@@ -0,0 +1,132 @@
+package com.j256.simplecsv.converter;
+
+import java.time.DateTimeException;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+/**
+ * Abstract converter for the java.time types which uses an immutable {@link DateTimeFormatter} so no thread-local
+ * protection is needed.
+ * 
+ * <p>
+ * The {@link CsvColumn#format()} parameter can be set to a {@link DateTimeFormatter#ofPattern(String)} pattern to read
+ * and write the value. If it is not set then the ISO-8601 format of the type is used and the common layouts are parsed
+ * by hand without going through the formatter at all.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public abstract class AbstractTemporalConverter<T extends TemporalAccessor>
+		implements OutputAlphabetConverter<T, AbstractTemporalConverter.ConfigInfo> {
+
+	/** characters in all of the ISO-8601 formats of the types */
+	private static final String ISO_ALPHABET = "+-:.TZ0123456789";
+	/** pattern letters that {@link DateTimeFormatter} always writes as numbers */
+	private static final String NUMERIC_PATTERN_LETTERS = "uyMLdDHhKkmsSnNA";
+
+	/**
+	 * Returns the ISO-8601 formatter for the type which is used if no format is specified.
+	 */
+	protected abstract DateTimeFormatter getDefaultFormatter();
+
+	/**
+	 * Convert the temporal object returned by the formatter into the appropriate Java type.
+	 */
+	protected abstract T fromTemporal(TemporalAccessor temporal);
+
+	/**
+	 * Parse the ISO-8601 string by hand without using the formatter.
+	 * 
+	 * @return The parsed value or null if the string is not in one of the common layouts in which case the default
+	 *         formatter will be used.
+	 */
+	protected abstract T parseIso(String value);
+
+	@Override
+	public ConfigInfo configure(String format, long flags, ColumnInfo<T> fieldInfo) {
+		if (format == null) {
+			return new ConfigInfo(getDefaultFormatter(), true, ISO_ALPHABET);
+		} else {
+			// this will throw immediately if the pattern is invalid
+			DateTimeFormatter formatter = configureFormatter(DateTimeFormatter.ofPattern(format));
+			return new ConfigInfo(formatter, false,
+					DateConverter.numericPatternAlphabet(format, NUMERIC_PATTERN_LETTERS));
+		}
+	}
+
+	@Override
+	public String getOutputAlphabet(ConfigInfo configInfo) {
+		return configInfo.outputAlphabet;
+	}
+
+	@Override
+	public boolean isNeedsQuotes(ConfigInfo configInfo) {
+		// the ISO formats have no separators or quotes
+		return !configInfo.iso;
+	}
+
+	@Override
+	public boolean isAlwaysTrimInput() {
+		return true;
+	}
+
+	@Override
+	public String javaToString(ColumnInfo<T> columnInfo, T value) {
+		if (value == null) {
+			return null;
+		} else {
+			ConfigInfo configInfo = (ConfigInfo) columnInfo.getConfigInfo();
+			return configInfo.formatter.format(value);
+		}
+	}
+
+	@Override
+	public T stringToJava(String line, int lineNumber, int linePos, ColumnInfo<T> columnInfo, String value,
+			ParseError parseError) {
+		if (value.isEmpty()) {
+			return null;
+		}
+		ConfigInfo configInfo = (ConfigInfo) columnInfo.getConfigInfo();
+		if (configInfo.iso) {
+			T result = parseIso(value);
+			if (result != null) {
+				return result;
+			}
+		}
+		try {
+			return fromTemporal(configInfo.formatter.parse(value));
+		} catch (DateTimeException dte) {
+			parseError.setErrorType(ErrorType.INVALID_FORMAT);
+			parseError.setMessage(dte.getMessage());
+			parseError.setLinePos(linePos);
+			return null;
+		}
+	}
+
+	/**
+	 * Called when a formatter is built from a format pattern to allow the subclass to add any settings it needs.
+	 */
+	protected DateTimeFormatter configureFormatter(DateTimeFormatter formatter) {
+		return formatter;
+	}
+
+	/**
+	 * Configuration information for the temporal converters.
+	 */
+	static class ConfigInfo {
+		final DateTimeFormatter formatter;
+		final boolean iso;
+		final String outputAlphabet;
+
+		private ConfigInfo(DateTimeFormatter formatter, boolean iso, String outputAlphabet) {
+			this.formatter = formatter;
+			this.iso = iso;
+			this.outputAlphabet = outputAlphabet;
+		}
+	}
+}
@@ -1,8 +1,6 @@
 package com.j256.simplecsv.converter;
 
 import java.math.BigDecimal;
-import java.text.DecimalFormat;
-import java.text.ParseException;
 
 import com.j256.simplecsv.processor.ColumnInfo;
 import com.j256.simplecsv.processor.ParseError;
@@ -10,9 +8,15 @@ import com.j256.simplecsv.processor.ParseError;
 /**
  * Converter for the Java BigDecimal type.
  * 
+ * <p>
+ * Plain values with up to 18 digits such as most money amounts are built directly from the characters in the line
+ * using an unscaled long and scale. Larger values or ones with an exponent use {@link BigDecimal#BigDecimal(String)}.
+ * </p>
+ * 
  * @author graywatson
  */
-public class BigDecimalConverter implements Converter<BigDecimal, DecimalFormat> {
+public class BigDecimalConverter implements CharRangeConverter<BigDecimal, CompiledDecimalFormat>,
+		OutputAlphabetConverter<BigDecimal, CompiledDecimalFormat> {
 
 	private static final BigDecimalConverter singleton = new BigDecimalConverter();
 
@@ -24,21 +28,29 @@ public class BigDecimalConverter implements Converter<BigDecimal, DecimalFormat>
 	}
 
 	@Override
-	public DecimalFormat configure(String format, long flags, ColumnInfo<BigDecimal> fieldInfo) {
+	public CompiledDecimalFormat configure(String format, long flags, ColumnInfo<BigDecimal> fieldInfo) {
 		if (format == null) {
 			return null;
 		} else {
-			DecimalFormat decimalFormat = new DecimalFormat(format);
-			decimalFormat.setParseBigDecimal(true);
-			return decimalFormat;
+			return CompiledDecimalFormat.compile(format, true, false);
 		}
 	}
 
 	@Override
-	public boolean isNeedsQuotes(DecimalFormat decimalFormat) {
+	public boolean isNeedsQuotes(CompiledDecimalFormat decimalFormat) {
 		return true;
 	}
 
+	@Override
+	public String getOutputAlphabet(CompiledDecimalFormat decimalFormat) {
+		if (decimalFormat == null) {
+			// toString() can use an exponent
+			return "-+.0123456789E";
+		} else {
+			return decimalFormat.getOutputAlphabet();
+		}
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return true;
@@ -46,7 +58,7 @@ public class BigDecimalConverter implements Converter<BigDecimal, DecimalFormat>
 
 	@Override
 	public String javaToString(ColumnInfo<BigDecimal> columnInfo, BigDecimal value) {
-		DecimalFormat decimalFormat = (DecimalFormat) columnInfo.getConfigInfo();
+		CompiledDecimalFormat decimalFormat = (CompiledDecimalFormat) columnInfo.getConfigInfo();
 		if (value == null) {
 			return null;
 		} else if (decimalFormat == null) {
@@ -58,14 +70,37 @@ public class BigDecimalConverter implements Converter<BigDecimal, DecimalFormat>
 
 	@Override
 	public BigDecimal stringToJava(String line, int lineNumber, int linePos, ColumnInfo<BigDecimal> columnInfo,
-			String value, ParseError parseError) throws ParseException {
-		DecimalFormat decimalFormat = (DecimalFormat) columnInfo.getConfigInfo();
+			String value, ParseError parseError) {
 		if (value.isEmpty()) {
 			return null;
-		} else if (decimalFormat == null) {
-			return new BigDecimal(value);
 		} else {
-			return (BigDecimal) decimalFormat.parse(value);
+			return rangeToJava(line, lineNumber, linePos, columnInfo, value, 0, value.length(), parseError);
+		}
+	}
+
+	@Override
+	public BigDecimal rangeToJava(String line, int lineNumber, int linePos, ColumnInfo<BigDecimal> columnInfo,
+			CharSequence chars, int start, int end, ParseError parseError) {
+		CompiledDecimalFormat decimalFormat = (CompiledDecimalFormat) columnInfo.getConfigInfo();
+		if (decimalFormat != null) {
+			BigDecimal result = (BigDecimal) decimalFormat.parse(chars, start, end);
+			if (result == null) {
+				ParseUtils.setUnparseableNumber(chars.subSequence(start, end).toString(), linePos, parseError);
+			}
+			return result;
+		}
+		// most values fit in a long so we can build it directly from the characters
+		BigDecimal result = ParseUtils.parseDecimal(chars, start, end);
+		if (result != null) {
+			return result;
+		}
+		String value = chars.subSequence(start, end).toString();
+		if (!ParseUtils.isBigDecimal(value)) {
+			ParseUtils.setInvalidNumber(value, parseError);
+			parseError.setLinePos(linePos);
+			return null;
 		}
+		// exponent overflow is the only thing that can still throw which will be handled by the caller
+		return new BigDecimal(value);
 	}
 }
@@ -2,7 +2,6 @@ package com.j256.simplecsv.converter;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.text.DecimalFormat;
 import java.text.ParseException;
 
 import com.j256.simplecsv.processor.ColumnInfo;
@@ -13,7 +12,7 @@ import com.j256.simplecsv.processor.ParseError;
  * 
  * @author graywatson
  */
-public class BigIntegerConverter implements Converter<BigInteger, DecimalFormat> {
+public class BigIntegerConverter implements OutputAlphabetConverter<BigInteger, CompiledDecimalFormat> {
 
 	private static final BigIntegerConverter singleton = new BigIntegerConverter();
 
@@ -25,22 +24,28 @@ public class BigIntegerConverter implements Converter<BigInteger, DecimalFormat>
 	}
 
 	@Override
-	public DecimalFormat configure(String format, long flags, ColumnInfo<BigInteger> fieldInfo) {
+	public CompiledDecimalFormat configure(String format, long flags, ColumnInfo<BigInteger> fieldInfo) {
 		if (format == null) {
 			return null;
 		} else {
-			DecimalFormat decimalFormat = new DecimalFormat(format);
-			decimalFormat.setParseBigDecimal(true);
-			decimalFormat.setParseIntegerOnly(true);
-			return decimalFormat;
+			return CompiledDecimalFormat.compile(format, true, true);
 		}
 	}
 
 	@Override
-	public boolean isNeedsQuotes(DecimalFormat decimalFormat) {
+	public boolean isNeedsQuotes(CompiledDecimalFormat decimalFormat) {
 		return true;
 	}
 
+	@Override
+	public String getOutputAlphabet(CompiledDecimalFormat decimalFormat) {
+		if (decimalFormat == null) {
+			return AbstractNumberConverter.INTEGER_ALPHABET;
+		} else {
+			return decimalFormat.getOutputAlphabet();
+		}
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return true;
@@ -48,7 +53,7 @@ public class BigIntegerConverter implements Converter<BigInteger, DecimalFormat>
 
 	@Override
 	public String javaToString(ColumnInfo<BigInteger> columnInfo, BigInteger value) {
-		DecimalFormat decimalFormat = (DecimalFormat) columnInfo.getConfigInfo();
+		CompiledDecimalFormat decimalFormat = (CompiledDecimalFormat) columnInfo.getConfigInfo();
 		if (value == null) {
 			return null;
 		} else if (decimalFormat == null) {
@@ -61,13 +66,22 @@ public class BigIntegerConverter implements Converter<BigInteger, DecimalFormat>
 	@Override
 	public BigInteger stringToJava(String line, int lineNumber, int linePos, ColumnInfo<BigInteger> columnInfo,
 			String value, ParseError parseError) throws ParseException {
-		DecimalFormat decimalFormat = (DecimalFormat) columnInfo.getConfigInfo();
+		CompiledDecimalFormat decimalFormat = (CompiledDecimalFormat) columnInfo.getConfigInfo();
 		if (value.isEmpty()) {
 			return null;
 		} else if (decimalFormat == null) {
+			if (!ParseUtils.isBigInteger(value)) {
+				ParseUtils.setInvalidNumber(value, parseError);
+				parseError.setLinePos(linePos);
+				return null;
+			}
 			return new BigInteger(value);
 		} else {
-			BigDecimal bigDecimal = (BigDecimal) decimalFormat.parse(value);
+			BigDecimal bigDecimal = (BigDecimal) decimalFormat.parse(value, 0, value.length());
+			if (bigDecimal == null) {
+				ParseUtils.setUnparseableNumber(value, linePos, parseError);
+				return null;
+			}
 			return bigDecimal.toBigInteger();
 		}
 	}
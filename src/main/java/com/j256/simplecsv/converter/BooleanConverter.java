@@ -22,7 +22,7 @@ import com.j256.simplecsv.processor.ParseError.ErrorType;
  * 
  * @author graywatson
  */
-public class BooleanConverter implements Converter<Boolean, BooleanConverter.ConfigInfo> {
+public class BooleanConverter implements OutputAlphabetConverter<Boolean, BooleanConverter.ConfigInfo> {
 
 	/**
 	 * Set this flag using {@link CsvColumn#converterFlags()} if you want a parse error to be generated if the value is
@@ -85,6 +85,11 @@ public class BooleanConverter implements Converter<Boolean, BooleanConverter.Con
 		return configInfo.needsQuotes;
 	}
 
+	@Override
+	public String getOutputAlphabet(ConfigInfo configInfo) {
+		return configInfo.trueString + configInfo.falseString;
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return false;
@@ -3,6 +3,7 @@ package com.j256.simplecsv.converter;
 import java.text.DecimalFormat;
 
 import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ParseError;
 
 /**
  * Converter for the Java Byte type.
@@ -34,4 +35,14 @@ public class ByteConverter extends AbstractNumberConverter<Byte> {
 	protected Byte parseString(String value) throws NumberFormatException {
 		return Byte.parseByte(value);
 	}
+
+	@Override
+	protected Byte parseString(String value, ParseError parseError) {
+		long result = ParseUtils.parseLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE, parseError);
+		if (parseError.isError()) {
+			return null;
+		} else {
+			return (byte) result;
+		}
+	}
 }
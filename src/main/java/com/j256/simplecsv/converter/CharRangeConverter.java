@@ -0,0 +1,52 @@
+package com.j256.simplecsv.converter;
+
+import java.text.ParseException;
+
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+
+/**
+ * Optional interface for a converter that can convert directly from a range of characters in the line. The processor
+ * will call {@link #rangeToJava(String, int, int, ColumnInfo, CharSequence, int, int, ParseError)} instead of
+ * {@link #stringToJava(String, int, int, ColumnInfo, String, ParseError)} so no String needs to be created for the
+ * column.
+ * 
+ * @param <T>
+ *            The Java type that we are converting from/to.
+ * @param <C>
+ *            The configuration information object.
+ * 
+ * @author graywatson
+ */
+public interface CharRangeConverter<T, C> extends Converter<T, C> {
+
+	/**
+	 * Converts from a range of characters to Java. The range will have already been trimmed if necessary and will not
+	 * be empty. Blank columns are always passed to
+	 * {@link #stringToJava(String, int, int, ColumnInfo, String, ParseError)} so default-values and the like are
+	 * handled.
+	 * 
+	 * @param line
+	 *            Line we are processing for logging purposes.
+	 * @param lineNumber
+	 *            Number of the line we are processing for logging purposes.
+	 * @param linePos
+	 *            Position in the line that we are converting to identify what part of the line contains the value.
+	 * @param columnInfo
+	 *            Information about the column we are processing.
+	 * @param chars
+	 *            Characters that hold the value. This may be the line or a buffer if the column had escaped quotes.
+	 * @param start
+	 *            Start of the value in the characters (inclusive).
+	 * @param end
+	 *            End of the value in the characters (exclusive).
+	 * @param parseError
+	 *            Parse error which can we use to set information about parse errors here.
+	 * @return The Java equivalent object of the value or null.
+	 * @throws ParseException
+	 *             If there was some sort of parse or other error. It is better to return null and use the parseError
+	 *             argument instead.
+	 */
+	public T rangeToJava(String line, int lineNumber, int linePos, ColumnInfo<T> columnInfo, CharSequence chars,
+			int start, int end, ParseError parseError) throws ParseException;
+}
@@ -0,0 +1,438 @@
+package com.j256.simplecsv.converter;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParsePosition;
+
+/**
+ * Immutable and thread-safe version of a {@link DecimalFormat} pattern. The pattern is validated and its settings read
+ * using a {@link DecimalFormat} when it is compiled. The common patterns with grouping, fixed or optional decimals,
+ * percent, literal prefixes and suffixes, and the default minus sign are then formatted and parsed by hand which is
+ * much faster. Anything else such as exponents, quoted affixes, NaN, or values with too many digits are handed to a
+ * {@link DecimalFormat} cloned per thread so the results are always the same as the JDK's.
+ * 
+ * @author graywatson
+ */
+class CompiledDecimalFormat {
+
+	/** the most significant digits that we format from a double so it matches the JDK's shortest representation */
+	private static final int MAX_DOUBLE_DIGITS = 15;
+	/** the most digits that we can parse into a long */
+	private static final int MAX_LONG_DIGITS = 18;
+	private static final long[] POWERS_OF_TEN = new long[MAX_LONG_DIGITS + 1];
+	private static final double[] DOUBLE_POWERS_OF_TEN = new double[23];
+	private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+		DOUBLE_POWERS_OF_TEN[0] = 1.0;
+		for (int i = 1; i < DOUBLE_POWERS_OF_TEN.length; i++) {
+			DOUBLE_POWERS_OF_TEN[i] = DOUBLE_POWERS_OF_TEN[i - 1] * 10.0;
+		}
+	}
+
+	private final ThreadLocal<DecimalFormat> threadFormat;
+	private final boolean parseBigDecimal;
+	private final boolean parseIntegerOnly;
+	/** false if the pattern is not one we handle so everything is done by the thread's DecimalFormat */
+	private final boolean compiled;
+	private final String prefix;
+	private final String suffix;
+	private final boolean percent;
+	private final int minIntegerDigits;
+	private final int minFractionDigits;
+	private final int maxFractionDigits;
+	private final int groupingSize;
+	private final char minusSign;
+	private final char decimalSeparator;
+	private final char groupingSeparator;
+	private final String outputAlphabet;
+
+	private CompiledDecimalFormat(final DecimalFormat decimalFormat, boolean parseBigDecimal,
+			boolean parseIntegerOnly) {
+		this.threadFormat = new ThreadLocal<DecimalFormat>() {
+			@Override
+			protected DecimalFormat initialValue() {
+				return (DecimalFormat) decimalFormat.clone();
+			}
+		};
+		this.parseBigDecimal = parseBigDecimal;
+		this.parseIntegerOnly = parseIntegerOnly;
+		DecimalFormatSymbols symbols = decimalFormat.getDecimalFormatSymbols();
+		this.prefix = decimalFormat.getPositivePrefix();
+		this.suffix = decimalFormat.getPositiveSuffix();
+		this.percent = (decimalFormat.getMultiplier() == 100);
+		this.minIntegerDigits = decimalFormat.getMinimumIntegerDigits();
+		this.minFractionDigits = decimalFormat.getMinimumFractionDigits();
+		this.maxFractionDigits = decimalFormat.getMaximumFractionDigits();
+		this.groupingSize = (decimalFormat.isGroupingUsed() ? decimalFormat.getGroupingSize() : 0);
+		this.minusSign = symbols.getMinusSign();
+		this.decimalSeparator = symbols.getDecimalSeparator();
+		this.groupingSeparator = symbols.getGroupingSeparator();
+		this.compiled = canCompile(decimalFormat, symbols);
+		this.outputAlphabet = buildOutputAlphabet(decimalFormat, symbols);
+	}
+
+	/**
+	 * Compile the {@link DecimalFormat} pattern.
+	 * 
+	 * @param pattern
+	 *            Pattern as passed to {@link DecimalFormat#DecimalFormat(String)}.
+	 * @param parseBigDecimal
+	 *            Set to true to parse values as BigDecimal like {@link DecimalFormat#setParseBigDecimal(boolean)}.
+	 * @param parseIntegerOnly
+	 *            Set to true to stop parsing at the decimal separator like
+	 *            {@link DecimalFormat#setParseIntegerOnly(boolean)}.
+	 * @throws IllegalArgumentException
+	 *             If the pattern is invalid.
+	 */
+	public static CompiledDecimalFormat compile(String pattern, boolean parseBigDecimal, boolean parseIntegerOnly) {
+		DecimalFormat decimalFormat = new DecimalFormat(pattern);
+		decimalFormat.setParseBigDecimal(parseBigDecimal);
+		decimalFormat.setParseIntegerOnly(parseIntegerOnly);
+		return new CompiledDecimalFormat(decimalFormat, parseBigDecimal, parseIntegerOnly);
+	}
+
+	/**
+	 * Returns true if the pattern is formatted and parsed by hand instead of with a {@link DecimalFormat}.
+	 */
+	public boolean isCompiled() {
+		return compiled;
+	}
+
+	/**
+	 * Returns all of the characters that the format could write or null if unknown.
+	 */
+	public String getOutputAlphabet() {
+		return outputAlphabet;
+	}
+
+	/**
+	 * Format the number the same as {@link DecimalFormat#format(Object)}.
+	 */
+	public String format(Number number) {
+		if (compiled) {
+			String result;
+			if (number instanceof Long || number instanceof Integer || number instanceof Short
+					|| number instanceof Byte) {
+				result = formatLong(number.longValue());
+			} else if (number instanceof Double || number instanceof Float) {
+				result = formatDouble(number.doubleValue());
+			} else if (number instanceof BigDecimal) {
+				result = formatBigDecimal((BigDecimal) number);
+			} else if (number instanceof BigInteger) {
+				result = formatBigDecimal(new BigDecimal((BigInteger) number));
+			} else {
+				result = null;
+			}
+			if (result != null) {
+				return result;
+			}
+		}
+		return threadFormat.get().format(number);
+	}
+
+	/**
+	 * Parse the characters from start (inclusive) to end (exclusive) the same as
+	 * {@link DecimalFormat#parse(String, ParsePosition)} starting at position 0. Like the JDK, trailing characters that
+	 * are not part of the number are ignored.
+	 * 
+	 * @return The number which will be a BigDecimal if we are parsing BigDecimals otherwise a Long or Double, or null
+	 *         if the characters could not be parsed.
+	 */
+	public Number parse(CharSequence chars, int start, int end) {
+		if (compiled) {
+			Number result = parseCompiled(chars, start, end);
+			if (result != null) {
+				return result;
+			}
+		}
+		return threadFormat.get().parse(chars.subSequence(start, end).toString(), new ParsePosition(0));
+	}
+
+	private boolean canCompile(DecimalFormat decimalFormat, DecimalFormatSymbols symbols) {
+		String pattern = decimalFormat.toPattern();
+		if (pattern.indexOf('E') >= 0 || pattern.indexOf('\'') >= 0 || pattern.indexOf(';') >= 0
+				|| symbols.getZeroDigit() != '0' || decimalFormat.getRoundingMode() != RoundingMode.HALF_EVEN
+				|| decimalFormat.isDecimalSeparatorAlwaysShown()
+				|| decimalFormat.getMaximumIntegerDigits() < Integer.MAX_VALUE
+				|| (decimalFormat.getMultiplier() != 1 && decimalFormat.getMultiplier() != 100)
+				|| maxFractionDigits > MAX_DOUBLE_DIGITS || (decimalFormat.isGroupingUsed() && groupingSize <= 0)
+				|| minusSign == decimalSeparator || minusSign == groupingSeparator) {
+			return false;
+		}
+		// the negative pattern must be the default of the minus sign before the positive one
+		if (!decimalFormat.getNegativePrefix().equals(minusSign + prefix)
+				|| !decimalFormat.getNegativeSuffix().equals(suffix)) {
+			return false;
+		}
+		return (isPlainAffix(prefix) && isPlainAffix(suffix));
+	}
+
+	private static String buildOutputAlphabet(DecimalFormat decimalFormat, DecimalFormatSymbols symbols) {
+		if (decimalFormat.toPattern().indexOf('\u00A4') >= 0) {
+			// currency formats can use other separators
+			return null;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 10; i++) {
+			sb.append((char) (symbols.getZeroDigit() + i));
+		}
+		sb.append(symbols.getMinusSign());
+		sb.append(symbols.getDecimalSeparator());
+		sb.append(symbols.getGroupingSeparator());
+		sb.append(symbols.getPercent());
+		sb.append(symbols.getPerMill());
+		sb.append(symbols.getExponentSeparator());
+		sb.append(symbols.getInfinity());
+		sb.append(symbols.getNaN());
+		sb.append(decimalFormat.getPositivePrefix());
+		sb.append(decimalFormat.getPositiveSuffix());
+		sb.append(decimalFormat.getNegativePrefix());
+		sb.append(decimalFormat.getNegativeSuffix());
+		return sb.toString();
+	}
+
+	/**
+	 * Affix characters can't be confused with the number itself.
+	 */
+	private boolean isPlainAffix(String affix) {
+		for (int i = 0; i < affix.length(); i++) {
+			char ch = affix.charAt(i);
+			if (Character.isDigit(ch) || ch == minusSign || ch == decimalSeparator || ch == groupingSeparator) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private String formatLong(long value) {
+		if (percent) {
+			if (value > Long.MAX_VALUE / 100 || value < Long.MIN_VALUE / 100) {
+				return null;
+			}
+			value *= 100;
+		}
+		if (value == Long.MIN_VALUE) {
+			return null;
+		}
+		return formatDigits(Math.abs(value), 0, (value < 0));
+	}
+
+	private String formatDouble(double value) {
+		if (percent) {
+			value *= 100;
+		}
+		boolean negative = (value < 0.0 || (value == 0.0 && 1.0 / value < 0.0));
+		double abs = Math.abs(value);
+		// the JDK formats the shortest representation of the double so we make sure the rounded exact value has fewer
+		// significant digits than that which means that they are the same
+		if (!(abs < DOUBLE_POWERS_OF_TEN[MAX_DOUBLE_DIGITS - maxFractionDigits])) {
+			// also handles NaN and infinity
+			return null;
+		}
+		long unscaled;
+		if (abs == Math.rint(abs)) {
+			unscaled = (long) abs;
+			return formatDigits(unscaled, 0, negative);
+		} else {
+			BigDecimal rounded = new BigDecimal(abs).setScale(maxFractionDigits, RoundingMode.HALF_EVEN);
+			unscaled = rounded.unscaledValue().longValue();
+			return formatDigits(unscaled, maxFractionDigits, negative);
+		}
+	}
+
+	private String formatBigDecimal(BigDecimal value) {
+		if (percent) {
+			value = value.multiply(ONE_HUNDRED);
+		}
+		boolean negative = (value.signum() < 0);
+		if (value.scale() > maxFractionDigits) {
+			value = value.setScale(maxFractionDigits, RoundingMode.HALF_EVEN);
+		} else if (value.scale() < 0) {
+			value = value.setScale(0);
+		}
+		BigInteger unscaled = value.unscaledValue();
+		if (unscaled.bitLength() >= Long.SIZE - 1) {
+			return null;
+		}
+		return formatDigits(Math.abs(unscaled.longValue()), value.scale(), negative);
+	}
+
+	/**
+	 * Format the absolute value of unscaled / 10^scale with our prefix, grouping, and fraction digits.
+	 */
+	private String formatDigits(long unscaled, int scale, boolean negative) {
+		// drop trailing zeros that are more than the minimum fraction digits
+		while (scale > minFractionDigits && unscaled % 10 == 0) {
+			unscaled /= 10;
+			scale--;
+		}
+		long integerPart;
+		long fractionPart;
+		if (scale == 0) {
+			integerPart = unscaled;
+			fractionPart = 0;
+		} else {
+			integerPart = unscaled / POWERS_OF_TEN[scale];
+			fractionPart = unscaled % POWERS_OF_TEN[scale];
+		}
+
+		char[] integerDigits = new char[20];
+		int integerCount = 0;
+		for (long left = integerPart; left > 0; left /= 10) {
+			integerDigits[integerCount++] = (char) ('0' + (left % 10));
+		}
+		int integerWidth = Math.max(integerCount, minIntegerDigits);
+		if (integerWidth == 0 && scale == 0 && minFractionDigits == 0) {
+			// the JDK always writes at least one digit
+			integerWidth = 1;
+		}
+
+		int capacity =
+				prefix.length() + integerWidth + integerWidth / 3 + scale + minFractionDigits + suffix.length() + 2;
+		StringBuilder sb = new StringBuilder(capacity);
+		if (negative) {
+			sb.append(minusSign);
+		}
+		sb.append(prefix);
+		for (int i = integerWidth - 1; i >= 0; i--) {
+			if (i < integerCount) {
+				sb.append(integerDigits[i]);
+			} else {
+				sb.append('0');
+			}
+			if (groupingSize > 0 && i > 0 && i % groupingSize == 0) {
+				sb.append(groupingSeparator);
+			}
+		}
+		int fractionWidth = Math.max(scale, minFractionDigits);
+		if (fractionWidth > 0) {
+			sb.append(decimalSeparator);
+			for (int i = scale - 1; i >= 0; i--) {
+				sb.append((char) ('0' + (fractionPart / POWERS_OF_TEN[i]) % 10));
+			}
+			for (int i = scale; i < fractionWidth; i++) {
+				sb.append('0');
+			}
+		}
+		sb.append(suffix);
+		return sb.toString();
+	}
+
+	/**
+	 * Parse the whole range by hand returning null if it is not one that we handle, in which case the DecimalFormat
+	 * decides.
+	 */
+	private Number parseCompiled(CharSequence chars, int start, int end) {
+		if (parseIntegerOnly && percent) {
+			// JDK does integer division which we leave to it
+			return null;
+		}
+		int pos = start;
+		boolean negative = false;
+		if (pos < end && chars.charAt(pos) == minusSign) {
+			negative = true;
+			pos++;
+		}
+		if (!regionMatches(chars, pos, end, prefix)) {
+			return null;
+		}
+		pos += prefix.length();
+
+		long unscaled = 0;
+		int scale = 0;
+		int digitCount = 0;
+		int significantCount = 0;
+		boolean sawDecimal = false;
+		for (; pos < end; pos++) {
+			char ch = chars.charAt(pos);
+			if (ch >= '0' && ch <= '9') {
+				digitCount++;
+				if (unscaled != 0 || ch != '0') {
+					if (++significantCount > MAX_LONG_DIGITS) {
+						return null;
+					}
+				}
+				unscaled = unscaled * 10 + (ch - '0');
+				if (sawDecimal) {
+					scale++;
+				}
+			} else if (ch == decimalSeparator && !sawDecimal && !parseIntegerOnly) {
+				sawDecimal = true;
+			} else if (ch == groupingSeparator && groupingSize > 0 && !sawDecimal && digitCount > 0 && pos + 1 < end
+					&& chars.charAt(pos + 1) >= '0' && chars.charAt(pos + 1) <= '9') {
+				// the JDK allows grouping separators anywhere between the integer digits
+			} else {
+				break;
+			}
+		}
+		if (digitCount == 0 || pos + suffix.length() != end || !regionMatches(chars, pos, end, suffix)) {
+			return null;
+		}
+
+		if (parseBigDecimal) {
+			BigDecimal result = BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+			if (percent) {
+				result = result.divide(ONE_HUNDRED);
+			}
+			return result;
+		}
+
+		if (unscaled == 0) {
+			if (negative && !parseIntegerOnly) {
+				// JDK returns negative zero as a double unless parsing integers
+				return -0.0;
+			} else {
+				return 0L;
+			}
+		}
+		// integral values are returned as longs
+		int integralScale = scale;
+		long integral = unscaled;
+		while (integralScale > 0 && integral % 10 == 0) {
+			integral /= 10;
+			integralScale--;
+		}
+		if (negative) {
+			unscaled = -unscaled;
+			integral = -integral;
+		}
+		if (integralScale == 0) {
+			if (!percent) {
+				return integral;
+			} else if (integral % 100 == 0) {
+				return integral / 100;
+			} else {
+				return integral / 100.0;
+			}
+		}
+		// both are exact doubles so the division is correctly rounded like Double.parseDouble
+		if (Math.abs(unscaled) >= (1L << 53) || scale >= DOUBLE_POWERS_OF_TEN.length) {
+			return null;
+		}
+		double result = unscaled / DOUBLE_POWERS_OF_TEN[scale];
+		if (percent) {
+			result /= 100;
+		}
+		return result;
+	}
+
+	private static boolean regionMatches(CharSequence chars, int pos, int end, String str) {
+		if (end - pos < str.length()) {
+			return false;
+		}
+		for (int i = 0; i < str.length(); i++) {
+			if (chars.charAt(pos + i) != str.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -3,6 +3,11 @@ package com.j256.simplecsv.converter;
 import java.lang.reflect.Constructor;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
@@ -32,10 +37,15 @@ public class ConverterUtils {
 		converterMap.put(Enum.class, EnumConverter.getSingleton());
 		converterMap.put(Float.class, FloatConverter.getSingleton());
 		converterMap.put(float.class, FloatConverter.getSingleton());
+		converterMap.put(Instant.class, InstantConverter.getSingleton());
 		converterMap.put(Integer.class, IntegerConverter.getSingleton());
 		converterMap.put(int.class, IntegerConverter.getSingleton());
+		converterMap.put(LocalDate.class, LocalDateConverter.getSingleton());
+		converterMap.put(LocalDateTime.class, LocalDateTimeConverter.getSingleton());
+		converterMap.put(LocalTime.class, LocalTimeConverter.getSingleton());
 		converterMap.put(Long.class, LongConverter.getSingleton());
 		converterMap.put(long.class, LongConverter.getSingleton());
+		converterMap.put(OffsetDateTime.class, OffsetDateTimeConverter.getSingleton());
 		converterMap.put(Short.class, ShortConverter.getSingleton());
 		converterMap.put(short.class, ShortConverter.getSingleton());
 		converterMap.put(String.class, StringConverter.getSingleton());
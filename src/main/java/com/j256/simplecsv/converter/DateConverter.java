@@ -1,12 +1,14 @@
 package com.j256.simplecsv.converter;
 
-import java.text.ParseException;
+import java.text.DecimalFormatSymbols;
+import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
 import com.j256.simplecsv.common.CsvColumn;
 import com.j256.simplecsv.processor.ColumnInfo;
 import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
 
 /**
  * Converter for the Java java.util.Date type which uses the {@link SimpleDateFormat} -- don't worry I protect it for
@@ -17,24 +19,27 @@ import com.j256.simplecsv.processor.ParseError;
  * date.
  * </p>
  * 
+ * <p>
+ * Each column has its own formatter per thread so entities with multiple date columns of different formats don't
+ * rebuild the formatter for each cell. Recently parsed date strings are also remembered per column since the same
+ * dates tend to be repeated many times in a file.
+ * </p>
+ * 
  * @author graywatson
  */
-public class DateConverter implements Converter<Date, String> {
+public class DateConverter implements OutputAlphabetConverter<Date, DateConverter.ConfigInfo> {
 
 	/**
 	 * Default {@link SimpleDateFormat} format pattern used to read/write java.util.Date types.
 	 */
 	public static final String DEFAULT_DATE_PATTERN = "MM/dd/yyyy";
 
-	/*
-	 * We need to do this because SimpleDateFormat is not thread safe.
+	/**
+	 * Number of recently parsed date strings that are remembered per column per thread. Must be a power of 2.
 	 */
-	private final ThreadLocal<OurDateFormatter> threadLocal = new ThreadLocal<OurDateFormatter>() {
-		@Override
-		protected OurDateFormatter initialValue() {
-			return new OurDateFormatter();
-		}
-	};
+	private static final int PARSE_CACHE_SIZE = 256;
+	/** pattern letters that {@link SimpleDateFormat} always writes as numbers */
+	private static final String NUMERIC_PATTERN_LETTERS = "yYMdHhkKmsSDFwWu";
 
 	private static final DateConverter singleton = new DateConverter();
 
@@ -46,7 +51,7 @@ public class DateConverter implements Converter<Date, String> {
 	}
 
 	@Override
-	public String configure(String format, long flags, ColumnInfo<Date> fieldInfo) {
+	public ConfigInfo configure(String format, long flags, ColumnInfo<Date> fieldInfo) {
 		String datePattern;
 		if (format == null) {
 			datePattern = DEFAULT_DATE_PATTERN;
@@ -55,14 +60,23 @@ public class DateConverter implements Converter<Date, String> {
 		}
 		// we do this to validate that the pattern is correct so we throw immediately here
 		new SimpleDateFormat(datePattern);
-		return datePattern;
+		String outputAlphabet = null;
+		if (DecimalFormatSymbols.getInstance().getZeroDigit() == '0') {
+			outputAlphabet = numericPatternAlphabet(datePattern, NUMERIC_PATTERN_LETTERS);
+		}
+		return new ConfigInfo(datePattern, outputAlphabet);
 	}
 
 	@Override
-	public boolean isNeedsQuotes(String datePattern) {
+	public boolean isNeedsQuotes(ConfigInfo configInfo) {
 		return true;
 	}
 
+	@Override
+	public String getOutputAlphabet(ConfigInfo configInfo) {
+		return configInfo.outputAlphabet;
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return false;
@@ -73,51 +87,113 @@ public class DateConverter implements Converter<Date, String> {
 		if (value == null) {
 			return null;
 		} else {
-			String datePattern = (String) columnInfo.getConfigInfo();
-			return threadLocal.get().format(datePattern, value);
+			ConfigInfo configInfo = (ConfigInfo) columnInfo.getConfigInfo();
+			return configInfo.threadLocal.get().format(value);
 		}
 	}
 
 	@Override
 	public Date stringToJava(String line, int lineNumber, int linePos, ColumnInfo<Date> columnInfo, String value,
-			ParseError parseError) throws ParseException {
+			ParseError parseError) {
 		if (value.isEmpty()) {
 			return null;
 		}
-		String datePattern = (String) columnInfo.getConfigInfo();
-		try {
-			return threadLocal.get().parse(datePattern, value);
-		} catch (ParseException pe) {
-			ParseException wrappedPe =
-					new ParseException("Problem when using date-pattern: " + datePattern, pe.getErrorOffset());
-			wrappedPe.initCause(pe);
-			throw wrappedPe;
+		ConfigInfo configInfo = (ConfigInfo) columnInfo.getConfigInfo();
+		Date date = configInfo.threadLocal.get().parse(value);
+		if (date == null) {
+			parseError.setErrorType(ErrorType.INVALID_FORMAT);
+			parseError.setMessageFormat("Problem when using date-pattern: %s", configInfo.datePattern);
+			parseError.setLinePos(linePos);
 		}
+		return date;
 	}
 
 	/**
-	 * Formatter which saves a single SimpleDateFormat object in a thread-local.
+	 * Returns the characters that can be written by a date pattern whose fields are all numbers or null if the pattern
+	 * has any text fields such as month names or quoted text. Two letter months are numbers but longer ones are names.
 	 */
-	private static class OurDateFormatter {
+	static String numericPatternAlphabet(String pattern, String numericLetters) {
+		StringBuilder sb = new StringBuilder("+-0123456789");
+		for (int i = 0; i < pattern.length(); i++) {
+			char ch = pattern.charAt(i);
+			if (Character.isLetter(ch)) {
+				if (numericLetters.indexOf(ch) < 0) {
+					return null;
+				}
+				int count = 1;
+				while (i + 1 < pattern.length() && pattern.charAt(i + 1) == ch) {
+					count++;
+					i++;
+				}
+				if ((ch == 'M' || ch == 'L') && count > 2) {
+					return null;
+				}
+			} else if (ch == '\'' || ch == '[' || ch == ']' || ch == '{' || ch == '}' || ch == '#') {
+				// quoted text or optional sections
+				return null;
+			} else {
+				sb.append(ch);
+			}
+		}
+		return sb.toString();
+	}
 
-		private String format;
-		private SimpleDateFormat formatter;
+	/**
+	 * Configuration information for a date column which holds the per-thread formatter.
+	 */
+	static class ConfigInfo {
+		final String datePattern;
+		final String outputAlphabet;
+		/*
+		 * We need to do this because SimpleDateFormat is not thread safe.
+		 */
+		final ThreadLocal<OurDateFormatter> threadLocal = new ThreadLocal<OurDateFormatter>() {
+			@Override
+			protected OurDateFormatter initialValue() {
+				return new OurDateFormatter(datePattern);
+			}
+		};
 
-		public Date parse(String format, String dateString) throws ParseException {
-			return checkFormatter(format).parse(dateString);
+		private ConfigInfo(String datePattern, String outputAlphabet) {
+			this.datePattern = datePattern;
+			this.outputAlphabet = outputAlphabet;
 		}
+	}
+
+	/**
+	 * Formatter which saves a single SimpleDateFormat object for a column in a thread-local along with a small cache
+	 * of the recently parsed date strings.
+	 */
+	private static class OurDateFormatter {
+
+		private final SimpleDateFormat formatter;
+		private final String[] cachedStrings = new String[PARSE_CACHE_SIZE];
+		private final long[] cachedMillis = new long[PARSE_CACHE_SIZE];
 
-		public String format(String format, Date date) {
-			return checkFormatter(format).format(date);
+		public OurDateFormatter(String datePattern) {
+			this.formatter = new SimpleDateFormat(datePattern);
 		}
 
-		private SimpleDateFormat checkFormatter(String format) {
-			// if we have no format or the format doesn't matched the cached one
-			if (this.format == null || !this.format.equals(format)) {
-				this.formatter = new SimpleDateFormat(format);
-				this.format = format;
+		/**
+		 * Returns the parsed date or null if it could not be parsed. We use the parse-position version so we don't
+		 * have to throw and catch on invalid dates.
+		 */
+		public Date parse(String dateString) {
+			int index = (dateString.hashCode() & (PARSE_CACHE_SIZE - 1));
+			if (dateString.equals(cachedStrings[index])) {
+				// Date is mutable so we need to return a new one each time
+				return new Date(cachedMillis[index]);
 			}
-			return this.formatter;
+			Date date = formatter.parse(dateString, new ParsePosition(0));
+			if (date != null) {
+				cachedStrings[index] = dateString;
+				cachedMillis[index] = date.getTime();
+			}
+			return date;
+		}
+
+		public String format(Date date) {
+			return formatter.format(date);
 		}
 	}
 }
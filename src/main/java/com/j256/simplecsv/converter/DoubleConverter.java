@@ -3,6 +3,7 @@ package com.j256.simplecsv.converter;
 import java.text.DecimalFormat;
 
 import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ParseError;
 
 /**
  * Converter for the Java Double type.
@@ -25,6 +26,11 @@ public class DoubleConverter extends AbstractNumberConverter<Double> {
 		return singleton;
 	}
 
+	@Override
+	protected String getUnformattedAlphabet() {
+		return FLOATING_POINT_ALPHABET;
+	}
+
 	@Override
 	protected Double numberToValue(Number number) {
 		return number.doubleValue();
@@ -34,4 +40,17 @@ public class DoubleConverter extends AbstractNumberConverter<Double> {
 	protected Double parseString(String value) throws NumberFormatException {
 		return Double.parseDouble(value);
 	}
+
+	@Override
+	protected Double parseString(String value, ParseError parseError) {
+		if (ParseUtils.isFloatingPoint(value)) {
+			return Double.parseDouble(value);
+		} else if (ParseUtils.isHexFloatingPoint(value)) {
+			// rare so we let the JDK validate it
+			return super.parseString(value, parseError);
+		} else {
+			ParseUtils.setInvalidNumber(value, parseError);
+			return null;
+		}
+	}
 }
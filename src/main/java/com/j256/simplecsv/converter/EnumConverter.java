@@ -5,6 +5,7 @@ import java.util.Map;
 
 import com.j256.simplecsv.common.CsvColumn;
 import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.OutputBuffer;
 import com.j256.simplecsv.processor.ParseError;
 import com.j256.simplecsv.processor.ParseError.ErrorType;
 
@@ -13,12 +14,20 @@ import com.j256.simplecsv.processor.ParseError.ErrorType;
  * 
  * <p>
  * Use the {@link #FORMAT_IS_UNKNOWN_VALUE} flag to set the unknown enum field name set in the
- * {@link CsvColumn#format()} .
+ * {@link CsvColumn#format()} . Use {@link #CASE_INSENSITIVE} to match the names without regard to case and
+ * {@link #FORMAT_IS_ALIASES} to specify other names that can be read for the constants.
+ * </p>
+ * 
+ * <p>
+ * The names are looked up in a precomputed hash table directly from the characters in the line so no String is
+ * created for the column.
  * </p>
  * 
  * @author graywatson
  */
-public class EnumConverter implements Converter<Enum<?>, EnumConverter.ConfigInfo> {
+public class EnumConverter implements CharRangeConverter<Enum<?>, EnumConverter.ConfigInfo>,
+		OutputBufferConverter<Enum<?>, EnumConverter.ConfigInfo>,
+		OutputAlphabetConverter<Enum<?>, EnumConverter.ConfigInfo> {
 
 	/**
 	 * If this flag is set then the {@link CsvColumn#format()} string is actually the name of the enum constant that
@@ -26,6 +35,18 @@ public class EnumConverter implements Converter<Enum<?>, EnumConverter.ConfigInf
 	 * not an enum name that corresponds to "red" then the format value "blue" will be used instead.
 	 */
 	public static final long FORMAT_IS_UNKNOWN_VALUE = 1 << 1;
+	/**
+	 * If this flag is set then the enum names will be matched without regard to case so "red", "Red", and "RED" will
+	 * all be read as the RED constant. The names are still written as {@link Enum#name()}.
+	 */
+	public static final long CASE_INSENSITIVE = 1 << 2;
+	/**
+	 * If this flag is set then the {@link CsvColumn#format()} string is a comma separated list of alias=NAME pairs so
+	 * that other values can be read for the constants. For example "r=RED,rouge=RED,b=BLUE". The aliases are only used
+	 * when reading, the names are still written as {@link Enum#name()}. This cannot be used with
+	 * {@link #FORMAT_IS_UNKNOWN_VALUE}.
+	 */
+	public static final long FORMAT_IS_ALIASES = 1 << 3;
 
 	private static final EnumConverter singleton = new EnumConverter();
 
@@ -44,20 +65,33 @@ public class EnumConverter implements Converter<Enum<?>, EnumConverter.ConfigInf
 		if (constants == null) {
 			throw new IllegalArgumentException("Field " + columnInfo + " improperly configured as a enum");
 		}
+		// we only ever write the names so they are our alphabet
+		StringBuilder alphabet = new StringBuilder();
 		for (Enum<?> enumVal : constants) {
 			enumStringMap.put(enumVal.name(), enumVal);
+			alphabet.append(enumVal.name());
 		}
+		if ((flags & FORMAT_IS_ALIASES) != 0) {
+			if ((flags & FORMAT_IS_UNKNOWN_VALUE) != 0) {
+				throw new IllegalArgumentException(
+						"Field " + columnInfo + " cannot use both FORMAT_IS_ALIASES and FORMAT_IS_UNKNOWN_VALUE");
+			}
+			addAliases(format, enumStringMap, columnInfo);
+		}
+		EnumLookup lookup = EnumLookup.build(enumStringMap, (flags & CASE_INSENSITIVE) != 0);
 
 		Enum<?> unknownValue = null;
 		if ((flags & FORMAT_IS_UNKNOWN_VALUE) != 0) {
-			unknownValue = enumStringMap.get(format);
+			if (format != null) {
+				unknownValue = lookup.get(format);
+			}
 			if (unknownValue == null) {
 				throw new IllegalArgumentException(
 						"Format string '" + format + "' is not a valid enum value for " + columnInfo.getType());
 			}
 		}
 
-		return new ConfigInfo(enumStringMap, unknownValue);
+		return new ConfigInfo(lookup, unknownValue, alphabet.toString());
 	}
 
 	@Override
@@ -65,6 +99,11 @@ public class EnumConverter implements Converter<Enum<?>, EnumConverter.ConfigInf
 		return true;
 	}
 
+	@Override
+	public String getOutputAlphabet(ConfigInfo configInfo) {
+		return configInfo.outputAlphabet;
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return true;
@@ -79,33 +118,71 @@ public class EnumConverter implements Converter<Enum<?>, EnumConverter.ConfigInf
 		}
 	}
 
+	@Override
+	public void javaToBuffer(ColumnInfo<Enum<?>> columnInfo, Enum<?> value, OutputBuffer buffer) {
+		buffer.append(value.name());
+	}
+
 	@Override
 	public Enum<?> stringToJava(String line, int lineNumber, int linePos, ColumnInfo<Enum<?>> columnInfo, String value,
 			ParseError parseError) {
 		if (value.isEmpty()) {
 			return null;
 		}
+		return rangeToJava(line, lineNumber, linePos, columnInfo, value, 0, value.length(), parseError);
+	}
+
+	@Override
+	public Enum<?> rangeToJava(String line, int lineNumber, int linePos, ColumnInfo<Enum<?>> columnInfo,
+			CharSequence chars, int start, int end, ParseError parseError) {
 		ConfigInfo configInfo = (ConfigInfo) columnInfo.getConfigInfo();
-		Enum<?> enumValue = configInfo.enumStringMap.get(value);
+		Enum<?> enumValue = configInfo.lookup.get(chars, start, end);
 		if (enumValue != null) {
 			return enumValue;
 		} else if (configInfo.unknownValue != null) {
 			return configInfo.unknownValue;
 		} else {
 			parseError.setErrorType(ErrorType.INVALID_FORMAT);
-			parseError.setMessage(value);
+			parseError.setMessage(chars.subSequence(start, end).toString());
 			parseError.setLinePos(linePos);
 			return null;
 		}
 	}
 
+	private void addAliases(String format, Map<String, Enum<?>> enumStringMap, ColumnInfo<Enum<?>> columnInfo) {
+		if (format == null) {
+			throw new IllegalArgumentException("Field " + columnInfo + " has FORMAT_IS_ALIASES but no format");
+		}
+		for (String pair : format.split(",")) {
+			int equalsIndex = pair.indexOf('=');
+			if (equalsIndex <= 0) {
+				throw new IllegalArgumentException(
+						"Alias '" + pair + "' in format should be alias=NAME for field " + columnInfo);
+			}
+			String alias = pair.substring(0, equalsIndex).trim();
+			String name = pair.substring(equalsIndex + 1).trim();
+			Enum<?> enumVal = enumStringMap.get(name);
+			if (enumVal == null) {
+				throw new IllegalArgumentException(
+						"Alias name '" + name + "' is not a valid enum value for " + columnInfo.getType());
+			}
+			Enum<?> existing = enumStringMap.put(alias, enumVal);
+			if (existing != null && existing != enumVal) {
+				throw new IllegalArgumentException(
+						"Alias '" + alias + "' is already used for " + existing + " in field " + columnInfo);
+			}
+		}
+	}
+
 	static class ConfigInfo {
-		final Map<String, Enum<?>> enumStringMap;
+		final EnumLookup lookup;
 		final Enum<?> unknownValue;
+		final String outputAlphabet;
 
-		private ConfigInfo(Map<String, Enum<?>> enumStringMap, Enum<?> unknownValue) {
-			this.enumStringMap = enumStringMap;
+		private ConfigInfo(EnumLookup lookup, Enum<?> unknownValue, String outputAlphabet) {
+			this.lookup = lookup;
 			this.unknownValue = unknownValue;
+			this.outputAlphabet = outputAlphabet;
 		}
 	}
 }
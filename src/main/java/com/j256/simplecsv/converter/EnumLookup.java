@@ -0,0 +1,125 @@
+package com.j256.simplecsv.converter;
+
+import java.util.Map;
+
+/**
+ * Precomputed open-addressing hash table of enum names, and optionally aliases, which looks up an enum constant
+ * directly from a range of characters. The table has at least twice as many slots as names and collisions are handled
+ * with linear probing so a lookup is a hash of the characters and usually one or two slots, comparing the stored hash
+ * before the characters, with no allocations.
+ * 
+ * @author graywatson
+ */
+class EnumLookup {
+
+	private static final int SEED = 0x811C9DC5;
+
+	private final String[] keys;
+	private final int[] hashes;
+	private final Enum<?>[] values;
+	private final int mask;
+	private final boolean caseInsensitive;
+
+	private EnumLookup(String[] keys, int[] hashes, Enum<?>[] values, boolean caseInsensitive) {
+		this.keys = keys;
+		this.hashes = hashes;
+		this.values = values;
+		this.mask = keys.length - 1;
+		this.caseInsensitive = caseInsensitive;
+	}
+
+	/**
+	 * Build a lookup from the map of names to enum constants.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If two names for different constants are the same when compared without case when
+	 *             case-insensitive.
+	 */
+	public static EnumLookup build(Map<String, Enum<?>> nameMap, boolean caseInsensitive) {
+		// at most half full so the probe sequences stay short
+		int size = 2;
+		while (size < nameMap.size() * 2) {
+			size <<= 1;
+		}
+		String[] keys = new String[size];
+		int[] hashes = new int[size];
+		Enum<?>[] values = new Enum<?>[size];
+		int mask = size - 1;
+		for (Map.Entry<String, Enum<?>> entry : nameMap.entrySet()) {
+			String name = entry.getKey();
+			int hash = hash(name, 0, name.length(), caseInsensitive);
+			int index = (hash & mask);
+			boolean add = true;
+			for (; keys[index] != null; index = ((index + 1) & mask)) {
+				String existing = keys[index];
+				if (caseInsensitive && hashes[index] == hash && existing.equalsIgnoreCase(name)) {
+					if (values[index] != entry.getValue()) {
+						throw new IllegalArgumentException(
+								"Enum names '" + existing + "' and '" + name + "' are the same when case-insensitive");
+					}
+					// an alias that only differs by case from the name
+					add = false;
+					break;
+				}
+			}
+			if (add) {
+				keys[index] = name;
+				hashes[index] = hash;
+				values[index] = entry.getValue();
+			}
+		}
+		return new EnumLookup(keys, hashes, values, caseInsensitive);
+	}
+
+	/**
+	 * Returns the enum constant whose name matches the characters from start (inclusive) to end (exclusive) or null if
+	 * none.
+	 */
+	public Enum<?> get(CharSequence chars, int start, int end) {
+		int hash = hash(chars, start, end, caseInsensitive);
+		for (int index = (hash & mask); keys[index] != null; index = ((index + 1) & mask)) {
+			String key = keys[index];
+			if (hashes[index] == hash && key.length() == end - start && regionMatches(key, chars, start)) {
+				return values[index];
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the enum constant whose name matches the string or null if none.
+	 */
+	public Enum<?> get(String str) {
+		return get(str, 0, str.length());
+	}
+
+	private static int hash(CharSequence chars, int start, int end, boolean caseInsensitive) {
+		int hash = SEED;
+		for (int i = start; i < end; i++) {
+			char ch = chars.charAt(i);
+			if (caseInsensitive) {
+				ch = foldCase(ch);
+			}
+			hash = (hash ^ ch) * 0x01000193;
+		}
+		return (hash ^ (hash >>> 16));
+	}
+
+	private boolean regionMatches(String key, CharSequence chars, int start) {
+		for (int i = 0; i < key.length(); i++) {
+			char ch1 = key.charAt(i);
+			char ch2 = chars.charAt(start + i);
+			if (ch1 != ch2 && (!caseInsensitive || foldCase(ch1) != foldCase(ch2))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Same case folding as {@link String#equalsIgnoreCase(String)}.
+	 */
+	private static char foldCase(char ch) {
+		return Character.toLowerCase(Character.toUpperCase(ch));
+	}
+}
@@ -3,6 +3,7 @@ package com.j256.simplecsv.converter;
 import java.text.DecimalFormat;
 
 import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ParseError;
 
 /**
  * Converter for the Java Float type.
@@ -25,6 +26,11 @@ public class FloatConverter extends AbstractNumberConverter<Float> {
 		return singleton;
 	}
 
+	@Override
+	protected String getUnformattedAlphabet() {
+		return FLOATING_POINT_ALPHABET;
+	}
+
 	@Override
 	protected Float numberToValue(Number number) {
 		return number.floatValue();
@@ -34,4 +40,17 @@ public class FloatConverter extends AbstractNumberConverter<Float> {
 	protected Float parseString(String value) throws NumberFormatException {
 		return Float.parseFloat(value);
 	}
+
+	@Override
+	protected Float parseString(String value, ParseError parseError) {
+		if (ParseUtils.isFloatingPoint(value)) {
+			return Float.parseFloat(value);
+		} else if (ParseUtils.isHexFloatingPoint(value)) {
+			// rare so we let the JDK validate it
+			return super.parseString(value, parseError);
+		} else {
+			ParseUtils.setInvalidNumber(value, parseError);
+			return null;
+		}
+	}
 }
@@ -0,0 +1,53 @@
+package com.j256.simplecsv.converter;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Converter for the Java Instant type. By default it uses the {@link DateTimeFormatter#ISO_INSTANT} format such as
+ * "2017-09-20T10:15:30Z".
+ * 
+ * <p>
+ * NOTE: If a format pattern is specified and it has no time-zone then the value is written and read as UTC.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class InstantConverter extends AbstractTemporalConverter<Instant> {
+
+	private static final InstantConverter singleton = new InstantConverter();
+
+	/**
+	 * Get singleton for class.
+	 */
+	public static InstantConverter getSingleton() {
+		return singleton;
+	}
+
+	@Override
+	protected DateTimeFormatter getDefaultFormatter() {
+		return DateTimeFormatter.ISO_INSTANT;
+	}
+
+	@Override
+	protected Instant fromTemporal(TemporalAccessor temporal) {
+		return Instant.from(temporal);
+	}
+
+	@Override
+	protected Instant parseIso(String value) {
+		return IsoDateTimeParser.parseInstant(value);
+	}
+
+	@Override
+	protected DateTimeFormatter configureFormatter(DateTimeFormatter formatter) {
+		// an instant can't be formatted without a zone
+		if (formatter.getZone() == null) {
+			return formatter.withZone(ZoneOffset.UTC);
+		} else {
+			return formatter;
+		}
+	}
+}
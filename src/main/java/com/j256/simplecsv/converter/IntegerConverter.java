@@ -3,6 +3,7 @@ package com.j256.simplecsv.converter;
 import java.text.DecimalFormat;
 
 import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ParseError;
 
 /**
  * Converter for the Java Integer type.
@@ -34,4 +35,14 @@ public class IntegerConverter extends AbstractNumberConverter<Integer> {
 	protected Integer parseString(String value) throws NumberFormatException {
 		return Integer.parseInt(value);
 	}
+
+	@Override
+	protected Integer parseString(String value, ParseError parseError) {
+		long result = ParseUtils.parseLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE, parseError);
+		if (parseError.isError()) {
+			return null;
+		} else {
+			return (int) result;
+		}
+	}
 }
@@ -0,0 +1,265 @@
+package com.j256.simplecsv.converter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Hand-written parser for the common ISO-8601 layouts such as "2017-09-20", "10:15:30.123" and
+ * "2017-09-20T10:15:30Z". It reads the digits directly from the string and only allocates the result. Each of the
+ * methods returns null if the string is not in one of the layouts or if any of the fields are out of range in which
+ * case the caller should fall back to the ISO {@link java.time.format.DateTimeFormatter} which handles all of the other
+ * cases and generates the error messages.
+ *
+ * @author graywatson
+ */
+class IsoDateTimeParser {
+
+	private static final int DATE_LENGTH = 10;
+	private static final long NANOS_PER_SECOND = 1000000000L;
+	private static final long SECONDS_PER_DAY = 86400;
+	private static final long DAYS_0000_TO_1970 = 719528;
+	private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+	private IsoDateTimeParser() {
+		// only static methods
+	}
+
+	/**
+	 * Parse a yyyy-MM-dd date.
+	 */
+	public static LocalDate parseLocalDate(String value) {
+		if (value.length() != DATE_LENGTH) {
+			return null;
+		}
+		int date = parseDate(value);
+		if (date < 0) {
+			return null;
+		}
+		return LocalDate.of(dateYear(date), dateMonth(date), dateDay(date));
+	}
+
+	/**
+	 * Parse a HH:mm[:ss[.SSSSSSSSS]] time.
+	 */
+	public static LocalTime parseLocalTime(String value) {
+		long nanoOfDay = parseTime(value, 0, value.length(), false);
+		if (nanoOfDay < 0) {
+			return null;
+		}
+		return LocalTime.ofNanoOfDay(nanoOfDay);
+	}
+
+	/**
+	 * Parse a yyyy-MM-ddTHH:mm[:ss[.SSSSSSSSS]] date-time.
+	 */
+	public static LocalDateTime parseLocalDateTime(String value) {
+		int date = parseDate(value);
+		if (date < 0 || !isChar(value, DATE_LENGTH, 'T')) {
+			return null;
+		}
+		long nanoOfDay = parseTime(value, DATE_LENGTH + 1, value.length(), false);
+		if (nanoOfDay < 0) {
+			return null;
+		}
+		return LocalDateTime.of(LocalDate.of(dateYear(date), dateMonth(date), dateDay(date)),
+				LocalTime.ofNanoOfDay(nanoOfDay));
+	}
+
+	/**
+	 * Parse a yyyy-MM-ddTHH:mm:ss[.SSSSSSSSS]Z instant.
+	 */
+	public static Instant parseInstant(String value) {
+		int len = value.length();
+		int date = parseDate(value);
+		if (date < 0 || !isChar(value, DATE_LENGTH, 'T') || !isChar(value, len - 1, 'Z')) {
+			return null;
+		}
+		long nanoOfDay = parseTime(value, DATE_LENGTH + 1, len - 1, true);
+		if (nanoOfDay < 0) {
+			return null;
+		}
+		long epochSecond = epochDay(dateYear(date), dateMonth(date), dateDay(date)) * SECONDS_PER_DAY
+				+ nanoOfDay / NANOS_PER_SECOND;
+		return Instant.ofEpochSecond(epochSecond, nanoOfDay % NANOS_PER_SECOND);
+	}
+
+	/**
+	 * Parse a yyyy-MM-ddTHH:mm[:ss[.SSSSSSSSS]] date-time followed by a Z or +HH:mm offset.
+	 */
+	public static OffsetDateTime parseOffsetDateTime(String value) {
+		int len = value.length();
+		int date = parseDate(value);
+		if (date < 0 || !isChar(value, DATE_LENGTH, 'T')) {
+			return null;
+		}
+		int timeEnd;
+		int offsetSeconds;
+		if (isChar(value, len - 1, 'Z')) {
+			timeEnd = len - 1;
+			offsetSeconds = 0;
+		} else {
+			timeEnd = len - 6;
+			if (timeEnd <= DATE_LENGTH || !isChar(value, len - 3, ':')) {
+				return null;
+			}
+			char sign = value.charAt(timeEnd);
+			int hours = parseDigits(value, len - 5, 2);
+			int minutes = parseDigits(value, len - 2, 2);
+			if ((sign != '+' && sign != '-') || hours < 0 || minutes < 0 || minutes > 59) {
+				return null;
+			}
+			offsetSeconds = hours * 3600 + minutes * 60;
+			if (offsetSeconds > MAX_OFFSET_SECONDS) {
+				return null;
+			}
+			if (sign == '-') {
+				offsetSeconds = -offsetSeconds;
+			}
+		}
+		long nanoOfDay = parseTime(value, DATE_LENGTH + 1, timeEnd, false);
+		if (nanoOfDay < 0) {
+			return null;
+		}
+		return OffsetDateTime.of(
+				LocalDateTime.of(LocalDate.of(dateYear(date), dateMonth(date), dateDay(date)),
+						LocalTime.ofNanoOfDay(nanoOfDay)),
+				ZoneOffset.ofTotalSeconds(offsetSeconds));
+	}
+
+	/**
+	 * Parse the yyyy-MM-dd date at the start of the value.
+	 *
+	 * @return The date packed as year * 10000 + month * 100 + day or -1 if not valid.
+	 */
+	private static int parseDate(String value) {
+		if (value.length() < DATE_LENGTH || value.charAt(4) != '-' || value.charAt(7) != '-') {
+			return -1;
+		}
+		int year = parseDigits(value, 0, 4);
+		int month = parseDigits(value, 5, 2);
+		int day = parseDigits(value, 8, 2);
+		if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+			return -1;
+		}
+		return year * 10000 + month * 100 + day;
+	}
+
+	private static int dateYear(int date) {
+		return date / 10000;
+	}
+
+	private static int dateMonth(int date) {
+		return (date / 100) % 100;
+	}
+
+	private static int dateDay(int date) {
+		return date % 100;
+	}
+
+	/**
+	 * Parse a HH:mm[:ss[.SSSSSSSSS]] time that must fill the range exactly.
+	 *
+	 * @return The nano-of-day or -1 if not valid.
+	 */
+	private static long parseTime(String value, int start, int end, boolean secondsRequired) {
+		int len = end - start;
+		if (len < 5 || value.charAt(start + 2) != ':') {
+			return -1;
+		}
+		int hour = parseDigits(value, start, 2);
+		int minute = parseDigits(value, start + 3, 2);
+		if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+			return -1;
+		}
+		int second = 0;
+		long nanos = 0;
+		if (len == 5) {
+			if (secondsRequired) {
+				return -1;
+			}
+		} else {
+			if (len < 8 || value.charAt(start + 5) != ':') {
+				return -1;
+			}
+			second = parseDigits(value, start + 6, 2);
+			if (second < 0 || second > 59) {
+				return -1;
+			}
+			if (len > 8) {
+				int numDigits = len - 9;
+				if (value.charAt(start + 8) != '.' || numDigits < 1 || numDigits > 9) {
+					return -1;
+				}
+				int fraction = parseDigits(value, start + 9, numDigits);
+				if (fraction < 0) {
+					return -1;
+				}
+				nanos = fraction;
+				for (int i = numDigits; i < 9; i++) {
+					nanos *= 10;
+				}
+			}
+		}
+		return ((hour * 60L + minute) * 60L + second) * NANOS_PER_SECOND + nanos;
+	}
+
+	/**
+	 * Parse a number of ASCII digits.
+	 *
+	 * @return The value or -1 if any of the characters are not digits.
+	 */
+	private static int parseDigits(String value, int start, int count) {
+		int result = 0;
+		for (int i = start; i < start + count; i++) {
+			char ch = value.charAt(i);
+			if (ch < '0' || ch > '9') {
+				return -1;
+			}
+			result = result * 10 + (ch - '0');
+		}
+		return result;
+	}
+
+	private static boolean isChar(String value, int pos, char ch) {
+		return (pos >= 0 && pos < value.length() && value.charAt(pos) == ch);
+	}
+
+	private static boolean isLeapYear(int year) {
+		return ((year & 3) == 0 && (year % 100 != 0 || year % 400 == 0));
+	}
+
+	private static int lengthOfMonth(int year, int month) {
+		switch (month) {
+			case 2:
+				return (isLeapYear(year) ? 29 : 28);
+			case 4:
+			case 6:
+			case 9:
+			case 11:
+				return 30;
+			default:
+				return 31;
+		}
+	}
+
+	/**
+	 * Same as {@link LocalDate#toEpochDay()} for non-negative years without creating the date.
+	 */
+	private static long epochDay(int year, int month, int day) {
+		long total = 365L * year;
+		total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+		total += (367 * month - 362) / 12;
+		total += day - 1;
+		if (month > 2) {
+			total--;
+			if (!isLeapYear(year)) {
+				total--;
+			}
+		}
+		return total - DAYS_0000_TO_1970;
+	}
+}
@@ -0,0 +1,38 @@
+package com.j256.simplecsv.converter;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Converter for the Java LocalDate type. By default it uses the {@link DateTimeFormatter#ISO_LOCAL_DATE} format such as
+ * "2017-09-20".
+ * 
+ * @author graywatson
+ */
+public class LocalDateConverter extends AbstractTemporalConverter<LocalDate> {
+
+	private static final LocalDateConverter singleton = new LocalDateConverter();
+
+	/**
+	 * Get singleton for class.
+	 */
+	public static LocalDateConverter getSingleton() {
+		return singleton;
+	}
+
+	@Override
+	protected DateTimeFormatter getDefaultFormatter() {
+		return DateTimeFormatter.ISO_LOCAL_DATE;
+	}
+
+	@Override
+	protected LocalDate fromTemporal(TemporalAccessor temporal) {
+		return LocalDate.from(temporal);
+	}
+
+	@Override
+	protected LocalDate parseIso(String value) {
+		return IsoDateTimeParser.parseLocalDate(value);
+	}
+}
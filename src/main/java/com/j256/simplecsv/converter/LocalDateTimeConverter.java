@@ -0,0 +1,38 @@
+package com.j256.simplecsv.converter;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Converter for the Java LocalDateTime type. By default it uses the {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}
+ * format such as "2017-09-20T10:15:30".
+ * 
+ * @author graywatson
+ */
+public class LocalDateTimeConverter extends AbstractTemporalConverter<LocalDateTime> {
+
+	private static final LocalDateTimeConverter singleton = new LocalDateTimeConverter();
+
+	/**
+	 * Get singleton for class.
+	 */
+	public static LocalDateTimeConverter getSingleton() {
+		return singleton;
+	}
+
+	@Override
+	protected DateTimeFormatter getDefaultFormatter() {
+		return DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+	}
+
+	@Override
+	protected LocalDateTime fromTemporal(TemporalAccessor temporal) {
+		return LocalDateTime.from(temporal);
+	}
+
+	@Override
+	protected LocalDateTime parseIso(String value) {
+		return IsoDateTimeParser.parseLocalDateTime(value);
+	}
+}
@@ -0,0 +1,38 @@
+package com.j256.simplecsv.converter;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Converter for the Java LocalTime type. By default it uses the {@link DateTimeFormatter#ISO_LOCAL_TIME} format such as
+ * "10:15:30".
+ * 
+ * @author graywatson
+ */
+public class LocalTimeConverter extends AbstractTemporalConverter<LocalTime> {
+
+	private static final LocalTimeConverter singleton = new LocalTimeConverter();
+
+	/**
+	 * Get singleton for class.
+	 */
+	public static LocalTimeConverter getSingleton() {
+		return singleton;
+	}
+
+	@Override
+	protected DateTimeFormatter getDefaultFormatter() {
+		return DateTimeFormatter.ISO_LOCAL_TIME;
+	}
+
+	@Override
+	protected LocalTime fromTemporal(TemporalAccessor temporal) {
+		return LocalTime.from(temporal);
+	}
+
+	@Override
+	protected LocalTime parseIso(String value) {
+		return IsoDateTimeParser.parseLocalTime(value);
+	}
+}
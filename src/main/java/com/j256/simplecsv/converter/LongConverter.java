@@ -3,6 +3,7 @@ package com.j256.simplecsv.converter;
 import java.text.DecimalFormat;
 
 import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ParseError;
 
 /**
  * Converter for the Java Long type.
@@ -34,4 +35,14 @@ public class LongConverter extends AbstractNumberConverter<Long> {
 	protected Long parseString(String value) throws NumberFormatException {
 		return Long.parseLong(value);
 	}
+
+	@Override
+	protected Long parseString(String value, ParseError parseError) {
+		long result = ParseUtils.parseLong(value, Long.MIN_VALUE, Long.MAX_VALUE, parseError);
+		if (parseError.isError()) {
+			return null;
+		} else {
+			return result;
+		}
+	}
 }
@@ -0,0 +1,38 @@
+package com.j256.simplecsv.converter;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Converter for the Java OffsetDateTime type. By default it uses the {@link DateTimeFormatter#ISO_OFFSET_DATE_TIME}
+ * format such as "2017-09-20T10:15:30+01:00".
+ * 
+ * @author graywatson
+ */
+public class OffsetDateTimeConverter extends AbstractTemporalConverter<OffsetDateTime> {
+
+	private static final OffsetDateTimeConverter singleton = new OffsetDateTimeConverter();
+
+	/**
+	 * Get singleton for class.
+	 */
+	public static OffsetDateTimeConverter getSingleton() {
+		return singleton;
+	}
+
+	@Override
+	protected DateTimeFormatter getDefaultFormatter() {
+		return DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+	}
+
+	@Override
+	protected OffsetDateTime fromTemporal(TemporalAccessor temporal) {
+		return OffsetDateTime.from(temporal);
+	}
+
+	@Override
+	protected OffsetDateTime parseIso(String value) {
+		return IsoDateTimeParser.parseOffsetDateTime(value);
+	}
+}
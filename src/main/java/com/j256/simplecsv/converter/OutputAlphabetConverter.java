@@ -0,0 +1,23 @@
+package com.j256.simplecsv.converter;
+
+/**
+ * Optional interface for a converter that knows all of the characters that it can write. If the column separator, the
+ * quote, and the special characters that need to be quoted are not in the alphabet then the processor does not need
+ * to scan the values of the column when they are written.
+ * 
+ * @param <T>
+ *            The Java type that we are converting from/to.
+ * @param <C>
+ *            The configuration information object.
+ * 
+ * @author graywatson
+ */
+public interface OutputAlphabetConverter<T, C> extends Converter<T, C> {
+
+	/**
+	 * Returns a string which contains all of the characters that may be written by
+	 * {@link #javaToString(com.j256.simplecsv.processor.ColumnInfo, Object)} for the column or null if it could be
+	 * anything. The order and any duplicates do not matter.
+	 */
+	public String getOutputAlphabet(C configInfo);
+}
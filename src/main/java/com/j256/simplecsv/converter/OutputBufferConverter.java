@@ -0,0 +1,33 @@
+package com.j256.simplecsv.converter;
+
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.OutputBuffer;
+
+/**
+ * Optional interface for a converter that can write a value directly into the output buffer. The processor will call
+ * {@link #javaToBuffer(ColumnInfo, Object, OutputBuffer)} instead of {@link #javaToString(ColumnInfo, Object)} so no
+ * String needs to be created for the column.
+ * 
+ * @param <T>
+ *            The Java type that we are converting from/to.
+ * @param <C>
+ *            The configuration information object.
+ * 
+ * @author graywatson
+ */
+public interface OutputBufferConverter<T, C> extends Converter<T, C> {
+
+	/**
+	 * Append the Java value to the buffer. This must write the same characters that
+	 * {@link #javaToString(ColumnInfo, Object)} would have returned. The processor takes care of any quoting so only
+	 * the value should be appended. Null values are always passed to {@link #javaToString(ColumnInfo, Object)}.
+	 * 
+	 * @param columnInfo
+	 *            Information about the column we are processing.
+	 * @param fieldValue
+	 *            Value of the field that we are converting which will not be null.
+	 * @param buffer
+	 *            Buffer to append the value to.
+	 */
+	public void javaToBuffer(ColumnInfo<T> columnInfo, T fieldValue, OutputBuffer buffer);
+}
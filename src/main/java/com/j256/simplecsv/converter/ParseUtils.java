@@ -0,0 +1,296 @@
+package com.j256.simplecsv.converter;
+
+import java.math.BigDecimal;
+
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+/**
+ * Parsing utility methods used by the converters to validate and parse values without throwing exceptions. Throwing
+ * and catching exceptions is very expensive so when there are a large number of invalid values we set the parse-error
+ * instead.
+ *
+ * @author graywatson
+ */
+class ParseUtils {
+
+	/**
+	 * Maximum number of digits that will always fit in a long.
+	 */
+	private static final int MAX_LONG_DIGITS = 18;
+
+	private ParseUtils() {
+		// only static methods
+	}
+
+	/**
+	 * Parse a decimal integer which is in the range [min, max]. This follows the same rules as
+	 * {@link Long#parseLong(String)}. If the value is not valid then the parse-error is set and 0 is returned.
+	 */
+	public static long parseLong(String value, long min, long max, ParseError parseError) {
+		int len = value.length();
+		int pos = 0;
+		boolean negative = false;
+		if (len > 0) {
+			char first = value.charAt(0);
+			if (first == '-') {
+				negative = true;
+				pos++;
+			} else if (first == '+') {
+				pos++;
+			}
+		}
+		if (pos == len) {
+			setInvalidNumber(value, parseError);
+			return 0;
+		}
+		// we accumulate negatively so we can handle the min-value
+		long limit = (negative ? min : -max);
+		long multiplyMin = limit / 10;
+		long result = 0;
+		for (; pos < len; pos++) {
+			int digit = decimalDigit(value.charAt(pos));
+			if (digit < 0) {
+				setInvalidNumber(value, parseError);
+				return 0;
+			}
+			if (result < multiplyMin) {
+				setOutOfRange(value, parseError);
+				return 0;
+			}
+			result *= 10;
+			if (result < limit + digit) {
+				setOutOfRange(value, parseError);
+				return 0;
+			}
+			result -= digit;
+		}
+		if (negative) {
+			return result;
+		} else {
+			return -result;
+		}
+	}
+
+	/**
+	 * Returns true if the value is a valid decimal or special floating point value according to
+	 * {@link Double#parseDouble(String)}. Hexadecimal floating point values are not handled here, see
+	 * {@link #isHexFloatingPoint(String)}.
+	 */
+	public static boolean isFloatingPoint(String value) {
+		int end = value.length();
+		int pos = 0;
+		// parseDouble trims the value
+		while (pos < end && value.charAt(pos) <= ' ') {
+			pos++;
+		}
+		while (end > pos && value.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (pos < end && (value.charAt(pos) == '-' || value.charAt(pos) == '+')) {
+			pos++;
+		}
+		if (value.startsWith("NaN", pos)) {
+			return (pos + 3 == end);
+		}
+		if (value.startsWith("Infinity", pos)) {
+			return (pos + 8 == end);
+		}
+		pos = skipDecimal(value, pos, end, false);
+		if (pos < 0) {
+			return false;
+		}
+		// optional type suffix
+		if (pos < end) {
+			char ch = value.charAt(pos);
+			if (ch == 'f' || ch == 'F' || ch == 'd' || ch == 'D') {
+				pos++;
+			}
+		}
+		return (pos == end);
+	}
+
+	/**
+	 * Returns true if the value looks like a hexadecimal floating point value such as "0x1.8p3" which needs to be
+	 * checked by {@link Double#parseDouble(String)} itself.
+	 */
+	public static boolean isHexFloatingPoint(String value) {
+		int pos = 0;
+		int len = value.length();
+		while (pos < len && value.charAt(pos) <= ' ') {
+			pos++;
+		}
+		if (pos < len && (value.charAt(pos) == '-' || value.charAt(pos) == '+')) {
+			pos++;
+		}
+		return (pos + 1 < len && value.charAt(pos) == '0'
+				&& (value.charAt(pos + 1) == 'x' || value.charAt(pos + 1) == 'X'));
+	}
+
+	/**
+	 * Parse a plain decimal number such as "-123.45" with no exponent and at most 18 significant digits into a
+	 * BigDecimal built from an unscaled long and scale. This gives the same result as
+	 * {@link BigDecimal#BigDecimal(String)} but without the intermediate String and char[] allocations.
+	 * 
+	 * @return The BigDecimal or null if the characters are not a plain decimal that fits in a long in which case the
+	 *         caller should fall back to {@link BigDecimal#BigDecimal(String)}.
+	 */
+	public static BigDecimal parseDecimal(CharSequence chars, int start, int end) {
+		int pos = start;
+		boolean negative = false;
+		if (pos < end) {
+			char first = chars.charAt(pos);
+			if (first == '-') {
+				negative = true;
+				pos++;
+			} else if (first == '+') {
+				pos++;
+			}
+		}
+		long unscaled = 0;
+		boolean sawDigit = false;
+		int numSignificant = 0;
+		int pointPos = -1;
+		for (; pos < end; pos++) {
+			char ch = chars.charAt(pos);
+			if (ch >= '0' && ch <= '9') {
+				sawDigit = true;
+				// leading zeros don't count towards the digits that fit in the long
+				if ((unscaled != 0 || ch != '0') && ++numSignificant > MAX_LONG_DIGITS) {
+					return null;
+				}
+				unscaled = unscaled * 10 + (ch - '0');
+			} else if (ch == '.' && pointPos < 0) {
+				pointPos = pos;
+			} else {
+				return null;
+			}
+		}
+		if (!sawDigit) {
+			return null;
+		}
+		int scale = 0;
+		if (pointPos >= 0) {
+			scale = end - pointPos - 1;
+		}
+		if (negative) {
+			unscaled = -unscaled;
+		}
+		return BigDecimal.valueOf(unscaled, scale);
+	}
+
+	/**
+	 * Returns true if the value is valid according to {@link BigDecimal#BigDecimal(String)}.
+	 */
+	public static boolean isBigDecimal(String value) {
+		int len = value.length();
+		int pos = 0;
+		if (pos < len && (value.charAt(pos) == '-' || value.charAt(pos) == '+')) {
+			pos++;
+		}
+		pos = skipDecimal(value, pos, len, true);
+		return (pos == len);
+	}
+
+	/**
+	 * Returns true if the value is valid according to {@link java.math.BigInteger#BigInteger(String)}.
+	 */
+	public static boolean isBigInteger(String value) {
+		int len = value.length();
+		int pos = 0;
+		if (pos < len && (value.charAt(pos) == '-' || value.charAt(pos) == '+')) {
+			pos++;
+		}
+		if (pos == len) {
+			return false;
+		}
+		for (; pos < len; pos++) {
+			if (decimalDigit(value.charAt(pos)) < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Set the parse error for an invalid number.
+	 */
+	public static void setInvalidNumber(String value, ParseError parseError) {
+		parseError.setErrorType(ErrorType.INVALID_FORMAT);
+		parseError.setMessageFormat("For input string: \"%s\"", value);
+	}
+
+	/**
+	 * Set the parse error for a value that could not be parsed by a {@link java.text.DecimalFormat}. This is the same
+	 * message as the exception thrown by {@link java.text.NumberFormat#parse(String)}.
+	 */
+	public static void setUnparseableNumber(String value, int linePos, ParseError parseError) {
+		parseError.setErrorType(ErrorType.INVALID_FORMAT);
+		parseError.setMessageFormat("Unparseable number: \"%s\"", value);
+		parseError.setLinePos(linePos);
+	}
+
+	/**
+	 * Returns the value of the decimal digit or -1 if not a digit.
+	 */
+	private static int decimalDigit(char ch) {
+		if (ch >= '0' && ch <= '9') {
+			return ch - '0';
+		} else if (ch < 0x80) {
+			return -1;
+		} else {
+			// non-ascii digits are allowed by the JDK methods
+			return Character.digit(ch, 10);
+		}
+	}
+
+	/**
+	 * Skip over the digits, optional decimal point, and optional exponent of a decimal number.
+	 *
+	 * @return The position after the number or -1 if it is not valid.
+	 */
+	private static int skipDecimal(String value, int pos, int end, boolean allowNonAscii) {
+		int numDigits = 0;
+		while (pos < end && isDigit(value.charAt(pos), allowNonAscii)) {
+			pos++;
+			numDigits++;
+		}
+		if (pos < end && value.charAt(pos) == '.') {
+			pos++;
+			while (pos < end && isDigit(value.charAt(pos), allowNonAscii)) {
+				pos++;
+				numDigits++;
+			}
+		}
+		if (numDigits == 0) {
+			return -1;
+		}
+		if (pos < end && (value.charAt(pos) == 'e' || value.charAt(pos) == 'E')) {
+			pos++;
+			if (pos < end && (value.charAt(pos) == '-' || value.charAt(pos) == '+')) {
+				pos++;
+			}
+			int expStart = pos;
+			while (pos < end && isDigit(value.charAt(pos), allowNonAscii)) {
+				pos++;
+			}
+			if (pos == expStart) {
+				return -1;
+			}
+		}
+		return pos;
+	}
+
+	private static boolean isDigit(char ch, boolean allowNonAscii) {
+		if (allowNonAscii) {
+			return (decimalDigit(ch) >= 0);
+		} else {
+			return (ch >= '0' && ch <= '9');
+		}
+	}
+
+	private static void setOutOfRange(String value, ParseError parseError) {
+		parseError.setErrorType(ErrorType.INVALID_FORMAT);
+		parseError.setMessageFormat("Value out of range: \"%s\"", value);
+	}
+}
@@ -3,6 +3,7 @@ package com.j256.simplecsv.converter;
 import java.text.DecimalFormat;
 
 import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ParseError;
 
 /**
  * Converter for the Java Short type.
@@ -34,4 +35,14 @@ public class ShortConverter extends AbstractNumberConverter<Short> {
 	protected Short parseString(String value) throws NumberFormatException {
 		return Short.parseShort(value);
 	}
+
+	@Override
+	protected Short parseString(String value, ParseError parseError) {
+		long result = ParseUtils.parseLong(value, Short.MIN_VALUE, Short.MAX_VALUE, parseError);
+		if (parseError.isError()) {
+			return null;
+		} else {
+			return (short) result;
+		}
+	}
 }
@@ -2,6 +2,7 @@ package com.j256.simplecsv.converter;
 
 import com.j256.simplecsv.common.CsvColumn;
 import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.OutputBuffer;
 import com.j256.simplecsv.processor.ParseError;
 
 /**
@@ -9,12 +10,14 @@ import com.j256.simplecsv.processor.ParseError;
  * 
  * <p>
  * The {@link CsvColumn#converterFlags()} parameter can be set to {@link #TRIM_OUTPUT} for trimming before a column is
- * printed and/or {@link #BLANK_IS_NULL} to have a blank-string interpreted as a null value.
+ * printed and/or {@link #BLANK_IS_NULL} to have a blank-string interpreted as a null value. It can also be set to
+ * {@link #DEDUP_VALUES} for low-cardinality columns so that repeated values share the same String instance.
  * </p>
  * 
  * @author graywatson
  */
-public class StringConverter implements Converter<String, StringConverter.ConfigInfo> {
+public class StringConverter implements CharRangeConverter<String, StringConverter.ConfigInfo>,
+		OutputBufferConverter<String, StringConverter.ConfigInfo> {
 
 	/**
 	 * If enabled, trim() to be called on the string before it is printed.
@@ -25,6 +28,12 @@ public class StringConverter implements Converter<String, StringConverter.Config
 	 * blank string in the Java object.
 	 */
 	public static final long BLANK_IS_NULL = 1 << 2;
+	/**
+	 * If enabled, the values read for the column will be deduplicated using a {@link StringDeduplicator} so repeated
+	 * values share the same String instance. This is useful for columns with a small number of distinct values such as
+	 * country codes.
+	 */
+	public static final long DEDUP_VALUES = 1 << 3;
 
 	private static final StringConverter singleton = new StringConverter();
 
@@ -39,7 +48,11 @@ public class StringConverter implements Converter<String, StringConverter.Config
 	public ConfigInfo configure(String format, long flags, ColumnInfo<String> fieldInfo) {
 		boolean trimOutput = ((flags & TRIM_OUTPUT) != 0);
 		boolean blankIsNull = ((flags & BLANK_IS_NULL) != 0);
-		return new ConfigInfo(trimOutput, blankIsNull);
+		StringDeduplicator deduplicator = null;
+		if ((flags & DEDUP_VALUES) != 0) {
+			deduplicator = new StringDeduplicator();
+		}
+		return new ConfigInfo(trimOutput, blankIsNull, deduplicator);
 	}
 
 	@Override
@@ -66,6 +79,25 @@ public class StringConverter implements Converter<String, StringConverter.Config
 		}
 	}
 
+	@Override
+	public void javaToBuffer(ColumnInfo<String> columnInfo, String value, OutputBuffer buffer) {
+		ConfigInfo configInfo = (ConfigInfo) columnInfo.getConfigInfo();
+		if (configInfo.trimOutput) {
+			// same as String.trim() but without creating a new string
+			int start = 0;
+			int end = value.length();
+			while (start < end && value.charAt(start) <= ' ') {
+				start++;
+			}
+			while (end > start && value.charAt(end - 1) <= ' ') {
+				end--;
+			}
+			buffer.append(value, start, end);
+		} else {
+			buffer.append(value);
+		}
+	}
+
 	@Override
 	public String stringToJava(String line, int lineNumber, int linePos, ColumnInfo<String> columnInfo, String value,
 			ParseError parseError) {
@@ -77,16 +109,29 @@ public class StringConverter implements Converter<String, StringConverter.Config
 		}
 	}
 
+	@Override
+	public String rangeToJava(String line, int lineNumber, int linePos, ColumnInfo<String> columnInfo,
+			CharSequence chars, int start, int end, ParseError parseError) {
+		ConfigInfo configInfo = (ConfigInfo) columnInfo.getConfigInfo();
+		if (configInfo.deduplicator == null) {
+			return chars.subSequence(start, end).toString();
+		} else {
+			return configInfo.deduplicator.dedup(chars, start, end);
+		}
+	}
+
 	/**
 	 * Exposed for testing purposes.
 	 */
 	static class ConfigInfo {
 		final boolean trimOutput;
 		final boolean blankIsNull;
+		final StringDeduplicator deduplicator;
 
-		private ConfigInfo(boolean trimOutput, boolean blankIsNull) {
+		private ConfigInfo(boolean trimOutput, boolean blankIsNull, StringDeduplicator deduplicator) {
 			this.trimOutput = trimOutput;
 			this.blankIsNull = blankIsNull;
+			this.deduplicator = deduplicator;
 		}
 	}
 }
@@ -0,0 +1,85 @@
+package com.j256.simplecsv.converter;
+
+/**
+ * Bounded cache which collapses repeated string values into a shared instance. It is used for low-cardinality columns
+ * such as country codes or currencies so that reading a large number of rows does not create a new String for each
+ * cell. The lookup is done on a range of characters so that no String needs to be created if the value is already in
+ * the cache.
+ * 
+ * <p>
+ * The cache is direct-mapped so a value will replace any other value with the same slot. This means that it works
+ * best when the number of distinct values is small compared to the size.
+ * </p>
+ * 
+ * <p>
+ * <b>NOTE:</b> This is thread-safe without locking. Strings are immutable so the worst that can happen with multiple
+ * threads is that a value is replaced and a duplicate String is created.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class StringDeduplicator {
+
+	/**
+	 * Default number of values that are cached.
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1024;
+
+	private final String[] values;
+	private final int mask;
+
+	public StringDeduplicator() {
+		this(DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * @param maxSize
+	 *            Maximum number of values cached. This will be rounded up to a power of 2.
+	 */
+	public StringDeduplicator(int maxSize) {
+		int size = 1;
+		while (size < maxSize) {
+			size <<= 1;
+		}
+		this.values = new String[size];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Returns a shared String equal to the characters from start (inclusive) to end (exclusive).
+	 */
+	public String dedup(CharSequence chars, int start, int end) {
+		// same as String.hashCode() so we can compare with the cached hash of the strings
+		int hash = 0;
+		for (int i = start; i < end; i++) {
+			hash = 31 * hash + chars.charAt(i);
+		}
+		int index = ((hash ^ (hash >>> 16)) & mask);
+		String cached = values[index];
+		if (cached != null && cached.hashCode() == hash && regionEquals(cached, chars, start, end)) {
+			return cached;
+		}
+		String str = chars.subSequence(start, end).toString();
+		values[index] = str;
+		return str;
+	}
+
+	/**
+	 * Returns a shared String equal to the string argument.
+	 */
+	public String dedup(String str) {
+		return dedup(str, 0, str.length());
+	}
+
+	private boolean regionEquals(String cached, CharSequence chars, int start, int end) {
+		if (cached.length() != end - start) {
+			return false;
+		}
+		for (int i = 0; i < cached.length(); i++) {
+			if (cached.charAt(i) != chars.charAt(start + i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
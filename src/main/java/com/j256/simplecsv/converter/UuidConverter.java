@@ -3,16 +3,34 @@ package com.j256.simplecsv.converter;
 import java.util.UUID;
 
 import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.OutputBuffer;
 import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
 
 /**
  * Converter for the Java UUID type.
  * 
+ * <p>
+ * The hex digits are decoded directly from the characters in the line into the two longs of the UUID and written
+ * with a lookup table directly into the output buffer so no intermediate strings are created.
+ * </p>
+ * 
  * @author graywatson
  */
-public class UuidConverter implements Converter<UUID, Void> {
+public class UuidConverter implements CharRangeConverter<UUID, Void>, OutputBufferConverter<UUID, Void>,
+		OutputAlphabetConverter<UUID, Void> {
 
 	private static final UuidConverter singleton = new UuidConverter();
+	private static final int[] MAX_GROUP_LENGTHS = new int[] { 8, 4, 4, 4, 12 };
+	private static final int CANONICAL_LENGTH = 36;
+	private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+	private static final byte[] HEX_VALUES = new byte[128];
+
+	static {
+		for (int i = 0; i < HEX_VALUES.length; i++) {
+			HEX_VALUES[i] = (byte) Character.digit((char) i, 16);
+		}
+	}
 
 	/**
 	 * Get singleton for class.
@@ -32,6 +50,11 @@ public class UuidConverter implements Converter<UUID, Void> {
 		return true;
 	}
 
+	@Override
+	public String getOutputAlphabet(Void configInfo) {
+		return "-0123456789abcdef";
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return true;
@@ -42,17 +65,101 @@ public class UuidConverter implements Converter<UUID, Void> {
 		if (value == null) {
 			return null;
 		} else {
-			return value.toString();
+			char[] chars = new char[CANONICAL_LENGTH];
+			formatUuid(value, chars, 0);
+			return new String(chars);
 		}
 	}
 
+	@Override
+	public void javaToBuffer(ColumnInfo<UUID> columnInfo, UUID value, OutputBuffer buffer) {
+		int offset = buffer.reserve(CANONICAL_LENGTH);
+		formatUuid(value, buffer.getChars(), offset);
+	}
+
 	@Override
 	public UUID stringToJava(String line, int lineNumber, int linePos, ColumnInfo<UUID> columnInfo, String value,
 			ParseError parseError) {
 		if (value.isEmpty()) {
 			return null;
 		} else {
-			return UUID.fromString(value);
+			return rangeToJava(line, lineNumber, linePos, columnInfo, value, 0, value.length(), parseError);
+		}
+	}
+
+	@Override
+	public UUID rangeToJava(String line, int lineNumber, int linePos, ColumnInfo<UUID> columnInfo, CharSequence chars,
+			int start, int end, ParseError parseError) {
+		UUID uuid = parseUuid(chars, start, end);
+		if (uuid == null) {
+			parseError.setErrorType(ErrorType.INVALID_FORMAT);
+			parseError.setMessageFormat("Invalid UUID string: %s", chars.subSequence(start, end));
+			parseError.setLinePos(linePos);
+		}
+		return uuid;
+	}
+
+	/**
+	 * Format the UUID in the canonical 36 character form into the buffer at the offset.
+	 */
+	static void formatUuid(UUID uuid, char[] buf, int offset) {
+		long most = uuid.getMostSignificantBits();
+		long least = uuid.getLeastSignificantBits();
+		formatHex(most >>> 32, buf, offset, 8);
+		buf[offset + 8] = '-';
+		formatHex(most >>> 16, buf, offset + 9, 4);
+		buf[offset + 13] = '-';
+		formatHex(most, buf, offset + 14, 4);
+		buf[offset + 18] = '-';
+		formatHex(least >>> 48, buf, offset + 19, 4);
+		buf[offset + 23] = '-';
+		formatHex(least, buf, offset + 24, 12);
+	}
+
+	/**
+	 * Parse the UUID from the characters the same as {@link UUID#fromString(String)} but returning null if it is
+	 * invalid. It must have 5 non-empty groups of hex digits separated by dashes with each group no longer than the
+	 * canonical 8-4-4-4-12 lengths.
+	 */
+	static UUID parseUuid(CharSequence chars, int start, int end) {
+		long most = 0;
+		long least = 0;
+		long groupValue = 0;
+		int group = 0;
+		int groupLength = 0;
+		for (int i = start; i < end; i++) {
+			char ch = chars.charAt(i);
+			if (ch == '-') {
+				if (groupLength == 0 || group >= MAX_GROUP_LENGTHS.length - 1) {
+					return null;
+				}
+				if (group < 3) {
+					most = (most << (group == 0 ? 32 : 16)) | groupValue;
+				} else {
+					least = groupValue;
+				}
+				group++;
+				groupValue = 0;
+				groupLength = 0;
+				continue;
+			}
+			int digit;
+			if (ch >= HEX_VALUES.length || (digit = HEX_VALUES[ch]) < 0 || ++groupLength > MAX_GROUP_LENGTHS[group]) {
+				return null;
+			}
+			groupValue = (groupValue << 4) | digit;
+		}
+		if (group != MAX_GROUP_LENGTHS.length - 1 || groupLength == 0) {
+			return null;
+		}
+		least = (least << 48) | groupValue;
+		return new UUID(most, least);
+	}
+
+	private static void formatHex(long value, char[] buf, int offset, int digits) {
+		for (int i = offset + digits - 1; i >= offset; i--) {
+			buf[i] = HEX_DIGITS[(int) (value & 0xF)];
+			value >>>= 4;
 		}
 	}
 }
@@ -8,7 +8,7 @@ import com.j256.simplecsv.processor.ParseError;
  * 
  * @author graywatson
  */
-public class VoidConverter implements Converter<Void, Void> {
+public class VoidConverter implements OutputAlphabetConverter<Void, Void> {
 
 	@Override
 	public Void configure(String format, long flags, ColumnInfo<Void> fieldInfo) {
@@ -21,6 +21,12 @@ public class VoidConverter implements Converter<Void, Void> {
 		return false;
 	}
 
+	@Override
+	public String getOutputAlphabet(Void configInfo) {
+		// we never write anything
+		return "";
+	}
+
 	@Override
 	public boolean isAlwaysTrimInput() {
 		return false;
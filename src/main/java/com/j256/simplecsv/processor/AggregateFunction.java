@@ -0,0 +1,20 @@
+package com.j256.simplecsv.processor;
+
+/**
+ * Functions that a {@link CsvAggregator} can compute over the values of a column in each group. Null values are
+ * ignored by all of the functions.
+ * 
+ * @author graywatson
+ */
+public enum AggregateFunction {
+	/** number of values in the group that are not null, works with any column type */
+	COUNT,
+	/** sum of the values in the group */
+	SUM,
+	/** smallest value in the group */
+	MIN,
+	/** largest value in the group */
+	MAX,
+	// end
+	;
+}
@@ -0,0 +1,435 @@
+package com.j256.simplecsv.processor;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+
+/**
+ * Groups and aggregated values computed by a {@link CsvAggregator}. The groups are numbered from 0 to
+ * {@link #size()}-1 in the order that their keys were first seen. The aggregates are numbered in the order that they
+ * were added to the aggregator.
+ * 
+ * <p>
+ * The groups are kept in an open-addressing hash table whose slots point into parallel arrays of keys and primitive
+ * accumulators so adding a row does not allocate anything unless it starts a new group. Values of integral columns
+ * are accumulated as longs, throwing an {@link ArithmeticException} if a sum overflows, and float and double values
+ * as doubles. BigDecimal and BigInteger columns can only be counted since they would lose precision as doubles.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class AggregationResult {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final ColumnInfo<Object>[] keyColumns;
+	private final Aggregate[] aggregates;
+	private final int numKeys;
+	private final Object[] scratchKey;
+	/** group number plus 1 for each slot or 0 if the slot is empty */
+	private int[] slots;
+	private int slotMask;
+	private int size;
+	private Object[] keys;
+	private int[] hashes;
+	private long[] rowCounts;
+	/** number of non-null values for each aggregate and group */
+	private final long[][] valueCounts;
+	private final long[][] longValues;
+	private final double[][] doubleValues;
+
+	AggregationResult(ColumnInfo<Object>[] keyColumns, Aggregate[] aggregates) {
+		this.keyColumns = keyColumns;
+		this.aggregates = aggregates;
+		this.numKeys = keyColumns.length;
+		this.scratchKey = new Object[numKeys];
+		this.slots = new int[INITIAL_CAPACITY * 2];
+		this.slotMask = slots.length - 1;
+		this.keys = new Object[INITIAL_CAPACITY * numKeys];
+		this.hashes = new int[INITIAL_CAPACITY];
+		this.rowCounts = new long[INITIAL_CAPACITY];
+		this.valueCounts = new long[aggregates.length][];
+		this.longValues = new long[aggregates.length][];
+		this.doubleValues = new double[aggregates.length][];
+		for (int i = 0; i < aggregates.length; i++) {
+			valueCounts[i] = new long[INITIAL_CAPACITY];
+			if (aggregates[i].function == AggregateFunction.COUNT) {
+				// the count is all we need
+			} else if (aggregates[i].integral) {
+				longValues[i] = new long[INITIAL_CAPACITY];
+			} else {
+				doubleValues[i] = new double[INITIAL_CAPACITY];
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of groups.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of key columns.
+	 */
+	public int getKeyCount() {
+		return numKeys;
+	}
+
+	/**
+	 * Returns the number of aggregates.
+	 */
+	public int getAggregateCount() {
+		return aggregates.length;
+	}
+
+	/**
+	 * Returns the value of a key column for the group.
+	 */
+	public Object getKey(int group, int keyIndex) {
+		checkGroup(group);
+		if (keyIndex < 0 || keyIndex >= numKeys) {
+			throw new IndexOutOfBoundsException("Invalid key index: " + keyIndex);
+		}
+		return keys[group * numKeys + keyIndex];
+	}
+
+	/**
+	 * Returns the values of all of the key columns for the group.
+	 */
+	public Object[] getKeys(int group) {
+		checkGroup(group);
+		return Arrays.copyOfRange(keys, group * numKeys, (group + 1) * numKeys);
+	}
+
+	/**
+	 * Returns the number of rows in the group.
+	 */
+	public long getRowCount(int group) {
+		checkGroup(group);
+		return rowCounts[group];
+	}
+
+	/**
+	 * Returns the value of the aggregate for the group as a long. Values of non-integral columns are truncated.
+	 */
+	public long getLong(int group, int aggregateIndex) {
+		checkGroup(group);
+		Aggregate aggregate = getAggregate(aggregateIndex);
+		if (aggregate.function == AggregateFunction.COUNT) {
+			return valueCounts[aggregateIndex][group];
+		} else if (aggregate.integral) {
+			return longValues[aggregateIndex][group];
+		} else {
+			return (long) doubleValues[aggregateIndex][group];
+		}
+	}
+
+	/**
+	 * Returns the value of the aggregate for the group as a double.
+	 */
+	public double getDouble(int group, int aggregateIndex) {
+		checkGroup(group);
+		Aggregate aggregate = getAggregate(aggregateIndex);
+		if (aggregate.function == AggregateFunction.COUNT) {
+			return valueCounts[aggregateIndex][group];
+		} else if (aggregate.integral) {
+			return longValues[aggregateIndex][group];
+		} else {
+			return doubleValues[aggregateIndex][group];
+		}
+	}
+
+	/**
+	 * Returns true if all of the values of the aggregate's column in the group were null so there is no sum, min, or
+	 * max. Counts are never null.
+	 */
+	public boolean isNull(int group, int aggregateIndex) {
+		checkGroup(group);
+		return getAggregate(aggregateIndex).function != AggregateFunction.COUNT
+				&& valueCounts[aggregateIndex][group] == 0;
+	}
+
+	/**
+	 * Returns the group with the key values or -1 if there is none.
+	 */
+	public int findGroup(Object... keyValues) {
+		if (keyValues.length != numKeys) {
+			throw new IllegalArgumentException("Expected " + numKeys + " key values but got " + keyValues.length);
+		}
+		int hash = hashKey(keyValues);
+		for (int slot = spread(hash) & slotMask; slots[slot] != 0; slot = (slot + 1) & slotMask) {
+			int group = slots[slot] - 1;
+			if (hashes[group] == hash && keyEquals(group, keyValues)) {
+				return group;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Add the entity to its group.
+	 */
+	void add(Object entity) {
+		for (int i = 0; i < numKeys; i++) {
+			scratchKey[i] = getColumnValue(keyColumns[i], entity);
+		}
+		int group = findOrAddGroup(scratchKey, hashKey(scratchKey));
+		rowCounts[group]++;
+		for (int i = 0; i < aggregates.length; i++) {
+			Aggregate aggregate = aggregates[i];
+			Field primitiveField = aggregate.primitiveField;
+			try {
+				if (aggregate.function == AggregateFunction.COUNT) {
+					if (primitiveField != null || aggregate.columnInfo.getValue(entity) != null) {
+						valueCounts[i][group]++;
+					}
+				} else if (aggregate.integral) {
+					long value;
+					if (primitiveField == null) {
+						Object obj = aggregate.columnInfo.getValue(entity);
+						if (obj == null) {
+							continue;
+						}
+						value = ((Number) obj).longValue();
+					} else {
+						// no boxing when the value is read from a primitive field
+						value = primitiveField.getLong(entity);
+					}
+					accumulateLong(i, group, value, valueCounts[i][group]++);
+				} else {
+					double value;
+					if (primitiveField == null) {
+						Object obj = aggregate.columnInfo.getValue(entity);
+						if (obj == null) {
+							continue;
+						}
+						value = ((Number) obj).doubleValue();
+					} else {
+						value = primitiveField.getDouble(entity);
+					}
+					accumulateDouble(i, group, value, valueCounts[i][group]++);
+				}
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Could not get value from entity field: " + aggregate.columnInfo);
+			}
+		}
+	}
+
+	/**
+	 * Add the groups and values from another result that was built with the same key columns and aggregates.
+	 */
+	void merge(AggregationResult other) {
+		Object[] otherKey = new Object[numKeys];
+		for (int otherGroup = 0; otherGroup < other.size; otherGroup++) {
+			System.arraycopy(other.keys, otherGroup * numKeys, otherKey, 0, numKeys);
+			int group = findOrAddGroup(otherKey, other.hashes[otherGroup]);
+			rowCounts[group] += other.rowCounts[otherGroup];
+			for (int i = 0; i < aggregates.length; i++) {
+				long otherCount = other.valueCounts[i][otherGroup];
+				if (otherCount == 0) {
+					continue;
+				}
+				long count = valueCounts[i][group];
+				valueCounts[i][group] = count + otherCount;
+				if (aggregates[i].function == AggregateFunction.COUNT) {
+					// already added
+				} else if (aggregates[i].integral) {
+					accumulateLong(i, group, other.longValues[i][otherGroup], count);
+				} else {
+					accumulateDouble(i, group, other.doubleValues[i][otherGroup], count);
+				}
+			}
+		}
+	}
+
+	private void accumulateLong(int aggregateIndex, int group, long value, long count) {
+		long[] values = longValues[aggregateIndex];
+		if (count == 0) {
+			values[group] = value;
+			return;
+		}
+		switch (aggregates[aggregateIndex].function) {
+			case SUM:
+				try {
+					values[group] = Math.addExact(values[group], value);
+				} catch (ArithmeticException ae) {
+					throw new ArithmeticException(
+							"Sum overflowed a long for column: " + aggregates[aggregateIndex].columnInfo);
+				}
+				break;
+			case MIN:
+				values[group] = Math.min(values[group], value);
+				break;
+			case MAX:
+				values[group] = Math.max(values[group], value);
+				break;
+			default:
+				break;
+		}
+	}
+
+	private void accumulateDouble(int aggregateIndex, int group, double value, long count) {
+		double[] values = doubleValues[aggregateIndex];
+		if (count == 0) {
+			values[group] = value;
+			return;
+		}
+		switch (aggregates[aggregateIndex].function) {
+			case SUM:
+				values[group] += value;
+				break;
+			case MIN:
+				values[group] = Math.min(values[group], value);
+				break;
+			case MAX:
+				values[group] = Math.max(values[group], value);
+				break;
+			default:
+				break;
+		}
+	}
+
+	private int findOrAddGroup(Object[] keyValues, int hash) {
+		int slot = spread(hash) & slotMask;
+		for (; slots[slot] != 0; slot = (slot + 1) & slotMask) {
+			int group = slots[slot] - 1;
+			if (hashes[group] == hash && keyEquals(group, keyValues)) {
+				return group;
+			}
+		}
+		if (size == hashes.length) {
+			growGroups();
+		}
+		int group = size++;
+		System.arraycopy(keyValues, 0, keys, group * numKeys, numKeys);
+		hashes[group] = hash;
+		slots[slot] = group + 1;
+		// keep the table at most half full so the probes stay short
+		if (size * 2 > slots.length) {
+			growSlots();
+		}
+		return group;
+	}
+
+	private boolean keyEquals(int group, Object[] keyValues) {
+		int offset = group * numKeys;
+		for (int i = 0; i < numKeys; i++) {
+			Object key = keys[offset + i];
+			Object value = keyValues[i];
+			if (key != value && (key == null || !key.equals(value))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void growGroups() {
+		int capacity = hashes.length * 2;
+		keys = Arrays.copyOf(keys, capacity * numKeys);
+		hashes = Arrays.copyOf(hashes, capacity);
+		rowCounts = Arrays.copyOf(rowCounts, capacity);
+		for (int i = 0; i < aggregates.length; i++) {
+			valueCounts[i] = Arrays.copyOf(valueCounts[i], capacity);
+			if (longValues[i] != null) {
+				longValues[i] = Arrays.copyOf(longValues[i], capacity);
+			}
+			if (doubleValues[i] != null) {
+				doubleValues[i] = Arrays.copyOf(doubleValues[i], capacity);
+			}
+		}
+	}
+
+	private void growSlots() {
+		slots = new int[slots.length * 2];
+		slotMask = slots.length - 1;
+		for (int group = 0; group < size; group++) {
+			int slot = spread(hashes[group]) & slotMask;
+			while (slots[slot] != 0) {
+				slot = (slot + 1) & slotMask;
+			}
+			slots[slot] = group + 1;
+		}
+	}
+
+	private void checkGroup(int group) {
+		if (group < 0 || group >= size) {
+			throw new IndexOutOfBoundsException("Invalid group: " + group);
+		}
+	}
+
+	private Aggregate getAggregate(int aggregateIndex) {
+		if (aggregateIndex < 0 || aggregateIndex >= aggregates.length) {
+			throw new IndexOutOfBoundsException("Invalid aggregate index: " + aggregateIndex);
+		}
+		return aggregates[aggregateIndex];
+	}
+
+	private static Object getColumnValue(ColumnInfo<Object> columnInfo, Object entity) {
+		try {
+			return columnInfo.getValue(entity);
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not get value from entity field: " + columnInfo);
+		}
+	}
+
+	private static int hashKey(Object[] keyValues) {
+		int hash = 1;
+		for (Object value : keyValues) {
+			hash = 31 * hash + (value == null ? 0 : value.hashCode());
+		}
+		return hash;
+	}
+
+	/**
+	 * Mix the bits of the hash since the low bits pick the slot and many hash codes differ only in the high bits.
+	 */
+	private static int spread(int hash) {
+		hash *= 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Function to compute over the values of a column.
+	 */
+	static class Aggregate {
+
+		final AggregateFunction function;
+		final ColumnInfo<Object> columnInfo;
+		/** true if the values are accumulated as longs instead of doubles */
+		final boolean integral;
+		/** set if the values can be read from a primitive field without boxing */
+		final Field primitiveField;
+
+		public Aggregate(AggregateFunction function, ColumnInfo<Object> columnInfo) {
+			Class<?> type = columnInfo.getType();
+			if (function != AggregateFunction.COUNT && !isNumber(type)) {
+				throw new IllegalArgumentException(
+						function + " needs a primitive or boxed numeric column that fits in a long or double: "
+								+ columnInfo);
+			}
+			this.function = function;
+			this.columnInfo = columnInfo;
+			this.integral = (type == long.class || type == int.class || type == short.class || type == byte.class
+					|| type == Long.class || type == Integer.class || type == Short.class || type == Byte.class);
+			Field field = columnInfo.getField();
+			if (field != null && type.isPrimitive()) {
+				this.primitiveField = field;
+			} else {
+				this.primitiveField = null;
+			}
+		}
+
+		/**
+		 * Returns true if the values of the type can be accumulated as longs or doubles without losing precision.
+		 */
+		private static boolean isNumber(Class<?> type) {
+			if (type.isPrimitive()) {
+				return type != boolean.class && type != char.class;
+			} else {
+				return (type == Long.class || type == Integer.class || type == Short.class || type == Byte.class
+						|| type == Double.class || type == Float.class);
+			}
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package com.j256.simplecsv.processor;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Writer which accepts entities from any number of producer threads and formats and writes them on a dedicated
+ * background thread so the producers never wait on disk IO. The entities are held in a concurrent queue and a
+ * semaphore with a permit per slot limits it to the queue capacity. When the queue is full {@link #write(Object)}
+ * blocks and {@link #offer(Object)} returns false so callers can choose how to handle the backpressure.
+ * 
+ * <p>
+ * The background thread writes the formatted rows to the writer whenever the buffer reaches the flush size and
+ * flushes the writer when the flush interval has passed since the last flush. {@link #drain()} waits for all of the
+ * entities written so far to be flushed and {@link #close()} drains and closes the writer.
+ * </p>
+ * 
+ * <p>
+ * <b>NOTE:</b> If an entity throws a RuntimeException while it is being formatted, for example from a converter, then
+ * the entity is skipped and the other entities are still written. See {@link #getSkippedCount()} and
+ * {@link #getLastSkipError()}. If writing to or flushing the writer throws then the background thread stops, the
+ * entities still in the queue are discarded, and all further calls throw an IOException with the failure as the
+ * cause.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class AsyncCsvWriter<T> implements Closeable, Flushable {
+
+	public static final int DEFAULT_QUEUE_CAPACITY = 8192;
+	public static final int DEFAULT_FLUSH_SIZE = 64 * 1024;
+	public static final long DEFAULT_FLUSH_INTERVAL_MILLIS = 1000;
+	/** how often the background thread checks the flush interval when it is busy */
+	private static final int BUSY_FLUSH_CHECK_MASK = 255;
+
+	private final CsvSchema<T> schema;
+	private final Writer writer;
+	private final boolean writeHeader;
+	private final int queueCapacity;
+	private final int flushSize;
+	private final long flushIntervalNanos;
+	private final ConcurrentLinkedQueue<T> queue = new ConcurrentLinkedQueue<T>();
+	private final Semaphore freeSlots;
+	private final AtomicLong submittedCount = new AtomicLong();
+	private final Object drainLock = new Object();
+	private final Thread writerThread;
+	private volatile boolean writerParked;
+	private volatile long flushRequestCount;
+	private volatile long flushedCount;
+	private volatile boolean closing;
+	private volatile IOException failure;
+	private volatile long skippedCount;
+	private volatile RuntimeException lastSkipError;
+
+	AsyncCsvWriter(CsvSchema<T> schema, Writer writer, boolean writeHeader, int queueCapacity, int flushSize,
+			long flushIntervalMillis) {
+		if (queueCapacity <= 0) {
+			throw new IllegalArgumentException("Queue capacity must be positive: " + queueCapacity);
+		}
+		if (flushSize <= 0) {
+			throw new IllegalArgumentException("Flush size must be positive: " + flushSize);
+		}
+		this.schema = schema;
+		this.writer = writer;
+		this.writeHeader = writeHeader;
+		this.queueCapacity = queueCapacity;
+		this.flushSize = flushSize;
+		this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(flushIntervalMillis, 1));
+		this.freeSlots = new Semaphore(queueCapacity);
+		this.writerThread = new Thread(new WriterRunnable(), getClass().getSimpleName());
+		this.writerThread.setDaemon(true);
+	}
+
+	/**
+	 * Start the background thread. This is not done in the constructor so the thread never sees a partially
+	 * constructed object.
+	 */
+	AsyncCsvWriter<T> start() {
+		writerThread.start();
+		return this;
+	}
+
+	/**
+	 * Add an entity to the queue to be written, waiting if the queue is full.
+	 * 
+	 * @throws IOException
+	 *             If the writer is closed, the background thread failed, or we were interrupted while waiting.
+	 */
+	public void write(T entity) throws IOException {
+		checkWrite(entity);
+		try {
+			freeSlots.acquire();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for room in the queue");
+		}
+		enqueue(entity);
+	}
+
+	/**
+	 * Add an entity to the queue to be written if there is room.
+	 * 
+	 * @return True if the entity was added or false if the queue is full.
+	 * @throws IOException
+	 *             If the writer is closed or the background thread failed.
+	 */
+	public boolean offer(T entity) throws IOException {
+		checkWrite(entity);
+		if (!freeSlots.tryAcquire()) {
+			return false;
+		}
+		enqueue(entity);
+		return true;
+	}
+
+	/**
+	 * Add an entity to the queue to be written, waiting up to the timeout if the queue is full.
+	 * 
+	 * @return True if the entity was added or false if the queue stayed full.
+	 * @throws IOException
+	 *             If the writer is closed, the background thread failed, or we were interrupted while waiting.
+	 */
+	public boolean offer(T entity, long timeout, TimeUnit unit) throws IOException {
+		checkWrite(entity);
+		try {
+			if (!freeSlots.tryAcquire(timeout, unit)) {
+				return false;
+			}
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for room in the queue");
+		}
+		enqueue(entity);
+		return true;
+	}
+
+	/**
+	 * Wait for all of the entities that were added before this call to be written to and flushed by the writer.
+	 * 
+	 * @throws IOException
+	 *             If the background thread failed or we were interrupted while waiting.
+	 */
+	public void drain() throws IOException {
+		long target = submittedCount.get();
+		synchronized (drainLock) {
+			if (flushRequestCount < target) {
+				flushRequestCount = target;
+			}
+		}
+		LockSupport.unpark(writerThread);
+		synchronized (drainLock) {
+			while (flushedCount < target && failure == null && writerThread.isAlive()) {
+				try {
+					drainLock.wait();
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while draining the writer");
+				}
+			}
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Same as {@link #drain()}.
+	 */
+	@Override
+	public void flush() throws IOException {
+		drain();
+	}
+
+	/**
+	 * Write all of the queued entities, close the writer, and stop the background thread. Entities added by other
+	 * threads while this is running may or may not be written so the producers should be stopped first.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (drainLock) {
+			if (closing) {
+				return;
+			}
+			closing = true;
+		}
+		LockSupport.unpark(writerThread);
+		try {
+			writerThread.join();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while closing the writer");
+		}
+		checkFailure();
+	}
+
+	/**
+	 * Returns the number of entities that are waiting to be written.
+	 */
+	public int getQueueSize() {
+		return Math.max(0, queueCapacity - freeSlots.availablePermits());
+	}
+
+	/**
+	 * Returns the number of entities that have been written to and flushed by the writer including any that were
+	 * skipped.
+	 */
+	public long getFlushedCount() {
+		return flushedCount;
+	}
+
+	/**
+	 * Returns the number of entities that were skipped because they threw while being formatted.
+	 */
+	public long getSkippedCount() {
+		return skippedCount;
+	}
+
+	/**
+	 * Returns the exception thrown by the last entity that was skipped or null if none.
+	 */
+	public RuntimeException getLastSkipError() {
+		return lastSkipError;
+	}
+
+	private void checkWrite(T entity) throws IOException {
+		if (entity == null) {
+			throw new IllegalArgumentException("Entity cannot be null");
+		}
+		if (closing) {
+			throw new IOException("Writer has been closed");
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() throws IOException {
+		IOException ioe = failure;
+		if (ioe != null) {
+			throw new IOException("Background writer thread failed", ioe);
+		}
+	}
+
+	private void enqueue(T entity) throws IOException {
+		// the slots are all released if the background thread fails so we have to check again
+		checkFailure();
+		// counted before it is added so a drain's count always covers the entities ahead of it in the queue
+		submittedCount.incrementAndGet();
+		queue.add(entity);
+		if (writerParked) {
+			LockSupport.unpark(writerThread);
+		}
+	}
+
+	/**
+	 * Runs in the background thread formatting the entities and writing them.
+	 */
+	private class WriterRunnable implements Runnable {
+
+		private final OutputBuffer buffer = new OutputBuffer(flushSize + flushSize / 4);
+		private long writtenCount;
+		private boolean dirty;
+		private long lastFlushNanos = System.nanoTime();
+
+		@Override
+		public void run() {
+			try {
+				writeEntities();
+			} catch (IOException ioe) {
+				failure = ioe;
+			} catch (RuntimeException re) {
+				failure = new IOException("Problems writing entities", re);
+			} finally {
+				try {
+					writer.close();
+				} catch (IOException ioe) {
+					if (failure == null) {
+						failure = ioe;
+					}
+				}
+				if (failure != null) {
+					// release any producers waiting on the queue so they see the failure
+					freeSlots.release(Integer.MAX_VALUE / 2);
+				}
+				queue.clear();
+				synchronized (drainLock) {
+					drainLock.notifyAll();
+				}
+			}
+		}
+
+		private void writeEntities() throws IOException {
+			if (writeHeader) {
+				schema.appendHeaderLine(buffer, true);
+				dirty = true;
+			}
+			while (true) {
+				T entity = queue.poll();
+				if (entity != null) {
+					freeSlots.release();
+					try {
+						schema.appendLine(buffer, entity, true);
+					} catch (RuntimeException re) {
+						// the partial line has been removed so we skip the entity but keep going
+						lastSkipError = re;
+						skippedCount++;
+					}
+					// skipped entities are counted so a drain doesn't wait for them
+					writtenCount++;
+					dirty = true;
+					if (buffer.length() >= flushSize) {
+						buffer.writeTo(writer);
+					}
+					long requestCount = flushRequestCount;
+					if ((requestCount > flushedCount && writtenCount >= requestCount)
+							|| ((writtenCount & BUSY_FLUSH_CHECK_MASK) == 0
+									&& System.nanoTime() - lastFlushNanos >= flushIntervalNanos)) {
+						flushWriter();
+					}
+					continue;
+				}
+				if (dirty && (flushRequestCount > flushedCount || closing
+						|| System.nanoTime() - lastFlushNanos >= flushIntervalNanos)) {
+					flushWriter();
+				}
+				if (closing) {
+					if (queue.isEmpty()) {
+						return;
+					}
+					continue;
+				}
+				// producers unpark us if they see this flag after adding to the queue
+				writerParked = true;
+				if (queue.isEmpty()) {
+					LockSupport.parkNanos(this, flushIntervalNanos);
+				}
+				writerParked = false;
+			}
+		}
+
+		private void flushWriter() throws IOException {
+			buffer.writeTo(writer);
+			writer.flush();
+			dirty = false;
+			lastFlushNanos = System.nanoTime();
+			synchronized (drainLock) {
+				flushedCount = writtenCount;
+				drainLock.notifyAll();
+			}
+		}
+	}
+}
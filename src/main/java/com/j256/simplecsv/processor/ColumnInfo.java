@@ -8,6 +8,7 @@ import com.j256.simplecsv.common.CsvColumn;
 import com.j256.simplecsv.common.CsvField;
 import com.j256.simplecsv.converter.Converter;
 import com.j256.simplecsv.converter.ConverterUtils;
+import com.j256.simplecsv.converter.OutputAlphabetConverter;
 import com.j256.simplecsv.converter.VoidConverter;
 
 /**
@@ -35,6 +36,7 @@ public class ColumnInfo<T> {
 	private final boolean mustNotBeBlank;
 	private final boolean trimInput;
 	private final boolean needsQuotes;
+	private final String outputAlphabet;
 	private final String defaultValue;
 	private final boolean mustBeSupplied;
 	private final String afterColumn;
@@ -60,6 +62,13 @@ public class ColumnInfo<T> {
 		@SuppressWarnings("unchecked")
 		Converter<Object, Object> castConverter = (Converter<Object, Object>) converter;
 		this.needsQuotes = castConverter.isNeedsQuotes(configInfo);
+		if (converter instanceof OutputAlphabetConverter) {
+			OutputAlphabetConverter<Object, Object> alphabetConverter =
+					(OutputAlphabetConverter<Object, Object>) castConverter;
+			this.outputAlphabet = alphabetConverter.getOutputAlphabet(configInfo);
+		} else {
+			this.outputAlphabet = null;
+		}
 	}
 
 	/**
@@ -184,6 +193,15 @@ public class ColumnInfo<T> {
 		return needsQuotes;
 	}
 
+	/**
+	 * Returns all of the characters that the converter can write for this column or null if unknown.
+	 * 
+	 * @see OutputAlphabetConverter#getOutputAlphabet(Object)
+	 */
+	public String getOutputAlphabet() {
+		return outputAlphabet;
+	}
+
 	/**
 	 * Returns the default string for the column or null if none.
 	 * 
@@ -0,0 +1,124 @@
+package com.j256.simplecsv.processor;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer which can be called by any number of threads at the same time. Each thread formats its rows into one of a
+ * number of striped buffers picked by the thread's id so the formatting happens in parallel and the threads rarely
+ * contend. When a stripe's buffer fills up its complete rows are written to the writer while holding the writer lock
+ * so rows from different threads never interleave. The order of the rows between threads is not defined.
+ * 
+ * <p>
+ * {@link #flush()} writes all of the stripes and flushes the writer and {@link #close()} flushes and closes it.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class ConcurrentCsvWriter<T> implements Closeable, Flushable {
+
+	/** size at which a stripe's buffer is written to the writer */
+	static final int STRIPE_FLUSH_SIZE = 8192;
+	private static final int NUM_STRIPES =
+			Integer.highestOneBit(Math.max(2, 2 * Runtime.getRuntime().availableProcessors()) * 2 - 1);
+
+	private final CsvSchema<T> schema;
+	private final Writer writer;
+	private final Stripe[] stripes;
+	private final int stripeMask;
+	private volatile boolean closed;
+
+	ConcurrentCsvWriter(CsvSchema<T> schema, Writer writer, boolean writeHeader) throws IOException {
+		this.schema = schema;
+		this.writer = writer;
+		this.stripes = new Stripe[NUM_STRIPES];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new Stripe();
+		}
+		this.stripeMask = stripes.length - 1;
+		if (writeHeader) {
+			OutputBuffer buffer = new OutputBuffer();
+			schema.appendHeaderLine(buffer, true);
+			buffer.writeTo(writer);
+		}
+	}
+
+	/**
+	 * Format the entity into this thread's stripe and write the stripe to the writer if it is full. If the entity can't
+	 * be formatted then nothing is added to the stripe.
+	 * 
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing or if the writer has been closed.
+	 */
+	public void write(T entity) throws IOException {
+		Stripe stripe = stripes[(int) Thread.currentThread().getId() & stripeMask];
+		synchronized (stripe) {
+			if (closed) {
+				throw new IOException("Writer has been closed");
+			}
+			schema.appendLine(stripe.buffer, entity, true);
+			if (stripe.buffer.length() >= STRIPE_FLUSH_SIZE) {
+				writeStripe(stripe);
+			}
+		}
+	}
+
+	/**
+	 * Write the rows in all of the stripes to the writer and flush it.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (closed) {
+			return;
+		}
+		writeStripes();
+		synchronized (writer) {
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Write the rows in all of the stripes and close the writer. Any calls to {@link #write(Object)} after this will
+	 * throw.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		// set first so rows added after a stripe has been written can't be lost
+		closed = true;
+		try {
+			writeStripes();
+		} finally {
+			synchronized (writer) {
+				writer.close();
+			}
+		}
+	}
+
+	private void writeStripes() throws IOException {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				writeStripe(stripe);
+			}
+		}
+	}
+
+	/**
+	 * Must be called while holding the stripe lock. The stripe lock is always taken before the writer lock.
+	 */
+	private void writeStripe(Stripe stripe) throws IOException {
+		if (stripe.buffer.length() > 0) {
+			synchronized (writer) {
+				stripe.buffer.writeTo(writer);
+			}
+		}
+	}
+
+	private static class Stripe {
+		final OutputBuffer buffer = new OutputBuffer(STRIPE_FLUSH_SIZE + STRIPE_FLUSH_SIZE / 4);
+	}
+}
@@ -0,0 +1,340 @@
+package com.j256.simplecsv.processor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.j256.simplecsv.processor.AggregationResult.Aggregate;
+
+/**
+ * Computes counts, sums, minimums, and maximums of columns grouped by the values of key columns in a single pass over
+ * entities or CSV data without keeping the entities in memory. Only the groups and their primitive accumulators are
+ * kept. If an executor is set then chunks of lines are parsed and aggregated into separate results in parallel which
+ * are then merged in order by the calling thread.
+ * 
+ * <p>
+ * Create the aggregator with {@link CsvProcessor#newAggregator(String...)} and then add the aggregates. It can be used
+ * for multiple aggregations at the same time as long as the aggregates and executor are not changed.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class CsvAggregator<T> {
+
+	private final CsvSchema<T> schema;
+	private final ColumnInfo<Object>[] keyColumns;
+	private final int maxChunksInFlight;
+	private final List<Aggregate> aggregates = new ArrayList<Aggregate>();
+	private ExecutorService executor;
+
+	CsvAggregator(CsvSchema<T> schema, ColumnInfo<Object>[] keyColumns, int maxChunksInFlight) {
+		this.schema = schema;
+		this.keyColumns = keyColumns;
+		this.maxChunksInFlight = maxChunksInFlight;
+	}
+
+	/**
+	 * Add a function to compute over the values of the column in each group. The aggregates are numbered in the order
+	 * that they are added. All functions except {@link AggregateFunction#COUNT} need a primitive or boxed numeric
+	 * column. BigDecimal and BigInteger columns are not supported since they would lose precision.
+	 */
+	public void addAggregate(AggregateFunction function, String columnName) {
+		aggregates.add(new Aggregate(function, schema.findColumnInfo(columnName)));
+	}
+
+	/**
+	 * Add a function to compute over the values of the column in each group.
+	 * 
+	 * @see #addAggregate(AggregateFunction, String)
+	 */
+	public CsvAggregator<T> withAggregate(AggregateFunction function, String columnName) {
+		addAggregate(function, columnName);
+		return this;
+	}
+
+	/**
+	 * Executor used to parse and aggregate chunks of the rows in parallel. It is not shut down by the aggregator. If
+	 * not set then all of the work is done by the calling thread.
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Executor used to parse and aggregate chunks of the rows in parallel.
+	 * 
+	 * @see #setExecutor(ExecutorService)
+	 */
+	public CsvAggregator<T> withExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Aggregate the entities from the iterator.
+	 */
+	public AggregationResult aggregate(Iterator<T> entities) throws IOException {
+		AggregationResult result = newResult();
+		if (executor == null) {
+			while (entities.hasNext()) {
+				result.add(entities.next());
+			}
+			return result;
+		}
+		ArrayDeque<Future<AggregationResult>> futures = new ArrayDeque<Future<AggregationResult>>();
+		try {
+			while (entities.hasNext()) {
+				List<T> chunk = new ArrayList<T>(ParallelRowWriter.CHUNK_SIZE);
+				while (chunk.size() < ParallelRowWriter.CHUNK_SIZE && entities.hasNext()) {
+					chunk.add(entities.next());
+				}
+				futures.add(executor.submit(new EntityTask(chunk, newResult())));
+				// merge the oldest chunk once we have enough in flight
+				if (futures.size() >= maxChunksInFlight) {
+					result.merge(ParallelRowWriter.getResult(futures.remove()));
+				}
+			}
+			while (!futures.isEmpty()) {
+				result.merge(ParallelRowWriter.getResult(futures.remove()));
+			}
+		} finally {
+			// only non-empty if there was an exception
+			for (Future<AggregationResult> future : futures) {
+				future.cancel(true);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Aggregate the rows of the file.
+	 * 
+	 * @see #aggregate(Reader, Collection)
+	 */
+	public AggregationResult aggregate(File file, Collection<ParseError> parseErrors)
+			throws IOException, ParseException {
+		return aggregate(new FileReader(file), parseErrors);
+	}
+
+	/**
+	 * Aggregate the rows from the reader.
+	 * 
+	 * @param reader
+	 *            Where to read the header and rows from. It will be closed when the method returns.
+	 * @param parseErrors
+	 *            If not null, any lines that could not be parsed are added to the collection and left out of the
+	 *            aggregation. If null then a ParseException will be thrown on parsing problems.
+	 * @return The groups and their aggregates or null if the header was not valid or a {@link ParseErrorCollector}
+	 *         aborted the read.
+	 * @throws ParseException
+	 *             Thrown on any parsing problems if parseErrors is null.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when reading.
+	 */
+	public AggregationResult aggregate(Reader reader, Collection<ParseError> parseErrors)
+			throws IOException, ParseException {
+		CsvReadSession<T> session = schema.newReadSession();
+		BufferedReader bufferedReader = new BufferedReaderLineCounter(reader);
+		ArrayDeque<Future<LineChunk>> futures = new ArrayDeque<Future<LineChunk>>();
+		try {
+			if (schema.isFirstLineHeader()) {
+				ParseError parseError = null;
+				if (parseErrors != null) {
+					parseError = new ParseError();
+				}
+				if (session.readHeader(bufferedReader, parseError) == null) {
+					if (parseError != null && parseError.isError()) {
+						parseErrors.add(parseError);
+					}
+					return null;
+				}
+			}
+			AggregationResult result = newResult();
+			ErrorCounter errorCounter = new ErrorCounter(parseErrors);
+			while (true) {
+				int firstLineNumber = CsvSchema.getLineNumber(bufferedReader) + 1;
+				List<String> lines = new ArrayList<String>(ParallelRowWriter.CHUNK_SIZE);
+				String line = null;
+				while (lines.size() < ParallelRowWriter.CHUNK_SIZE && (line = bufferedReader.readLine()) != null) {
+					lines.add(line);
+				}
+				if (!lines.isEmpty()) {
+					if (executor == null) {
+						// aggregate straight into the result
+						LineTask task = new LineTask(session, lines, firstLineNumber, parseErrors != null, result);
+						if (!errorCounter.addErrors(task.call())) {
+							return null;
+						}
+					} else {
+						futures.add(executor.submit(
+								new LineTask(session, lines, firstLineNumber, parseErrors != null, newResult())));
+						// merge the oldest chunk once we have enough in flight
+						if (futures.size() >= maxChunksInFlight
+								&& !mergeChunk(result, futures.remove(), errorCounter)) {
+							return null;
+						}
+					}
+				}
+				if (line == null) {
+					break;
+				}
+			}
+			while (!futures.isEmpty()) {
+				if (!mergeChunk(result, futures.remove(), errorCounter)) {
+					return null;
+				}
+			}
+			return result;
+		} finally {
+			// only non-empty if there was an exception or abort
+			for (Future<LineChunk> future : futures) {
+				future.cancel(true);
+			}
+			bufferedReader.close();
+		}
+	}
+
+	private boolean mergeChunk(AggregationResult result, Future<LineChunk> future, ErrorCounter errorCounter)
+			throws IOException, ParseException {
+		LineChunk chunk = ParallelRowWriter.getResult(future);
+		if (!errorCounter.addErrors(chunk)) {
+			return false;
+		}
+		result.merge(chunk.result);
+		return true;
+	}
+
+	private AggregationResult newResult() {
+		return new AggregationResult(keyColumns, aggregates.toArray(new Aggregate[aggregates.size()]));
+	}
+
+	/**
+	 * Result of parsing and aggregating a chunk of lines.
+	 */
+	private static class LineChunk {
+		final AggregationResult result;
+		final List<ParseError> parseErrors = new ArrayList<ParseError>();
+		int rowCount;
+		ParseException parseException;
+
+		public LineChunk(AggregationResult result) {
+			this.result = result;
+		}
+	}
+
+	/**
+	 * Adds the parse errors from the chunks to the collection in order and checks if we should abort.
+	 */
+	private static class ErrorCounter {
+
+		private final Collection<ParseError> parseErrors;
+		private final ParseErrorCollector errorCollector;
+		private long rowCount;
+
+		public ErrorCounter(Collection<ParseError> parseErrors) {
+			this.parseErrors = parseErrors;
+			if (parseErrors instanceof ParseErrorCollector) {
+				this.errorCollector = (ParseErrorCollector) parseErrors;
+			} else {
+				this.errorCollector = null;
+			}
+		}
+
+		/**
+		 * Returns false if the aggregation should be aborted.
+		 */
+		public boolean addErrors(LineChunk chunk) throws ParseException {
+			if (chunk.parseException != null) {
+				throw chunk.parseException;
+			}
+			rowCount += chunk.rowCount;
+			if (chunk.parseErrors.isEmpty()) {
+				return true;
+			}
+			parseErrors.addAll(chunk.parseErrors);
+			return (errorCollector == null || !errorCollector.checkAbort(rowCount));
+		}
+	}
+
+	/**
+	 * Parses a chunk of lines and adds the entities to a result.
+	 */
+	private class LineTask implements Callable<LineChunk> {
+
+		private final CsvReadSession<T> session;
+		private final List<String> lines;
+		private final int firstLineNumber;
+		private final boolean collectErrors;
+		private final AggregationResult result;
+
+		public LineTask(CsvReadSession<T> session, List<String> lines, int firstLineNumber, boolean collectErrors,
+				AggregationResult result) {
+			this.session = session;
+			this.lines = lines;
+			this.firstLineNumber = firstLineNumber;
+			this.collectErrors = collectErrors;
+			this.result = result;
+		}
+
+		@Override
+		public LineChunk call() {
+			LineChunk chunk = new LineChunk(result);
+			ParseError parseError = null;
+			if (collectErrors) {
+				parseError = new ParseError();
+			}
+			int lineNumber = firstLineNumber;
+			for (String line : lines) {
+				// the session only holds the header mapping after the header is read so it can be shared
+				T entity;
+				try {
+					entity = session.processRow(line, parseError, lineNumber++);
+				} catch (ParseException pe) {
+					chunk.parseException = pe;
+					break;
+				}
+				chunk.rowCount++;
+				if (entity != null) {
+					result.add(entity);
+				} else if (parseError != null && parseError.isError()) {
+					chunk.parseErrors.add(parseError);
+					parseError = new ParseError();
+				}
+			}
+			return chunk;
+		}
+	}
+
+	/**
+	 * Aggregates a chunk of entities into a new result.
+	 */
+	private class EntityTask implements Callable<AggregationResult> {
+
+		private final List<T> chunk;
+		private final AggregationResult result;
+
+		public EntityTask(List<T> chunk, AggregationResult result) {
+			this.chunk = chunk;
+			this.result = result;
+		}
+
+		@Override
+		public AggregationResult call() {
+			for (T entity : chunk) {
+				result.add(entity);
+			}
+			return result;
+		}
+	}
+}
@@ -0,0 +1,558 @@
+package com.j256.simplecsv.processor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+/**
+ * Drops the rows whose key columns have the same values as an earlier row while reading. The key values are split out
+ * of each line and hashed before any entity is constructed so duplicate rows cost very little. Only a 64-bit hash of
+ * each key is kept and the hashes are stored off the Java heap in direct buffers so even a very large number of keys
+ * does not grow the heap. The key values are compared as they appear in the line after unquoting but before any
+ * trimming or conversion.
+ * 
+ * <p>
+ * By default the hashes are kept in an exact set so a row is only dropped if a row with the same 64-bit key hash was
+ * seen before. The chance of two different keys having the same hash is tiny, about 1 in 37 million for a billion
+ * keys. If a false positive rate is set then a bloom filter is used instead which takes much less memory, only about
+ * 10 bits per key for a 1% rate, but drops that fraction of the unique rows as if they were duplicates.
+ * </p>
+ * 
+ * <p>
+ * Create the deduplicator with {@link CsvProcessor#newDeduplicator(String...)}. Each read keeps its own set of keys so
+ * the deduplicator can be used for multiple reads at the same time as long as the settings are not changed.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class CsvDeduplicator<T> {
+
+	/** default number of distinct keys used to size the bloom filter */
+	public static final long DEFAULT_EXPECTED_KEYS = 1024 * 1024;
+	private static final int WRITE_BUFFER_SIZE = 8192;
+
+	private final CsvSchema<T> schema;
+	private final ColumnInfo<Object>[] keyColumns;
+	/** 0 if not set so the exact set starts small */
+	private long expectedKeys;
+	private double falsePositiveRate;
+
+	CsvDeduplicator(CsvSchema<T> schema, ColumnInfo<Object>[] keyColumns) {
+		if (keyColumns.length == 0) {
+			throw new IllegalArgumentException("At least one key column must be specified");
+		}
+		this.schema = schema;
+		this.keyColumns = keyColumns;
+	}
+
+	/**
+	 * Number of distinct keys that are expected. The exact set starts at this size and grows if needed while the bloom
+	 * filter is sized by it and has more false positives if there are more keys. If not set then the exact set starts
+	 * small and the bloom filter is sized for {@link #DEFAULT_EXPECTED_KEYS}.
+	 */
+	public void setExpectedKeys(long expectedKeys) {
+		if (expectedKeys <= 0) {
+			throw new IllegalArgumentException("Expected keys must be positive: " + expectedKeys);
+		}
+		this.expectedKeys = expectedKeys;
+	}
+
+	/**
+	 * Number of distinct keys that are expected.
+	 * 
+	 * @see #setExpectedKeys(long)
+	 */
+	public CsvDeduplicator<T> withExpectedKeys(long expectedKeys) {
+		setExpectedKeys(expectedKeys);
+		return this;
+	}
+
+	/**
+	 * Fraction of unique rows that can be dropped by mistake in exchange for using a bloom filter which takes much
+	 * less memory than the exact set. Set to 0 to use the exact set which is the default.
+	 */
+	public void setFalsePositiveRate(double falsePositiveRate) {
+		if (falsePositiveRate < 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("False positive rate must be from 0 to less than 1: "
+					+ falsePositiveRate);
+		}
+		this.falsePositiveRate = falsePositiveRate;
+	}
+
+	/**
+	 * Fraction of unique rows that can be dropped by mistake in exchange for using a bloom filter.
+	 * 
+	 * @see #setFalsePositiveRate(double)
+	 */
+	public CsvDeduplicator<T> withFalsePositiveRate(double falsePositiveRate) {
+		setFalsePositiveRate(falsePositiveRate);
+		return this;
+	}
+
+	/**
+	 * Read in the entities from the file dropping the duplicates.
+	 * 
+	 * @see #readAll(Reader, Collection)
+	 */
+	public List<T> readAll(File file, Collection<ParseError> parseErrors) throws IOException, ParseException {
+		return readAll(new FileReader(file), parseErrors);
+	}
+
+	/**
+	 * Read in the entities from the reader keeping only the first row with each key. Entities are only constructed
+	 * for rows whose key has not been seen. A row that can't be parsed does not count as a row with its key.
+	 * 
+	 * @param reader
+	 *            Where to read the header and rows from. It will be closed when the method returns.
+	 * @param parseErrors
+	 *            If not null, any errors will be added to the collection. If null then a ParseException will be thrown
+	 *            on parsing problems.
+	 * @return A list of the unique entities or null if the header was not valid, was missing one of the key columns,
+	 *         or a {@link ParseErrorCollector} aborted the read.
+	 * @throws ParseException
+	 *             Thrown on any parsing problems if parseErrors is null.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when reading.
+	 */
+	public List<T> readAll(Reader reader, Collection<ParseError> parseErrors) throws IOException, ParseException {
+		BufferedReader bufferedReader = new BufferedReaderLineCounter(reader);
+		try {
+			RowReader rowReader = new RowReader(bufferedReader, parseErrors);
+			if (!rowReader.readHeader()) {
+				return null;
+			}
+			List<T> results = new ArrayList<T>();
+			while (rowReader.nextLine()) {
+				if (!rowReader.splitKey()) {
+					// let the row processing report the problem
+				} else if (rowReader.keySet.contains(rowReader.keyHash)) {
+					continue;
+				}
+				T entity = rowReader.session.processRow(rowReader.line, rowReader.parseError, rowReader.lineNumber);
+				if (entity != null) {
+					if (rowReader.keyValid) {
+						rowReader.keySet.add(rowReader.keyHash);
+					}
+					results.add(entity);
+				} else if (!rowReader.addError()) {
+					return null;
+				}
+			}
+			return results;
+		} finally {
+			bufferedReader.close();
+		}
+	}
+
+	/**
+	 * Copy the header and the first row with each key from the reader to the writer, dropping the duplicates. The rows
+	 * are copied as is without constructing entities so the only parse errors are for lines that can't be split into
+	 * columns and the other columns are not validated.
+	 * 
+	 * @param reader
+	 *            Where to read the header and rows from. It will be closed when the method returns.
+	 * @param writer
+	 *            Where the header and unique rows are written. It will be closed when the method returns.
+	 * @param parseErrors
+	 *            If not null, any errors will be added to the collection and the lines are left out. If null then a
+	 *            ParseException will be thrown on parsing problems.
+	 * @return The number of duplicate rows dropped or -1 if the header was not valid, was missing one of the key
+	 *         columns, or a {@link ParseErrorCollector} aborted the filter.
+	 * @throws ParseException
+	 *             Thrown on any parsing problems if parseErrors is null.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when reading or writing.
+	 */
+	public long filter(Reader reader, Writer writer, Collection<ParseError> parseErrors)
+			throws IOException, ParseException {
+		BufferedReader bufferedReader = new BufferedReaderLineCounter(reader);
+		try {
+			RowReader rowReader = new RowReader(bufferedReader, parseErrors);
+			if (!rowReader.readHeader()) {
+				return -1;
+			}
+			String lineTermination = schema.getLineTermination();
+			OutputBuffer buffer = new OutputBuffer(WRITE_BUFFER_SIZE + WRITE_BUFFER_SIZE / 4);
+			if (rowReader.header != null) {
+				buffer.append(rowReader.header).append(lineTermination);
+			}
+			long duplicateCount = 0;
+			while (rowReader.nextLine()) {
+				if (!rowReader.splitKey()) {
+					if (rowReader.parseError == null) {
+						throw new ParseException("Problems parsing line " + rowReader.lineNumber + " ("
+								+ rowReader.keyError + "): " + rowReader.line, rowReader.keyError.getLinePos());
+					}
+					rowReader.parseError.setErrorType(rowReader.keyError.getErrorType());
+					rowReader.parseError.setMessage(rowReader.keyError.getMessage());
+					rowReader.parseError.setLine(rowReader.line);
+					rowReader.parseError.setLinePos(rowReader.keyError.getLinePos());
+					rowReader.parseError.setLineNumber(rowReader.lineNumber);
+					if (!rowReader.addError()) {
+						return -1;
+					}
+				} else if (rowReader.keySet.add(rowReader.keyHash)) {
+					buffer.append(rowReader.line).append(lineTermination);
+					if (buffer.length() >= WRITE_BUFFER_SIZE) {
+						buffer.writeTo(writer);
+					}
+				} else {
+					duplicateCount++;
+				}
+			}
+			buffer.writeTo(writer);
+			return duplicateCount;
+		} finally {
+			try {
+				bufferedReader.close();
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	private KeySet newKeySet() {
+		if (falsePositiveRate > 0) {
+			long bloomKeys = (expectedKeys == 0 ? DEFAULT_EXPECTED_KEYS : expectedKeys);
+			return new OffHeapBloomFilter(bloomKeys, falsePositiveRate);
+		} else {
+			return new OffHeapLongSet(expectedKeys);
+		}
+	}
+
+	/**
+	 * Hash the characters into 64 bits with FNV-1a followed by the murmur3 finalizer to spread the bits.
+	 */
+	static long hashKey(CharSequence chars) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < chars.length(); i++) {
+			hash = (hash ^ chars.charAt(i)) * 0x100000001b3L;
+		}
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+
+	/**
+	 * Reads the lines and splits out their keys along with the state needed to track errors.
+	 */
+	private class RowReader {
+
+		final CsvReadSession<T> session = schema.newReadSession();
+		final KeySet keySet = newKeySet();
+		private final BufferedReader bufferedReader;
+		private final Collection<ParseError> parseErrors;
+		private final ParseErrorCollector errorCollector;
+		private final StringBuilder keySb = new StringBuilder(64);
+		final ParseError keyError = new ParseError();
+		private boolean[] keyPositions;
+		private long rowCount;
+		ParseError parseError;
+		String header;
+		String line;
+		int lineNumber;
+		long keyHash;
+		boolean keyValid;
+
+		public RowReader(BufferedReader bufferedReader, Collection<ParseError> parseErrors) {
+			this.bufferedReader = bufferedReader;
+			this.parseErrors = parseErrors;
+			if (parseErrors instanceof ParseErrorCollector) {
+				this.errorCollector = (ParseErrorCollector) parseErrors;
+			} else {
+				this.errorCollector = null;
+			}
+			if (parseErrors != null) {
+				this.parseError = new ParseError();
+			}
+		}
+
+		/**
+		 * Read and validate the header if there is one. Returns false if it was not valid.
+		 */
+		public boolean readHeader() throws IOException, ParseException {
+			int headerLineNumber = 0;
+			if (schema.isFirstLineHeader()) {
+				header = bufferedReader.readLine();
+				headerLineNumber = CsvSchema.getLineNumber(bufferedReader);
+				if (header == null) {
+					if (parseError == null) {
+						throw new ParseException("no header line read", 0);
+					}
+					parseError.setErrorType(ErrorType.NO_HEADER);
+					parseError.setLineNumber(headerLineNumber);
+					parseErrors.add(parseError);
+					return false;
+				}
+				if (session.processHeader(header, parseError, headerLineNumber) == null) {
+					if (parseError != null && parseError.isError()) {
+						parseErrors.add(parseError);
+					}
+					return false;
+				}
+			}
+			// the key positions depend on how the header mapped the columns
+			ColumnInfo<Object>[] columnInfos = session.getRowPlan().columnInfos;
+			int lastKeyPosition = -1;
+			for (int i = 0; i < columnInfos.length; i++) {
+				if (isKeyColumn(columnInfos[i])) {
+					lastKeyPosition = i;
+				}
+			}
+			keyPositions = new boolean[lastKeyPosition + 1];
+			for (int i = 0; i < keyPositions.length; i++) {
+				keyPositions[i] = isKeyColumn(columnInfos[i]);
+			}
+			// a key column that is not in the header would leave it out of every key
+			for (ColumnInfo<Object> keyColumn : keyColumns) {
+				if (!containsColumn(columnInfos, keyColumn)) {
+					String message = "key column '" + keyColumn.getColumnName() + "' is not in the header";
+					if (parseError == null) {
+						throw new ParseException(message + ": " + header, 0);
+					}
+					parseError.setErrorType(ErrorType.INVALID_HEADER);
+					parseError.setMessage(message);
+					parseError.setLine(header);
+					parseError.setLineNumber(headerLineNumber);
+					parseErrors.add(parseError);
+					return false;
+				}
+			}
+			return true;
+		}
+
+		public boolean nextLine() throws IOException {
+			line = bufferedReader.readLine();
+			if (line == null) {
+				return false;
+			}
+			lineNumber = CsvSchema.getLineNumber(bufferedReader);
+			rowCount++;
+			if (parseError != null) {
+				parseError.reset();
+			}
+			return true;
+		}
+
+		/**
+		 * Split out and hash the key of the line. Returns false if the line could not be split.
+		 */
+		public boolean splitKey() {
+			keySb.setLength(0);
+			keyError.reset();
+			keyValid = schema.appendKeyValues(line, keyPositions, keySb, keyError);
+			if (keyValid) {
+				keyHash = hashKey(keySb);
+			}
+			return keyValid;
+		}
+
+		/**
+		 * Add the parse error if it is set. Returns false if there have been too many errors.
+		 */
+		public boolean addError() {
+			if (parseError == null || !parseError.isError()) {
+				return true;
+			}
+			// if it was kept then we need to create another one
+			if (parseErrors.add(parseError)) {
+				parseError = new ParseError();
+			}
+			return (errorCollector == null || !errorCollector.checkAbort(rowCount));
+		}
+
+		private boolean containsColumn(ColumnInfo<Object>[] columnInfos, ColumnInfo<Object> keyColumn) {
+			for (ColumnInfo<Object> columnInfo : columnInfos) {
+				if (columnInfo == keyColumn) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean isKeyColumn(ColumnInfo<Object> columnInfo) {
+			for (ColumnInfo<Object> keyColumn : keyColumns) {
+				if (keyColumn == columnInfo) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Set of key hashes.
+	 */
+	private interface KeySet {
+
+		/**
+		 * Returns true if the hash might have been added before.
+		 */
+		public boolean contains(long hash);
+
+		/**
+		 * Add the hash returning true if it was not added before.
+		 */
+		public boolean add(long hash);
+	}
+
+	/**
+	 * Exact set of hashes in open-addressing tables held in direct buffers. The hashes are split across a number of
+	 * segments by their high bits so each segment grows on its own and no single buffer gets too large.
+	 */
+	private static class OffHeapLongSet implements KeySet {
+
+		private static final int SEGMENT_BITS = 6;
+		private static final int MIN_SEGMENT_CAPACITY = 16;
+		/** largest direct buffer of longs that we allocate */
+		private static final int MAX_SEGMENT_CAPACITY = 1 << 27;
+		/** 0 marks an empty slot so it is stored as this instead */
+		private static final long ZERO_HASH = 0x9E3779B97F4A7C15L;
+
+		private final LongBuffer[] tables = new LongBuffer[1 << SEGMENT_BITS];
+		private final int[] sizes = new int[1 << SEGMENT_BITS];
+
+		public OffHeapLongSet(long expectedKeys) {
+			// keep each segment at most 3/4 full
+			long perSegment = (expectedKeys * 4 / 3) >> SEGMENT_BITS;
+			int capacity = MIN_SEGMENT_CAPACITY;
+			while (capacity < perSegment && capacity < MAX_SEGMENT_CAPACITY) {
+				capacity <<= 1;
+			}
+			for (int i = 0; i < tables.length; i++) {
+				tables[i] = allocate(capacity);
+			}
+		}
+
+		@Override
+		public boolean contains(long hash) {
+			if (hash == 0) {
+				hash = ZERO_HASH;
+			}
+			LongBuffer table = tables[(int) (hash >>> (64 - SEGMENT_BITS))];
+			int mask = table.capacity() - 1;
+			for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+				long value = table.get(slot);
+				if (value == hash) {
+					return true;
+				} else if (value == 0) {
+					return false;
+				}
+			}
+		}
+
+		@Override
+		public boolean add(long hash) {
+			if (hash == 0) {
+				hash = ZERO_HASH;
+			}
+			int segment = (int) (hash >>> (64 - SEGMENT_BITS));
+			LongBuffer table = tables[segment];
+			if (!insert(table, hash)) {
+				return false;
+			}
+			sizes[segment]++;
+			if (sizes[segment] * 4L > table.capacity() * 3L) {
+				if (table.capacity() >= MAX_SEGMENT_CAPACITY) {
+					throw new IllegalStateException("Too many keys for the exact set, use a false positive rate");
+				}
+				LongBuffer newTable = allocate(table.capacity() * 2);
+				for (int i = 0; i < table.capacity(); i++) {
+					long value = table.get(i);
+					if (value != 0) {
+						insert(newTable, value);
+					}
+				}
+				// the old direct buffer is released when it is garbage collected
+				tables[segment] = newTable;
+			}
+			return true;
+		}
+
+		private static boolean insert(LongBuffer table, long hash) {
+			int mask = table.capacity() - 1;
+			for (int slot = (int) hash & mask;; slot = (slot + 1) & mask) {
+				long value = table.get(slot);
+				if (value == hash) {
+					return false;
+				} else if (value == 0) {
+					table.put(slot, hash);
+					return true;
+				}
+			}
+		}
+
+		private static LongBuffer allocate(int capacity) {
+			// direct buffers are already zeroed
+			return ByteBuffer.allocateDirect(capacity * 8).asLongBuffer();
+		}
+	}
+
+	/**
+	 * Bloom filter with its bits held in a direct buffer. The bit positions are picked by double hashing the two
+	 * halves of the key hash.
+	 */
+	private static class OffHeapBloomFilter implements KeySet {
+
+		/** most longs in the direct buffer */
+		private static final int MAX_WORDS = Integer.MAX_VALUE / 8;
+
+		private final LongBuffer words;
+		private final long numBits;
+		private final int numHashes;
+
+		public OffHeapBloomFilter(long expectedKeys, double falsePositiveRate) {
+			double ln2 = Math.log(2);
+			long bits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (ln2 * ln2));
+			int numWords = (int) Math.min(MAX_WORDS, Math.max(1, (bits + 63) / 64));
+			this.words = ByteBuffer.allocateDirect(numWords * 8).asLongBuffer();
+			this.numBits = numWords * 64L;
+			this.numHashes = (int) Math.max(1, Math.round((double) numBits / expectedKeys * ln2));
+		}
+
+		@Override
+		public boolean contains(long hash) {
+			long hash1 = (int) hash;
+			long hash2 = (int) (hash >>> 32);
+			for (int i = 0; i < numHashes; i++) {
+				long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % numBits;
+				if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		@Override
+		public boolean add(long hash) {
+			long hash1 = (int) hash;
+			long hash2 = (int) (hash >>> 32);
+			boolean added = false;
+			for (int i = 0; i < numHashes; i++) {
+				long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % numBits;
+				int index = (int) (bit >>> 6);
+				long word = words.get(index);
+				long mask = 1L << bit;
+				if ((word & mask) == 0) {
+					words.put(index, word | mask);
+					added = true;
+				}
+			}
+			return added;
+		}
+	}
+}
@@ -0,0 +1,613 @@
+package com.j256.simplecsv.processor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Joins two sources of CSV data on key columns with a hash join. The smaller build side, such as a dimension file, is
+ * loaded into a compact hash table on its key column and the larger probe side, such as a fact file, is streamed
+ * through it so only the build side is held in memory. Key values are compared with equals so the key columns must
+ * have the same type, and null keys never match.
+ * 
+ * <p>
+ * If the build side grows past the memory budget then the join falls back to a grace hash join. Both sides are split
+ * by the hash of their keys into partition files in the temporary directory and each pair of partitions is then joined
+ * on its own, partitioning again with a different hash if a build partition is still too large. In memory the pairs
+ * are passed to the handler in the order of the probe side. Once the join has spilled the order is only kept within
+ * each partition.
+ * </p>
+ * 
+ * <p>
+ * Create the join with {@link CsvProcessor#newHashJoin(String, CsvProcessor, String)}. It can be used for multiple
+ * joins at the same time as long as the settings are not changed.
+ * </p>
+ * 
+ * @param <P>
+ *            Type of the entities on the probe side.
+ * @param <B>
+ *            Type of the entities on the build side.
+ * @author graywatson
+ */
+public class CsvHashJoin<P, B> {
+
+	/** default number of characters of build lines that are kept in memory */
+	public static final long DEFAULT_MAX_BUILD_SIZE = 32 * 1024 * 1024;
+	/** default number of partitions that each side is split into when the build side is too large */
+	public static final int DEFAULT_NUM_PARTITIONS = 16;
+	/** most times a partition is split again before we give up and load it whatever its size */
+	private static final int MAX_PARTITION_DEPTH = 3;
+	private static final int[] PARTITION_SEEDS = new int[] { 0x9E3779B9, 0x7F4A7C15, 0xF39CC060, 0x5CEDC834 };
+	private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+	private final CsvSchema<P> probeSchema;
+	private final ColumnInfo<Object> probeKeyColumn;
+	private final CsvSchema<B> buildSchema;
+	private final ColumnInfo<Object> buildKeyColumn;
+	private long maxBuildSize = DEFAULT_MAX_BUILD_SIZE;
+	private int numPartitions = DEFAULT_NUM_PARTITIONS;
+	private File tempDirectory;
+	private boolean leftOuterJoin;
+
+	CsvHashJoin(CsvSchema<P> probeSchema, ColumnInfo<Object> probeKeyColumn, CsvSchema<B> buildSchema,
+			ColumnInfo<Object> buildKeyColumn) {
+		if (boxedType(probeKeyColumn.getType()) != boxedType(buildKeyColumn.getType())) {
+			throw new IllegalArgumentException("Key columns must have the same type: " + probeKeyColumn.getType()
+					+ " and " + buildKeyColumn.getType());
+		}
+		this.probeSchema = probeSchema;
+		this.probeKeyColumn = probeKeyColumn;
+		this.buildSchema = buildSchema;
+		this.buildKeyColumn = buildKeyColumn;
+	}
+
+	/**
+	 * Number of characters of build lines that are loaded into the hash table before the join spills to partition
+	 * files. The entities and table take memory in addition to the lines. Default is {@link #DEFAULT_MAX_BUILD_SIZE}.
+	 */
+	public void setMaxBuildSize(long maxBuildSize) {
+		this.maxBuildSize = maxBuildSize;
+	}
+
+	/**
+	 * Number of characters of build lines that are loaded into the hash table before the join spills.
+	 * 
+	 * @see #setMaxBuildSize(long)
+	 */
+	public CsvHashJoin<P, B> withMaxBuildSize(long maxBuildSize) {
+		this.maxBuildSize = maxBuildSize;
+		return this;
+	}
+
+	/**
+	 * Number of partitions that each side is split into if the build side is too large to fit in memory. Default is
+	 * {@link #DEFAULT_NUM_PARTITIONS}.
+	 */
+	public void setNumPartitions(int numPartitions) {
+		if (numPartitions < 2) {
+			throw new IllegalArgumentException("Number of partitions must be at least 2: " + numPartitions);
+		}
+		this.numPartitions = numPartitions;
+	}
+
+	/**
+	 * Number of partitions that each side is split into if the build side is too large to fit in memory.
+	 * 
+	 * @see #setNumPartitions(int)
+	 */
+	public CsvHashJoin<P, B> withNumPartitions(int numPartitions) {
+		setNumPartitions(numPartitions);
+		return this;
+	}
+
+	/**
+	 * Directory where the partition files are written. Default is the system temporary directory.
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * Directory where the partition files are written.
+	 * 
+	 * @see #setTempDirectory(File)
+	 */
+	public CsvHashJoin<P, B> withTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+		return this;
+	}
+
+	/**
+	 * Set to true to also pass the probe entities that match no build entity to the handler with a null build entity.
+	 * Default is false which is an inner join.
+	 */
+	public void setLeftOuterJoin(boolean leftOuterJoin) {
+		this.leftOuterJoin = leftOuterJoin;
+	}
+
+	/**
+	 * Set to true to also pass the probe entities that match no build entity to the handler.
+	 * 
+	 * @see #setLeftOuterJoin(boolean)
+	 */
+	public CsvHashJoin<P, B> withLeftOuterJoin(boolean leftOuterJoin) {
+		this.leftOuterJoin = leftOuterJoin;
+		return this;
+	}
+
+	/**
+	 * Join the probe file with the build file.
+	 * 
+	 * @see #join(Reader, Reader, JoinHandler, Collection)
+	 */
+	public boolean join(File probeFile, File buildFile, JoinHandler<P, B> handler, Collection<ParseError> parseErrors)
+			throws IOException, ParseException {
+		Reader buildReader = new FileReader(buildFile);
+		Reader probeReader;
+		try {
+			probeReader = new FileReader(probeFile);
+		} catch (IOException ioe) {
+			buildReader.close();
+			throw ioe;
+		}
+		return join(probeReader, buildReader, handler, parseErrors);
+	}
+
+	/**
+	 * Join the data from the probe reader with the data from the build reader passing each matching pair to the
+	 * handler. Both readers are closed before this method returns.
+	 * 
+	 * @param probeReader
+	 *            Where to read the header and rows of the larger side which is streamed.
+	 * @param buildReader
+	 *            Where to read the header and rows of the smaller side which is loaded into memory.
+	 * @param handler
+	 *            Called with each pair of matching entities.
+	 * @param parseErrors
+	 *            If not null, any lines from either side that could not be parsed are added to the collection and left
+	 *            out of the join. If null then a ParseException will be thrown on parsing problems.
+	 * @return False if either header was not valid or a {@link ParseErrorCollector} aborted the join, otherwise true.
+	 * @throws ParseException
+	 *             Thrown on any parsing problems if parseErrors is null.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when reading or spilling or by the handler.
+	 */
+	public boolean join(Reader probeReader, Reader buildReader, JoinHandler<P, B> handler,
+			Collection<ParseError> parseErrors) throws IOException, ParseException {
+		ErrorState errorState = new ErrorState(parseErrors);
+		try {
+			LineSource<B> buildSource = openSource(buildSchema, buildKeyColumn, buildReader, errorState);
+			if (buildSource == null) {
+				return false;
+			}
+			LineSource<P> probeSource = openSource(probeSchema, probeKeyColumn, probeReader, errorState);
+			if (probeSource == null) {
+				return false;
+			}
+			joinSources(buildSource, probeSource, handler, 0);
+			return !errorState.aborted;
+		} finally {
+			try {
+				buildReader.close();
+			} finally {
+				probeReader.close();
+			}
+		}
+	}
+
+	/**
+	 * Read the header if there is one and return a source for the rows or null if the header was not valid.
+	 */
+	private <E> LineSource<E> openSource(CsvSchema<E> schema, ColumnInfo<Object> keyColumn, Reader reader,
+			ErrorState errorState) throws IOException, ParseException {
+		CsvReadSession<E> session = schema.newReadSession();
+		BufferedReader bufferedReader = new BufferedReaderLineCounter(reader);
+		if (schema.isFirstLineHeader()) {
+			ParseError parseError = null;
+			if (errorState.parseErrors != null) {
+				parseError = new ParseError();
+			}
+			if (session.readHeader(bufferedReader, parseError) == null) {
+				if (parseError != null && parseError.isError()) {
+					errorState.parseErrors.add(parseError);
+				}
+				return null;
+			}
+		}
+		return new LineSource<E>(session, keyColumn, bufferedReader, errorState);
+	}
+
+	private void joinSources(LineSource<B> buildSource, LineSource<P> probeSource, JoinHandler<P, B> handler,
+			int depth) throws IOException, ParseException {
+		JoinTable table = new JoinTable();
+		long buildSize = 0;
+		while (buildSource.next()) {
+			if (buildSource.key == null) {
+				// null keys never match anything
+				continue;
+			}
+			table.add(buildSource.key, buildSource.entity, buildSource.line);
+			buildSize += buildSource.line.length();
+			if (buildSize > maxBuildSize && depth < MAX_PARTITION_DEPTH) {
+				spillAndJoin(table, buildSource, probeSource, handler, depth);
+				return;
+			}
+		}
+		if (buildSource.errorState.aborted) {
+			return;
+		}
+		while (probeSource.next()) {
+			boolean matched = false;
+			if (probeSource.key != null) {
+				for (int entry = table.findFirst(probeSource.key); entry >= 0; entry = table.entryNext[entry]) {
+					@SuppressWarnings("unchecked")
+					B buildEntity = (B) table.entryEntities[entry];
+					handler.joined(probeSource.entity, buildEntity);
+					matched = true;
+				}
+			}
+			if (!matched && leftOuterJoin) {
+				handler.joined(probeSource.entity, null);
+			}
+		}
+	}
+
+	/**
+	 * Split both sides into partition files by the hash of their keys and then join each pair of partitions.
+	 */
+	private void spillAndJoin(JoinTable table, LineSource<B> buildSource, LineSource<P> probeSource,
+			JoinHandler<P, B> handler, int depth) throws IOException, ParseException {
+		File[] buildFiles = new File[numPartitions];
+		File[] probeFiles = new File[numPartitions];
+		try {
+			Writer[] writers = openPartitionWriters(buildFiles);
+			try {
+				for (int entry = 0; entry < table.size; entry++) {
+					writeLine(writers, table.entryHashes[entry], depth, table.entryLines[entry]);
+				}
+				// free up the memory before we read the rest of the build side
+				table.clear();
+				while (buildSource.next()) {
+					if (buildSource.key != null) {
+						writeLine(writers, buildSource.key.hashCode(), depth, buildSource.line);
+					}
+				}
+			} finally {
+				closeWriters(writers);
+			}
+			if (buildSource.errorState.aborted) {
+				return;
+			}
+			writers = openPartitionWriters(probeFiles);
+			try {
+				while (probeSource.next()) {
+					if (probeSource.key != null) {
+						writeLine(writers, probeSource.key.hashCode(), depth, probeSource.line);
+					} else if (leftOuterJoin) {
+						// it can't match anything so there is no point in spilling it
+						handler.joined(probeSource.entity, null);
+					}
+				}
+			} finally {
+				closeWriters(writers);
+			}
+			if (probeSource.errorState.aborted) {
+				return;
+			}
+			for (int i = 0; i < numPartitions; i++) {
+				LineSource<B> buildPartition = openFileSource(buildSource, buildFiles[i]);
+				try {
+					LineSource<P> probePartition = openFileSource(probeSource, probeFiles[i]);
+					try {
+						joinSources(buildPartition, probePartition, handler, depth + 1);
+					} finally {
+						probePartition.reader.close();
+					}
+				} finally {
+					buildPartition.reader.close();
+				}
+				buildFiles[i].delete();
+				probeFiles[i].delete();
+			}
+		} finally {
+			for (int i = 0; i < numPartitions; i++) {
+				if (buildFiles[i] != null) {
+					buildFiles[i].delete();
+				}
+				if (probeFiles[i] != null) {
+					probeFiles[i].delete();
+				}
+			}
+		}
+	}
+
+	private Writer[] openPartitionWriters(File[] files) throws IOException {
+		Writer[] writers = new Writer[files.length];
+		try {
+			for (int i = 0; i < files.length; i++) {
+				files[i] = File.createTempFile("simplecsv-join", ".part", tempDirectory);
+				writers[i] = new Utf8ByteWriter(new FileOutputStream(files[i]), IO_BUFFER_SIZE);
+			}
+		} catch (IOException ioe) {
+			closeWriters(writers);
+			throw ioe;
+		}
+		return writers;
+	}
+
+	private void writeLine(Writer[] writers, int keyHash, int depth, String line) throws IOException {
+		Writer writer = writers[partition(keyHash, depth, numPartitions)];
+		writer.write(line);
+		writer.write('\n');
+	}
+
+	/**
+	 * Pick the partition for a key hash. The hash is mixed with a different seed at each depth so the keys of a
+	 * partition that is split again are spread out over all of the new partitions.
+	 */
+	static int partition(int keyHash, int depth, int numPartitions) {
+		// murmur3 finalizer
+		int hash = keyHash ^ PARTITION_SEEDS[depth];
+		hash ^= hash >>> 16;
+		hash *= 0x85ebca6b;
+		hash ^= hash >>> 13;
+		hash *= 0xc2b2ae35;
+		hash ^= hash >>> 16;
+		return (hash & Integer.MAX_VALUE) % numPartitions;
+	}
+
+	private static void closeWriters(Writer[] writers) throws IOException {
+		IOException exception = null;
+		for (Writer writer : writers) {
+			if (writer == null) {
+				continue;
+			}
+			try {
+				writer.close();
+			} catch (IOException ioe) {
+				if (exception == null) {
+					exception = ioe;
+				}
+			}
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	private static <E> LineSource<E> openFileSource(LineSource<E> source, File file) throws IOException {
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+		// the lines were parsed successfully when they were first read so there are no errors to track
+		return new LineSource<E>(source.session, source.keyColumn, reader, source.errorState);
+	}
+
+	private static Class<?> boxedType(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return type;
+		} else if (type == int.class) {
+			return Integer.class;
+		} else if (type == long.class) {
+			return Long.class;
+		} else if (type == short.class) {
+			return Short.class;
+		} else if (type == byte.class) {
+			return Byte.class;
+		} else if (type == char.class) {
+			return Character.class;
+		} else if (type == boolean.class) {
+			return Boolean.class;
+		} else if (type == float.class) {
+			return Float.class;
+		} else {
+			return Double.class;
+		}
+	}
+
+	/**
+	 * Parse errors from both sides and whether there have been too many.
+	 */
+	private static class ErrorState {
+
+		final Collection<ParseError> parseErrors;
+		final ParseErrorCollector errorCollector;
+		long rowCount;
+		boolean aborted;
+
+		public ErrorState(Collection<ParseError> parseErrors) {
+			this.parseErrors = parseErrors;
+			if (parseErrors instanceof ParseErrorCollector) {
+				this.errorCollector = (ParseErrorCollector) parseErrors;
+			} else {
+				this.errorCollector = null;
+			}
+		}
+	}
+
+	/**
+	 * Rows of one side of the join along with their keys.
+	 */
+	private static class LineSource<E> {
+
+		final CsvReadSession<E> session;
+		final ColumnInfo<Object> keyColumn;
+		final BufferedReader reader;
+		final ErrorState errorState;
+		private ParseError parseError;
+		String line;
+		E entity;
+		Object key;
+
+		public LineSource(CsvReadSession<E> session, ColumnInfo<Object> keyColumn, BufferedReader reader,
+				ErrorState errorState) {
+			this.session = session;
+			this.keyColumn = keyColumn;
+			this.reader = reader;
+			this.errorState = errorState;
+			if (errorState.parseErrors != null) {
+				this.parseError = new ParseError();
+			}
+		}
+
+		/**
+		 * Move to the next row returning false if there are no more or if there have been too many errors.
+		 */
+		public boolean next() throws IOException, ParseException {
+			while (!errorState.aborted) {
+				line = reader.readLine();
+				if (line == null) {
+					return false;
+				}
+				if (parseError != null) {
+					parseError.reset();
+				}
+				errorState.rowCount++;
+				entity = session.processRow(line, parseError, CsvSchema.getLineNumber(reader));
+				if (entity != null) {
+					try {
+						key = keyColumn.getValue(entity);
+					} catch (Exception e) {
+						throw new IllegalStateException("Could not get value from entity field: " + keyColumn);
+					}
+					return true;
+				}
+				if (parseError != null && parseError.isError()) {
+					// if it was kept then we need to create another one
+					if (errorState.parseErrors.add(parseError)) {
+						parseError = new ParseError();
+					}
+					ParseErrorCollector errorCollector = errorState.errorCollector;
+					if (errorCollector != null && errorCollector.checkAbort(errorState.rowCount)) {
+						errorState.aborted = true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Open-addressing hash table from keys to chains of entries stored in parallel arrays. The entries with the same
+	 * key are chained in the order they were added.
+	 */
+	private static class JoinTable {
+
+		private static final int INITIAL_CAPACITY = 64;
+
+		/** first entry plus 1 for each slot or 0 if the slot is empty */
+		private int[] slotHeads = new int[INITIAL_CAPACITY * 2];
+		private int[] slotTails = new int[INITIAL_CAPACITY * 2];
+		private int slotMask = slotHeads.length - 1;
+		private int numKeys;
+		int size;
+		Object[] entryKeys = new Object[INITIAL_CAPACITY];
+		Object[] entryEntities = new Object[INITIAL_CAPACITY];
+		String[] entryLines = new String[INITIAL_CAPACITY];
+		int[] entryHashes = new int[INITIAL_CAPACITY];
+		/** next entry with the same key or -1 if none */
+		int[] entryNext = new int[INITIAL_CAPACITY];
+
+		public void add(Object key, Object entity, String line) {
+			if (size == entryKeys.length) {
+				int capacity = size * 2;
+				entryKeys = Arrays.copyOf(entryKeys, capacity);
+				entryEntities = Arrays.copyOf(entryEntities, capacity);
+				entryLines = Arrays.copyOf(entryLines, capacity);
+				entryHashes = Arrays.copyOf(entryHashes, capacity);
+				entryNext = Arrays.copyOf(entryNext, capacity);
+			}
+			int hash = key.hashCode();
+			int entry = size++;
+			entryKeys[entry] = key;
+			entryEntities[entry] = entity;
+			entryLines[entry] = line;
+			entryHashes[entry] = hash;
+			entryNext[entry] = -1;
+			int slot = findSlot(key, hash);
+			if (slotHeads[slot] == 0) {
+				slotHeads[slot] = entry + 1;
+				slotTails[slot] = entry + 1;
+				numKeys++;
+				// keep the table at most half full so the probes stay short
+				if (numKeys * 2 > slotHeads.length) {
+					growSlots();
+				}
+			} else {
+				entryNext[slotTails[slot] - 1] = entry;
+				slotTails[slot] = entry + 1;
+			}
+		}
+
+		/**
+		 * Drop all of the entries.
+		 */
+		public void clear() {
+			slotHeads = new int[INITIAL_CAPACITY * 2];
+			slotTails = new int[INITIAL_CAPACITY * 2];
+			slotMask = slotHeads.length - 1;
+			numKeys = 0;
+			size = 0;
+			entryKeys = new Object[INITIAL_CAPACITY];
+			entryEntities = new Object[INITIAL_CAPACITY];
+			entryLines = new String[INITIAL_CAPACITY];
+			entryHashes = new int[INITIAL_CAPACITY];
+			entryNext = new int[INITIAL_CAPACITY];
+		}
+
+		/**
+		 * Returns the first entry with the key or -1 if none.
+		 */
+		public int findFirst(Object key) {
+			return slotHeads[findSlot(key, key.hashCode())] - 1;
+		}
+
+		/**
+		 * Returns the slot with the key or the empty slot where it should go.
+		 */
+		private int findSlot(Object key, int hash) {
+			int slot = spread(hash) & slotMask;
+			while (slotHeads[slot] != 0) {
+				int entry = slotHeads[slot] - 1;
+				if (entryHashes[entry] == hash && entryKeys[entry].equals(key)) {
+					break;
+				}
+				slot = (slot + 1) & slotMask;
+			}
+			return slot;
+		}
+
+		private void growSlots() {
+			int[] oldHeads = slotHeads;
+			int[] oldTails = slotTails;
+			slotHeads = new int[oldHeads.length * 2];
+			slotTails = new int[oldHeads.length * 2];
+			slotMask = slotHeads.length - 1;
+			for (int i = 0; i < oldHeads.length; i++) {
+				if (oldHeads[i] == 0) {
+					continue;
+				}
+				int slot = spread(entryHashes[oldHeads[i] - 1]) & slotMask;
+				while (slotHeads[slot] != 0) {
+					slot = (slot + 1) & slotMask;
+				}
+				slotHeads[slot] = oldHeads[i];
+				slotTails[slot] = oldTails[i];
+			}
+		}
+
+		private static int spread(int hash) {
+			hash *= 0x9E3779B9;
+			return hash ^ (hash >>> 16);
+		}
+	}
+}
@@ -3,9 +3,9 @@ package com.j256.simplecsv.processor;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.reflect.Constructor;
@@ -14,20 +14,23 @@ import java.lang.reflect.Method;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
 
 import com.j256.simplecsv.common.CsvColumn;
 import com.j256.simplecsv.common.CsvField;
 import com.j256.simplecsv.converter.Converter;
 import com.j256.simplecsv.converter.ConverterUtils;
 import com.j256.simplecsv.converter.EnumConverter;
-import com.j256.simplecsv.processor.ParseError.ErrorType;
 
 /**
  * CSV reader and writer.
@@ -39,6 +42,14 @@ import com.j256.simplecsv.processor.ParseError.ErrorType;
  * be auto-configured on the first read/write method call or call {@link #initialize()} directly (or in spring).
  * </p>
  * 
+ * <p>
+ * Once configured, the processor builds an immutable {@link CsvSchema} which can be shared by multiple threads. The
+ * readAll methods use a new {@link CsvReadSession} for each call so they can be called concurrently. The readHeader,
+ * readRow(s), validateHeader, and processRow methods share a single session inside of the processor so if you need to
+ * use them with multiple streams at the same time, use {@link #getSchema()} and {@link CsvSchema#newReadSession()}
+ * instead.
+ * </p>
+ * 
  * @param <T>
  *            Entity type that we are processing. It should have a public no-arg constructor so it can be created by
  *            this library.
@@ -89,7 +100,8 @@ public class CsvProcessor<T> {
 	private final Map<Class<?>, Converter<?, ?>> converterMap = new HashMap<Class<?>, Converter<?, ?>>();
 
 	private List<ColumnInfo<Object>> allColumnInfos;
-	private Map<Integer, ColumnInfo<Object>> columnPositionInfoMap;
+	private volatile CsvSchema<T> schema;
+	private CsvReadSession<T> defaultSession;
 
 	{
 		ConverterUtils.addInternalConverters(converterMap);
@@ -113,6 +125,7 @@ public class CsvProcessor<T> {
 	 */
 	public <FT> void registerConverter(Class<FT> clazz, Converter<FT, ?> converter) {
 		converterMap.put(clazz, converter);
+		resetEntityConfig();
 	}
 
 	/**
@@ -122,6 +135,7 @@ public class CsvProcessor<T> {
 	 */
 	public <FT> CsvProcessor<T> withConverter(Class<FT> clazz, Converter<FT, ?> converter) {
 		converterMap.put(clazz, converter);
+		resetEntityConfig();
 		return this;
 	}
 
@@ -130,10 +144,21 @@ public class CsvProcessor<T> {
 	 * methods but this is here if you are using the class concurrently and need to force the initialization.
 	 */
 	public CsvProcessor<T> initialize() {
-		configureEntityClass();
+		checkEntityConfig();
 		return this;
 	}
 
+	/**
+	 * Returns the compiled and immutable schema built from the current configuration of this processor. The schema
+	 * can be shared across threads and each thread can read from its own stream using
+	 * {@link CsvSchema#newReadSession()} without any additional reflection or configuration. Any changes to this
+	 * processor's configuration after this call will cause a new schema to be built and will not affect the returned
+	 * one.
+	 */
+	public CsvSchema<T> getSchema() {
+		return checkEntityConfig();
+	}
+
 	/**
 	 * Read in all of the entities in the file passed in.
 	 * 
@@ -142,7 +167,8 @@ public class CsvProcessor<T> {
 	 * @param parseErrors
 	 *            If not null, any errors will be added to the collection and null will be returned. If validateHeader
 	 *            is true and the header does not match then no additional lines will be returned. If this is null then
-	 *            a ParseException will be thrown on parsing problems.
+	 *            a ParseException will be thrown on parsing problems. Use a {@link ParseErrorCollector} to limit the
+	 *            number of errors kept and to abort the read, returning null, if there are too many.
 	 * @return A list of entities read in or null if validateHeader is true and the first-line header was not valid.
 	 * @throws ParseException
 	 *             Thrown on any parsing problems. If parseErrors is not null then parse errors will be added there and
@@ -151,8 +177,7 @@ public class CsvProcessor<T> {
 	 *             If there are any IO exceptions thrown when reading.
 	 */
 	public List<T> readAll(File file, Collection<ParseError> parseErrors) throws IOException, ParseException {
-		checkEntityConfig();
-		return readAll(new FileReader(file), parseErrors);
+		return checkEntityConfig().readAll(file, parseErrors);
 	}
 
 	/**
@@ -163,7 +188,8 @@ public class CsvProcessor<T> {
 	 * @param parseErrors
 	 *            If not null, any errors will be added to the collection and null will be returned. If validateHeader
 	 *            is true and the header does not match then no additional lines will be returned. If this is null then
-	 *            a ParseException will be thrown on parsing problems.
+	 *            a ParseException will be thrown on parsing problems. Use a {@link ParseErrorCollector} to limit the
+	 *            number of errors kept and to abort the read, returning null, if there are too many.
 	 * @return A list of entities read in or null if parseErrors is not null.
 	 * @throws ParseException
 	 *             Thrown on any parsing problems. If parseErrors is not null then parse errors will be added there and
@@ -172,26 +198,7 @@ public class CsvProcessor<T> {
 	 *             If there are any IO exceptions thrown when reading.
 	 */
 	public List<T> readAll(Reader reader, Collection<ParseError> parseErrors) throws IOException, ParseException {
-		checkEntityConfig();
-		BufferedReader bufferedReader = new BufferedReaderLineCounter(reader);
-		try {
-			ParseError parseError = null;
-			// we do this to reuse the parse error objects if we can
-			if (parseErrors != null) {
-				parseError = new ParseError();
-			}
-			if (firstLineHeader) {
-				if (readHeader(bufferedReader, parseError) == null) {
-					if (parseError != null && parseError.isError()) {
-						parseErrors.add(parseError);
-					}
-					return null;
-				}
-			}
-			return readRows(bufferedReader, parseErrors);
-		} finally {
-			bufferedReader.close();
-		}
+		return checkEntityConfig().readAll(reader, parseErrors);
 	}
 
 	/**
@@ -212,28 +219,7 @@ public class CsvProcessor<T> {
 	 */
 	public String[] readHeader(BufferedReader bufferedReader, ParseError parseError)
 			throws ParseException, IOException {
-		checkEntityConfig();
-		String header = bufferedReader.readLine();
-		if (header == null) {
-			if (parseError == null) {
-				throw new ParseException("no header line read", 0);
-			} else {
-				parseError.setErrorType(ErrorType.NO_HEADER);
-				parseError.setLineNumber(getLineNumber(bufferedReader));
-				return null;
-			}
-		}
-		String[] columns = processHeader(header, parseError, getLineNumber(bufferedReader));
-		if (columns == null) {
-			return null;
-		} else if (headerValidation && !validateHeaderColumns(columns, parseError, getLineNumber(bufferedReader))) {
-			if (parseError == null) {
-				throw new ParseException("header line is not valid: " + header, 0);
-			} else {
-				return null;
-			}
-		}
-		return columns;
+		return getDefaultSession().readHeader(bufferedReader, parseError);
 	}
 
 	/**
@@ -245,7 +231,8 @@ public class CsvProcessor<T> {
 	 * @param parseErrors
 	 *            If not null, any errors will be added to the collection and null will be returned. If validateHeader
 	 *            is true and the header does not match then no additional lines will be returned. If this is null then
-	 *            a ParseException will be thrown on parsing problems.
+	 *            a ParseException will be thrown on parsing problems. Use a {@link ParseErrorCollector} to limit the
+	 *            number of errors kept and to abort the read, returning null, if there are too many.
 	 * @return A list of entities read in or null if parseErrors is not null.
 	 * @throws ParseException
 	 *             Thrown on any parsing problems. If parseErrors is not null then parse errors will be added there and
@@ -255,30 +242,7 @@ public class CsvProcessor<T> {
 	 */
 	public List<T> readRows(BufferedReader bufferedReader, Collection<ParseError> parseErrors)
 			throws IOException, ParseException {
-		checkEntityConfig();
-		ParseError parseError = null;
-		// we do this to reuse the parse error objects if we can
-		if (parseErrors != null) {
-			parseError = new ParseError();
-		}
-		List<T> results = new ArrayList<T>();
-		while (true) {
-			if (parseError != null) {
-				parseError.reset();
-			}
-			T result = readRow(bufferedReader, parseError);
-			if (result != null) {
-				results.add(result);
-			} else if (parseError != null && parseError.isError()) {
-				// if there was an error then add it to the list
-				parseErrors.add(parseError);
-				// once we use it, we need to create another one
-				parseError = new ParseError();
-			} else {
-				// if no result and no error then EOF
-				return results;
-			}
-		}
+		return getDefaultSession().readRows(bufferedReader, parseErrors);
 	}
 
 	/**
@@ -299,13 +263,7 @@ public class CsvProcessor<T> {
 	 *             If there are any IO exceptions thrown when reading.
 	 */
 	public T readRow(BufferedReader bufferedReader, ParseError parseError) throws ParseException, IOException {
-		checkEntityConfig();
-		String line = bufferedReader.readLine();
-		if (line == null) {
-			return null;
-		} else {
-			return processRow(line, parseError, getLineNumber(bufferedReader));
-		}
+		return getDefaultSession().readRow(bufferedReader, parseError);
 	}
 
 	/**
@@ -322,9 +280,7 @@ public class CsvProcessor<T> {
 	 *             exception should not be thrown.
 	 */
 	public boolean validateHeader(String line, ParseError parseError) throws ParseException {
-		checkEntityConfig();
-		String[] columns = processHeader(line, parseError);
-		return validateHeaderColumns(columns, parseError, 1);
+		return getDefaultSession().validateHeader(line, parseError);
 	}
 
 	/**
@@ -341,8 +297,7 @@ public class CsvProcessor<T> {
 	 *             exception should not be thrown.
 	 */
 	public boolean validateHeaderColumns(String[] columns, ParseError parseError) {
-		checkEntityConfig();
-		return validateHeaderColumns(columns, parseError, 1);
+		return getDefaultSession().validateHeaderColumns(columns, parseError);
 	}
 
 	/**
@@ -360,8 +315,7 @@ public class CsvProcessor<T> {
 	 *             exception should not be thrown.
 	 */
 	public String[] processHeader(String line, ParseError parseError) throws ParseException {
-		checkEntityConfig();
-		return processHeader(line, parseError, 1);
+		return checkEntityConfig().processHeader(line, parseError);
 	}
 
 	/**
@@ -378,12 +332,12 @@ public class CsvProcessor<T> {
 	 *             exception should not be thrown.
 	 */
 	public T processRow(String line, ParseError parseError) throws ParseException {
-		checkEntityConfig();
-		return processRow(line, parseError, 1);
+		return getDefaultSession().processRow(line, parseError);
 	}
 
 	/**
-	 * Write a collection of entities to the writer.
+	 * Write a collection of entities to the writer. If the default charset is UTF-8 then the rows are encoded straight
+	 * to the file's channel with a {@link Utf8ByteWriter}.
 	 * 
 	 * @param file
 	 *            Where to write the header and entities.
@@ -395,7 +349,7 @@ public class CsvProcessor<T> {
 	 *             If there are any IO exceptions thrown when writing.
 	 */
 	public void writeAll(File file, Collection<T> entities, boolean writeHeader) throws IOException {
-		writeAll(new FileWriter(file), entities, writeHeader);
+		writeAll(Utf8ByteWriter.openFile(file), entities, writeHeader);
 	}
 
 	/**
@@ -411,18 +365,347 @@ public class CsvProcessor<T> {
 	 *             If there are any IO exceptions thrown when writing.
 	 */
 	public void writeAll(Writer writer, Collection<T> entities, boolean writeHeader) throws IOException {
-		checkEntityConfig();
-		BufferedWriter bufferedWriter = new BufferedWriter(writer);
-		try {
-			if (writeHeader) {
-				writeHeader(bufferedWriter, true);
-			}
-			for (T entity : entities) {
-				writeRow(bufferedWriter, entity, true);
-			}
-		} finally {
-			bufferedWriter.close();
-		}
+		checkEntityConfig().writeAll(writer, entities, writeHeader);
+	}
+
+	/**
+	 * Write a header and then the collection of entities to the output stream encoded as UTF-8.
+	 * 
+	 * @see #writeAll(OutputStream, Iterator, boolean)
+	 */
+	public void writeAll(OutputStream outputStream, Collection<T> entities, boolean writeHeader) throws IOException {
+		writeAll(new Utf8ByteWriter(outputStream), entities.iterator(), writeHeader);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterator to the output stream. The rows are encoded as UTF-8
+	 * straight into a reusable byte buffer with a {@link Utf8ByteWriter} which avoids the overhead of an
+	 * OutputStreamWriter.
+	 * 
+	 * @param outputStream
+	 *            Where to write the header and entities. It will be closed before this method returns.
+	 * @param entities
+	 *            Iterator of entities to write to the output stream.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of the output stream.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing.
+	 */
+	public void writeAll(OutputStream outputStream, Iterator<T> entities, boolean writeHeader) throws IOException {
+		writeAll(new Utf8ByteWriter(outputStream), entities, writeHeader);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterable to the writer.
+	 * 
+	 * @see #writeAll(Writer, Iterator, boolean)
+	 */
+	public void writeAll(Writer writer, Iterable<T> entities, boolean writeHeader) throws IOException {
+		checkEntityConfig().writeAll(writer, entities, writeHeader);
+	}
+
+	/**
+	 * Write a header and then the entities from the stream to the writer. The stream is consumed one entity at a time
+	 * and is not closed by this method.
+	 * 
+	 * @see #writeAll(Writer, Iterator, boolean)
+	 */
+	public void writeAll(Writer writer, Stream<T> entities, boolean writeHeader) throws IOException {
+		checkEntityConfig().writeAll(writer, entities, writeHeader);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterator to the writer. Only a small buffer of rows is held in
+	 * memory so this can be used to export entities from a database cursor or other lazy source.
+	 * 
+	 * @param writer
+	 *            Where to write the header and entities. It will be closed before this method returns.
+	 * @param entities
+	 *            Iterator of entities to write to the writer.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of the writer.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing.
+	 */
+	public void writeAll(Writer writer, Iterator<T> entities, boolean writeHeader) throws IOException {
+		checkEntityConfig().writeAll(writer, entities, writeHeader);
+	}
+
+	/**
+	 * Write a header and then the collection of entities to the file formatting chunks of the entities in parallel
+	 * using the executor.
+	 * 
+	 * @see #writeAll(Writer, Collection, boolean, ExecutorService)
+	 */
+	public void writeAll(File file, Collection<T> entities, boolean writeHeader, ExecutorService executor)
+			throws IOException {
+		writeAll(Utf8ByteWriter.openFile(file), entities, writeHeader, executor);
+	}
+
+	/**
+	 * Write a header and then the collection of entities to the writer. Chunks of the entities are formatted in
+	 * parallel using the executor while the calling thread writes the formatted chunks to the writer in the original
+	 * order. This is useful for very large exports on machines with multiple cores.
+	 * 
+	 * @param writer
+	 *            Where to write the header and entities. It will be closed before this method returns.
+	 * @param entities
+	 *            Collection of entities to write to the writer.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of the writer.
+	 * @param executor
+	 *            Executor that formats the entities. It is not shut down by this method.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing.
+	 */
+	public void writeAll(Writer writer, Collection<T> entities, boolean writeHeader, ExecutorService executor)
+			throws IOException {
+		checkEntityConfig().writeAll(writer, entities, writeHeader, executor);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterator to the writer formatting chunks of the entities in
+	 * parallel using the executor. Only a limited number of chunks are held in memory at one time.
+	 * 
+	 * @see #writeAll(Writer, Collection, boolean, ExecutorService)
+	 */
+	public void writeAll(Writer writer, Iterator<T> entities, boolean writeHeader, ExecutorService executor)
+			throws IOException {
+		checkEntityConfig().writeAll(writer, entities, writeHeader, executor);
+	}
+
+	/**
+	 * Write a header and then the collection of entities to the file as gzip compressed UTF-8.
+	 * 
+	 * @see #writeAllGzip(OutputStream, Iterator, boolean, ExecutorService)
+	 */
+	public void writeAllGzip(File file, Collection<T> entities, boolean writeHeader, ExecutorService executor)
+			throws IOException {
+		writeAllGzip(new FileOutputStream(file), entities.iterator(), writeHeader, executor);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterator to the output stream as gzip compressed UTF-8. The rows
+	 * are formatted by the calling thread while blocks of the output are compressed in parallel using the executor
+	 * with a {@link ParallelGzipOutputStream}. The result is a multi-member gzip stream that can be read by gunzip or
+	 * {@link java.util.zip.GZIPInputStream}.
+	 * 
+	 * @param outputStream
+	 *            Where to write the compressed header and entities. It will be closed before this method returns.
+	 * @param entities
+	 *            Iterator of entities to write to the output stream.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of the output stream.
+	 * @param executor
+	 *            Executor that compresses the output. It is not shut down by this method.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing.
+	 */
+	public void writeAllGzip(OutputStream outputStream, Iterator<T> entities, boolean writeHeader,
+			ExecutorService executor) throws IOException {
+		writeAll(new Utf8ByteWriter(new ParallelGzipOutputStream(outputStream, executor)), entities, writeHeader);
+	}
+
+	/**
+	 * Return a new sink that entities can be pushed into one at a time. The rows are buffered and written to the file
+	 * in large blocks. The sink must be closed when all of the entities have been written.
+	 * 
+	 * @see #newRowSink(Writer, boolean)
+	 */
+	public RowSink<T> newRowSink(File file, boolean writeHeader) throws IOException {
+		return newRowSink(Utf8ByteWriter.openFile(file), writeHeader);
+	}
+
+	/**
+	 * Return a new sink that entities can be pushed into one at a time. This is useful when the entities are produced
+	 * by a callback or some other source that can't be iterated over.
+	 * 
+	 * @param writer
+	 *            Where to write the header and entities. It will be closed when the sink is closed.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of the writer.
+	 */
+	public RowSink<T> newRowSink(Writer writer, boolean writeHeader) {
+		return checkEntityConfig().newRowSink(writer, writeHeader);
+	}
+
+	/**
+	 * Return a new writer with the default queue capacity, flush size, and flush interval.
+	 * 
+	 * @see #newAsyncWriter(Writer, boolean, int, int, long)
+	 */
+	public AsyncCsvWriter<T> newAsyncWriter(Writer writer, boolean writeHeader) {
+		return newAsyncWriter(writer, writeHeader, AsyncCsvWriter.DEFAULT_QUEUE_CAPACITY,
+				AsyncCsvWriter.DEFAULT_FLUSH_SIZE, AsyncCsvWriter.DEFAULT_FLUSH_INTERVAL_MILLIS);
+	}
+
+	/**
+	 * Return a new writer which accepts entities from any number of threads and formats and writes them on a
+	 * dedicated background thread. This should be used instead of calling {@link #writeRow(BufferedWriter, Object,
+	 * boolean)} on a shared writer from request threads so they don't block on disk IO. The writer must be closed to
+	 * write the last of the entities and stop the thread.
+	 * 
+	 * @param writer
+	 *            Where to write the header and entities. It will be closed when the async writer is closed.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of the writer.
+	 * @param queueCapacity
+	 *            Most entities that can be waiting to be written before the producers are blocked.
+	 * @param flushSize
+	 *            Number of characters that are buffered before they are written to the writer.
+	 * @param flushIntervalMillis
+	 *            Most time that written entities can wait before the writer is flushed.
+	 */
+	public AsyncCsvWriter<T> newAsyncWriter(Writer writer, boolean writeHeader, int queueCapacity, int flushSize,
+			long flushIntervalMillis) {
+		return checkEntityConfig().newAsyncWriter(writer, writeHeader, queueCapacity, flushSize, flushIntervalMillis);
+	}
+
+	/**
+	 * Return a new writer which can be called by any number of threads at the same time. Each thread formats its rows
+	 * into its own striped buffer so the formatting scales across threads and the buffers are written to the writer
+	 * as complete rows so rows never interleave. The writer must be closed to write the last of the rows.
+	 * 
+	 * @param writer
+	 *            Where to write the header and entities. It will be closed when the concurrent writer is closed.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of the writer.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing the header.
+	 */
+	public ConcurrentCsvWriter<T> newConcurrentWriter(Writer writer, boolean writeHeader) throws IOException {
+		return checkEntityConfig().newConcurrentWriter(writer, writeHeader);
+	}
+
+	/**
+	 * Return a new writer which writes entities to a series of segment files in the directory named with the prefix,
+	 * a sequence number, and the suffix. This is useful for long running services that would otherwise write to one
+	 * unbounded file. When to start a new segment, compression, and the background executor are configured on the
+	 * returned writer before the first write. The writer must be closed to finish the last segment.
+	 * 
+	 * @param directory
+	 *            Directory where the segment files are written.
+	 * @param prefix
+	 *            Start of the name of the segment files such as "events-".
+	 * @param suffix
+	 *            End of the name of the segment files such as ".csv".
+	 * @param writeHeader
+	 *            Set to true to write header at the start of each segment.
+	 */
+	public RollingCsvWriter<T> newRollingWriter(File directory, String prefix, String suffix, boolean writeHeader) {
+		return checkEntityConfig().newRollingWriter(directory, prefix, suffix, writeHeader);
+	}
+
+	/**
+	 * Write the collection of entities to partitions routed by the formatted value of a column.
+	 * 
+	 * @see #writePartitioned(Iterator, String, int, PartitionWriterFactory, boolean, ExecutorService)
+	 */
+	public void writePartitioned(Collection<T> entities, String columnName, int numPartitions,
+			PartitionWriterFactory writerFactory, boolean writeHeader, ExecutorService executor) throws IOException {
+		writePartitioned(entities.iterator(), columnName, numPartitions, writerFactory, writeHeader, executor);
+	}
+
+	/**
+	 * Write the entities to a number of partitions in a single pass. Each entity is routed by the formatted value of
+	 * the column either to one of a fixed number of partitions by hash or to a partition per distinct value. The
+	 * partition for a hash is the {@link String#hashCode()} of the formatted value with the sign bit cleared modulo
+	 * the number of partitions. The rows in each partition are in the same order as the entities. Use a
+	 * {@link FilePartitionWriterFactory} to write each partition to its own file.
+	 * 
+	 * @param entities
+	 *            Iterator of entities to write.
+	 * @param columnName
+	 *            Name of the column whose values are used to route the entities.
+	 * @param numPartitions
+	 *            Number of partitions to hash the values into or 0 to have a partition for each distinct value.
+	 * @param writerFactory
+	 *            Creates the writer for each partition the first time an entity is routed to it. At most
+	 *            {@link PartitionWriterFactory#getMaxOpenWriters()} writers are open at once with the least recently
+	 *            used one closed and reopened in append mode as needed. All of the writers are closed before this
+	 *            method returns.
+	 * @param writeHeader
+	 *            Set to true to write header at the start of each partition.
+	 * @param executor
+	 *            Executor to format chunks of the entities in parallel or null to format them in the calling thread.
+	 *            It is not shut down by this method.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing.
+	 */
+	public void writePartitioned(Iterator<T> entities, String columnName, int numPartitions,
+			PartitionWriterFactory writerFactory, boolean writeHeader, ExecutorService executor) throws IOException {
+		checkEntityConfig().writePartitioned(entities, columnName, numPartitions, writerFactory, writeHeader,
+				executor);
+	}
+
+	/**
+	 * Return a new sorter which orders the lines of CSV data by the values of one or more columns. The values are
+	 * compared by their field types, so numbers and dates sort correctly, and null values sort first. The data can be
+	 * much larger than memory since sorted runs are spilled to temporary files and then merged. The memory budget,
+	 * temporary directory, compression of the spills, and background executor are configured on the returned sorter.
+	 * 
+	 * @param columnNames
+	 *            Names of the columns to sort by with the most significant first. The field types must be primitives
+	 *            or implement {@link Comparable}.
+	 */
+	public CsvSorter<T> newSorter(String... columnNames) {
+		return checkEntityConfig().newSorter(columnNames);
+	}
+
+	/**
+	 * Return a new sorter which orders the lines of CSV data by comparing the entities read from them.
+	 * 
+	 * @see #newSorter(String...)
+	 */
+	public CsvSorter<T> newSorter(Comparator<T> comparator) {
+		return checkEntityConfig().newSorter(comparator);
+	}
+
+	/**
+	 * Return a new aggregator which computes counts, sums, minimums, and maximums of columns for each group of rows
+	 * with the same values in the key columns. Only the groups and their primitive accumulators are kept in memory so
+	 * it can aggregate files much larger than memory. The aggregates and an optional executor to parse and aggregate
+	 * chunks of the rows in parallel are configured on the returned aggregator.
+	 * 
+	 * @param keyColumnNames
+	 *            Names of the columns whose values make up the group keys. If none then all of the rows are in a
+	 *            single group.
+	 */
+	public CsvAggregator<T> newAggregator(String... keyColumnNames) {
+		return checkEntityConfig().newAggregator(keyColumnNames);
+	}
+
+	/**
+	 * Return a new hash join which enriches the rows read by this processor with the rows read by another processor
+	 * whose key column has an equal value. This processor reads the larger probe side which is streamed through the
+	 * join and the other processor reads the smaller build side which is loaded into a hash table. If the build side
+	 * is larger than the memory budget then both sides are partitioned into temporary files and joined a partition at
+	 * a time. The memory budget, partitions, temporary directory, and outer join are configured on the returned join.
+	 * 
+	 * @param keyColumnName
+	 *            Name of the key column of this processor's entities.
+	 * @param buildProcessor
+	 *            Processor which reads the build side.
+	 * @param buildKeyColumnName
+	 *            Name of the key column of the build processor's entities. It must have the same type as the key
+	 *            column of this processor.
+	 */
+	public <B> CsvHashJoin<T, B> newHashJoin(String keyColumnName, CsvProcessor<B> buildProcessor,
+			String buildKeyColumnName) {
+		return checkEntityConfig().newHashJoin(keyColumnName, buildProcessor.getSchema(), buildKeyColumnName);
+	}
+
+	/**
+	 * Return a new deduplicator which reads or copies only the first row with each combination of values in the key
+	 * columns. The keys are split from the lines and hashed before any entities are constructed and the hashes are
+	 * kept off of the heap. The expected number of keys and an optional false positive rate, which switches to a
+	 * smaller bloom filter, are configured on the returned deduplicator.
+	 * 
+	 * @param keyColumnNames
+	 *            Names of the columns whose values make up the key of each row.
+	 */
+	public CsvDeduplicator<T> newDeduplicator(String... keyColumnNames) {
+		return checkEntityConfig().newDeduplicator(keyColumnNames);
 	}
 
 	/**
@@ -436,8 +719,7 @@ public class CsvProcessor<T> {
 	 *             If there are any IO exceptions thrown when writing.
 	 */
 	public void writeHeader(BufferedWriter bufferedWriter, boolean appendLineTermination) throws IOException {
-		checkEntityConfig();
-		bufferedWriter.write(buildHeaderLine(appendLineTermination));
+		checkEntityConfig().writeHeader(bufferedWriter, appendLineTermination);
 	}
 
 	/**
@@ -453,9 +735,7 @@ public class CsvProcessor<T> {
 	 *             If there are any IO exceptions thrown when writing.
 	 */
 	public void writeRow(BufferedWriter bufferedWriter, T entity, boolean appendLineTermination) throws IOException {
-		checkEntityConfig();
-		String line = buildLine(entity, appendLineTermination);
-		bufferedWriter.write(line);
+		checkEntityConfig().writeRow(bufferedWriter, entity, appendLineTermination);
 	}
 
 	/**
@@ -465,29 +745,7 @@ public class CsvProcessor<T> {
 	 *            Set to true to add the newline to the end of the line.
 	 */
 	public String buildHeaderLine(boolean appendLineTermination) {
-		checkEntityConfig();
-		StringBuilder sb = new StringBuilder();
-		boolean first = true;
-		for (ColumnInfo<?> columnInfo : allColumnInfos) {
-			if (first) {
-				first = false;
-			} else {
-				sb.append(columnSeparator);
-			}
-			String header = columnInfo.getColumnName();
-			// need to protect the column if it contains a quote
-			if (header.indexOf(columnQuote) >= 0) {
-				writeQuoted(sb, header);
-				continue;
-			}
-			sb.append(columnQuote);
-			sb.append(header);
-			sb.append(columnQuote);
-		}
-		if (appendLineTermination) {
-			sb.append(lineTermination);
-		}
-		return sb.toString();
+		return checkEntityConfig().buildHeaderLine(appendLineTermination);
 	}
 
 	/**
@@ -497,55 +755,34 @@ public class CsvProcessor<T> {
 	 *            Set to true to add the newline to the end of the line.
 	 */
 	public String buildLine(T entity, boolean appendLineTermination) {
-		checkEntityConfig();
-		StringBuilder sb = new StringBuilder();
-		boolean first = true;
-		for (ColumnInfo<Object> columnInfo : allColumnInfos) {
-			if (first) {
-				first = false;
-			} else {
-				sb.append(columnSeparator);
-			}
-			Object value;
-			try {
-				value = columnInfo.getValue(entity);
-			} catch (Exception e) {
-				throw new IllegalStateException("Could not get value from entity field: " + columnInfo);
-			}
-			@SuppressWarnings("unchecked")
-			Converter<Object, Object> castConverter = (Converter<Object, Object>) columnInfo.getConverter();
-			String str = castConverter.javaToString(columnInfo, value);
-			boolean needsQuotes = columnInfo.isNeedsQuotes();
-			if (str != null) {
-				// need to protect the column if it contains a quote
-				if (str.indexOf(columnQuote) >= 0) {
-					writeQuoted(sb, str);
-					continue;
-				}
-				if (!needsQuotes) {
-					for (int i = 0; i < str.length(); i++) {
-						char ch = str.charAt(i);
-						if (ch == columnSeparator || ch == '\r' || ch == '\n' || ch == '\t' || ch == '\b') {
-							needsQuotes = true;
-							break;
-						}
-					}
-				}
-			}
-			if (needsQuotes) {
-				sb.append(columnQuote);
-			}
-			if (str != null) {
-				sb.append(str);
-			}
-			if (needsQuotes) {
-				sb.append(columnQuote);
-			}
-		}
-		if (appendLineTermination) {
-			sb.append(lineTermination);
-		}
-		return sb.toString();
+		return checkEntityConfig().buildLine(entity, appendLineTermination);
+	}
+
+	/**
+	 * Append a header line made up of quoted column names to the buffer.
+	 * 
+	 * @param buffer
+	 *            Buffer to append the header to.
+	 * @param appendLineTermination
+	 *            Set to true to add the newline to the end of the line.
+	 */
+	public void appendHeaderLine(OutputBuffer buffer, boolean appendLineTermination) {
+		checkEntityConfig().appendHeaderLine(buffer, appendLineTermination);
+	}
+
+	/**
+	 * Append the column values from the entity to the buffer without creating a string for the line. The buffer can be
+	 * reused for multiple lines and written to a writer with {@link OutputBuffer#writeTo(Writer)}.
+	 * 
+	 * @param buffer
+	 *            Buffer to append the line to.
+	 * @param entity
+	 *            The entity we are writing to the buffer.
+	 * @param appendLineTermination
+	 *            Set to true to add the newline to the end of the line.
+	 */
+	public void appendLine(OutputBuffer buffer, T entity, boolean appendLineTermination) {
+		checkEntityConfig().appendLine(buffer, entity, appendLineTermination);
 	}
 
 	/**
@@ -553,6 +790,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setEntityClass(Class<T> entityClass) {
 		this.entityClass = entityClass;
+		resetEntityConfig();
 	}
 
 	/**
@@ -560,6 +798,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withEntityClass(Class<T> entityClass) {
 		this.entityClass = entityClass;
+		resetEntityConfig();
 		return this;
 	}
 
@@ -569,6 +808,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setConstructorCallable(Callable<T> constructorCallable) {
 		this.constructorCallable = constructorCallable;
+		resetEntityConfig();
 	}
 
 	/**
@@ -577,6 +817,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withConstructorCallable(Callable<T> constructorCallable) {
 		this.constructorCallable = constructorCallable;
+		resetEntityConfig();
 		return this;
 	}
 
@@ -585,6 +826,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setColumnSeparator(char columnSeparator) {
 		this.columnSeparator = columnSeparator;
+		schema = null;
 	}
 
 	/**
@@ -593,6 +835,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withColumnSeparator(char columnSeparator) {
 		this.columnSeparator = columnSeparator;
+		schema = null;
 		return this;
 	}
 
@@ -601,6 +844,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setColumnQuote(char columnQuote) {
 		this.columnQuote = columnQuote;
+		schema = null;
 	}
 
 	/**
@@ -608,6 +852,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withColumnQuote(char columnQuote) {
 		this.columnQuote = columnQuote;
+		schema = null;
 		return this;
 	}
 
@@ -617,6 +862,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setLineTermination(String lineTermination) {
 		this.lineTermination = lineTermination;
+		schema = null;
 	}
 
 	/**
@@ -625,6 +871,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withLineTermination(String lineTermination) {
 		this.lineTermination = lineTermination;
+		schema = null;
 		return this;
 	}
 
@@ -634,6 +881,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setAllowPartialLines(boolean allowPartialLines) {
 		this.allowPartialLines = allowPartialLines;
+		schema = null;
 	}
 
 	/**
@@ -642,6 +890,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withAllowPartialLines(boolean allowPartialLines) {
 		this.allowPartialLines = allowPartialLines;
+		schema = null;
 		return this;
 	}
 
@@ -651,6 +900,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setAlwaysTrimInput(boolean alwaysTrimInput) {
 		this.alwaysTrimInput = alwaysTrimInput;
+		schema = null;
 	}
 
 	/**
@@ -659,6 +909,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withAlwaysTrimInput(boolean alwaysTrimInput) {
 		this.alwaysTrimInput = alwaysTrimInput;
+		schema = null;
 		return this;
 	}
 
@@ -667,6 +918,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setHeaderValidation(boolean headerValidation) {
 		this.headerValidation = headerValidation;
+		schema = null;
 	}
 
 	/**
@@ -674,6 +926,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withHeaderValidation(boolean headerValidation) {
 		this.headerValidation = headerValidation;
+		schema = null;
 		return this;
 	}
 
@@ -682,6 +935,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setFirstLineHeader(boolean firstLineHeader) {
 		this.firstLineHeader = firstLineHeader;
+		schema = null;
 	}
 
 	/**
@@ -689,6 +943,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withFirstLineHeader(boolean firstLineHeader) {
 		this.firstLineHeader = firstLineHeader;
+		schema = null;
 		return this;
 	}
 
@@ -699,6 +954,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setColumnNameMatcher(ColumnNameMatcher columnNameMatcher) {
 		this.columnNameMatcher = columnNameMatcher;
+		schema = null;
 	}
 
 	/**
@@ -708,6 +964,7 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withColumnNameMatcher(ColumnNameMatcher columnNameMatcher) {
 		this.columnNameMatcher = columnNameMatcher;
+		schema = null;
 		return this;
 	}
 
@@ -715,43 +972,51 @@ public class CsvProcessor<T> {
 	 * Set to true if the order of the input columns is flexible and does not have to match the order of the definition
 	 * fields in the entity. The order is determined by the header columns so their must be a header. Default is false.
 	 * 
-	 * <b>WARNING:</b> If you are using flexible ordering, this CsvProcessor cannot be used with multiple files at the
-	 * same time since the column orders are dynamic depending on the input file being read.
+	 * <b>WARNING:</b> If you are using flexible ordering, the readHeader and readRow methods on this CsvProcessor cannot
+	 * be used with multiple files at the same time since the column orders are dynamic depending on the input file
+	 * being read. Use a {@link CsvReadSession} per file instead.
 	 */
 	public void setFlexibleOrder(boolean flexibleOrder) {
 		this.flexibleOrder = flexibleOrder;
+		schema = null;
 	}
 
 	/**
 	 * Set to true if the order of the input columns is flexible and does not have to match the order of the definition
 	 * fields in the entity. The order is determined by the header columns so their must be a header. Default is false.
 	 * 
-	 * <b>WARNING:</b> If you are using flexible ordering, this CsvProcessor cannot be used with multiple files at the
-	 * same time since the column orders are dynamic depending on the input file being read.
+	 * <b>WARNING:</b> If you are using flexible ordering, the readHeader and readRow methods on this CsvProcessor cannot
+	 * be used with multiple files at the same time since the column orders are dynamic depending on the input file
+	 * being read. Use a {@link CsvReadSession} per file instead.
 	 */
 	public CsvProcessor<T> withFlexibleOrder(boolean flexibleOrder) {
 		this.flexibleOrder = flexibleOrder;
+		schema = null;
 		return this;
 	}
 
 	/**
 	 * Set to true to ignore columns that are not know to the configuration. Default is to raise an error.
 	 * 
-	 * <b>WARNING:</b> If you are using unknown columns, this CsvProcessor cannot be used with multiple files at the
-	 * same time since the column position is dynamic depending on the input file being read.
+	 * <b>WARNING:</b> If you are using unknown columns, the readHeader and readRow methods on this CsvProcessor cannot
+	 * be used with multiple files at the same time since the column position is dynamic depending on the input file
+	 * being read. Use a {@link CsvReadSession} per file instead.
 	 */
 	public void setIgnoreUnknownColumns(boolean ignoreUnknownColumns) {
 		this.ignoreUnknownColumns = ignoreUnknownColumns;
+		schema = null;
 	}
 
 	/**
 	 * Set to true to ignore columns that are not know to the configuration. Default is to raise an error.
 	 * 
-	 * <b>WARNING:</b> If you are using unknown columns, this CsvProcessor cannot be used with multiple files at the
-	 * same time since the column position is dynamic depending on the input file being read.
+	 * <b>WARNING:</b> If you are using unknown columns, the readHeader and readRow methods on this CsvProcessor cannot
+	 * be used with multiple files at the same time since the column position is dynamic depending on the input file
+	 * being read. Use a {@link CsvReadSession} per file instead.
 	 */
 	public CsvProcessor<T> withIgnoreUnknownColumns(boolean ignoreUnknownColumns) {
 		this.ignoreUnknownColumns = ignoreUnknownColumns;
+		schema = null;
 		return this;
 	}
 
@@ -760,6 +1025,7 @@ public class CsvProcessor<T> {
 	 */
 	public void setRowValidator(RowValidator<T> rowValidator) {
 		this.rowValidator = rowValidator;
+		schema = null;
 	}
 
 	/**
@@ -767,235 +1033,53 @@ public class CsvProcessor<T> {
 	 */
 	public CsvProcessor<T> withRowValidator(RowValidator<T> rowValidator) {
 		this.rowValidator = rowValidator;
+		schema = null;
 		return this;
 	}
 
-	private boolean validateHeaderColumns(String[] columns, ParseError parseError, int lineNumber) {
-		boolean result = true;
-
-		Map<String, ColumnInfo<Object>> columnNameToInfoMap = new HashMap<String, ColumnInfo<Object>>();
-		for (ColumnInfo<Object> columnInfo : allColumnInfos) {
-			columnNameToInfoMap.put(columnInfo.getColumnName(), columnInfo);
-		}
-
-		Map<Integer, ColumnInfo<Object>> columnPositionInfoMap = new HashMap<Integer, ColumnInfo<Object>>();
-		int lastColumnInfoPosition = -1;
-		for (int i = 0; i < columns.length; i++) {
-			ColumnInfo<Object> matchedColumnInfo = null;
-			if (columnNameMatcher == null) {
-				matchedColumnInfo = columnNameToInfoMap.get(columns[i]);
-			} else {
-				// have to do a N^2 search
-				for (ColumnInfo<Object> columnInfo : allColumnInfos) {
-					if (columnNameMatcher.matchesColumnName(columnInfo.getColumnName(), columns[i])) {
-						matchedColumnInfo = columnInfo;
-						break;
-					}
-				}
-			}
-
-			if (matchedColumnInfo == null) {
-				if (!ignoreUnknownColumns) {
-					if (parseError != null) {
-						parseError.setErrorType(ErrorType.INVALID_HEADER);
-						parseError.setMessage("column name '" + columns[i] + "' is unknown");
-						parseError.setLineNumber(lineNumber);
-					}
-					result = false;
-				}
-			} else {
-				if (!flexibleOrder && matchedColumnInfo.getPosition() <= lastColumnInfoPosition) {
-					if (parseError != null) {
-						parseError.setErrorType(ErrorType.INVALID_HEADER);
-						parseError.setMessage("column name '" + columns[i] + "' is not in the proper order");
-						parseError.setLineNumber(lineNumber);
-					}
-					result = false;
-				} else {
-					lastColumnInfoPosition = matchedColumnInfo.getPosition();
-				}
-				// remove it from the map once we've matched with it
-				columnNameToInfoMap.remove(matchedColumnInfo.getColumnName());
-				columnPositionInfoMap.put(i, matchedColumnInfo);
-			}
-		}
-		// did the column position information change
-		if (!columnPositionInfoMap.equals(this.columnPositionInfoMap)) {
-			this.columnPositionInfoMap = columnPositionInfoMap;
-		}
-
-		// now look for must-be-supplied columns
-		for (ColumnInfo<Object> columnInfo : columnNameToInfoMap.values()) {
-			if (columnInfo.isMustBeSupplied()) {
-				if (parseError != null) {
-					parseError.setErrorType(ErrorType.INVALID_HEADER);
-					parseError.setMessage(
-							"column '" + columnInfo.getColumnName() + "' must be suppled and was not specified");
-					parseError.setLineNumber(lineNumber);
-				}
-				result = false;
-			}
-		}
-
-		// if we have an error then reset the columnCount
-		if (!result) {
-			resetColumnPositionInfoMap();
-		}
-		return result;
-	}
-
-	private String[] processHeader(String line, ParseError parseError, int lineNumber) throws ParseException {
-		StringBuilder sb = new StringBuilder(32);
-		int linePos = 0;
-		ParseError localParseError = parseError;
-		if (localParseError == null) {
-			localParseError = new ParseError();
-		}
-		List<String> headerColumns = new ArrayList<String>();
-		while (true) {
-			boolean atEnd = (linePos == line.length());
-			localParseError.reset();
-			sb.setLength(0);
-			if (linePos < line.length() && line.charAt(linePos) == columnQuote) {
-				linePos = processQuotedColumn(line, lineNumber, linePos, null, null, sb, localParseError);
-			} else {
-				linePos = processUnquotedColumn(line, lineNumber, linePos, null, null, sb, localParseError);
-			}
-			if (localParseError.isError()) {
-				if (localParseError == parseError) {
-					// if we pass in an error then it gets set and we return null
-					return null;
-				} else {
-					// if no error passed in then we throw
-					throw new ParseException("Problems parsing header line at position " + linePos + " ("
-							+ localParseError + "): " + line, linePos);
-				}
-			}
-			if (sb.length() > 0) {
-				headerColumns.add(sb.toString());
-			}
-			if (atEnd) {
-				break;
-			}
-		}
-		return headerColumns.toArray(new String[headerColumns.size()]);
-	}
-
-	private T processRow(String line, ParseError parseError, int lineNumber) throws ParseException {
-		T entity = processRowInner(line, parseError, lineNumber);
-		if (entity != null && rowValidator != null) {
-			ParseError localParseError = parseError;
-			if (localParseError == null) {
-				localParseError = new ParseError();
-			}
-			try {
-				rowValidator.validateRow(line, lineNumber, entity, localParseError);
-			} catch (ParseException pe) {
-				if (localParseError != parseError) {
-					throw pe;
-				}
-				localParseError.setErrorType(ErrorType.INVALID_ENTITY);
-				localParseError.setMessage(pe.getMessage());
-			}
-		}
-		if (parseError != null && parseError.isError()) {
-			if (parseError.getLine() == null) {
-				parseError.setLine(line);
-			}
-			if (parseError.getLineNumber() == 0) {
-				parseError.setLineNumber(lineNumber);
-			}
-			if (parseError.getMessage() == null) {
-				parseError.setMessage(parseError.getErrorType().getTypeMessage());
-			}
-			// force the entity to be null
-			entity = null;
+	private CsvSchema<T> checkEntityConfig() {
+		CsvSchema<T> schema = this.schema;
+		if (schema == null) {
+			schema = buildSchema();
 		}
-		return entity;
+		return schema;
 	}
 
-	private T processRowInner(String line, ParseError parseError, int lineNumber) throws ParseException {
-		T target = constructEntity();
-		int linePos = 0;
-		ParseError localParseError = parseError;
-		if (localParseError == null) {
-			localParseError = new ParseError();
-		}
-		int columnCount = 0;
-		while (true) {
-			ColumnInfo<Object> columnInfo = columnPositionInfoMap.get(columnCount);
-			if (columnInfo == null && !ignoreUnknownColumns) {
-				break;
-			}
-
-			// we have to do this because a blank column may be ok
-			boolean atEnd = (linePos == line.length());
-			localParseError.reset();
-			if (linePos < line.length() && line.charAt(linePos) == columnQuote) {
-				linePos = processQuotedColumn(line, lineNumber, linePos, columnInfo, target, null, localParseError);
-			} else {
-				linePos = processUnquotedColumn(line, lineNumber, linePos, columnInfo, target, null, localParseError);
-			}
-			if (localParseError.isError()) {
-				if (localParseError == parseError) {
-					// parseError has the error information
-					return null;
-				} else {
-					throw new ParseException(
-							"Problems parsing line at position " + linePos + " for type "
-									+ columnInfo.getType().getSimpleName() + " (" + localParseError + "): " + line,
-							linePos);
-				}
-			}
-			columnCount++;
-			if (atEnd) {
-				break;
-			}
-			// NOTE: we can't break here if we are at the end of line because might be blank column
+	private synchronized CsvSchema<T> buildSchema() {
+		// another thread may have built it while we were waiting
+		CsvSchema<T> schema = this.schema;
+		if (schema != null) {
+			return schema;
 		}
-		if (columnCount < columnPositionInfoMap.size() && !allowPartialLines) {
-			if (parseError == null) {
-				throw new ParseException("Line does not have " + columnPositionInfoMap.size() + " columns: " + line,
-						linePos);
-			} else {
-				parseError.setErrorType(ErrorType.TRUNCATED_LINE);
-				parseError.setMessage("Line does not have " + columnPositionInfoMap.size() + " columns");
-				parseError.setLinePos(linePos);
-				return null;
-			}
-		}
-		if (linePos < line.length() && !ignoreUnknownColumns) {
-			if (parseError == null) {
-				throw new ParseException(
-						"Line has extra information past last column at position " + linePos + ": " + line, linePos);
-			} else {
-				parseError.setErrorType(ErrorType.TOO_MANY_COLUMNS);
-				parseError.setMessage("Line has extra information past last column at position " + linePos);
-				parseError.setLinePos(linePos);
-				return null;
-			}
+		if (allColumnInfos == null) {
+			configureEntityClass();
 		}
-		return target;
+		schema = new CsvSchema<T>(entityClass, constructor, constructorCallable, columnSeparator, columnQuote,
+				lineTermination, allowPartialLines, alwaysTrimInput, headerValidation, firstLineHeader, flexibleOrder,
+				ignoreUnknownColumns, rowValidator, columnNameMatcher, allColumnInfos);
+		this.schema = schema;
+		return schema;
 	}
 
-	private T constructEntity() throws ParseException {
-		try {
-			if (constructorCallable == null) {
-				return constructor.newInstance();
-			} else {
-				return constructorCallable.call();
-			}
-		} catch (Exception e) {
-			ParseException parseException = new ParseException("Could not construct instance of " + entityClass, 0);
-			parseException.initCause(e);
-			throw parseException;
+	/**
+	 * Returns the session used by the read methods on this processor which is rebuilt if the schema changes.
+	 */
+	private CsvReadSession<T> getDefaultSession() {
+		CsvSchema<T> schema = checkEntityConfig();
+		CsvReadSession<T> session = defaultSession;
+		if (session == null || session.getSchema() != schema) {
+			session = schema.newReadSession();
+			defaultSession = session;
 		}
+		return session;
 	}
 
-	private void checkEntityConfig() {
-		if (allColumnInfos == null) {
-			configureEntityClass();
-		}
+	/**
+	 * Called when the entity class or converters change so we re-run our reflection.
+	 */
+	private void resetEntityConfig() {
+		allColumnInfos = null;
+		schema = null;
 	}
 
 	private void configureEntityClass() {
@@ -1087,7 +1171,6 @@ public class CsvProcessor<T> {
 		}
 
 		this.allColumnInfos = assignColumnPositions(fieldNameMap);
-		resetColumnPositionInfoMap();
 		if (constructorCallable == null) {
 			try {
 				this.constructor = entityClass.getConstructor();
@@ -1188,203 +1271,4 @@ public class CsvProcessor<T> {
 		}
 		fieldNameMap.put(columnInfo.getColumnName(), columnInfo);
 	}
-
-	private void resetColumnPositionInfoMap() {
-		Map<Integer, ColumnInfo<Object>> columnPositionInfoMap = new HashMap<Integer, ColumnInfo<Object>>();
-		int columnCount = 0;
-		for (ColumnInfo<Object> columnInfo : allColumnInfos) {
-			columnPositionInfoMap.put(columnCount, columnInfo);
-			columnCount++;
-		}
-		this.columnPositionInfoMap = columnPositionInfoMap;
-	}
-
-	private int processQuotedColumn(String line, int lineNumber, int linePos, ColumnInfo<Object> columnInfo,
-			Object target, StringBuilder headerSb, ParseError parseError) {
-
-		// linePos is pointing at the first quote, move past it
-		linePos++;
-		int columnStart = linePos;
-		int sectionStart = linePos;
-		int sectionEnd = linePos;
-
-		StringBuilder sb = null;
-		while (linePos < line.length()) {
-
-			// look for the next quote
-			sectionEnd = line.indexOf(columnQuote, linePos);
-			if (sectionEnd < 0) {
-				parseError.setErrorType(ErrorType.TRUNCATED_COLUMN);
-				parseError.setMessage("Column not terminated with quote '" + columnQuote + "'");
-				parseError.setLinePos(linePos);
-				return line.length();
-			}
-
-			linePos = sectionEnd + 1;
-			if (linePos == line.length()) {
-				break;
-			} else if (line.charAt(linePos) == columnSeparator) {
-				linePos++;
-				break;
-			}
-
-			// must have a quote following a quote if there wasn't a columnSeparator
-			if (line.charAt(linePos) != columnQuote) {
-				parseError.setErrorType(ErrorType.INVALID_FORMAT);
-				parseError.setMessage(
-						"quote '" + columnQuote + "' is not followed up separator '" + columnSeparator + "'");
-				parseError.setLinePos(linePos);
-				return linePos;
-			}
-
-			sectionEnd = linePos;
-			// move past possibly end quote
-			linePos++;
-			if (linePos == line.length()) {
-				break;
-			}
-			if (line.charAt(linePos) == columnSeparator) {
-				// move past the comma
-				linePos++;
-				break;
-			}
-
-			// need to build the string dynamically now
-			if (sb == null) {
-				sb = new StringBuilder(32);
-			}
-			// add to the string-builder the column + 1 quote
-			sb.append(line, sectionStart, sectionEnd);
-			// line-pos is pointing past 2nd (maybe 3rd) quote
-			sectionStart = linePos;
-		}
-
-		if (sb == null) {
-			if (headerSb == null) {
-				String columnStr = line.substring(sectionStart, sectionEnd);
-				if (columnInfo != null) {
-					extractAndAssignValue(line, lineNumber, columnInfo, columnStr, columnStart, target, parseError);
-				}
-			} else {
-				headerSb.append(line, sectionStart, sectionEnd);
-			}
-		} else {
-			sb.append(line, sectionStart, sectionEnd);
-			String str = sb.toString();
-			if (headerSb == null) {
-				if (columnInfo != null) {
-					extractAndAssignValue(str, lineNumber, columnInfo, str, columnStart, target, parseError);
-				}
-			} else {
-				headerSb.append(str);
-			}
-		}
-		return linePos;
-	}
-
-	private int processUnquotedColumn(String line, int lineNumber, int linePos, ColumnInfo<Object> columnInfo,
-			Object target, StringBuilder headerSb, ParseError parseError) {
-		int columnStart = linePos;
-		linePos = line.indexOf(columnSeparator, columnStart);
-		if (linePos < 0) {
-			linePos = line.length();
-		}
-
-		if (headerSb == null) {
-			String columnStr = line.substring(columnStart, linePos);
-			if (columnInfo != null) {
-				extractAndAssignValue(line, lineNumber, columnInfo, columnStr, columnStart, target, parseError);
-			}
-		} else {
-			headerSb.append(line, columnStart, linePos);
-		}
-
-		if (linePos < line.length()) {
-			// skip over the separator
-			linePos++;
-		}
-		return linePos;
-	}
-
-	private void writeQuoted(StringBuilder sb, String str) {
-		sb.append(columnQuote);
-		int start = 0;
-		while (true) {
-			int linePos = str.indexOf(columnQuote, start);
-			if (linePos < 0) {
-				sb.append(str, start, str.length());
-				break;
-			}
-			// move past the quote so we can output it
-			linePos++;
-			sb.append(str, start, linePos);
-			// output another quote
-			sb.append(columnQuote);
-			start = linePos;
-		}
-		sb.append(columnQuote);
-	}
-
-	/**
-	 * Extract a value from the line, convert it into its java equivalent, and assign it to our target object.
-	 */
-	private void extractAndAssignValue(String line, int lineNumber, ColumnInfo<Object> columnInfo, String columnStr,
-			int linePos, Object target, ParseError parseError) {
-		Object value = extractValue(line, lineNumber, columnInfo, columnStr, linePos, target, parseError);
-		if (value == null) {
-			// either error or no value
-			return;
-		}
-		try {
-			columnInfo.setValue(target, value);
-		} catch (Exception e) {
-			parseError.setErrorType(ErrorType.INTERNAL_ERROR);
-			parseError
-					.setMessage("setting value for field '" + columnInfo.getFieldName() + "' error: " + e.getMessage());
-			parseError.setLinePos(linePos);
-		}
-	}
-
-	/**
-	 * Extract a value from the line and convert it into its java equivalent.
-	 */
-	private Object extractValue(String line, int lineNumber, ColumnInfo<Object> columnInfo, String columnStr,
-			int linePos, Object target, ParseError parseError) {
-
-		Converter<Object, ?> converter = columnInfo.getConverter();
-		if (alwaysTrimInput || columnInfo.isTrimInput() || converter.isAlwaysTrimInput()) {
-			columnStr = columnStr.trim();
-		}
-		if (columnStr.isEmpty() && columnInfo.getDefaultValue() != null) {
-			columnStr = columnInfo.getDefaultValue();
-		}
-		if (columnStr.isEmpty() && columnInfo.isMustNotBeBlank()) {
-			parseError.setMessage("field '" + columnInfo.getFieldName() + "' must not be blank");
-			parseError.setErrorType(ErrorType.MUST_NOT_BE_BLANK);
-			parseError.setLinePos(linePos);
-			return null;
-		}
-
-		try {
-			return converter.stringToJava(line, lineNumber, linePos, columnInfo, columnStr, parseError);
-		} catch (ParseException e) {
-			parseError.setErrorType(ErrorType.INVALID_FORMAT);
-			parseError.setMessage("field '" + columnInfo.getFieldName() + "' parse-error: " + e.getMessage());
-			parseError.setLinePos(linePos);
-			return null;
-		} catch (Exception e) {
-			parseError.setErrorType(ErrorType.INTERNAL_ERROR);
-			parseError.setMessage("field '" + columnInfo.getFieldName() + "' error: " + e.getMessage());
-			parseError.setLinePos(linePos);
-			return null;
-		}
-	}
-
-	private int getLineNumber(BufferedReader bufferedReader) {
-		if (bufferedReader instanceof BufferedReaderLineCounter) {
-			return ((BufferedReaderLineCounter) bufferedReader).getLineCount();
-		} else {
-			return 1;
-		}
-	}
 }
@@ -0,0 +1,220 @@
+package com.j256.simplecsv.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+/**
+ * Per-stream state used when reading from a single CSV file or stream with a {@link CsvSchema}. The session holds the
+ * mapping of the header columns to the entity columns which may be dynamic if flexible-order or ignore-unknown-columns
+ * is enabled.
+ *
+ * <p>
+ * <b>NOTE:</b> A session is not thread-safe and should be used for only one stream at a time. Sessions are cheap so
+ * use {@link CsvSchema#newReadSession()} for each stream that you are reading. The schema itself can be shared across
+ * threads.
+ * </p>
+ *
+ * @param <T>
+ *            Entity type that we are processing.
+ *
+ * @author graywatson
+ */
+public class CsvReadSession<T> {
+
+	private final CsvSchema<T> schema;
+	private RowPlan rowPlan;
+
+	CsvReadSession(CsvSchema<T> schema) {
+		this.schema = schema;
+		this.rowPlan = schema.getDefaultRowPlan();
+	}
+
+	/**
+	 * Read in all of the entities in the reader passed in. It will use an internal buffered reader.
+	 *
+	 * @see CsvProcessor#readAll(Reader, Collection)
+	 */
+	public List<T> readAll(Reader reader, Collection<ParseError> parseErrors) throws IOException, ParseException {
+		BufferedReader bufferedReader = new BufferedReaderLineCounter(reader);
+		try {
+			ParseError parseError = null;
+			// we do this to reuse the parse error objects if we can
+			if (parseErrors != null) {
+				parseError = new ParseError();
+			}
+			if (schema.isFirstLineHeader()) {
+				if (readHeader(bufferedReader, parseError) == null) {
+					if (parseError != null && parseError.isError()) {
+						parseErrors.add(parseError);
+					}
+					return null;
+				}
+			}
+			return readRows(bufferedReader, parseErrors);
+		} finally {
+			bufferedReader.close();
+		}
+	}
+
+	/**
+	 * Read in a line and process it as a CSV header.
+	 *
+	 * @see CsvProcessor#readHeader(BufferedReader, ParseError)
+	 */
+	public String[] readHeader(BufferedReader bufferedReader, ParseError parseError)
+			throws ParseException, IOException {
+		String header = bufferedReader.readLine();
+		if (header == null) {
+			if (parseError == null) {
+				throw new ParseException("no header line read", 0);
+			} else {
+				parseError.setErrorType(ErrorType.NO_HEADER);
+				parseError.setLineNumber(CsvSchema.getLineNumber(bufferedReader));
+				return null;
+			}
+		}
+		return processHeader(header, parseError, CsvSchema.getLineNumber(bufferedReader));
+	}
+
+	/**
+	 * Process and validate a header line that has already been read.
+	 */
+	String[] processHeader(String header, ParseError parseError, int lineNumber) throws ParseException {
+		String[] columns = schema.processHeader(header, parseError, lineNumber);
+		if (columns == null) {
+			return null;
+		} else if (schema.isHeaderValidation() && !validateHeaderColumns(columns, parseError, lineNumber)) {
+			if (parseError == null) {
+				throw new ParseException("header line is not valid: " + header, 0);
+			} else {
+				return null;
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Read in all of the entities in the reader passed in but without the header.
+	 *
+	 * @see CsvProcessor#readRows(BufferedReader, Collection)
+	 */
+	public List<T> readRows(BufferedReader bufferedReader, Collection<ParseError> parseErrors)
+			throws IOException, ParseException {
+		ParseError parseError = null;
+		// we do this to reuse the parse error objects if we can
+		if (parseErrors != null) {
+			parseError = new ParseError();
+		}
+		ParseErrorCollector errorCollector = null;
+		if (parseErrors instanceof ParseErrorCollector) {
+			errorCollector = (ParseErrorCollector) parseErrors;
+		}
+		List<T> results = new ArrayList<T>();
+		long rowCount = 0;
+		while (true) {
+			if (parseError != null) {
+				parseError.reset();
+			}
+			T result = readRow(bufferedReader, parseError);
+			if (result != null) {
+				results.add(result);
+				rowCount++;
+			} else if (parseError != null && parseError.isError()) {
+				rowCount++;
+				// if there was an error then add it to the list, if it was kept then we need to create another one
+				if (parseErrors.add(parseError)) {
+					parseError = new ParseError();
+				}
+				if (errorCollector != null && errorCollector.checkAbort(rowCount)) {
+					return null;
+				}
+			} else {
+				// if no result and no error then EOF
+				return results;
+			}
+		}
+	}
+
+	/**
+	 * Read an entity line from the reader.
+	 *
+	 * @see CsvProcessor#readRow(BufferedReader, ParseError)
+	 */
+	public T readRow(BufferedReader bufferedReader, ParseError parseError) throws ParseException, IOException {
+		String line = bufferedReader.readLine();
+		if (line == null) {
+			return null;
+		} else {
+			return schema.processRow(rowPlan, line, parseError, CsvSchema.getLineNumber(bufferedReader));
+		}
+	}
+
+	/**
+	 * Validate the header row against the configured header columns.
+	 *
+	 * @see CsvProcessor#validateHeader(String, ParseError)
+	 */
+	public boolean validateHeader(String line, ParseError parseError) throws ParseException {
+		String[] columns = schema.processHeader(line, parseError, 1);
+		return validateHeaderColumns(columns, parseError, 1);
+	}
+
+	/**
+	 * Validate header columns returned by {@link CsvSchema#processHeader(String, ParseError)}. If valid then the
+	 * header column mapping will be used for the rest of the rows read by this session.
+	 *
+	 * @see CsvProcessor#validateHeaderColumns(String[], ParseError)
+	 */
+	public boolean validateHeaderColumns(String[] columns, ParseError parseError) {
+		return validateHeaderColumns(columns, parseError, 1);
+	}
+
+	/**
+	 * Read and process a line and return the associated entity.
+	 *
+	 * @see CsvProcessor#processRow(String, ParseError)
+	 */
+	public T processRow(String line, ParseError parseError) throws ParseException {
+		return schema.processRow(rowPlan, line, parseError, 1);
+	}
+
+	/**
+	 * Process a line that has already been read from the line number.
+	 */
+	T processRow(String line, ParseError parseError, int lineNumber) throws ParseException {
+		return schema.processRow(rowPlan, line, parseError, lineNumber);
+	}
+
+	/**
+	 * Returns the plan for the columns of the rows which depends on the header that was read.
+	 */
+	RowPlan getRowPlan() {
+		return rowPlan;
+	}
+
+	/**
+	 * Returns the schema that this session is reading with.
+	 */
+	public CsvSchema<T> getSchema() {
+		return schema;
+	}
+
+	private boolean validateHeaderColumns(String[] columns, ParseError parseError, int lineNumber) {
+		RowPlan rowPlan = schema.matchHeaderColumns(columns, parseError, lineNumber);
+		if (rowPlan == null) {
+			// if we have an error then reset the column positions
+			this.rowPlan = schema.getDefaultRowPlan();
+			return false;
+		} else {
+			this.rowPlan = rowPlan;
+			return true;
+		}
+	}
+}
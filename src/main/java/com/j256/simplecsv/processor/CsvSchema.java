@@ -0,0 +1,1044 @@
+package com.j256.simplecsv.processor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Constructor;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Stream;
+
+import com.j256.simplecsv.converter.CharRangeConverter;
+import com.j256.simplecsv.converter.Converter;
+import com.j256.simplecsv.converter.OutputBufferConverter;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+/**
+ * Compiled and immutable version of the configuration from a {@link CsvProcessor}. All of the reflection and column
+ * configuration has been done by the time the schema is built so it can be shared by multiple threads. Any per-stream
+ * state, such as how the header columns map to the entity columns, is held in a {@link CsvReadSession} which is cheap
+ * to create with {@link #newReadSession()}.
+ * 
+ * <p>
+ * Schemas are built with {@link CsvProcessor#getSchema()}.
+ * </p>
+ * 
+ * @param <T>
+ *            Entity type that we are processing.
+ * 
+ * @author graywatson
+ */
+public class CsvSchema<T> {
+
+	/** number of chunks of entities that are formatted at the same time when writing in parallel */
+	private static final int PARALLEL_CHUNKS_IN_FLIGHT = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+	/** smallest buffer allocated for building a single line */
+	private static final int MIN_LINE_BUFFER_SIZE = 64;
+
+	private final Class<T> entityClass;
+	private final Constructor<T> constructor;
+	private final Callable<T> constructorCallable;
+	private final char columnSeparator;
+	private final char columnQuote;
+	private final String lineTermination;
+	private final boolean allowPartialLines;
+	private final boolean alwaysTrimInput;
+	private final boolean headerValidation;
+	private final boolean firstLineHeader;
+	private final boolean flexibleOrder;
+	private final boolean ignoreUnknownColumns;
+	private final RowValidator<T> rowValidator;
+	private final ColumnNameMatcher columnNameMatcher;
+	private final List<ColumnInfo<Object>> allColumnInfos;
+	private final ColumnInfo<Object>[] writeColumnInfos;
+	/** whether the output of the column has to be scanned for characters that need quoting */
+	private final boolean[] scanOutputs;
+	/** characters that cause a value to be quoted indexed by the character */
+	private final boolean[] quotedChars;
+	private final RowPlan defaultRowPlan;
+	/**
+	 * Length of the last line built by the single line methods so their buffers start at about the size of a row. It
+	 * is only a hint so updates from other threads being lost or seen late does not matter.
+	 */
+	private int lineLengthHint = MIN_LINE_BUFFER_SIZE;
+
+	CsvSchema(Class<T> entityClass, Constructor<T> constructor, Callable<T> constructorCallable, char columnSeparator,
+			char columnQuote, String lineTermination, boolean allowPartialLines, boolean alwaysTrimInput,
+			boolean headerValidation, boolean firstLineHeader, boolean flexibleOrder, boolean ignoreUnknownColumns,
+			RowValidator<T> rowValidator, ColumnNameMatcher columnNameMatcher, List<ColumnInfo<Object>> allColumnInfos) {
+		this.entityClass = entityClass;
+		this.constructor = constructor;
+		this.constructorCallable = constructorCallable;
+		this.columnSeparator = columnSeparator;
+		this.columnQuote = columnQuote;
+		this.lineTermination = lineTermination;
+		this.allowPartialLines = allowPartialLines;
+		this.alwaysTrimInput = alwaysTrimInput;
+		this.headerValidation = headerValidation;
+		this.firstLineHeader = firstLineHeader;
+		this.flexibleOrder = flexibleOrder;
+		this.ignoreUnknownColumns = ignoreUnknownColumns;
+		this.rowValidator = rowValidator;
+		this.columnNameMatcher = columnNameMatcher;
+		this.allColumnInfos = Collections.unmodifiableList(new ArrayList<ColumnInfo<Object>>(allColumnInfos));
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		ColumnInfo<Object>[] positionInfos = allColumnInfos.toArray(new ColumnInfo[allColumnInfos.size()]);
+		this.writeColumnInfos = positionInfos;
+		this.quotedChars = buildQuotedChars(columnSeparator, columnQuote);
+		this.scanOutputs = new boolean[positionInfos.length];
+		for (int i = 0; i < positionInfos.length; i++) {
+			scanOutputs[i] = !isSafeAlphabet(positionInfos[i].getOutputAlphabet(), quotedChars);
+		}
+		this.defaultRowPlan = RowPlan.fromPositions(positionInfos, alwaysTrimInput);
+	}
+
+	/**
+	 * Create a new session which holds the per-stream state, such as the header column mapping, when reading a single
+	 * file or stream. Sessions are not thread-safe but they are cheap to create so one should be used per stream.
+	 */
+	public CsvReadSession<T> newReadSession() {
+		return new CsvReadSession<T>(this);
+	}
+
+	/**
+	 * Read in all of the entities in the file passed in using a new read session.
+	 * 
+	 * @see CsvProcessor#readAll(File, Collection)
+	 */
+	public List<T> readAll(File file, Collection<ParseError> parseErrors) throws IOException, ParseException {
+		return readAll(new FileReader(file), parseErrors);
+	}
+
+	/**
+	 * Read in all of the entities in the reader passed in using a new read session.
+	 * 
+	 * @see CsvProcessor#readAll(Reader, Collection)
+	 */
+	public List<T> readAll(Reader reader, Collection<ParseError> parseErrors) throws IOException, ParseException {
+		return newReadSession().readAll(reader, parseErrors);
+	}
+
+	/**
+	 * Write a collection of entities to the writer.
+	 * 
+	 * @see CsvProcessor#writeAll(File, Collection, boolean)
+	 */
+	public void writeAll(File file, Collection<T> entities, boolean writeHeader) throws IOException {
+		writeAll(Utf8ByteWriter.openFile(file), entities, writeHeader);
+	}
+
+	/**
+	 * Write a header and then the collection of entities to the writer.
+	 * 
+	 * @see CsvProcessor#writeAll(Writer, Collection, boolean)
+	 */
+	public void writeAll(Writer writer, Collection<T> entities, boolean writeHeader) throws IOException {
+		writeAll(writer, entities.iterator(), writeHeader);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterable to the writer.
+	 * 
+	 * @see CsvProcessor#writeAll(Writer, Iterable, boolean)
+	 */
+	public void writeAll(Writer writer, Iterable<T> entities, boolean writeHeader) throws IOException {
+		writeAll(writer, entities.iterator(), writeHeader);
+	}
+
+	/**
+	 * Write a header and then the entities from the stream to the writer.
+	 * 
+	 * @see CsvProcessor#writeAll(Writer, Stream, boolean)
+	 */
+	public void writeAll(Writer writer, Stream<T> entities, boolean writeHeader) throws IOException {
+		writeAll(writer, entities.iterator(), writeHeader);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterator to the writer. The rows are appended to a reusable
+	 * {@link OutputBuffer} which is written to the writer in large blocks.
+	 * 
+	 * @see CsvProcessor#writeAll(Writer, Iterator, boolean)
+	 */
+	public void writeAll(Writer writer, Iterator<T> entities, boolean writeHeader) throws IOException {
+		RowSink<T> sink = newRowSink(writer, writeHeader);
+		try {
+			while (entities.hasNext()) {
+				sink.write(entities.next());
+			}
+		} finally {
+			sink.close();
+		}
+	}
+
+	/**
+	 * Write a header and then the collection of entities to the writer formatting chunks of the entities in parallel
+	 * using the executor.
+	 * 
+	 * @see CsvProcessor#writeAll(Writer, Collection, boolean, ExecutorService)
+	 */
+	public void writeAll(Writer writer, Collection<T> entities, boolean writeHeader, ExecutorService executor)
+			throws IOException {
+		writeAll(writer, entities.iterator(), writeHeader, executor);
+	}
+
+	/**
+	 * Write a header and then the entities from the iterator to the writer formatting chunks of the entities in
+	 * parallel using the executor.
+	 * 
+	 * @see CsvProcessor#writeAll(Writer, Iterator, boolean, ExecutorService)
+	 */
+	public void writeAll(Writer writer, Iterator<T> entities, boolean writeHeader, ExecutorService executor)
+			throws IOException {
+		try {
+			new ParallelRowWriter<T>(this, executor, PARALLEL_CHUNKS_IN_FLIGHT).write(writer, entities, writeHeader);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Return a new sink which writes the header, if requested, and then each entity pushed into it to the writer.
+	 * 
+	 * @see CsvProcessor#newRowSink(Writer, boolean)
+	 */
+	public RowSink<T> newRowSink(Writer writer, boolean writeHeader) {
+		return new RowSink<T>(this, writer, writeHeader);
+	}
+
+	/**
+	 * Return a new writer which formats and writes entities from any number of threads on a background thread.
+	 * 
+	 * @see CsvProcessor#newAsyncWriter(Writer, boolean, int, int, long)
+	 */
+	public AsyncCsvWriter<T> newAsyncWriter(Writer writer, boolean writeHeader, int queueCapacity, int flushSize,
+			long flushIntervalMillis) {
+		return new AsyncCsvWriter<T>(this, writer, writeHeader, queueCapacity, flushSize, flushIntervalMillis).start();
+	}
+
+	/**
+	 * Return a new writer which can be called by any number of threads at the same time.
+	 * 
+	 * @see CsvProcessor#newConcurrentWriter(Writer, boolean)
+	 */
+	public ConcurrentCsvWriter<T> newConcurrentWriter(Writer writer, boolean writeHeader) throws IOException {
+		return new ConcurrentCsvWriter<T>(this, writer, writeHeader);
+	}
+
+	/**
+	 * Return a new writer which writes entities to a series of segment files in the directory.
+	 * 
+	 * @see CsvProcessor#newRollingWriter(File, String, String, boolean)
+	 */
+	public RollingCsvWriter<T> newRollingWriter(File directory, String prefix, String suffix, boolean writeHeader) {
+		return new RollingCsvWriter<T>(this, directory, prefix, suffix, writeHeader);
+	}
+
+	/**
+	 * Write the entities to partitions routed by the formatted value of a column.
+	 * 
+	 * @see CsvProcessor#writePartitioned(Iterator, String, int, PartitionWriterFactory, boolean, ExecutorService)
+	 */
+	public void writePartitioned(Iterator<T> entities, String columnName, int numPartitions,
+			PartitionWriterFactory writerFactory, boolean writeHeader, ExecutorService executor) throws IOException {
+		new PartitionedRowWriter<T>(this, findColumnInfo(columnName), numPartitions, writerFactory, writeHeader,
+				executor, PARALLEL_CHUNKS_IN_FLIGHT).write(entities);
+	}
+
+	/**
+	 * Return a new sorter which orders the lines by the typed values of the columns.
+	 * 
+	 * @see CsvProcessor#newSorter(String...)
+	 */
+	public CsvSorter<T> newSorter(String... columnNames) {
+		if (columnNames.length == 0) {
+			throw new IllegalArgumentException("At least one column name must be specified");
+		}
+		List<ColumnInfo<Object>> keyColumns = new ArrayList<ColumnInfo<Object>>(columnNames.length);
+		for (String columnName : columnNames) {
+			keyColumns.add(findColumnInfo(columnName));
+		}
+		return new CsvSorter<T>(this, CsvSorter.<T> columnComparator(keyColumns));
+	}
+
+	/**
+	 * Return a new sorter which orders the lines by comparing their entities.
+	 * 
+	 * @see CsvProcessor#newSorter(Comparator)
+	 */
+	public CsvSorter<T> newSorter(Comparator<T> comparator) {
+		return new CsvSorter<T>(this, comparator);
+	}
+
+	/**
+	 * Return a new aggregator which groups the rows by the values of the key columns.
+	 * 
+	 * @see CsvProcessor#newAggregator(String...)
+	 */
+	public CsvAggregator<T> newAggregator(String... keyColumnNames) {
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		ColumnInfo<Object>[] keyColumns = new ColumnInfo[keyColumnNames.length];
+		for (int i = 0; i < keyColumnNames.length; i++) {
+			keyColumns[i] = findColumnInfo(keyColumnNames[i]);
+		}
+		return new CsvAggregator<T>(this, keyColumns, PARALLEL_CHUNKS_IN_FLIGHT);
+	}
+
+	/**
+	 * Return a new hash join which streams rows of this schema through a hash table built from the other schema.
+	 * 
+	 * @see CsvProcessor#newHashJoin(String, CsvProcessor, String)
+	 */
+	public <B> CsvHashJoin<T, B> newHashJoin(String keyColumnName, CsvSchema<B> buildSchema,
+			String buildKeyColumnName) {
+		return new CsvHashJoin<T, B>(this, findColumnInfo(keyColumnName), buildSchema,
+				buildSchema.findColumnInfo(buildKeyColumnName));
+	}
+
+	/**
+	 * Return a new deduplicator which drops the rows whose key column values were seen before.
+	 * 
+	 * @see CsvProcessor#newDeduplicator(String...)
+	 */
+	public CsvDeduplicator<T> newDeduplicator(String... keyColumnNames) {
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		ColumnInfo<Object>[] keyColumns = new ColumnInfo[keyColumnNames.length];
+		for (int i = 0; i < keyColumnNames.length; i++) {
+			keyColumns[i] = findColumnInfo(keyColumnNames[i]);
+		}
+		return new CsvDeduplicator<T>(this, keyColumns);
+	}
+
+	/**
+	 * Write the header line to the writer.
+	 * 
+	 * @see CsvProcessor#writeHeader(BufferedWriter, boolean)
+	 */
+	public void writeHeader(BufferedWriter bufferedWriter, boolean appendLineTermination) throws IOException {
+		OutputBuffer buffer = newLineBuffer();
+		appendHeaderLine(buffer, appendLineTermination);
+		buffer.writeTo(bufferedWriter);
+	}
+
+	/**
+	 * Write an entity row to the writer.
+	 * 
+	 * @see CsvProcessor#writeRow(BufferedWriter, Object, boolean)
+	 */
+	public void writeRow(BufferedWriter bufferedWriter, T entity, boolean appendLineTermination) throws IOException {
+		OutputBuffer buffer = newLineBuffer();
+		appendLine(buffer, entity, appendLineTermination);
+		lineLengthHint = buffer.length();
+		buffer.writeTo(bufferedWriter);
+	}
+
+	/**
+	 * Build and return a header string made up of quoted column names.
+	 * 
+	 * @param appendLineTermination
+	 *            Set to true to add the newline to the end of the line.
+	 */
+	public String buildHeaderLine(boolean appendLineTermination) {
+		OutputBuffer buffer = newLineBuffer();
+		appendHeaderLine(buffer, appendLineTermination);
+		return buffer.toString();
+	}
+
+	/**
+	 * Convert the entity into a string of column values.
+	 * 
+	 * @param appendLineTermination
+	 *            Set to true to add the newline to the end of the line.
+	 */
+	public String buildLine(T entity, boolean appendLineTermination) {
+		OutputBuffer buffer = newLineBuffer();
+		appendLine(buffer, entity, appendLineTermination);
+		lineLengthHint = buffer.length();
+		return buffer.toString();
+	}
+
+	/**
+	 * Create a buffer for a single line sized a bit larger than the last line so it usually doesn't need to grow.
+	 */
+	private OutputBuffer newLineBuffer() {
+		int hint = lineLengthHint;
+		return new OutputBuffer(Math.max(MIN_LINE_BUFFER_SIZE, hint + hint / 4));
+	}
+
+	/**
+	 * Append a header line made up of quoted column names to the buffer.
+	 * 
+	 * @see CsvProcessor#appendHeaderLine(OutputBuffer, boolean)
+	 */
+	public void appendHeaderLine(OutputBuffer buffer, boolean appendLineTermination) {
+		for (int i = 0; i < writeColumnInfos.length; i++) {
+			if (i > 0) {
+				buffer.append(columnSeparator);
+			}
+			int start = buffer.length();
+			buffer.append(writeColumnInfos[i].getColumnName());
+			buffer.quoteFrom(start, columnQuote);
+		}
+		if (appendLineTermination) {
+			buffer.append(lineTermination);
+		}
+	}
+
+	/**
+	 * Append the column values from the entity to the buffer. Converters that implement {@link OutputBufferConverter}
+	 * write their values directly into the buffer.
+	 * 
+	 * @see CsvProcessor#appendLine(OutputBuffer, Object, boolean)
+	 */
+	public void appendLine(OutputBuffer buffer, T entity, boolean appendLineTermination) {
+		int rowStart = buffer.length();
+		try {
+			appendColumns(buffer, entity);
+		} catch (RuntimeException re) {
+			// the buffer may be reused so don't leave a partial row in it
+			buffer.setLength(rowStart);
+			throw re;
+		}
+		if (appendLineTermination) {
+			buffer.append(lineTermination);
+		}
+	}
+
+	private void appendColumns(OutputBuffer buffer, T entity) {
+		for (int i = 0; i < writeColumnInfos.length; i++) {
+			if (i > 0) {
+				buffer.append(columnSeparator);
+			}
+			ColumnInfo<Object> columnInfo = writeColumnInfos[i];
+			Object value;
+			try {
+				value = columnInfo.getValue(entity);
+			} catch (Exception e) {
+				throw new IllegalStateException("Could not get value from entity field: " + columnInfo);
+			}
+			boolean needsQuotes = columnInfo.isNeedsQuotes();
+			if (!scanOutputs[i]) {
+				// the converter can't write any characters that need protecting
+				if (needsQuotes) {
+					buffer.append(columnQuote);
+				}
+				appendValue(buffer, columnInfo, value);
+				if (needsQuotes) {
+					buffer.append(columnQuote);
+				}
+				continue;
+			}
+			int start = buffer.length();
+			appendValue(buffer, columnInfo, value);
+			// need to protect the column if it contains a quote or special characters
+			if (!needsQuotes) {
+				char[] chars = buffer.getChars();
+				for (int pos = start; pos < buffer.length(); pos++) {
+					char ch = chars[pos];
+					if (ch < quotedChars.length && quotedChars[ch]) {
+						needsQuotes = true;
+						break;
+					}
+				}
+			}
+			if (needsQuotes) {
+				buffer.quoteFrom(start, columnQuote);
+			}
+		}
+	}
+
+	/**
+	 * Append the formatted value of the column from the entity to the buffer without any quoting.
+	 */
+	void appendColumnValue(OutputBuffer buffer, ColumnInfo<Object> columnInfo, T entity) {
+		Object value;
+		try {
+			value = columnInfo.getValue(entity);
+		} catch (Exception e) {
+			throw new IllegalStateException("Could not get value from entity field: " + columnInfo);
+		}
+		appendValue(buffer, columnInfo, value);
+	}
+
+	private void appendValue(OutputBuffer buffer, ColumnInfo<Object> columnInfo, Object value) {
+		Converter<Object, ?> converter = columnInfo.getConverter();
+		if (value != null && converter instanceof OutputBufferConverter) {
+			@SuppressWarnings("unchecked")
+			OutputBufferConverter<Object, ?> bufferConverter = (OutputBufferConverter<Object, ?>) converter;
+			bufferConverter.javaToBuffer(columnInfo, value, buffer);
+		} else {
+			String str = converter.javaToString(columnInfo, value);
+			if (str != null) {
+				buffer.append(str);
+			}
+		}
+	}
+
+	/**
+	 * Process a header line and divide it up into a series of quoted columns.
+	 * 
+	 * @see CsvProcessor#processHeader(String, ParseError)
+	 */
+	public String[] processHeader(String line, ParseError parseError) throws ParseException {
+		return processHeader(line, parseError, 1);
+	}
+
+	/**
+	 * Returns the entity class that we are processing.
+	 */
+	public Class<T> getEntityClass() {
+		return entityClass;
+	}
+
+	/**
+	 * Returns the configured columns in the order that they are written.
+	 */
+	public List<ColumnInfo<Object>> getColumnInfos() {
+		return allColumnInfos;
+	}
+
+	/**
+	 * Returns true if the first line is a header line to be processed.
+	 */
+	public boolean isFirstLineHeader() {
+		return firstLineHeader;
+	}
+
+	/**
+	 * Returns the characters written at the end of each line.
+	 */
+	String getLineTermination() {
+		return lineTermination;
+	}
+
+	/**
+	 * Returns the information for the column with the name.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If there is no column with the name.
+	 */
+	ColumnInfo<Object> findColumnInfo(String columnName) {
+		for (ColumnInfo<Object> columnInfo : allColumnInfos) {
+			if (columnInfo.getColumnName().equals(columnName)) {
+				return columnInfo;
+			}
+		}
+		throw new IllegalArgumentException("Unknown column name: " + columnName);
+	}
+
+	/**
+	 * Returns true if the header is validated when it is read in.
+	 */
+	boolean isHeaderValidation() {
+		return headerValidation;
+	}
+
+	/**
+	 * Returns the row plan used if there is no header or the header was invalid.
+	 */
+	RowPlan getDefaultRowPlan() {
+		return defaultRowPlan;
+	}
+
+	/**
+	 * Match the header columns against our configured columns.
+	 * 
+	 * @return The plan for reading rows with this header layout or null if the header was not valid.
+	 */
+	RowPlan matchHeaderColumns(String[] columns, ParseError parseError, int lineNumber) {
+		boolean result = true;
+
+		Map<String, ColumnInfo<Object>> columnNameToInfoMap = new HashMap<String, ColumnInfo<Object>>();
+		for (ColumnInfo<Object> columnInfo : allColumnInfos) {
+			columnNameToInfoMap.put(columnInfo.getColumnName(), columnInfo);
+		}
+
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		ColumnInfo<Object>[] positionInfos = new ColumnInfo[columns.length];
+		int lastColumnInfoPosition = -1;
+		for (int i = 0; i < columns.length; i++) {
+			ColumnInfo<Object> matchedColumnInfo = null;
+			if (columnNameMatcher == null) {
+				matchedColumnInfo = columnNameToInfoMap.get(columns[i]);
+			} else {
+				// have to do a N^2 search
+				for (ColumnInfo<Object> columnInfo : allColumnInfos) {
+					if (columnNameMatcher.matchesColumnName(columnInfo.getColumnName(), columns[i])) {
+						matchedColumnInfo = columnInfo;
+						break;
+					}
+				}
+			}
+
+			if (matchedColumnInfo == null) {
+				if (!ignoreUnknownColumns) {
+					if (parseError != null) {
+						parseError.setErrorType(ErrorType.INVALID_HEADER);
+						parseError.setMessage("column name '" + columns[i] + "' is unknown");
+						parseError.setLineNumber(lineNumber);
+					}
+					result = false;
+				}
+			} else {
+				if (!flexibleOrder && matchedColumnInfo.getPosition() <= lastColumnInfoPosition) {
+					if (parseError != null) {
+						parseError.setErrorType(ErrorType.INVALID_HEADER);
+						parseError.setMessage("column name '" + columns[i] + "' is not in the proper order");
+						parseError.setLineNumber(lineNumber);
+					}
+					result = false;
+				} else {
+					lastColumnInfoPosition = matchedColumnInfo.getPosition();
+				}
+				// remove it from the map once we've matched with it
+				columnNameToInfoMap.remove(matchedColumnInfo.getColumnName());
+				positionInfos[i] = matchedColumnInfo;
+			}
+		}
+
+		// now look for must-be-supplied columns
+		for (ColumnInfo<Object> columnInfo : columnNameToInfoMap.values()) {
+			if (columnInfo.isMustBeSupplied()) {
+				if (parseError != null) {
+					parseError.setErrorType(ErrorType.INVALID_HEADER);
+					parseError.setMessage(
+							"column '" + columnInfo.getColumnName() + "' must be suppled and was not specified");
+					parseError.setLineNumber(lineNumber);
+				}
+				result = false;
+			}
+		}
+
+		if (result) {
+			return RowPlan.fromPositions(positionInfos, alwaysTrimInput);
+		} else {
+			return null;
+		}
+	}
+
+	String[] processHeader(String line, ParseError parseError, int lineNumber) throws ParseException {
+		StringBuilder sb = new StringBuilder(32);
+		int linePos = 0;
+		ParseError localParseError = parseError;
+		if (localParseError == null) {
+			localParseError = new ParseError();
+		}
+		List<String> headerColumns = new ArrayList<String>();
+		while (true) {
+			boolean atEnd = (linePos == line.length());
+			localParseError.reset();
+			sb.setLength(0);
+			if (linePos < line.length() && line.charAt(linePos) == columnQuote) {
+				linePos = processQuotedColumn(line, lineNumber, linePos, null, -1, null, sb, localParseError);
+			} else {
+				linePos = processUnquotedColumn(line, lineNumber, linePos, null, -1, null, sb, localParseError);
+			}
+			if (localParseError.isError()) {
+				if (localParseError == parseError) {
+					// if we pass in an error then it gets set and we return null
+					return null;
+				} else {
+					// if no error passed in then we throw
+					throw new ParseException("Problems parsing header line at position " + linePos + " ("
+							+ localParseError + "): " + line, linePos);
+				}
+			}
+			if (sb.length() > 0) {
+				headerColumns.add(sb.toString());
+			}
+			if (atEnd) {
+				break;
+			}
+		}
+		return headerColumns.toArray(new String[headerColumns.size()]);
+	}
+
+	/**
+	 * Append the values of the columns at the key positions to the builder, each followed by a 0 character, without
+	 * converting them or constructing an entity. The values are unquoted but not trimmed.
+	 * 
+	 * @return False if the line could not be split into columns in which case the parse error is set.
+	 */
+	boolean appendKeyValues(String line, boolean[] keyPositions, StringBuilder keySb, ParseError parseError) {
+		int linePos = 0;
+		for (int column = 0; column < keyPositions.length; column++) {
+			StringBuilder sb = (keyPositions[column] ? keySb : null);
+			if (linePos < line.length() && line.charAt(linePos) == columnQuote) {
+				linePos = processQuotedColumn(line, 0, linePos, null, -1, null, sb, parseError);
+			} else {
+				linePos = processUnquotedColumn(line, 0, linePos, null, -1, null, sb, parseError);
+			}
+			if (parseError.isError()) {
+				parseError.setLine(line);
+				return false;
+			}
+			if (sb != null) {
+				sb.append('\0');
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Process a row using the row plan from the session.
+	 */
+	T processRow(RowPlan rowPlan, String line, ParseError parseError, int lineNumber) throws ParseException {
+		T entity = processRowInner(rowPlan, line, parseError, lineNumber);
+		if (entity != null && rowValidator != null) {
+			ParseError localParseError = parseError;
+			if (localParseError == null) {
+				localParseError = new ParseError();
+			}
+			try {
+				rowValidator.validateRow(line, lineNumber, entity, localParseError);
+			} catch (ParseException pe) {
+				if (localParseError != parseError) {
+					throw pe;
+				}
+				localParseError.setErrorType(ErrorType.INVALID_ENTITY);
+				localParseError.setMessage(pe.getMessage());
+			}
+		}
+		if (parseError != null && parseError.isError()) {
+			if (parseError.getLine() == null) {
+				parseError.setLine(line);
+			}
+			if (parseError.getLineNumber() == 0) {
+				parseError.setLineNumber(lineNumber);
+			}
+			if (!parseError.hasMessage()) {
+				parseError.setMessage(parseError.getErrorType().getTypeMessage());
+			}
+			// force the entity to be null
+			entity = null;
+		}
+		return entity;
+	}
+
+	static int getLineNumber(BufferedReader bufferedReader) {
+		if (bufferedReader instanceof BufferedReaderLineCounter) {
+			return ((BufferedReaderLineCounter) bufferedReader).getLineCount();
+		} else {
+			return 1;
+		}
+	}
+
+	private T processRowInner(RowPlan rowPlan, String line, ParseError parseError, int lineNumber)
+			throws ParseException {
+		T target = constructEntity();
+		int linePos = 0;
+		ParseError localParseError = parseError;
+		if (localParseError == null) {
+			localParseError = new ParseError();
+		}
+		ColumnInfo<Object>[] columnInfos = rowPlan.columnInfos;
+		int numColumns = columnInfos.length;
+		int columnCount = 0;
+		while (true) {
+			ColumnInfo<Object> columnInfo;
+			if (columnCount < numColumns) {
+				columnInfo = columnInfos[columnCount];
+			} else {
+				columnInfo = null;
+			}
+			if (columnInfo == null && !ignoreUnknownColumns) {
+				break;
+			}
+			// -1 means that we skip the column
+			int column = (columnInfo == null ? -1 : columnCount);
+
+			// we have to do this because a blank column may be ok
+			boolean atEnd = (linePos == line.length());
+			localParseError.reset();
+			if (linePos < line.length() && line.charAt(linePos) == columnQuote) {
+				linePos = processQuotedColumn(line, lineNumber, linePos, rowPlan, column, target, null, localParseError);
+			} else {
+				linePos = processUnquotedColumn(line, lineNumber, linePos, rowPlan, column, target, null,
+						localParseError);
+			}
+			if (localParseError.isError()) {
+				if (localParseError == parseError) {
+					// parseError has the error information
+					return null;
+				} else {
+					throw new ParseException(
+							"Problems parsing line at position " + linePos + " for type "
+									+ columnInfo.getType().getSimpleName() + " (" + localParseError + "): " + line,
+							linePos);
+				}
+			}
+			columnCount++;
+			if (atEnd) {
+				break;
+			}
+			// NOTE: we can't break here if we are at the end of line because might be blank column
+		}
+		if (columnCount < rowPlan.mappedCount && !allowPartialLines) {
+			if (parseError == null) {
+				throw new ParseException("Line does not have " + rowPlan.mappedCount + " columns: " + line, linePos);
+			} else {
+				parseError.setErrorType(ErrorType.TRUNCATED_LINE);
+				parseError.setMessageFormat("Line does not have %d columns", rowPlan.mappedCount);
+				parseError.setLinePos(linePos);
+				return null;
+			}
+		}
+		if (linePos < line.length() && !ignoreUnknownColumns) {
+			if (parseError == null) {
+				throw new ParseException(
+						"Line has extra information past last column at position " + linePos + ": " + line, linePos);
+			} else {
+				parseError.setErrorType(ErrorType.TOO_MANY_COLUMNS);
+				parseError.setMessageFormat("Line has extra information past last column at position %d", linePos);
+				parseError.setLinePos(linePos);
+				return null;
+			}
+		}
+		return target;
+	}
+
+	private T constructEntity() throws ParseException {
+		try {
+			if (constructorCallable == null) {
+				return constructor.newInstance();
+			} else {
+				return constructorCallable.call();
+			}
+		} catch (Exception e) {
+			ParseException parseException = new ParseException("Could not construct instance of " + entityClass, 0);
+			parseException.initCause(e);
+			throw parseException;
+		}
+	}
+
+	private int processQuotedColumn(String line, int lineNumber, int linePos, RowPlan rowPlan, int column,
+			Object target, StringBuilder headerSb, ParseError parseError) {
+
+		// linePos is pointing at the first quote, move past it
+		linePos++;
+		int columnStart = linePos;
+		int sectionStart = linePos;
+		int sectionEnd = linePos;
+
+		StringBuilder sb = null;
+		while (linePos < line.length()) {
+
+			// look for the next quote
+			sectionEnd = line.indexOf(columnQuote, linePos);
+			if (sectionEnd < 0) {
+				parseError.setErrorType(ErrorType.TRUNCATED_COLUMN);
+				parseError.setMessageFormat("Column not terminated with quote '%c'", columnQuote);
+				parseError.setLinePos(linePos);
+				return line.length();
+			}
+
+			linePos = sectionEnd + 1;
+			if (linePos == line.length()) {
+				break;
+			} else if (line.charAt(linePos) == columnSeparator) {
+				linePos++;
+				break;
+			}
+
+			// must have a quote following a quote if there wasn't a columnSeparator
+			if (line.charAt(linePos) != columnQuote) {
+				parseError.setErrorType(ErrorType.INVALID_FORMAT);
+				parseError.setMessageFormat("quote '%c' is not followed up separator '%c'", columnQuote,
+						columnSeparator);
+				parseError.setLinePos(linePos);
+				return linePos;
+			}
+
+			sectionEnd = linePos;
+			// move past possibly end quote
+			linePos++;
+			if (linePos == line.length()) {
+				break;
+			}
+			if (line.charAt(linePos) == columnSeparator) {
+				// move past the comma
+				linePos++;
+				break;
+			}
+
+			// need to build the string dynamically now
+			if (sb == null) {
+				sb = new StringBuilder(32);
+			}
+			// add to the string-builder the column + 1 quote
+			sb.append(line, sectionStart, sectionEnd);
+			// line-pos is pointing past 2nd (maybe 3rd) quote
+			sectionStart = linePos;
+		}
+
+		if (sb == null) {
+			if (headerSb == null) {
+				if (column >= 0) {
+					extractAndAssignValue(line, lineNumber, rowPlan, column, line, sectionStart, sectionEnd, columnStart,
+							target, parseError);
+				}
+			} else {
+				headerSb.append(line, sectionStart, sectionEnd);
+			}
+		} else {
+			sb.append(line, sectionStart, sectionEnd);
+			if (headerSb == null) {
+				if (column >= 0) {
+					extractAndAssignValue(line, lineNumber, rowPlan, column, sb, 0, sb.length(), columnStart, target,
+							parseError);
+				}
+			} else {
+				headerSb.append(sb);
+			}
+		}
+		return linePos;
+	}
+
+	private int processUnquotedColumn(String line, int lineNumber, int linePos, RowPlan rowPlan, int column,
+			Object target, StringBuilder headerSb, ParseError parseError) {
+		int columnStart = linePos;
+		linePos = line.indexOf(columnSeparator, columnStart);
+		if (linePos < 0) {
+			linePos = line.length();
+		}
+
+		if (headerSb == null) {
+			if (column >= 0) {
+				extractAndAssignValue(line, lineNumber, rowPlan, column, line, columnStart, linePos, columnStart, target,
+						parseError);
+			}
+		} else {
+			headerSb.append(line, columnStart, linePos);
+		}
+
+		if (linePos < line.length()) {
+			// skip over the separator
+			linePos++;
+		}
+		return linePos;
+	}
+
+	/**
+	 * Extract a value from the characters, convert it into its java equivalent, and assign it to our target object. The
+	 * characters are either the line or a buffer holding the column if it had escaped quotes.
+	 */
+	private void extractAndAssignValue(String line, int lineNumber, RowPlan rowPlan, int column, CharSequence chars,
+			int start, int end, int linePos, Object target, ParseError parseError) {
+		ColumnInfo<Object> columnInfo = rowPlan.columnInfos[column];
+		Object value =
+				extractValue(line, lineNumber, rowPlan, column, columnInfo, chars, start, end, linePos, parseError);
+		if (value == null) {
+			// either error or no value
+			if (parseError.isError()) {
+				parseError.setFieldName(columnInfo.getFieldName());
+			}
+			return;
+		}
+		try {
+			columnInfo.setValue(target, value);
+		} catch (Exception e) {
+			parseError.setErrorType(ErrorType.INTERNAL_ERROR);
+			parseError.setMessageFormat("setting value for field '%s' error: %s", columnInfo.getFieldName(),
+					e.getMessage());
+			parseError.setFieldName(columnInfo.getFieldName());
+			parseError.setLinePos(linePos);
+		}
+	}
+
+	/**
+	 * Extract a value from the line and convert it into its java equivalent.
+	 */
+	private Object extractValue(String line, int lineNumber, RowPlan rowPlan, int column, ColumnInfo<Object> columnInfo,
+			CharSequence chars, int start, int end, int linePos, ParseError parseError) {
+
+		if (rowPlan.trimInputs[column]) {
+			// same as String.trim() but on the range so we don't have to create a string
+			while (start < end && chars.charAt(start) <= ' ') {
+				start++;
+			}
+			while (start < end && chars.charAt(end - 1) <= ' ') {
+				end--;
+			}
+		}
+		String columnStr = null;
+		if (start == end) {
+			columnStr = "";
+			String defaultValue = rowPlan.defaultValues[column];
+			if (defaultValue != null) {
+				columnStr = defaultValue;
+			}
+			if (columnStr.isEmpty() && rowPlan.mustNotBeBlanks[column]) {
+				parseError.setMessageFormat("field '%s' must not be blank", columnInfo.getFieldName());
+				parseError.setErrorType(ErrorType.MUST_NOT_BE_BLANK);
+				parseError.setLinePos(linePos);
+				return null;
+			}
+		}
+
+		try {
+			if (columnStr == null) {
+				CharRangeConverter<Object, ?> rangeConverter = rowPlan.rangeConverters[column];
+				if (rangeConverter != null) {
+					return rangeConverter.rangeToJava(line, lineNumber, linePos, columnInfo, chars, start, end,
+							parseError);
+				}
+				columnStr = chars.subSequence(start, end).toString();
+			}
+			return rowPlan.converters[column].stringToJava(line, lineNumber, linePos, columnInfo, columnStr,
+					parseError);
+		} catch (ParseException e) {
+			parseError.setErrorType(ErrorType.INVALID_FORMAT);
+			parseError.setMessageFormat("field '%s' parse-error: %s", columnInfo.getFieldName(), e.getMessage());
+			parseError.setLinePos(linePos);
+			return null;
+		} catch (Exception e) {
+			parseError.setErrorType(ErrorType.INTERNAL_ERROR);
+			parseError.setMessageFormat("field '%s' error: %s", columnInfo.getFieldName(), e.getMessage());
+			parseError.setLinePos(linePos);
+			return null;
+		}
+	}
+
+	private static boolean[] buildQuotedChars(char columnSeparator, char columnQuote) {
+		char[] specials = new char[] { columnSeparator, columnQuote, '\r', '\n', '\t', '\b' };
+		int max = 0;
+		for (char ch : specials) {
+			max = Math.max(max, ch);
+		}
+		boolean[] quotedChars = new boolean[max + 1];
+		for (char ch : specials) {
+			quotedChars[ch] = true;
+		}
+		return quotedChars;
+	}
+
+	/**
+	 * Returns true if none of the characters in the alphabet need to be quoted.
+	 */
+	private static boolean isSafeAlphabet(String alphabet, boolean[] quotedChars) {
+		if (alphabet == null) {
+			return false;
+		}
+		for (int i = 0; i < alphabet.length(); i++) {
+			char ch = alphabet.charAt(i);
+			if (ch < quotedChars.length && quotedChars[ch]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
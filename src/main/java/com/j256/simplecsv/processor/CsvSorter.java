@@ -0,0 +1,573 @@
+package com.j256.simplecsv.processor;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+/**
+ * External merge sort of CSV data which can be much larger than memory. The lines are converted into entities so they
+ * are compared with their typed column values instead of as text. Runs of lines are read up to a memory budget,
+ * sorted, and spilled to temporary files which are then merged to the output. If an executor is set then the runs are
+ * sorted and spilled in the background while the next run is read. The lines are written to the output exactly as
+ * they were read, header included, and the sort is stable so lines with equal keys stay in their original order.
+ * 
+ * <p>
+ * Create the sorter with {@link CsvProcessor#newSorter(String...)} or {@link CsvProcessor#newSorter(Comparator)}. It
+ * can be used for multiple sorts at the same time as long as the settings are not changed.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class CsvSorter<T> {
+
+	/** default number of characters of lines in each run */
+	public static final long DEFAULT_MAX_RUN_SIZE = 32 * 1024 * 1024;
+	/** default number of runs that are merged at one time */
+	public static final int DEFAULT_MAX_MERGE_WIDTH = 64;
+	/** number of runs that can be sorting in the background while the next run is read */
+	private static final int MAX_RUNS_IN_FLIGHT = 2;
+	private static final int IO_BUFFER_SIZE = 64 * 1024;
+	private static final int WRITE_BUFFER_SIZE = 8192;
+
+	private final CsvSchema<T> schema;
+	private final Comparator<SortRecord<T>> recordComparator;
+	private long maxRunSize = DEFAULT_MAX_RUN_SIZE;
+	private int maxMergeWidth = DEFAULT_MAX_MERGE_WIDTH;
+	private File tempDirectory;
+	private boolean compressSpills;
+	private ExecutorService executor;
+
+	CsvSorter(CsvSchema<T> schema, final Comparator<T> comparator) {
+		this.schema = schema;
+		this.recordComparator = new Comparator<SortRecord<T>>() {
+			@Override
+			public int compare(SortRecord<T> record1, SortRecord<T> record2) {
+				return comparator.compare(record1.entity, record2.entity);
+			}
+		};
+	}
+
+	/**
+	 * Return a comparator which compares the values of the columns in order. The column types must be primitives or
+	 * implement {@link Comparable}. Null values are sorted first.
+	 */
+	static <T> Comparator<T> columnComparator(final List<ColumnInfo<Object>> columnInfos) {
+		for (ColumnInfo<Object> columnInfo : columnInfos) {
+			Class<?> type = columnInfo.getType();
+			if (!type.isPrimitive() && !Comparable.class.isAssignableFrom(type)) {
+				throw new IllegalArgumentException("Column type is not comparable: " + columnInfo);
+			}
+		}
+		return new Comparator<T>() {
+			@Override
+			public int compare(T entity1, T entity2) {
+				for (ColumnInfo<Object> columnInfo : columnInfos) {
+					Object value1;
+					Object value2;
+					try {
+						value1 = columnInfo.getValue(entity1);
+						value2 = columnInfo.getValue(entity2);
+					} catch (Exception e) {
+						throw new IllegalStateException("Could not get value from entity field: " + columnInfo);
+					}
+					int result;
+					if (value1 == null) {
+						result = (value2 == null ? 0 : -1);
+					} else if (value2 == null) {
+						result = 1;
+					} else {
+						@SuppressWarnings("unchecked")
+						Comparable<Object> comparable = (Comparable<Object>) value1;
+						result = comparable.compareTo(value2);
+					}
+					if (result != 0) {
+						return result;
+					}
+				}
+				return 0;
+			}
+		};
+	}
+
+	/**
+	 * Number of characters of lines that are read into each run before it is sorted and spilled. The entities and
+	 * other objects take memory in addition to the lines. If an executor is set then a couple of runs may be in memory
+	 * at the same time. Default is {@link #DEFAULT_MAX_RUN_SIZE}.
+	 */
+	public void setMaxRunSize(long maxRunSize) {
+		this.maxRunSize = maxRunSize;
+	}
+
+	/**
+	 * Number of characters of lines that are read into each run before it is sorted and spilled.
+	 * 
+	 * @see #setMaxRunSize(long)
+	 */
+	public CsvSorter<T> withMaxRunSize(long maxRunSize) {
+		this.maxRunSize = maxRunSize;
+		return this;
+	}
+
+	/**
+	 * Most runs that are merged at one time. If there are more runs then they are merged into larger runs first.
+	 * Default is {@link #DEFAULT_MAX_MERGE_WIDTH}.
+	 */
+	public void setMaxMergeWidth(int maxMergeWidth) {
+		if (maxMergeWidth < 2) {
+			throw new IllegalArgumentException("Max merge width must be at least 2: " + maxMergeWidth);
+		}
+		this.maxMergeWidth = maxMergeWidth;
+	}
+
+	/**
+	 * Most runs that are merged at one time.
+	 * 
+	 * @see #setMaxMergeWidth(int)
+	 */
+	public CsvSorter<T> withMaxMergeWidth(int maxMergeWidth) {
+		setMaxMergeWidth(maxMergeWidth);
+		return this;
+	}
+
+	/**
+	 * Directory where the runs are spilled. Default is the system temporary directory.
+	 */
+	public void setTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+	}
+
+	/**
+	 * Directory where the runs are spilled.
+	 * 
+	 * @see #setTempDirectory(File)
+	 */
+	public CsvSorter<T> withTempDirectory(File tempDirectory) {
+		this.tempDirectory = tempDirectory;
+		return this;
+	}
+
+	/**
+	 * Set to true to gzip the spilled runs which uses less disk but more CPU. Default is false.
+	 */
+	public void setCompressSpills(boolean compressSpills) {
+		this.compressSpills = compressSpills;
+	}
+
+	/**
+	 * Set to true to gzip the spilled runs.
+	 * 
+	 * @see #setCompressSpills(boolean)
+	 */
+	public CsvSorter<T> withCompressSpills(boolean compressSpills) {
+		this.compressSpills = compressSpills;
+		return this;
+	}
+
+	/**
+	 * Executor used to sort and spill runs in the background while the next run is read. It is not shut down by the
+	 * sorter. If not set then the runs are sorted by the calling thread.
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Executor used to sort and spill runs in the background while the next run is read.
+	 * 
+	 * @see #setExecutor(ExecutorService)
+	 */
+	public CsvSorter<T> withExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Sort the input file into the output file.
+	 * 
+	 * @see #sort(Reader, Writer, Collection)
+	 */
+	public void sort(File input, File output, Collection<ParseError> parseErrors) throws IOException, ParseException {
+		Reader reader = new FileReader(input);
+		Writer writer;
+		try {
+			writer = Utf8ByteWriter.openFile(output);
+		} catch (IOException ioe) {
+			reader.close();
+			throw ioe;
+		}
+		sort(reader, writer, parseErrors);
+	}
+
+	/**
+	 * Sort the lines from the reader into the writer. Both are closed before this method returns.
+	 * 
+	 * @param reader
+	 *            Where to read the header and lines to be sorted.
+	 * @param writer
+	 *            Where to write the header and sorted lines.
+	 * @param parseErrors
+	 *            If not null, any lines that could not be parsed are added to the collection and left out of the
+	 *            output. If null then a parse error will throw. If the collection is a {@link ParseErrorCollector}
+	 *            which aborts then nothing is written.
+	 * @throws ParseException
+	 *             Thrown on any parsing problems if parseErrors is null.
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when reading, spilling, or writing.
+	 */
+	public void sort(Reader reader, Writer writer, Collection<ParseError> parseErrors)
+			throws IOException, ParseException {
+		CsvReadSession<T> session = schema.newReadSession();
+		BufferedReader bufferedReader = new BufferedReaderLineCounter(reader);
+		List<File> spillFiles = new ArrayList<File>();
+		ArrayDeque<Future<File>> pending = new ArrayDeque<Future<File>>();
+		try {
+			ParseError parseError = null;
+			if (parseErrors != null) {
+				parseError = new ParseError();
+			}
+			String header = null;
+			if (schema.isFirstLineHeader()) {
+				header = bufferedReader.readLine();
+				int lineNumber = CsvSchema.getLineNumber(bufferedReader);
+				if (header == null) {
+					if (parseError == null) {
+						throw new ParseException("no header line read", 0);
+					}
+					parseError.setErrorType(ErrorType.NO_HEADER);
+					parseError.setLineNumber(lineNumber);
+					parseErrors.add(parseError);
+					return;
+				}
+				if (session.processHeader(header, parseError, lineNumber) == null) {
+					if (parseError != null && parseError.isError()) {
+						parseErrors.add(parseError);
+					}
+					return;
+				}
+			}
+
+			ParseErrorCollector errorCollector = null;
+			if (parseErrors instanceof ParseErrorCollector) {
+				errorCollector = (ParseErrorCollector) parseErrors;
+			}
+			List<SortRecord<T>> run = new ArrayList<SortRecord<T>>();
+			long runSize = 0;
+			long rowCount = 0;
+			String line;
+			while ((line = bufferedReader.readLine()) != null) {
+				if (parseError != null) {
+					parseError.reset();
+				}
+				rowCount++;
+				T entity = session.processRow(line, parseError, CsvSchema.getLineNumber(bufferedReader));
+				if (entity == null) {
+					if (parseError != null && parseError.isError()) {
+						// if it was kept then we need to create another one
+						if (parseErrors.add(parseError)) {
+							parseError = new ParseError();
+						}
+						if (errorCollector != null && errorCollector.checkAbort(rowCount)) {
+							return;
+						}
+					}
+					continue;
+				}
+				run.add(new SortRecord<T>(entity, line));
+				runSize += line.length();
+				if (runSize >= maxRunSize) {
+					SpillTask task = new SpillTask(run, newSpillFile());
+					spillFiles.add(task.file);
+					if (executor == null) {
+						task.call();
+					} else {
+						// wait for the oldest run if too many are in flight
+						if (pending.size() >= MAX_RUNS_IN_FLIGHT) {
+							ParallelRowWriter.getResult(pending.remove());
+						}
+						pending.add(executor.submit(task));
+					}
+					run = new ArrayList<SortRecord<T>>();
+					runSize = 0;
+				}
+			}
+			while (!pending.isEmpty()) {
+				ParallelRowWriter.getResult(pending.remove());
+			}
+			// the last run is merged straight from memory
+			Collections.sort(run, recordComparator);
+
+			OutputBuffer buffer = new OutputBuffer(WRITE_BUFFER_SIZE + WRITE_BUFFER_SIZE / 4);
+			if (header != null) {
+				buffer.append(header).append(schema.getLineTermination());
+			}
+			mergeRuns(session, spillFiles, run, buffer, writer);
+		} finally {
+			// only non-empty if there was an exception so we wait for them to finish before we delete their files
+			while (!pending.isEmpty()) {
+				try {
+					ParallelRowWriter.getResult(pending.remove());
+				} catch (Exception e) {
+					// ignored since we are already throwing
+				}
+			}
+			for (File file : spillFiles) {
+				file.delete();
+			}
+			try {
+				bufferedReader.close();
+			} finally {
+				writer.close();
+			}
+		}
+	}
+
+	private void mergeRuns(CsvReadSession<T> session, List<File> spillFiles, List<SortRecord<T>> memoryRun,
+			OutputBuffer buffer, Writer writer) throws IOException, ParseException {
+		// merge groups of the spilled runs into larger runs until there are few enough to merge to the output
+		List<File> runFiles = new ArrayList<File>(spillFiles);
+		while (runFiles.size() + 1 > maxMergeWidth) {
+			List<File> mergedFiles = new ArrayList<File>();
+			for (int start = 0; start < runFiles.size(); start += maxMergeWidth) {
+				List<File> group = runFiles.subList(start, Math.min(runFiles.size(), start + maxMergeWidth));
+				if (group.size() == 1) {
+					mergedFiles.add(group.get(0));
+					continue;
+				}
+				File mergedFile = newSpillFile();
+				// add it to the cleanup list right away in case the merge fails
+				spillFiles.add(mergedFile);
+				mergedFiles.add(mergedFile);
+				Writer spillWriter = openSpillWriter(mergedFile);
+				try {
+					mergeSources(openSources(session, group, null), new OutputBuffer(WRITE_BUFFER_SIZE), spillWriter,
+							"\n");
+				} finally {
+					spillWriter.close();
+				}
+				// the group's files are no longer needed
+				for (File file : group) {
+					file.delete();
+					spillFiles.remove(file);
+				}
+			}
+			runFiles = mergedFiles;
+		}
+		mergeSources(openSources(session, runFiles, memoryRun), buffer, writer, schema.getLineTermination());
+	}
+
+	private List<RunSource<T>> openSources(CsvReadSession<T> session, List<File> files, List<SortRecord<T>> memoryRun)
+			throws IOException {
+		List<RunSource<T>> sources = new ArrayList<RunSource<T>>();
+		try {
+			for (File file : files) {
+				sources.add(new FileRunSource<T>(sources.size(), session, openSpillReader(file)));
+			}
+		} catch (IOException ioe) {
+			closeSources(sources);
+			throw ioe;
+		}
+		if (memoryRun != null && !memoryRun.isEmpty()) {
+			sources.add(new MemoryRunSource<T>(sources.size(), memoryRun.iterator()));
+		}
+		return sources;
+	}
+
+	private void mergeSources(List<RunSource<T>> sources, OutputBuffer buffer, Writer writer, String lineTermination)
+			throws IOException, ParseException {
+		try {
+			PriorityQueue<RunSource<T>> queue =
+					new PriorityQueue<RunSource<T>>(Math.max(1, sources.size()), new Comparator<RunSource<T>>() {
+						@Override
+						public int compare(RunSource<T> source1, RunSource<T> source2) {
+							int result = recordComparator.compare(source1.current, source2.current);
+							if (result == 0) {
+								// earlier runs first to keep the sort stable
+								result = Integer.compare(source1.index, source2.index);
+							}
+							return result;
+						}
+					});
+			for (RunSource<T> source : sources) {
+				if (source.next()) {
+					queue.add(source);
+				}
+			}
+			while (!queue.isEmpty()) {
+				RunSource<T> source = queue.poll();
+				buffer.append(source.current.line).append(lineTermination);
+				if (buffer.length() >= WRITE_BUFFER_SIZE) {
+					buffer.writeTo(writer);
+				}
+				if (source.next()) {
+					queue.add(source);
+				}
+			}
+			buffer.writeTo(writer);
+		} finally {
+			closeSources(sources);
+		}
+	}
+
+	private void closeSources(List<RunSource<T>> sources) throws IOException {
+		for (RunSource<T> source : sources) {
+			source.close();
+		}
+	}
+
+	private File newSpillFile() throws IOException {
+		return File.createTempFile("simplecsv-sort", (compressSpills ? ".run.gz" : ".run"), tempDirectory);
+	}
+
+	private Writer openSpillWriter(File file) throws IOException {
+		OutputStream outputStream = new FileOutputStream(file);
+		if (compressSpills) {
+			outputStream = new GZIPOutputStream(outputStream, IO_BUFFER_SIZE);
+		}
+		return new Utf8ByteWriter(outputStream, IO_BUFFER_SIZE);
+	}
+
+	private BufferedReader openSpillReader(File file) throws IOException {
+		InputStream inputStream = new FileInputStream(file);
+		if (compressSpills) {
+			inputStream = new GZIPInputStream(inputStream, IO_BUFFER_SIZE);
+		}
+		return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+	}
+
+	/**
+	 * Entity along with the line it was read from.
+	 */
+	private static class SortRecord<T> {
+		final T entity;
+		final String line;
+
+		public SortRecord(T entity, String line) {
+			this.entity = entity;
+			this.line = line;
+		}
+	}
+
+	/**
+	 * Sorts a run and writes its lines to a spill file.
+	 */
+	private class SpillTask implements Callable<File> {
+
+		private final List<SortRecord<T>> run;
+		final File file;
+
+		public SpillTask(List<SortRecord<T>> run, File file) {
+			this.run = run;
+			this.file = file;
+		}
+
+		@Override
+		public File call() throws IOException {
+			Collections.sort(run, recordComparator);
+			Writer spillWriter = openSpillWriter(file);
+			try {
+				for (SortRecord<T> record : run) {
+					spillWriter.write(record.line);
+					spillWriter.write('\n');
+				}
+			} finally {
+				spillWriter.close();
+			}
+			return file;
+		}
+	}
+
+	/**
+	 * Sorted run that is being merged.
+	 */
+	private static abstract class RunSource<T> {
+
+		final int index;
+		SortRecord<T> current;
+
+		public RunSource(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Move to the next record in the run returning false if there are no more.
+		 */
+		abstract boolean next() throws IOException, ParseException;
+
+		void close() throws IOException {
+			// nothing by default
+		}
+	}
+
+	private static class MemoryRunSource<T> extends RunSource<T> {
+
+		private final Iterator<SortRecord<T>> iterator;
+
+		public MemoryRunSource(int index, Iterator<SortRecord<T>> iterator) {
+			super(index);
+			this.iterator = iterator;
+		}
+
+		@Override
+		boolean next() {
+			if (iterator.hasNext()) {
+				current = iterator.next();
+				return true;
+			} else {
+				return false;
+			}
+		}
+	}
+
+	private static class FileRunSource<T> extends RunSource<T> {
+
+		private final CsvReadSession<T> session;
+		private final BufferedReader reader;
+
+		public FileRunSource(int index, CsvReadSession<T> session, BufferedReader reader) {
+			super(index);
+			this.session = session;
+			this.reader = reader;
+		}
+
+		@Override
+		boolean next() throws IOException, ParseException {
+			String line = reader.readLine();
+			if (line == null) {
+				return false;
+			}
+			// the lines were parsed successfully when they were first read so they will not fail now
+			current = new SortRecord<T>(session.processRow(line, null, 0), line);
+			return true;
+		}
+
+		@Override
+		void close() throws IOException {
+			reader.close();
+		}
+	}
+}
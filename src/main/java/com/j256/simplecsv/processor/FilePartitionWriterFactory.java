@@ -0,0 +1,100 @@
+package com.j256.simplecsv.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes each partition to a file in a directory named with the prefix, the partition name, and the suffix. Any
+ * characters in the partition name other than letters, digits, '-', and '.' (but not a leading '.') are escaped as '_'
+ * followed by the two hex digits of each of their UTF-8 bytes so column values can't escape the directory. Since '_'
+ * is escaped as well, different partition names always map to different files. On a case-insensitive file system
+ * partition names which only differ by case will still share a file.
+ * 
+ * <p>
+ * At most {@link #DEFAULT_MAX_OPEN_WRITERS} files are kept open at the same time unless changed with
+ * {@link #setMaxOpenWriters(int)}. Files that are closed to stay under the limit are reopened in append mode.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class FilePartitionWriterFactory implements PartitionWriterFactory {
+
+	public static final int DEFAULT_MAX_OPEN_WRITERS = 100;
+	private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+	private final File directory;
+	private final String prefix;
+	private final String suffix;
+	private int maxOpenWriters = DEFAULT_MAX_OPEN_WRITERS;
+
+	public FilePartitionWriterFactory(File directory, String prefix, String suffix) {
+		this.directory = directory;
+		this.prefix = prefix;
+		this.suffix = suffix;
+	}
+
+	@Override
+	public Writer createWriter(String partitionName) throws IOException {
+		return Utf8ByteWriter.openFile(getFile(partitionName), false);
+	}
+
+	@Override
+	public Writer reopenWriter(String partitionName) throws IOException {
+		return Utf8ByteWriter.openFile(getFile(partitionName), true);
+	}
+
+	@Override
+	public int getMaxOpenWriters() {
+		return maxOpenWriters;
+	}
+
+	/**
+	 * Set the maximum number of partition files to keep open at the same time or 0 for no limit. Default is
+	 * {@link #DEFAULT_MAX_OPEN_WRITERS}.
+	 */
+	public void setMaxOpenWriters(int maxOpenWriters) {
+		if (maxOpenWriters < 0) {
+			throw new IllegalArgumentException("Maximum open writers cannot be negative: " + maxOpenWriters);
+		}
+		this.maxOpenWriters = maxOpenWriters;
+	}
+
+	/**
+	 * Maximum number of partition files to keep open at the same time.
+	 * 
+	 * @see #setMaxOpenWriters(int)
+	 */
+	public FilePartitionWriterFactory withMaxOpenWriters(int maxOpenWriters) {
+		setMaxOpenWriters(maxOpenWriters);
+		return this;
+	}
+
+	/**
+	 * Return the file that the partition is written to.
+	 */
+	public File getFile(String partitionName) {
+		StringBuilder sb = new StringBuilder(prefix.length() + partitionName.length() + suffix.length());
+		sb.append(prefix);
+		for (int i = 0; i < partitionName.length(); i++) {
+			char ch = partitionName.charAt(i);
+			if ((ch >= 'a' && ch <= 'z') || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch == '-'
+					|| (ch == '.' && i > 0)) {
+				sb.append(ch);
+				continue;
+			}
+			int end = i + 1;
+			if (Character.isHighSurrogate(ch) && end < partitionName.length()
+					&& Character.isLowSurrogate(partitionName.charAt(end))) {
+				end++;
+			}
+			for (byte b : partitionName.substring(i, end).getBytes(StandardCharsets.UTF_8)) {
+				sb.append('_').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+			}
+			i = end - 1;
+		}
+		sb.append(suffix);
+		return new File(directory, sb.toString());
+	}
+}
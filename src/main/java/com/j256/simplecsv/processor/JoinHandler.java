@@ -0,0 +1,22 @@
+package com.j256.simplecsv.processor;
+
+import java.io.IOException;
+
+/**
+ * Receives the pairs of entities that are matched by a {@link CsvHashJoin}.
+ * 
+ * @param <P>
+ *            Type of the entities on the probe side which is streamed through the join.
+ * @param <B>
+ *            Type of the entities on the build side which is loaded into the hash table.
+ * @author graywatson
+ */
+public interface JoinHandler<P, B> {
+
+	/**
+	 * Called for each probe entity and build entity with equal keys. If a probe entity matches multiple build
+	 * entities then this is called once for each of them. For a left outer join this is also called with a null build
+	 * entity for each probe entity that matched none.
+	 */
+	public void joined(P probeEntity, B buildEntity) throws IOException;
+}
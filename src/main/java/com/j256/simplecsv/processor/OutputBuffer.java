@@ -0,0 +1,216 @@
+package com.j256.simplecsv.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.j256.simplecsv.converter.OutputBufferConverter;
+
+/**
+ * Reusable buffer of characters that rows are written into before they are flushed to a writer. Converters that
+ * implement {@link OutputBufferConverter} append their values directly here so no String needs to be created for each
+ * cell or row. Unlike other {@link Appendable} classes, the append methods do not throw IOException.
+ * 
+ * <p>
+ * This is not thread-safe and should be used by one thread at a time.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class OutputBuffer implements Appendable {
+
+	private static final int DEFAULT_INITIAL_SIZE = 1024;
+	private static final String NULL_STRING = "null";
+	private static final String MIN_LONG_STRING = Long.toString(Long.MIN_VALUE);
+
+	private char[] chars;
+	private int length;
+
+	public OutputBuffer() {
+		this(DEFAULT_INITIAL_SIZE);
+	}
+
+	public OutputBuffer(int initialSize) {
+		this.chars = new char[Math.max(initialSize, 16)];
+	}
+
+	@Override
+	public OutputBuffer append(char ch) {
+		ensureCapacity(length + 1);
+		chars[length++] = ch;
+		return this;
+	}
+
+	@Override
+	public OutputBuffer append(CharSequence csq) {
+		if (csq == null) {
+			return append(NULL_STRING);
+		} else {
+			return append(csq, 0, csq.length());
+		}
+	}
+
+	@Override
+	public OutputBuffer append(CharSequence csq, int start, int end) {
+		if (csq == null) {
+			return append(NULL_STRING, start, end);
+		}
+		if (csq instanceof String) {
+			ensureCapacity(length + end - start);
+			((String) csq).getChars(start, end, chars, length);
+			length += end - start;
+			return this;
+		}
+		ensureCapacity(length + end - start);
+		for (int i = start; i < end; i++) {
+			chars[length++] = csq.charAt(i);
+		}
+		return this;
+	}
+
+	/**
+	 * Append the string to the buffer.
+	 */
+	public OutputBuffer append(String str) {
+		if (str == null) {
+			str = NULL_STRING;
+		}
+		int strLength = str.length();
+		ensureCapacity(length + strLength);
+		str.getChars(0, strLength, chars, length);
+		length += strLength;
+		return this;
+	}
+
+	/**
+	 * Append the characters from the array to the buffer.
+	 */
+	public OutputBuffer append(char[] array, int offset, int count) {
+		ensureCapacity(length + count);
+		System.arraycopy(array, offset, chars, length, count);
+		length += count;
+		return this;
+	}
+
+	/**
+	 * Append the decimal digits of the value to the buffer the same as {@link Long#toString(long)} but without creating
+	 * a String.
+	 */
+	public OutputBuffer append(long value) {
+		if (value == Long.MIN_VALUE) {
+			return append(MIN_LONG_STRING);
+		}
+		if (value < 0) {
+			append('-');
+			value = -value;
+		}
+		int digits = 1;
+		for (long left = value / 10; left > 0; left /= 10) {
+			digits++;
+		}
+		ensureCapacity(length + digits);
+		for (int i = length + digits - 1; i >= length; i--) {
+			chars[i] = (char) ('0' + (value % 10));
+			value /= 10;
+		}
+		length += digits;
+		return this;
+	}
+
+	/**
+	 * Reserve room for count characters at the end of the buffer and return the offset in {@link #getChars()} where
+	 * they should be written. The length of the buffer is increased by count.
+	 */
+	public int reserve(int count) {
+		ensureCapacity(length + count);
+		int offset = length;
+		length += count;
+		return offset;
+	}
+
+	/**
+	 * Returns the number of characters in the buffer.
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * Set the length of the buffer which must not be more than the current length. Setting it to 0 clears the buffer.
+	 */
+	public void setLength(int length) {
+		if (length < 0 || length > this.length) {
+			throw new IllegalArgumentException("Invalid length " + length + ", buffer length is " + this.length);
+		}
+		this.length = length;
+	}
+
+	/**
+	 * Returns the character at the index.
+	 */
+	public char charAt(int index) {
+		return chars[index];
+	}
+
+	/**
+	 * Returns the underlying character array. This may change when the buffer grows so it should be fetched again after
+	 * any appends.
+	 */
+	public char[] getChars() {
+		return chars;
+	}
+
+	/**
+	 * Clear the buffer so it can be reused.
+	 */
+	public void clear() {
+		length = 0;
+	}
+
+	/**
+	 * Write the characters in the buffer to the writer and clear the buffer.
+	 */
+	public void writeTo(Writer writer) throws IOException {
+		writer.write(chars, 0, length);
+		length = 0;
+	}
+
+	@Override
+	public String toString() {
+		return new String(chars, 0, length);
+	}
+
+	/**
+	 * Surround the characters from start to the end of the buffer with the quote character, doubling any quotes inside
+	 * of it.
+	 */
+	void quoteFrom(int start, char quote) {
+		int quoteCount = 0;
+		for (int i = start; i < length; i++) {
+			if (chars[i] == quote) {
+				quoteCount++;
+			}
+		}
+		int newLength = length + quoteCount + 2;
+		ensureCapacity(newLength);
+		// work backwards so we can shift the characters in place
+		int to = newLength - 1;
+		chars[to--] = quote;
+		for (int from = length - 1; from >= start; from--) {
+			char ch = chars[from];
+			chars[to--] = ch;
+			if (ch == quote) {
+				chars[to--] = quote;
+			}
+		}
+		chars[to] = quote;
+		length = newLength;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > chars.length) {
+			char[] newChars = new char[Math.max(capacity, chars.length * 2)];
+			System.arraycopy(chars, 0, newChars, 0, length);
+			chars = newChars;
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package com.j256.simplecsv.processor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Output stream which gzips the bytes written to it by compressing independent blocks on an executor while the caller
+ * keeps writing. Each block becomes a separate gzip member and the members are written in order so the result is a
+ * standard multi-member gzip file which can be read by gunzip or {@link java.util.zip.GZIPInputStream}. The compression
+ * ratio is slightly worse than a single member because each block starts with an empty dictionary.
+ * 
+ * <p>
+ * The number of blocks being compressed at one time is limited so memory use is bounded. This is not thread-safe and
+ * should be written to by one thread at a time.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+	/** default number of uncompressed bytes in each gzip member */
+	public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+	private static final int DEFAULT_BLOCKS_IN_FLIGHT = Math.max(2, 2 * Runtime.getRuntime().availableProcessors());
+	private static final int HEADER_SIZE = 10;
+	private static final int TRAILER_SIZE = 8;
+	/** magic, deflate method, no flags, no time, no extra flags, unknown OS */
+	private static final byte[] HEADER = new byte[] { 0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+	private final OutputStream outputStream;
+	private final ExecutorService executor;
+	private final int blockSize;
+	private final int level;
+	private final int maxBlocksInFlight;
+	private final ArrayDeque<Future<Block>> futures = new ArrayDeque<Future<Block>>();
+	private final ConcurrentLinkedQueue<Block> freeBlocks = new ConcurrentLinkedQueue<Block>();
+	private Block current;
+	private boolean memberWritten;
+	private boolean closed;
+
+	public ParallelGzipOutputStream(OutputStream outputStream, ExecutorService executor) {
+		this(outputStream, executor, DEFAULT_BLOCK_SIZE, Deflater.DEFAULT_COMPRESSION, DEFAULT_BLOCKS_IN_FLIGHT);
+	}
+
+	/**
+	 * @param outputStream
+	 *            Stream that the gzip members are written to. It is closed when this stream is closed.
+	 * @param executor
+	 *            Executor that compresses the blocks. It is not shut down by this stream.
+	 * @param blockSize
+	 *            Number of uncompressed bytes in each gzip member.
+	 * @param level
+	 *            Compression level from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}.
+	 * @param maxBlocksInFlight
+	 *            Most blocks which are being compressed or waiting to be written at one time.
+	 */
+	public ParallelGzipOutputStream(OutputStream outputStream, ExecutorService executor, int blockSize, int level,
+			int maxBlocksInFlight) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+		}
+		if (maxBlocksInFlight <= 0) {
+			throw new IllegalArgumentException("Max blocks in flight must be positive: " + maxBlocksInFlight);
+		}
+		this.outputStream = outputStream;
+		this.executor = executor;
+		this.blockSize = blockSize;
+		this.level = level;
+		this.maxBlocksInFlight = maxBlocksInFlight;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		Block block = currentBlock();
+		block.input[block.inputLength++] = (byte) b;
+		if (block.inputLength == blockSize) {
+			submitCurrent();
+		}
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		while (length > 0) {
+			Block block = currentBlock();
+			int copyLength = Math.min(length, blockSize - block.inputLength);
+			System.arraycopy(bytes, offset, block.input, block.inputLength, copyLength);
+			block.inputLength += copyLength;
+			offset += copyLength;
+			length -= copyLength;
+			if (block.inputLength == blockSize) {
+				submitCurrent();
+			}
+		}
+	}
+
+	/**
+	 * Compress any partial block, wait for all of the blocks to be written, and flush the underlying stream. Each
+	 * flush ends a gzip member so it should not be called often.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (closed) {
+			return;
+		}
+		submitCurrent();
+		while (!futures.isEmpty()) {
+			writeBlock(futures.remove());
+		}
+		outputStream.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			// an empty file is not valid gzip so we write an empty member
+			if (!memberWritten && futures.isEmpty()) {
+				currentBlock();
+			}
+			submitCurrent();
+			while (!futures.isEmpty()) {
+				writeBlock(futures.remove());
+			}
+		} finally {
+			closed = true;
+			// only non-empty if there was an exception
+			for (Future<Block> future : futures) {
+				future.cancel(true);
+			}
+			futures.clear();
+			if (current != null) {
+				current.deflater.end();
+				current = null;
+			}
+			Block block;
+			while ((block = freeBlocks.poll()) != null) {
+				block.deflater.end();
+			}
+			outputStream.close();
+		}
+	}
+
+	private Block currentBlock() throws IOException {
+		if (closed) {
+			throw new IOException("Stream has been closed");
+		}
+		if (current == null) {
+			current = freeBlocks.poll();
+			if (current == null) {
+				current = new Block(blockSize, level);
+			}
+		}
+		return current;
+	}
+
+	private void submitCurrent() throws IOException {
+		if (current == null) {
+			return;
+		}
+		futures.add(executor.submit(current));
+		current = null;
+		// write the oldest block once we have enough in flight
+		if (futures.size() >= maxBlocksInFlight) {
+			writeBlock(futures.remove());
+		}
+	}
+
+	private void writeBlock(Future<Block> future) throws IOException {
+		Block block = ParallelRowWriter.getResult(future);
+		outputStream.write(block.output, 0, block.outputLength);
+		memberWritten = true;
+		block.inputLength = 0;
+		freeBlocks.add(block);
+	}
+
+	/**
+	 * Block of bytes along with the state needed to compress it into a gzip member.
+	 */
+	private static class Block implements Callable<Block> {
+
+		final byte[] input;
+		int inputLength;
+		byte[] output;
+		int outputLength;
+		final Deflater deflater;
+		private final CRC32 crc = new CRC32();
+
+		public Block(int blockSize, int level) {
+			this.input = new byte[blockSize];
+			// deflate can expand incompressible data by a few bytes every 16k
+			this.output = new byte[HEADER_SIZE + blockSize + (blockSize / 16383 + 1) * 5 + TRAILER_SIZE];
+			this.deflater = new Deflater(level, true);
+		}
+
+		@Override
+		public Block call() {
+			System.arraycopy(HEADER, 0, output, 0, HEADER_SIZE);
+			outputLength = HEADER_SIZE;
+			deflater.reset();
+			deflater.setInput(input, 0, inputLength);
+			deflater.finish();
+			while (!deflater.finished()) {
+				if (outputLength == output.length) {
+					output = Arrays.copyOf(output, output.length * 2);
+				}
+				outputLength += deflater.deflate(output, outputLength, output.length - outputLength);
+			}
+			crc.reset();
+			crc.update(input, 0, inputLength);
+			if (outputLength + TRAILER_SIZE > output.length) {
+				output = Arrays.copyOf(output, outputLength + TRAILER_SIZE);
+			}
+			writeIntLittleEndian((int) crc.getValue());
+			writeIntLittleEndian(inputLength);
+			return this;
+		}
+
+		private void writeIntLittleEndian(int value) {
+			output[outputLength++] = (byte) value;
+			output[outputLength++] = (byte) (value >> 8);
+			output[outputLength++] = (byte) (value >> 16);
+			output[outputLength++] = (byte) (value >> 24);
+		}
+	}
+}
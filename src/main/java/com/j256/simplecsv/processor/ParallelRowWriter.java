@@ -0,0 +1,126 @@
+package com.j256.simplecsv.processor;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Writes entities by formatting chunks of them into {@link OutputBuffer}s on an executor while the calling thread
+ * writes the finished buffers to the writer in the original order. The number of chunks being formatted at once is
+ * limited so memory use stays bounded no matter how many entities there are.
+ * 
+ * @author graywatson
+ */
+class ParallelRowWriter<T> {
+
+	/** number of entities that are formatted by each task */
+	static final int CHUNK_SIZE = 1024;
+	/** size of the buffers which will grow if the rows are larger */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private final CsvSchema<T> schema;
+	private final ExecutorService executor;
+	private final int maxChunksInFlight;
+	private final ConcurrentLinkedQueue<OutputBuffer> freeBuffers = new ConcurrentLinkedQueue<OutputBuffer>();
+
+	ParallelRowWriter(CsvSchema<T> schema, ExecutorService executor, int maxChunksInFlight) {
+		this.schema = schema;
+		this.executor = executor;
+		this.maxChunksInFlight = maxChunksInFlight;
+	}
+
+	/**
+	 * Write the header if requested and the entities to the writer. This does not close the writer.
+	 */
+	public void write(Writer writer, Iterator<T> entities, boolean writeHeader) throws IOException {
+		if (writeHeader) {
+			OutputBuffer buffer = new OutputBuffer();
+			schema.appendHeaderLine(buffer, true);
+			buffer.writeTo(writer);
+		}
+		ArrayDeque<Future<OutputBuffer>> futures = new ArrayDeque<Future<OutputBuffer>>();
+		try {
+			while (entities.hasNext()) {
+				List<T> chunk = new ArrayList<T>(CHUNK_SIZE);
+				while (chunk.size() < CHUNK_SIZE && entities.hasNext()) {
+					chunk.add(entities.next());
+				}
+				futures.add(executor.submit(new FormatTask(chunk)));
+				// write the oldest chunk once we have enough in flight
+				if (futures.size() >= maxChunksInFlight) {
+					writeBuffer(writer, futures.remove());
+				}
+			}
+			while (!futures.isEmpty()) {
+				writeBuffer(writer, futures.remove());
+			}
+		} finally {
+			// only non-empty if there was an exception
+			for (Future<OutputBuffer> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+	private void writeBuffer(Writer writer, Future<OutputBuffer> future) throws IOException {
+		OutputBuffer buffer = getResult(future);
+		buffer.writeTo(writer);
+		freeBuffers.add(buffer);
+	}
+
+	/**
+	 * Wait for the result of a task and throw any runtime exception or error that it threw as is.
+	 */
+	static <V> V getResult(Future<V> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for background task");
+		} catch (ExecutionException ee) {
+			Throwable cause = ee.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			} else if (cause instanceof IOException) {
+				throw (IOException) cause;
+			} else {
+				throw new IOException("Problems running background task", cause);
+			}
+		}
+	}
+
+	/**
+	 * Formats a chunk of entities into a buffer.
+	 */
+	private class FormatTask implements Callable<OutputBuffer> {
+
+		private final List<T> chunk;
+
+		public FormatTask(List<T> chunk) {
+			this.chunk = chunk;
+		}
+
+		@Override
+		public OutputBuffer call() {
+			OutputBuffer buffer = freeBuffers.poll();
+			if (buffer == null) {
+				buffer = new OutputBuffer(BUFFER_SIZE);
+			}
+			for (T entity : chunk) {
+				schema.appendLine(buffer, entity, true);
+			}
+			return buffer;
+		}
+	}
+}
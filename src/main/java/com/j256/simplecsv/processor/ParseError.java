@@ -1,5 +1,7 @@
 package com.j256.simplecsv.processor;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
 import com.j256.simplecsv.converter.Converter;
@@ -13,6 +15,11 @@ import com.j256.simplecsv.converter.Converter;
  * other than {@link ErrorType#NONE}. The message can be null if there is no additional information about the error.
  * </p>
  * 
+ * <p>
+ * To keep the error paths cheap, you can use {@link #setMessageFormat(String, Object...)} so the message is only built
+ * if {@link #getMessage()} is actually called.
+ * </p>
+ * 
  * @author graywatson
  */
 public class ParseError implements Serializable {
@@ -21,6 +28,9 @@ public class ParseError implements Serializable {
 
 	private ErrorType errorType = ErrorType.NONE;
 	private String message;
+	private transient String messageFormat;
+	private transient Object[] messageArgs;
+	private String fieldName;
 	private String line;
 	private int lineNumber;
 	private int linePos;
@@ -33,12 +43,52 @@ public class ParseError implements Serializable {
 		this.errorType = errorType;
 	}
 
+	/**
+	 * Returns the message associated with the error or null if none. If the message was set with
+	 * {@link #setMessageFormat(String, Object...)} then it is formatted here.
+	 */
 	public String getMessage() {
+		if (message == null && messageFormat != null) {
+			message = String.format(messageFormat, messageArgs);
+			messageFormat = null;
+			messageArgs = null;
+		}
 		return message;
 	}
 
 	public void setMessage(String message) {
 		this.message = message;
+		this.messageFormat = null;
+		this.messageArgs = null;
+	}
+
+	/**
+	 * Set the message as a {@link String#format(String, Object...)} format and arguments. The message will only be
+	 * formatted if {@link #getMessage()} is called so this is much cheaper than building the message when there are a
+	 * large number of errors.
+	 */
+	public void setMessageFormat(String messageFormat, Object... messageArgs) {
+		this.message = null;
+		this.messageFormat = messageFormat;
+		this.messageArgs = messageArgs;
+	}
+
+	/**
+	 * Returns true if a message or message-format has been set.
+	 */
+	public boolean hasMessage() {
+		return (message != null || messageFormat != null);
+	}
+
+	/**
+	 * Returns the name of the field associated with the error or null if none.
+	 */
+	public String getFieldName() {
+		return fieldName;
+	}
+
+	public void setFieldName(String fieldName) {
+		this.fieldName = fieldName;
 	}
 
 	public void setLine(String line) {
@@ -71,6 +121,9 @@ public class ParseError implements Serializable {
 	public void reset() {
 		this.errorType = ErrorType.NONE;
 		this.message = null;
+		this.messageFormat = null;
+		this.messageArgs = null;
+		this.fieldName = null;
 		this.line = null;
 		this.lineNumber = 0;
 		this.linePos = 0;
@@ -85,6 +138,7 @@ public class ParseError implements Serializable {
 
 	@Override
 	public String toString() {
+		String message = getMessage();
 		if (message == null) {
 			return errorType.getTypeMessage();
 		} else {
@@ -92,6 +146,12 @@ public class ParseError implements Serializable {
 		}
 	}
 
+	private void writeObject(ObjectOutputStream outputStream) throws IOException {
+		// format the message if necessary since the format arguments are not serialized
+		getMessage();
+		outputStream.defaultWriteObject();
+	}
+
 	/**
 	 * The type of the error.
 	 */
@@ -0,0 +1,203 @@
+package com.j256.simplecsv.processor;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+/**
+ * Bounded collection of parse errors which can be passed as the parseErrors argument to the read methods such as
+ * {@link CsvProcessor#readAll(java.io.Reader, java.util.Collection)}. It keeps the first errors in full and just counts
+ * the rest by {@link ErrorType} so a badly broken file does not use up all of the memory. It can also be configured to
+ * abort the read once too many errors have been seen, in which case the read method will return null and
+ * {@link #isAborted()} will return true.
+ *
+ * <p>
+ * <b>NOTE:</b> This is not thread-safe and a new one should be used for each read.
+ * </p>
+ *
+ * @author graywatson
+ */
+public class ParseErrorCollector extends AbstractCollection<ParseError> {
+
+	/**
+	 * Default number of errors that are kept in full. This can be changed with {@link #setMaxKeptErrors(int)}.
+	 */
+	public static final int DEFAULT_MAX_KEPT_ERRORS = 100;
+	/**
+	 * Default number of rows that need to be read before the error rate is checked. This can be changed with
+	 * {@link #setMinRowsForErrorRate(long)}.
+	 */
+	public static final long DEFAULT_MIN_ROWS_FOR_ERROR_RATE = 1000;
+
+	private int maxKeptErrors = DEFAULT_MAX_KEPT_ERRORS;
+	private long maxErrors;
+	private double maxErrorRate;
+	private long minRowsForErrorRate = DEFAULT_MIN_ROWS_FOR_ERROR_RATE;
+
+	private final List<ParseError> keptErrors = new ArrayList<ParseError>();
+	private final long[] errorTypeCounts = new long[ErrorType.values().length];
+	private long errorCount;
+	private boolean aborted;
+
+	/**
+	 * Add an error to the collection. The error is kept only if there are less than the max-kept-errors already kept
+	 * otherwise it is just counted.
+	 *
+	 * @return True if the error object was kept by the collection and should not be reused by the caller, false if it
+	 *         was only counted.
+	 */
+	@Override
+	public boolean add(ParseError parseError) {
+		errorCount++;
+		errorTypeCounts[parseError.getErrorType().ordinal()]++;
+		if (keptErrors.size() < maxKeptErrors) {
+			keptErrors.add(parseError);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns an iterator over the errors that were kept.
+	 */
+	@Override
+	public Iterator<ParseError> iterator() {
+		return keptErrors.iterator();
+	}
+
+	/**
+	 * Returns the number of errors that were kept. See {@link #getErrorCount()} for the total number of errors.
+	 */
+	@Override
+	public int size() {
+		return keptErrors.size();
+	}
+
+	/**
+	 * Clear the kept errors, counts, and aborted status so the collector can be reused.
+	 */
+	@Override
+	public void clear() {
+		keptErrors.clear();
+		Arrays.fill(errorTypeCounts, 0);
+		errorCount = 0;
+		aborted = false;
+	}
+
+	/**
+	 * Called by the read methods after an error has been added to see if the read should be aborted.
+	 *
+	 * @param rowCount
+	 *            Number of rows that have been read so far including the ones with errors.
+	 * @return True if the read should be aborted because the number of errors or the error rate has been exceeded.
+	 */
+	public boolean checkAbort(long rowCount) {
+		if (maxErrors > 0 && errorCount > maxErrors) {
+			aborted = true;
+		} else if (maxErrorRate > 0 && rowCount >= minRowsForErrorRate
+				&& (double) errorCount / rowCount > maxErrorRate) {
+			aborted = true;
+		}
+		return aborted;
+	}
+
+	/**
+	 * Returns true if the read was aborted because of too many errors.
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+
+	/**
+	 * Returns the total number of errors added including the ones that were not kept.
+	 */
+	public long getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Returns the total number of errors of a particular type added including the ones that were not kept.
+	 */
+	public long getErrorCount(ErrorType errorType) {
+		return errorTypeCounts[errorType.ordinal()];
+	}
+
+	/**
+	 * Returns the number of errors that were counted but not kept.
+	 */
+	public long getDroppedCount() {
+		return errorCount - keptErrors.size();
+	}
+
+	/**
+	 * Set the number of errors that are kept in full. Default is {@link #DEFAULT_MAX_KEPT_ERRORS}.
+	 */
+	public void setMaxKeptErrors(int maxKeptErrors) {
+		this.maxKeptErrors = maxKeptErrors;
+	}
+
+	/**
+	 * Set the number of errors that are kept in full. Default is {@link #DEFAULT_MAX_KEPT_ERRORS}. Alternative way to
+	 * do {@link #setMaxKeptErrors(int)}.
+	 */
+	public ParseErrorCollector withMaxKeptErrors(int maxKeptErrors) {
+		this.maxKeptErrors = maxKeptErrors;
+		return this;
+	}
+
+	/**
+	 * Set the number of errors after which the read will be aborted. Default is 0 which means no limit.
+	 */
+	public void setMaxErrors(long maxErrors) {
+		this.maxErrors = maxErrors;
+	}
+
+	/**
+	 * Set the number of errors after which the read will be aborted. Default is 0 which means no limit. Alternative way
+	 * to do {@link #setMaxErrors(long)}.
+	 */
+	public ParseErrorCollector withMaxErrors(long maxErrors) {
+		this.maxErrors = maxErrors;
+		return this;
+	}
+
+	/**
+	 * Set the fraction of rows with errors, from 0.0 to 1.0, after which the read will be aborted. The rate is not
+	 * checked until {@link #setMinRowsForErrorRate(long)} rows have been read. Default is 0.0 which means no limit.
+	 */
+	public void setMaxErrorRate(double maxErrorRate) {
+		this.maxErrorRate = maxErrorRate;
+	}
+
+	/**
+	 * Set the fraction of rows with errors, from 0.0 to 1.0, after which the read will be aborted. The rate is not
+	 * checked until {@link #setMinRowsForErrorRate(long)} rows have been read. Default is 0.0 which means no limit.
+	 * Alternative way to do {@link #setMaxErrorRate(double)}.
+	 */
+	public ParseErrorCollector withMaxErrorRate(double maxErrorRate) {
+		this.maxErrorRate = maxErrorRate;
+		return this;
+	}
+
+	/**
+	 * Set the number of rows that need to be read before the max-error-rate is checked. Default is
+	 * {@link #DEFAULT_MIN_ROWS_FOR_ERROR_RATE}.
+	 */
+	public void setMinRowsForErrorRate(long minRowsForErrorRate) {
+		this.minRowsForErrorRate = minRowsForErrorRate;
+	}
+
+	/**
+	 * Set the number of rows that need to be read before the max-error-rate is checked. Default is
+	 * {@link #DEFAULT_MIN_ROWS_FOR_ERROR_RATE}. Alternative way to do {@link #setMinRowsForErrorRate(long)}.
+	 */
+	public ParseErrorCollector withMinRowsForErrorRate(long minRowsForErrorRate) {
+		this.minRowsForErrorRate = minRowsForErrorRate;
+		return this;
+	}
+}
@@ -0,0 +1,39 @@
+package com.j256.simplecsv.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Creates the writers for the partitions when writing partitioned output. See
+ * {@link CsvProcessor#writePartitioned(java.util.Iterator, String, int, PartitionWriterFactory, boolean,
+ * java.util.concurrent.ExecutorService)}.
+ * 
+ * @author graywatson
+ */
+public interface PartitionWriterFactory {
+
+	/**
+	 * Create the writer for the partition. This is called by the writing thread the first time that an entity is
+	 * routed to the partition. The writer will be closed once all of the entities have been written or earlier if more
+	 * than {@link #getMaxOpenWriters()} partitions are in use.
+	 * 
+	 * @param partitionName
+	 *            Name of the partition which is the partition number when partitioning by hash or the formatted column
+	 *            value when partitioning by value.
+	 */
+	public Writer createWriter(String partitionName) throws IOException;
+
+	/**
+	 * Reopen the writer for a partition whose writer was closed to stay under {@link #getMaxOpenWriters()}. The
+	 * returned writer must append to what was already written to the partition. The header is not written again.
+	 */
+	public Writer reopenWriter(String partitionName) throws IOException;
+
+	/**
+	 * Return the maximum number of partition writers to keep open at the same time or 0 for no limit. When a writer is
+	 * needed for another partition, the least recently used writer is closed and reopened with
+	 * {@link #reopenWriter(String)} if the partition is used again. Partitioning by a column with a lot of distinct
+	 * values will then open and close writers often but won't run out of file handles.
+	 */
+	public int getMaxOpenWriters();
+}
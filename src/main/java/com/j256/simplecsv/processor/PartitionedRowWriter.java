@@ -0,0 +1,203 @@
+package com.j256.simplecsv.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Writes entities to a number of partitions in a single pass, routing each entity by the formatted value of a key
+ * column. Chunks of entities are formatted into per-partition buffers, on an executor if one is supplied, and the
+ * calling thread writes the buffers to the partition writers in the original order so the rows in each partition are
+ * in the same order as the entities.
+ * 
+ * <p>
+ * When partitioning by hash the partition is the {@link String#hashCode()} of the formatted value, with the sign bit
+ * cleared, modulo the number of partitions so other systems can route the same way. Otherwise there is a partition for
+ * each distinct formatted value.
+ * </p>
+ * 
+ * <p>
+ * No more than {@link PartitionWriterFactory#getMaxOpenWriters()} writers are open at the same time. When another one
+ * is needed the least recently used writer is closed and reopened in append mode if its partition is used again.
+ * </p>
+ * 
+ * @author graywatson
+ */
+class PartitionedRowWriter<T> {
+
+	private final CsvSchema<T> schema;
+	private final ColumnInfo<Object> keyColumn;
+	private final int numPartitions;
+	private final PartitionWriterFactory writerFactory;
+	private final boolean writeHeader;
+	private final ExecutorService executor;
+	private final int maxChunksInFlight;
+	private final String[] hashPartitionNames;
+	/** open writers in least recently used order */
+	private final Map<String, Writer> writers = new LinkedHashMap<String, Writer>(16, 0.75F, true);
+	/** partitions whose writers were closed to stay under the limit */
+	private final Set<String> closedPartitions = new HashSet<String>();
+
+	/**
+	 * @param numPartitions
+	 *            Number of partitions to hash the key values into or 0 to partition by the key value.
+	 * @param executor
+	 *            Executor to format the entities or null to format them in the calling thread.
+	 */
+	PartitionedRowWriter(CsvSchema<T> schema, ColumnInfo<Object> keyColumn, int numPartitions,
+			PartitionWriterFactory writerFactory, boolean writeHeader, ExecutorService executor,
+			int maxChunksInFlight) {
+		if (numPartitions < 0) {
+			throw new IllegalArgumentException("Number of partitions cannot be negative: " + numPartitions);
+		}
+		this.schema = schema;
+		this.keyColumn = keyColumn;
+		this.numPartitions = numPartitions;
+		this.writerFactory = writerFactory;
+		this.writeHeader = writeHeader;
+		this.executor = executor;
+		this.maxChunksInFlight = maxChunksInFlight;
+		this.hashPartitionNames = new String[numPartitions];
+		for (int i = 0; i < numPartitions; i++) {
+			hashPartitionNames[i] = Integer.toString(i);
+		}
+	}
+
+	/**
+	 * Write the entities to the partitions and then close all of the partition writers.
+	 */
+	public void write(Iterator<T> entities) throws IOException {
+		ArrayDeque<Future<Map<String, OutputBuffer>>> futures = new ArrayDeque<Future<Map<String, OutputBuffer>>>();
+		boolean success = false;
+		try {
+			while (entities.hasNext()) {
+				List<T> chunk = new ArrayList<T>(ParallelRowWriter.CHUNK_SIZE);
+				while (chunk.size() < ParallelRowWriter.CHUNK_SIZE && entities.hasNext()) {
+					chunk.add(entities.next());
+				}
+				FormatTask task = new FormatTask(chunk);
+				if (executor == null) {
+					writeBuffers(task.call());
+					continue;
+				}
+				futures.add(executor.submit(task));
+				// write the oldest chunk once we have enough in flight
+				if (futures.size() >= maxChunksInFlight) {
+					writeBuffers(ParallelRowWriter.getResult(futures.remove()));
+				}
+			}
+			while (!futures.isEmpty()) {
+				writeBuffers(ParallelRowWriter.getResult(futures.remove()));
+			}
+			success = true;
+		} finally {
+			// only non-empty if there was an exception
+			for (Future<Map<String, OutputBuffer>> future : futures) {
+				future.cancel(true);
+			}
+			// don't hide the original exception with one from the close
+			closeWriters(success);
+		}
+	}
+
+	private void writeBuffers(Map<String, OutputBuffer> buffers) throws IOException {
+		for (Map.Entry<String, OutputBuffer> entry : buffers.entrySet()) {
+			Writer writer = writers.get(entry.getKey());
+			if (writer == null) {
+				int maxOpenWriters = writerFactory.getMaxOpenWriters();
+				if (maxOpenWriters > 0 && writers.size() >= maxOpenWriters) {
+					closeEldestWriter();
+				}
+				if (closedPartitions.remove(entry.getKey())) {
+					writer = writerFactory.reopenWriter(entry.getKey());
+					writers.put(entry.getKey(), writer);
+				} else {
+					writer = writerFactory.createWriter(entry.getKey());
+					writers.put(entry.getKey(), writer);
+					if (writeHeader) {
+						OutputBuffer header = new OutputBuffer();
+						schema.appendHeaderLine(header, true);
+						header.writeTo(writer);
+					}
+				}
+			}
+			entry.getValue().writeTo(writer);
+		}
+	}
+
+	private void closeEldestWriter() throws IOException {
+		Iterator<Map.Entry<String, Writer>> iterator = writers.entrySet().iterator();
+		Map.Entry<String, Writer> eldest = iterator.next();
+		iterator.remove();
+		closedPartitions.add(eldest.getKey());
+		eldest.getValue().close();
+	}
+
+	private void closeWriters(boolean throwException) throws IOException {
+		IOException first = null;
+		for (Writer writer : writers.values()) {
+			try {
+				writer.close();
+			} catch (IOException ioe) {
+				if (first == null) {
+					first = ioe;
+				}
+			}
+		}
+		writers.clear();
+		if (first != null && throwException) {
+			throw first;
+		}
+	}
+
+	/**
+	 * Formats a chunk of entities into a buffer per partition.
+	 */
+	private class FormatTask implements Callable<Map<String, OutputBuffer>> {
+
+		private final List<T> chunk;
+
+		public FormatTask(List<T> chunk) {
+			this.chunk = chunk;
+		}
+
+		@Override
+		public Map<String, OutputBuffer> call() {
+			Map<String, OutputBuffer> buffers = new LinkedHashMap<String, OutputBuffer>();
+			OutputBuffer keyBuffer = new OutputBuffer();
+			for (T entity : chunk) {
+				keyBuffer.clear();
+				schema.appendColumnValue(keyBuffer, keyColumn, entity);
+				String partitionName;
+				if (numPartitions == 0) {
+					partitionName = keyBuffer.toString();
+				} else {
+					// same as String.hashCode() without creating the string
+					char[] chars = keyBuffer.getChars();
+					int hash = 0;
+					for (int i = 0; i < keyBuffer.length(); i++) {
+						hash = 31 * hash + chars[i];
+					}
+					partitionName = hashPartitionNames[(hash & Integer.MAX_VALUE) % numPartitions];
+				}
+				OutputBuffer buffer = buffers.get(partitionName);
+				if (buffer == null) {
+					buffer = new OutputBuffer();
+					buffers.put(partitionName, buffer);
+				}
+				schema.appendLine(buffer, entity, true);
+			}
+			return buffers;
+		}
+	}
+}
@@ -0,0 +1,326 @@
+package com.j256.simplecsv.processor;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writer which writes entities to a series of segment files in a directory, starting a new segment when the current
+ * one reaches a maximum size, number of rows, or age. Each segment is named with the prefix, a sequence number, and
+ * the suffix and has its own header line if requested. Finished segments can be gzip compressed. If an executor is
+ * set then the closing and compressing of finished segments is done in the background so the thread writing the rows
+ * isn't held up. Problems with the background work are thrown by the next write that starts a segment or by close.
+ * 
+ * <p>
+ * The settings should be configured before the first write. The age of a segment is only checked when an entity is
+ * written so a segment is not finished until the first write after it gets too old. The methods are synchronized so
+ * the writer can be shared by multiple threads.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class RollingCsvWriter<T> implements Closeable, Flushable {
+
+	/** size at which the buffer of rows is written to the segment */
+	private static final int WRITE_BUFFER_SIZE = 8192;
+	private static final String COMPRESSED_SUFFIX = ".gz";
+
+	private final CsvSchema<T> schema;
+	private final File directory;
+	private final String prefix;
+	private final String suffix;
+	private final boolean writeHeader;
+	private final OutputBuffer buffer = new OutputBuffer(WRITE_BUFFER_SIZE + WRITE_BUFFER_SIZE / 4);
+	private final List<Future<Void>> segmentTasks = new ArrayList<Future<Void>>();
+
+	private long maxSegmentSize;
+	private long maxSegmentRows;
+	private long maxSegmentMillis;
+	private boolean compressSegments;
+	private ExecutorService executor;
+
+	private Writer writer;
+	private File currentFile;
+	private int segmentNumber;
+	private long segmentSize;
+	private long segmentRows;
+	private long segmentStartMillis;
+	private boolean closed;
+
+	RollingCsvWriter(CsvSchema<T> schema, File directory, String prefix, String suffix, boolean writeHeader) {
+		this.schema = schema;
+		this.directory = directory;
+		this.prefix = prefix;
+		this.suffix = suffix;
+		this.writeHeader = writeHeader;
+	}
+
+	/**
+	 * Maximum number of characters in a segment including the header. For ASCII output this is the number of bytes.
+	 * Set to 0 for no maximum which is the default. The segment is finished once a row takes it past the maximum.
+	 */
+	public void setMaxSegmentSize(long maxSegmentSize) {
+		this.maxSegmentSize = maxSegmentSize;
+	}
+
+	/**
+	 * Maximum number of characters in a segment including the header.
+	 * 
+	 * @see #setMaxSegmentSize(long)
+	 */
+	public RollingCsvWriter<T> withMaxSegmentSize(long maxSegmentSize) {
+		this.maxSegmentSize = maxSegmentSize;
+		return this;
+	}
+
+	/**
+	 * Maximum number of rows in a segment not including the header. Set to 0 for no maximum which is the default.
+	 */
+	public void setMaxSegmentRows(long maxSegmentRows) {
+		this.maxSegmentRows = maxSegmentRows;
+	}
+
+	/**
+	 * Maximum number of rows in a segment not including the header.
+	 * 
+	 * @see #setMaxSegmentRows(long)
+	 */
+	public RollingCsvWriter<T> withMaxSegmentRows(long maxSegmentRows) {
+		this.maxSegmentRows = maxSegmentRows;
+		return this;
+	}
+
+	/**
+	 * Maximum number of milliseconds after a segment is started that rows can be added to it. Set to 0 for no maximum
+	 * which is the default.
+	 */
+	public void setMaxSegmentMillis(long maxSegmentMillis) {
+		this.maxSegmentMillis = maxSegmentMillis;
+	}
+
+	/**
+	 * Maximum number of milliseconds after a segment is started that rows can be added to it.
+	 * 
+	 * @see #setMaxSegmentMillis(long)
+	 */
+	public RollingCsvWriter<T> withMaxSegmentMillis(long maxSegmentMillis) {
+		this.maxSegmentMillis = maxSegmentMillis;
+		return this;
+	}
+
+	/**
+	 * Set to true to gzip each segment once it is finished. The compressed file has the segment name with ".gz"
+	 * appended and the uncompressed file is deleted. Default is false.
+	 */
+	public void setCompressSegments(boolean compressSegments) {
+		this.compressSegments = compressSegments;
+	}
+
+	/**
+	 * Set to true to gzip each segment once it is finished.
+	 * 
+	 * @see #setCompressSegments(boolean)
+	 */
+	public RollingCsvWriter<T> withCompressSegments(boolean compressSegments) {
+		this.compressSegments = compressSegments;
+		return this;
+	}
+
+	/**
+	 * Executor used to close and compress the finished segments in the background. It is not shut down by this writer.
+	 * If not set then the work is done by the thread which causes the segment to be finished.
+	 */
+	public void setExecutor(ExecutorService executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * Executor used to close and compress the finished segments in the background.
+	 * 
+	 * @see #setExecutor(ExecutorService)
+	 */
+	public RollingCsvWriter<T> withExecutor(ExecutorService executor) {
+		this.executor = executor;
+		return this;
+	}
+
+	/**
+	 * Write an entity to the current segment, first starting a new segment if the current one is full or too old. If
+	 * the entity can't be formatted then nothing is written and it does not count towards the size of the segment.
+	 * 
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing or if the writer has been closed.
+	 */
+	public synchronized void write(T entity) throws IOException {
+		if (closed) {
+			throw new IOException("Writer has been closed");
+		}
+		if (writer != null && isSegmentFinished()) {
+			finishSegment();
+		}
+		if (writer == null) {
+			startSegment();
+		}
+		int startLength = buffer.length();
+		schema.appendLine(buffer, entity, true);
+		segmentSize += buffer.length() - startLength;
+		segmentRows++;
+		if (buffer.length() >= WRITE_BUFFER_SIZE) {
+			buffer.writeTo(writer);
+		}
+	}
+
+	/**
+	 * Returns the segment file that is being written or null if there is none.
+	 */
+	public synchronized File getCurrentFile() {
+		return currentFile;
+	}
+
+	/**
+	 * Write any buffered rows to the current segment and flush it.
+	 */
+	@Override
+	public synchronized void flush() throws IOException {
+		if (writer != null) {
+			buffer.writeTo(writer);
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Finish the current segment and wait for any background work on the segments to complete.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		if (writer != null) {
+			finishSegment();
+		}
+		for (Iterator<Future<Void>> iterator = segmentTasks.iterator(); iterator.hasNext();) {
+			Future<Void> future = iterator.next();
+			iterator.remove();
+			ParallelRowWriter.getResult(future);
+		}
+	}
+
+	private boolean isSegmentFinished() {
+		return (maxSegmentSize > 0 && segmentSize >= maxSegmentSize)
+				|| (maxSegmentRows > 0 && segmentRows >= maxSegmentRows)
+				|| (maxSegmentMillis > 0 && System.currentTimeMillis() - segmentStartMillis >= maxSegmentMillis);
+	}
+
+	private void startSegment() throws IOException {
+		// skip any segments left by an earlier writer
+		File file;
+		do {
+			file = new File(directory, prefix + segmentNumber + suffix);
+			segmentNumber++;
+		} while (file.exists() || new File(file.getPath() + COMPRESSED_SUFFIX).exists());
+		writer = Utf8ByteWriter.openFile(file);
+		currentFile = file;
+		segmentSize = 0;
+		segmentRows = 0;
+		segmentStartMillis = System.currentTimeMillis();
+		if (writeHeader) {
+			schema.appendHeaderLine(buffer, true);
+			segmentSize = buffer.length();
+		}
+	}
+
+	private void finishSegment() throws IOException {
+		Writer segmentWriter = writer;
+		writer = null;
+		SegmentFinisher finisher = new SegmentFinisher(segmentWriter, currentFile, compressSegments);
+		currentFile = null;
+		try {
+			buffer.writeTo(segmentWriter);
+		} catch (IOException ioe) {
+			buffer.clear();
+			segmentWriter.close();
+			throw ioe;
+		}
+		checkSegmentTasks();
+		if (executor == null) {
+			finisher.call();
+		} else {
+			segmentTasks.add(executor.submit(finisher));
+		}
+	}
+
+	/**
+	 * Remove the background tasks that are done and throw if any of them failed.
+	 */
+	private void checkSegmentTasks() throws IOException {
+		for (Iterator<Future<Void>> iterator = segmentTasks.iterator(); iterator.hasNext();) {
+			Future<Void> future = iterator.next();
+			if (future.isDone()) {
+				iterator.remove();
+				ParallelRowWriter.getResult(future);
+			}
+		}
+	}
+
+	/**
+	 * Closes the writer of a finished segment and then compresses it if requested.
+	 */
+	private static class SegmentFinisher implements Callable<Void> {
+
+		private final Writer writer;
+		private final File file;
+		private final boolean compress;
+
+		public SegmentFinisher(Writer writer, File file, boolean compress) {
+			this.writer = writer;
+			this.file = file;
+			this.compress = compress;
+		}
+
+		@Override
+		public Void call() throws IOException {
+			writer.close();
+			if (compress) {
+				compress();
+			}
+			return null;
+		}
+
+		private void compress() throws IOException {
+			File compressedFile = new File(file.getPath() + COMPRESSED_SUFFIX);
+			InputStream inputStream = new FileInputStream(file);
+			try {
+				OutputStream outputStream = new GZIPOutputStream(new FileOutputStream(compressedFile));
+				try {
+					byte[] bytes = new byte[WRITE_BUFFER_SIZE];
+					int length;
+					while ((length = inputStream.read(bytes)) >= 0) {
+						outputStream.write(bytes, 0, length);
+					}
+				} finally {
+					outputStream.close();
+				}
+			} finally {
+				inputStream.close();
+			}
+			if (!file.delete()) {
+				throw new IOException("Could not delete segment after compressing it: " + file);
+			}
+		}
+	}
+}
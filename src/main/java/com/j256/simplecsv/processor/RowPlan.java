@@ -0,0 +1,75 @@
+package com.j256.simplecsv.processor;
+
+import com.j256.simplecsv.converter.CharRangeConverter;
+import com.j256.simplecsv.converter.Converter;
+
+/**
+ * Compiled plan for reading the columns of a row with a particular header layout. It is indexed by the position of the
+ * column in the line and pre-resolves the per-column decisions so the processing of each cell does not need to do any
+ * lookups. Immutable once built.
+ *
+ * @author graywatson
+ */
+class RowPlan {
+
+	/** column-info for each position in the line or null if the column is unknown and should be skipped */
+	final ColumnInfo<Object>[] columnInfos;
+	final Converter<Object, ?>[] converters;
+	final boolean[] trimInputs;
+	/** default value for each position or null if none */
+	final String[] defaultValues;
+	final boolean[] mustNotBeBlanks;
+	/** converter for each position if it can convert directly from the characters otherwise null */
+	final CharRangeConverter<Object, ?>[] rangeConverters;
+	/** number of the positions that have a column-info */
+	final int mappedCount;
+
+	private RowPlan(ColumnInfo<Object>[] columnInfos, boolean alwaysTrimInput) {
+		int numColumns = columnInfos.length;
+		this.columnInfos = columnInfos;
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		Converter<Object, ?>[] converters = new Converter[numColumns];
+		this.converters = converters;
+		this.trimInputs = new boolean[numColumns];
+		this.defaultValues = new String[numColumns];
+		this.mustNotBeBlanks = new boolean[numColumns];
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		CharRangeConverter<Object, ?>[] rangeConverters = new CharRangeConverter[numColumns];
+		this.rangeConverters = rangeConverters;
+		int mappedCount = 0;
+		for (int i = 0; i < numColumns; i++) {
+			ColumnInfo<Object> columnInfo = columnInfos[i];
+			if (columnInfo == null) {
+				continue;
+			}
+			Converter<Object, ?> converter = columnInfo.getConverter();
+			converters[i] = converter;
+			trimInputs[i] = (alwaysTrimInput || columnInfo.isTrimInput() || converter.isAlwaysTrimInput());
+			defaultValues[i] = columnInfo.getDefaultValue();
+			mustNotBeBlanks[i] = columnInfo.isMustNotBeBlank();
+			if (converter instanceof CharRangeConverter) {
+				rangeConverters[i] = (CharRangeConverter<Object, ?>) converter;
+			}
+			mappedCount++;
+		}
+		this.mappedCount = mappedCount;
+	}
+
+	/**
+	 * Build a plan from the column-infos indexed by their position in the line. Unknown columns should be null.
+	 */
+	public static RowPlan fromPositions(ColumnInfo<Object>[] columnInfos, boolean alwaysTrimInput) {
+		return new RowPlan(columnInfos, alwaysTrimInput);
+	}
+
+	/**
+	 * Return the column-info at the position or null if unknown or past the end of the configured columns.
+	 */
+	public ColumnInfo<Object> getColumnInfo(int position) {
+		if (position < columnInfos.length) {
+			return columnInfos[position];
+		} else {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,124 @@
+package com.j256.simplecsv.processor;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Push-style writer of entities which is useful when the rows come from a database cursor or other source that can't
+ * be passed in as a collection. The rows are appended to an {@link OutputBuffer} which is written to the writer in
+ * large blocks so the memory used is constant. Sinks are created with {@link CsvSchema#newRowSink(Writer, boolean)} or
+ * {@link CsvProcessor#newRowSink(Writer, boolean)} and must be closed when done.
+ * 
+ * <p>
+ * This is not thread-safe and should be used by one thread at a time. If writing to the writer throws then the rows
+ * that were buffered are dropped, the output is incomplete, and any later writes or flushes throw so the rows are
+ * never written twice. The sink should then just be closed.
+ * </p>
+ * 
+ * @param <T>
+ *            Entity type that we are writing.
+ * 
+ * @author graywatson
+ */
+public class RowSink<T> implements Closeable, Flushable {
+
+	/** size at which the buffer of rows is written to the writer */
+	static final int WRITE_BUFFER_SIZE = 8192;
+
+	private final CsvSchema<T> schema;
+	private final Writer writer;
+	private final OutputBuffer buffer = new OutputBuffer(WRITE_BUFFER_SIZE + WRITE_BUFFER_SIZE / 4);
+	private long rowCount;
+	/** rows in the buffer that have not been written to the writer */
+	private int bufferedRows;
+	private boolean closed;
+	private boolean failed;
+
+	RowSink(CsvSchema<T> schema, Writer writer, boolean writeHeader) {
+		this.schema = schema;
+		this.writer = writer;
+		if (writeHeader) {
+			schema.appendHeaderLine(buffer, true);
+		}
+	}
+
+	/**
+	 * Write an entity as a row. If the entity can't be formatted then nothing is written and the row is not counted so
+	 * the sink can still be used.
+	 * 
+	 * @throws IOException
+	 *             If there are any IO exceptions thrown when writing or if the sink has been closed.
+	 */
+	public void write(T entity) throws IOException {
+		if (closed) {
+			throw new IOException("Row sink has been closed");
+		}
+		checkFailed();
+		schema.appendLine(buffer, entity, true);
+		rowCount++;
+		bufferedRows++;
+		if (buffer.length() >= WRITE_BUFFER_SIZE) {
+			writeBuffer();
+		}
+	}
+
+	/**
+	 * Returns the number of entities that have been written not including the header. This includes the rows that are
+	 * still buffered but not the rows that were dropped because writing to the writer failed.
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Write any buffered rows to the writer and flush it.
+	 */
+	@Override
+	public void flush() throws IOException {
+		if (!closed) {
+			checkFailed();
+			writeBuffer();
+			writer.flush();
+		}
+	}
+
+	/**
+	 * Write any buffered rows and close the writer. Calling this more than once does nothing.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (!failed) {
+				writeBuffer();
+			}
+		} finally {
+			writer.close();
+		}
+	}
+
+	private void writeBuffer() throws IOException {
+		try {
+			buffer.writeTo(writer);
+		} catch (IOException ioe) {
+			// don't write these rows again since some of them may have made it out
+			failed = true;
+			rowCount -= bufferedRows;
+			throw ioe;
+		} finally {
+			buffer.clear();
+			bufferedRows = 0;
+		}
+	}
+
+	private void checkFailed() throws IOException {
+		if (failed) {
+			throw new IOException("Row sink failed on an earlier write");
+		}
+	}
+}
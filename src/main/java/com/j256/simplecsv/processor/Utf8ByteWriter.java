@@ -0,0 +1,250 @@
+package com.j256.simplecsv.processor;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writer which encodes characters as UTF-8 directly into a reusable byte array and writes the bytes to an
+ * {@link OutputStream} or a {@link WritableByteChannel} such as a FileChannel. ASCII characters, which make up most CSV
+ * output, are copied with a simple loop and the rest are encoded inline so there is no CharsetEncoder overhead. When
+ * writing to a channel the bytes can be copied into a direct buffer which saves the JDK from copying them into a
+ * temporary direct buffer of its own. Unpaired surrogate characters are written as '?' like {@link FileWriter}.
+ * 
+ * <p>
+ * This is not thread-safe and should be used by one thread at a time.
+ * </p>
+ * 
+ * @author graywatson
+ */
+public class Utf8ByteWriter extends Writer {
+
+	private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	/** most bytes that a character or surrogate pair can be encoded into */
+	private static final int MAX_BYTES_PER_CHAR = 4;
+	private static final byte REPLACEMENT_BYTE = '?';
+
+	private final OutputStream outputStream;
+	private final WritableByteChannel channel;
+	private final byte[] bytes;
+	private final ByteBuffer byteBuffer;
+	private final char[] singleChar = new char[1];
+	private int count;
+	private char pendingHighSurrogate;
+	private boolean closed;
+
+	/**
+	 * Write to a file using a direct buffer with the file's channel.
+	 */
+	public Utf8ByteWriter(File file) throws IOException {
+		this(file, false);
+	}
+
+	/**
+	 * Write to a file using a direct buffer with the file's channel.
+	 * 
+	 * @param append
+	 *            Set to true to add to the end of the file instead of replacing it.
+	 */
+	public Utf8ByteWriter(File file, boolean append) throws IOException {
+		this(new FileOutputStream(file, append).getChannel(), DEFAULT_BUFFER_SIZE, true);
+	}
+
+	public Utf8ByteWriter(OutputStream outputStream) {
+		this(outputStream, DEFAULT_BUFFER_SIZE);
+	}
+
+	public Utf8ByteWriter(OutputStream outputStream, int bufferSize) {
+		this.outputStream = outputStream;
+		this.channel = null;
+		this.bytes = new byte[Math.max(bufferSize, MAX_BYTES_PER_CHAR)];
+		this.byteBuffer = null;
+	}
+
+	public Utf8ByteWriter(WritableByteChannel channel) {
+		this(channel, DEFAULT_BUFFER_SIZE, true);
+	}
+
+	/**
+	 * @param channel
+	 *            Channel that the bytes are written to.
+	 * @param bufferSize
+	 *            Number of bytes that are encoded before they are written to the channel.
+	 * @param directBuffer
+	 *            Set to true to copy the bytes into a direct buffer before writing them to the channel. This is
+	 *            recommended for file and socket channels.
+	 */
+	public Utf8ByteWriter(WritableByteChannel channel, int bufferSize, boolean directBuffer) {
+		this.outputStream = null;
+		this.channel = channel;
+		this.bytes = new byte[Math.max(bufferSize, MAX_BYTES_PER_CHAR)];
+		if (directBuffer) {
+			this.byteBuffer = ByteBuffer.allocateDirect(bytes.length);
+		} else {
+			this.byteBuffer = ByteBuffer.wrap(bytes);
+		}
+	}
+
+	/**
+	 * Return a writer for the file which is a {@link Utf8ByteWriter} if the default charset is UTF-8 otherwise a
+	 * {@link FileWriter} so the output is the same as it has always been.
+	 */
+	static Writer openFile(File file) throws IOException {
+		return openFile(file, false);
+	}
+
+	/**
+	 * Same as {@link #openFile(File)} but adds to the end of the file if append is true.
+	 */
+	static Writer openFile(File file, boolean append) throws IOException {
+		if (StandardCharsets.UTF_8.equals(Charset.defaultCharset())) {
+			return new Utf8ByteWriter(file, append);
+		} else {
+			return new FileWriter(file, append);
+		}
+	}
+
+	@Override
+	public void write(int ch) throws IOException {
+		singleChar[0] = (char) ch;
+		write(singleChar, 0, 1);
+	}
+
+	@Override
+	public void write(char[] chars, int offset, int length) throws IOException {
+		if (closed) {
+			throw new IOException("Writer has been closed");
+		}
+		int index = offset;
+		int end = offset + length;
+		if (pendingHighSurrogate != 0 && index < end) {
+			ensureRoom();
+			if (Character.isLowSurrogate(chars[index])) {
+				encodeCodePoint(Character.toCodePoint(pendingHighSurrogate, chars[index]));
+				index++;
+			} else {
+				bytes[count++] = REPLACEMENT_BYTE;
+			}
+			pendingHighSurrogate = 0;
+		}
+		while (index < end) {
+			ensureRoom();
+			// copy the ascii characters that fit in the buffer
+			int asciiEnd = Math.min(end, index + bytes.length - count);
+			while (index < asciiEnd) {
+				char ch = chars[index];
+				if (ch >= 0x80) {
+					break;
+				}
+				bytes[count++] = (byte) ch;
+				index++;
+			}
+			if (index < asciiEnd) {
+				ensureRoom();
+				index = encodeNonAscii(chars, index, end);
+			}
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (closed) {
+			return;
+		}
+		writeBytes();
+		if (outputStream != null) {
+			outputStream.flush();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		try {
+			if (pendingHighSurrogate != 0) {
+				ensureRoom();
+				bytes[count++] = REPLACEMENT_BYTE;
+				pendingHighSurrogate = 0;
+			}
+			writeBytes();
+		} finally {
+			closed = true;
+			if (outputStream == null) {
+				channel.close();
+			} else {
+				outputStream.close();
+			}
+		}
+	}
+
+	/**
+	 * Encode the non-ascii character at the index and return the index of the next character.
+	 */
+	private int encodeNonAscii(char[] chars, int index, int end) {
+		char ch = chars[index];
+		if (ch < 0x800) {
+			bytes[count++] = (byte) (0xC0 | (ch >> 6));
+			bytes[count++] = (byte) (0x80 | (ch & 0x3F));
+		} else if (Character.isHighSurrogate(ch)) {
+			if (index + 1 == end) {
+				// the low surrogate should be in the next write
+				pendingHighSurrogate = ch;
+			} else if (Character.isLowSurrogate(chars[index + 1])) {
+				index++;
+				encodeCodePoint(Character.toCodePoint(ch, chars[index]));
+			} else {
+				bytes[count++] = REPLACEMENT_BYTE;
+			}
+		} else if (Character.isLowSurrogate(ch)) {
+			bytes[count++] = REPLACEMENT_BYTE;
+		} else {
+			bytes[count++] = (byte) (0xE0 | (ch >> 12));
+			bytes[count++] = (byte) (0x80 | ((ch >> 6) & 0x3F));
+			bytes[count++] = (byte) (0x80 | (ch & 0x3F));
+		}
+		return index + 1;
+	}
+
+	private void encodeCodePoint(int codePoint) {
+		bytes[count++] = (byte) (0xF0 | (codePoint >> 18));
+		bytes[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+		bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+		bytes[count++] = (byte) (0x80 | (codePoint & 0x3F));
+	}
+
+	private void ensureRoom() throws IOException {
+		if (count + MAX_BYTES_PER_CHAR > bytes.length) {
+			writeBytes();
+		}
+	}
+
+	private void writeBytes() throws IOException {
+		if (count == 0) {
+			return;
+		}
+		if (outputStream != null) {
+			outputStream.write(bytes, 0, count);
+		} else {
+			byteBuffer.clear();
+			if (byteBuffer.hasArray()) {
+				byteBuffer.limit(count);
+			} else {
+				byteBuffer.put(bytes, 0, count);
+				byteBuffer.flip();
+			}
+			while (byteBuffer.hasRemaining()) {
+				channel.write(byteBuffer);
+			}
+		}
+		count = 0;
+	}
+}
@@ -1,5 +1,8 @@
 package com.j256.simplecsv.converter;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.math.BigDecimal;
@@ -7,6 +10,10 @@ import java.text.ParseException;
 
 import org.junit.Test;
 
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
 public class BigDecimalConverterTest extends AbstractConverterTest {
 
 	@Test
@@ -22,6 +29,21 @@ public class BigDecimalConverterTest extends AbstractConverterTest {
 				"###,##0.0##########################################################################################");
 	}
 
+	@Test
+	public void testRange() {
+		BigDecimalConverter converter = BigDecimalConverter.getSingleton();
+		ColumnInfo<BigDecimal> columnInfo = ColumnInfo.forTests(converter, BigDecimal.class, null, 0);
+		ParseError parseError = new ParseError();
+		assertEquals(new BigDecimal("-12.50"),
+				converter.rangeToJava("line", 1, 2, columnInfo, "a,-12.50,b", 2, 8, parseError));
+		assertEquals(new BigDecimal("1.5E+400"),
+				converter.rangeToJava("line", 1, 2, columnInfo, "a,1.5E+400,b", 2, 10, parseError));
+		assertFalse(parseError.isError());
+		assertNull(converter.rangeToJava("line", 1, 2, columnInfo, "a,1.2.3,b", 2, 7, parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertEquals(2, parseError.getLinePos());
+	}
+
 	@Test
 	public void testConverage() {
 		BigDecimalConverter converter = BigDecimalConverter.getSingleton();
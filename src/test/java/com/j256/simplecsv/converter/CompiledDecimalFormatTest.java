@@ -0,0 +1,157 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.text.DecimalFormat;
+import java.text.ParsePosition;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CompiledDecimalFormatTest {
+
+	private static final String[] COMPILED_PATTERNS = new String[] { "0", "#", "###,##0", "#,###", "#,##0.00", "0.00",
+			"0.###", "#.##", "#.00", "000", "0000.0", "#0.0%", "0%", "$#,##0.00", "0.00 USD", "#,##,##0.0#" };
+	private static final String[] OTHER_PATTERNS = new String[] { "0.00E0", "'#'0", "0.0;(0.0)", "0.0\u2030",
+			"0.0000000000000000" };
+	private static final String[] VALUES = new String[] { "0", "-0", "1", "-1", "12", "123", "1234", "-1234567",
+			"0.5", "-0.5", "0.125", "0.135", "0.15", "2.675", "1.005", "0.001", "-0.001", "0.0049", "1.50", "100",
+			"1,234", "1,2,3", "-1,234.50", "12%", "12.5%", "-12.5%", "0.1%", "$1,234.56", "-$1.00", "1.00 USD",
+			"9223372036854775807", "123456789012345678", "1234567890123456789", "0.000000000000000001", "1E3", "1,",
+			",1", "1..2", "12abc", "abc", "", "-", ".", ".5", "5.", "1.2.3", "(1.0)", "\u221e", "-$", "00012",
+			"0.00", "1,234.5%", "0.1", "0.7" };
+
+	@Test
+	public void testCompiled() {
+		for (String pattern : COMPILED_PATTERNS) {
+			assertTrue(pattern, CompiledDecimalFormat.compile(pattern, false, false).isCompiled());
+		}
+		for (String pattern : OTHER_PATTERNS) {
+			assertFalse(pattern, CompiledDecimalFormat.compile(pattern, false, false).isCompiled());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPattern() {
+		CompiledDecimalFormat.compile("0#.#0", false, false);
+	}
+
+	@Test
+	public void testFormatLikeJdk() {
+		Random random = new Random(1);
+		for (String pattern : concat(COMPILED_PATTERNS, OTHER_PATTERNS)) {
+			CompiledDecimalFormat compiled = CompiledDecimalFormat.compile(pattern, false, false);
+			DecimalFormat decimalFormat = new DecimalFormat(pattern);
+			for (String value : VALUES) {
+				BigDecimal bigDecimal;
+				try {
+					bigDecimal = new BigDecimal(value);
+				} catch (NumberFormatException nfe) {
+					continue;
+				}
+				testFormat(pattern, compiled, decimalFormat, bigDecimal);
+				testFormat(pattern, compiled, decimalFormat, bigDecimal.doubleValue());
+				testFormat(pattern, compiled, decimalFormat, bigDecimal.floatValue());
+				testFormat(pattern, compiled, decimalFormat, bigDecimal.longValue());
+				testFormat(pattern, compiled, decimalFormat, bigDecimal.intValue());
+				testFormat(pattern, compiled, decimalFormat, bigDecimal.toBigInteger());
+			}
+			for (double value : new double[] { -0.0, Double.NaN, Double.POSITIVE_INFINITY, Double.MAX_VALUE,
+					Double.MIN_VALUE, 1e15, 1e-15, 123456789.123456789 }) {
+				testFormat(pattern, compiled, decimalFormat, value);
+			}
+			testFormat(pattern, compiled, decimalFormat, Long.MIN_VALUE);
+			testFormat(pattern, compiled, decimalFormat, Long.MAX_VALUE);
+			testFormat(pattern, compiled, decimalFormat, new BigInteger("123456789012345678901234567890"));
+			for (int i = 0; i < 10000; i++) {
+				testFormat(pattern, compiled, decimalFormat, random.nextLong() % 1000000000L);
+				testFormat(pattern, compiled, decimalFormat, (random.nextDouble() - 0.5) * 10000.0);
+				testFormat(pattern, compiled, decimalFormat, random.nextInt(100000) / 1000.0);
+				testFormat(pattern, compiled, decimalFormat, BigDecimal.valueOf(random.nextLong() % 100000000L, 4));
+			}
+		}
+	}
+
+	@Test
+	public void testParseLikeJdk() {
+		for (String pattern : concat(COMPILED_PATTERNS, OTHER_PATTERNS)) {
+			for (boolean parseBigDecimal : new boolean[] { false, true }) {
+				for (boolean integerOnly : new boolean[] { false, true }) {
+					CompiledDecimalFormat compiled =
+							CompiledDecimalFormat.compile(pattern, parseBigDecimal, integerOnly);
+					DecimalFormat decimalFormat = new DecimalFormat(pattern);
+					decimalFormat.setParseBigDecimal(parseBigDecimal);
+					decimalFormat.setParseIntegerOnly(integerOnly);
+					for (String value : VALUES) {
+						Number expected = decimalFormat.parse(value, new ParsePosition(0));
+						String label = pattern + " " + parseBigDecimal + " " + integerOnly + " '" + value + "'";
+						assertEquals(label, expected, compiled.parse(value, 0, value.length()));
+						String line = "xx" + value + "yy";
+						assertEquals(label, expected, compiled.parse(line, 2, 2 + value.length()));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testThreads() throws Exception {
+		final CompiledDecimalFormat compiled = CompiledDecimalFormat.compile("#,##0.00", false, false);
+		final CompiledDecimalFormat fallback = CompiledDecimalFormat.compile("0.00E0", false, false);
+		final AtomicInteger errorCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		Future<?>[] futures = new Future<?>[4];
+		for (int i = 0; i < futures.length; i++) {
+			final int threadNum = i;
+			futures[i] = executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 10000; j++) {
+						double value = threadNum * 100000 + j + 0.25;
+						String str = compiled.format(value);
+						if (compiled.parse(str, 0, str.length()).doubleValue() != value) {
+							errorCount.incrementAndGet();
+						}
+						str = fallback.format(value);
+						if (!str.equals(new DecimalFormat("0.00E0").format(value))) {
+							errorCount.incrementAndGet();
+						}
+					}
+				}
+			});
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		executor.awaitTermination(10, TimeUnit.SECONDS);
+		assertEquals(0, errorCount.get());
+	}
+
+	private void testFormat(String pattern, CompiledDecimalFormat compiled, DecimalFormat decimalFormat,
+			Number value) {
+		String result = compiled.format(value);
+		assertEquals(pattern + " " + value + " (" + value.getClass().getSimpleName() + ")",
+				decimalFormat.format(value), result);
+		// all of the characters must be in the alphabet
+		for (int i = 0; i < result.length(); i++) {
+			assertTrue(pattern + " " + result, compiled.getOutputAlphabet().indexOf(result.charAt(i)) >= 0);
+		}
+	}
+
+	private String[] concat(String[] first, String[] second) {
+		String[] result = new String[first.length + second.length];
+		System.arraycopy(first, 0, result, 0, first.length);
+		System.arraycopy(second, 0, result, first.length, second.length);
+		return result;
+	}
+}
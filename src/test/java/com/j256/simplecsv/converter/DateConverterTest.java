@@ -1,6 +1,9 @@
 package com.j256.simplecsv.converter;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.text.ParseException;
@@ -9,6 +12,10 @@ import java.util.Date;
 
 import org.junit.Test;
 
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
 public class DateConverterTest extends AbstractConverterTest {
 
 	@Test
@@ -34,6 +41,48 @@ public class DateConverterTest extends AbstractConverterTest {
 		converter.configure("notagoodpattern", 0, null);
 	}
 
+	@Test
+	public void testInvalidDate() {
+		DateConverter converter = DateConverter.getSingleton();
+		ColumnInfo<Date> columnInfo = ColumnInfo.forTests(converter, Date.class, "yyyyMMdd", 0);
+		ParseError parseError = new ParseError();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "notadate", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertTrue(parseError.getMessage().contains("yyyyMMdd"));
+		assertEquals(2, parseError.getLinePos());
+	}
+
+	@Test
+	public void testMultipleColumns() {
+		DateConverter converter = DateConverter.getSingleton();
+		ColumnInfo<Date> columnInfo1 = ColumnInfo.forTests(converter, Date.class, "yyyyMMdd", 0);
+		ColumnInfo<Date> columnInfo2 = ColumnInfo.forTests(converter, Date.class, null, 0);
+		ParseError parseError = new ParseError();
+		Date expected = makeDate(2014, 11, 23);
+		for (int i = 0; i < 3; i++) {
+			Date date1 = converter.stringToJava("line", 1, 2, columnInfo1, "20141123", parseError);
+			Date date2 = converter.stringToJava("line", 1, 2, columnInfo2, "11/23/2014", parseError);
+			assertFalse(parseError.isError());
+			assertEquals(expected, date1);
+			assertEquals(expected, date2);
+			assertNotSame(date1, date2);
+			assertEquals("20141123", converter.javaToString(columnInfo1, date1));
+			assertEquals("11/23/2014", converter.javaToString(columnInfo2, date2));
+		}
+	}
+
+	@Test
+	public void testCachedDateNotShared() {
+		DateConverter converter = DateConverter.getSingleton();
+		ColumnInfo<Date> columnInfo = ColumnInfo.forTests(converter, Date.class, null, 0);
+		ParseError parseError = new ParseError();
+		Date date1 = converter.stringToJava("line", 1, 2, columnInfo, "11/23/2014", parseError);
+		// changing the returned date should not affect the cached one
+		date1.setTime(0);
+		Date date2 = converter.stringToJava("line", 1, 2, columnInfo, "11/23/2014", parseError);
+		assertEquals(makeDate(2014, 11, 23), date2);
+	}
+
 	@Test
 	public void testConverage() {
 		DateConverter converter = DateConverter.getSingleton();
@@ -53,4 +102,18 @@ public class DateConverterTest extends AbstractConverterTest {
 		calender.set(Calendar.AM_PM, 0);
 		return calender.getTime();
 	}
+
+	@Test
+	public void testNumericPatternAlphabet() {
+		assertEquals("+-0123456789//", DateConverter.numericPatternAlphabet("MM/dd/yyyy", "yMd"));
+		assertEquals("+-0123456789-- :", DateConverter.numericPatternAlphabet("yyyy-MM-dd HH:mm", "yMdHm"));
+		// month names
+		assertNull(DateConverter.numericPatternAlphabet("MMM dd", "yMd"));
+		// text
+		assertNull(DateConverter.numericPatternAlphabet("dd EEE", "yMd"));
+		assertNull(DateConverter.numericPatternAlphabet("dd 'of' MM", "yMd"));
+
+		ColumnInfo<Date> columnInfo = ColumnInfo.forTests(DateConverter.getSingleton(), Date.class, "yyyy,MM,dd", 0);
+		assertEquals("+-0123456789,,", columnInfo.getOutputAlphabet());
+	}
 }
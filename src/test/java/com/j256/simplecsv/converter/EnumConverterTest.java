@@ -75,6 +75,61 @@ public class EnumConverterTest extends AbstractConverterTest {
 		assertEquals(notEnum, results.get(0).notEnum);
 	}
 
+	@Test
+	public void testCaseInsensitive() {
+		EnumConverter converter = EnumConverter.getSingleton();
+		ColumnInfo<Enum<?>> columnInfo =
+				ColumnInfo.forTests(converter, MyEnum.class, null, EnumConverter.CASE_INSENSITIVE);
+		ParseError parseError = new ParseError();
+		assertEquals(MyEnum.RED, converter.stringToJava("line", 1, 2, columnInfo, "red", parseError));
+		assertEquals(MyEnum.BLUE, converter.stringToJava("line", 1, 2, columnInfo, "Blue", parseError));
+		assertEquals(MyEnum.GREEN, converter.rangeToJava("line", 1, 2, columnInfo, "x,gReEn,y", 2, 7, parseError));
+		assertFalse(parseError.isError());
+		assertEquals("RED", converter.javaToString(columnInfo, MyEnum.RED));
+
+		// case sensitive by default
+		columnInfo = ColumnInfo.forTests(converter, MyEnum.class, null, 0);
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "red", parseError));
+		assertTrue(parseError.isError());
+		assertEquals("red", parseError.getMessage());
+	}
+
+	@Test
+	public void testAliases() {
+		EnumConverter converter = EnumConverter.getSingleton();
+		ColumnInfo<Enum<?>> columnInfo = ColumnInfo.forTests(converter, MyEnum.class, "r=RED, rouge=RED,b=BLUE",
+				EnumConverter.FORMAT_IS_ALIASES + EnumConverter.CASE_INSENSITIVE);
+		ParseError parseError = new ParseError();
+		assertEquals(MyEnum.RED, converter.stringToJava("line", 1, 2, columnInfo, "r", parseError));
+		assertEquals(MyEnum.RED, converter.stringToJava("line", 1, 2, columnInfo, "ROUGE", parseError));
+		assertEquals(MyEnum.BLUE, converter.stringToJava("line", 1, 2, columnInfo, "b", parseError));
+		assertEquals(MyEnum.GREEN, converter.stringToJava("line", 1, 2, columnInfo, "green", parseError));
+		assertFalse(parseError.isError());
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "g", parseError));
+		assertTrue(parseError.isError());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAliasesAndUnknown() {
+		ColumnInfo.forTests(EnumConverter.getSingleton(), MyEnum.class, "r=RED",
+				EnumConverter.FORMAT_IS_ALIASES + EnumConverter.FORMAT_IS_UNKNOWN_VALUE);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAliasUnknownName() {
+		ColumnInfo.forTests(EnumConverter.getSingleton(), MyEnum.class, "r=PURPLE", EnumConverter.FORMAT_IS_ALIASES);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAliasInvalid() {
+		ColumnInfo.forTests(EnumConverter.getSingleton(), MyEnum.class, "RED", EnumConverter.FORMAT_IS_ALIASES);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testAliasDuplicate() {
+		ColumnInfo.forTests(EnumConverter.getSingleton(), MyEnum.class, "RED=BLUE", EnumConverter.FORMAT_IS_ALIASES);
+	}
+
 	@Test
 	public void testConverage() {
 		EnumConverter converter = EnumConverter.getSingleton();
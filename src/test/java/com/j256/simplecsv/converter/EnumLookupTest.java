@@ -0,0 +1,68 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class EnumLookupTest {
+
+	@Test
+	public void testManyNames() {
+		Map<String, Enum<?>> nameMap = new HashMap<String, Enum<?>>();
+		TimeUnit[] units = TimeUnit.values();
+		for (int i = 0; i < 2000; i++) {
+			nameMap.put("name" + i, units[i % units.length]);
+		}
+		EnumLookup lookup = EnumLookup.build(nameMap, false);
+		for (int i = 0; i < 2000; i++) {
+			assertSame(units[i % units.length], lookup.get("name" + i));
+			assertSame(units[i % units.length], lookup.get("xxname" + i + "yy", 2, 6 + Integer.toString(i).length()));
+		}
+		assertNull(lookup.get("name2000"));
+		assertNull(lookup.get("NAME1"));
+		assertNull(lookup.get(""));
+	}
+
+	@Test
+	public void testLargeNameCount() {
+		// the table grows linearly with the names so large alias lists still work
+		Map<String, Enum<?>> nameMap = new HashMap<String, Enum<?>>();
+		TimeUnit[] units = TimeUnit.values();
+		for (int i = 0; i < 50000; i++) {
+			nameMap.put("alias-" + i, units[i % units.length]);
+		}
+		EnumLookup lookup = EnumLookup.build(nameMap, true);
+		for (int i = 0; i < 50000; i++) {
+			assertSame(units[i % units.length], lookup.get("ALIAS-" + i));
+		}
+		assertNull(lookup.get("alias-50000"));
+	}
+
+	@Test
+	public void testCaseInsensitive() {
+		Map<String, Enum<?>> nameMap = new HashMap<String, Enum<?>>();
+		for (TimeUnit unit : TimeUnit.values()) {
+			nameMap.put(unit.name(), unit);
+		}
+		// alias only differs by case from the name
+		nameMap.put("seconds", TimeUnit.SECONDS);
+		EnumLookup lookup = EnumLookup.build(nameMap, true);
+		assertEquals(TimeUnit.SECONDS, lookup.get("Seconds"));
+		assertEquals(TimeUnit.NANOSECONDS, lookup.get("nanoseconds"));
+		assertNull(lookup.get("second"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCaseInsensitiveConflict() {
+		Map<String, Enum<?>> nameMap = new HashMap<String, Enum<?>>();
+		nameMap.put("SECONDS", TimeUnit.SECONDS);
+		nameMap.put("seconds", TimeUnit.MINUTES);
+		EnumLookup.build(nameMap, true);
+	}
+}
@@ -0,0 +1,53 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.time.Instant;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+public class InstantConverterTest extends AbstractConverterTest {
+
+	@Test
+	public void testStuff() throws Exception {
+		InstantConverter converter = InstantConverter.getSingleton();
+		testConverter(converter, Instant.class, null, 0, Instant.ofEpochSecond(1505902530));
+		testConverter(converter, Instant.class, null, 0, Instant.ofEpochSecond(1505902530, 123456789));
+		testConverter(converter, Instant.class, null, 0, Instant.EPOCH);
+		testConverter(converter, Instant.class, null, 0, null);
+		testConverter(converter, Instant.class, "dd/MM/uuuu HH:mm", 0, Instant.ofEpochSecond(1505902500));
+	}
+
+	@Test
+	public void testFormat() {
+		InstantConverter converter = InstantConverter.getSingleton();
+		ColumnInfo<Instant> columnInfo = ColumnInfo.forTests(converter, Instant.class, "dd/MM/uuuu HH:mm", 0);
+		ParseError parseError = new ParseError();
+		assertEquals(Instant.ofEpochSecond(1505902500),
+				converter.stringToJava("line", 1, 2, columnInfo, "20/09/2017 10:15", parseError));
+		assertFalse(parseError.isError());
+		assertEquals("20/09/2017 10:15", converter.javaToString(columnInfo, Instant.ofEpochSecond(1505902500)));
+	}
+
+	@Test
+	public void testInvalid() {
+		InstantConverter converter = InstantConverter.getSingleton();
+		ColumnInfo<Instant> columnInfo = ColumnInfo.forTests(converter, Instant.class, null, 0);
+		ParseError parseError = new ParseError();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "2017-09-20T10:15:30", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertEquals(2, parseError.getLinePos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPattern() {
+		InstantConverter converter = InstantConverter.getSingleton();
+		converter.configure("notagoodpattern", 0, null);
+	}
+}
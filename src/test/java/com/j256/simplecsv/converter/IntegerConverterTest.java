@@ -1,5 +1,6 @@
 package com.j256.simplecsv.converter;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
@@ -9,6 +10,7 @@ import org.junit.Test;
 
 import com.j256.simplecsv.processor.ColumnInfo;
 import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
 
 public class IntegerConverterTest extends AbstractConverterTest {
 
@@ -31,6 +33,17 @@ public class IntegerConverterTest extends AbstractConverterTest {
 		ParseError parseError = new ParseError();
 		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "notanumber", parseError));
 		assertTrue(parseError.isError());
+		assertEquals(2, parseError.getLinePos());
+
+		parseError.reset();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "2147483648", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+
+		columnInfo = ColumnInfo.forTests(converter, Integer.class, "###,##0", 0);
+		parseError.reset();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "notanumber", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertTrue(parseError.getMessage().contains("notanumber"));
 	}
 
 	private void testNumbers(IntegerConverter converter, String format) throws ParseException {
@@ -0,0 +1,131 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.Test;
+
+public class IsoDateTimeParserTest {
+
+	@Test
+	public void testLocalDate() {
+		String[] values = new String[] { "2017-09-20", "2016-02-29", "2000-02-29", "1900-02-28", "0000-01-01",
+				"9999-12-31", "2017-02-29", "1900-02-29", "2017-13-01", "2017-00-01", "2017-01-00", "2017-04-31",
+				"2017-9-20", "2017/09/20", "20170920", "2017-09-2a", "+12017-09-20", "2017-09-20T" };
+		for (String value : values) {
+			LocalDate expected;
+			try {
+				expected = LocalDate.from(DateTimeFormatter.ISO_LOCAL_DATE.parse(value));
+			} catch (DateTimeException dte) {
+				expected = null;
+			}
+			LocalDate result = IsoDateTimeParser.parseLocalDate(value);
+			if (result != null || !isFallback(value)) {
+				assertEquals(value, expected, result);
+			}
+		}
+	}
+
+	@Test
+	public void testLocalTime() {
+		String[] values = new String[] { "10:15", "10:15:30", "10:15:30.1", "10:15:30.123456789", "00:00",
+				"23:59:59.999999999", "24:00", "10:60", "10:15:60", "10:15:30.1234567891", "10:15:30.", "1:15",
+				"10-15", "10:15:3", "10:15:30Z" };
+		for (String value : values) {
+			LocalTime expected;
+			try {
+				expected = LocalTime.from(DateTimeFormatter.ISO_LOCAL_TIME.parse(value));
+			} catch (DateTimeException dte) {
+				expected = null;
+			}
+			LocalTime result = IsoDateTimeParser.parseLocalTime(value);
+			if (result != null) {
+				assertEquals(value, expected, result);
+			}
+		}
+		assertEquals(LocalTime.of(10, 15, 30, 100000000), IsoDateTimeParser.parseLocalTime("10:15:30.1"));
+		assertNull(IsoDateTimeParser.parseLocalTime("24:00"));
+	}
+
+	@Test
+	public void testLocalDateTime() {
+		String[] values = new String[] { "2017-09-20T10:15", "2017-09-20T10:15:30", "2017-09-20T10:15:30.123",
+				"2017-09-20 10:15:30", "2017-09-20T", "2017-02-29T10:15", "2017-09-20T10:15:30Z" };
+		for (String value : values) {
+			LocalDateTime expected;
+			try {
+				expected = LocalDateTime.from(DateTimeFormatter.ISO_LOCAL_DATE_TIME.parse(value));
+			} catch (DateTimeException dte) {
+				expected = null;
+			}
+			LocalDateTime result = IsoDateTimeParser.parseLocalDateTime(value);
+			if (result != null) {
+				assertEquals(value, expected, result);
+			}
+		}
+		assertEquals(LocalDateTime.of(2017, 9, 20, 10, 15, 30),
+				IsoDateTimeParser.parseLocalDateTime("2017-09-20T10:15:30"));
+	}
+
+	@Test
+	public void testInstant() {
+		String[] values = new String[] { "2017-09-20T10:15:30Z", "1970-01-01T00:00:00Z", "1969-12-31T23:59:59.5Z",
+				"0001-01-01T00:00:00Z", "2000-02-29T12:00:00.000000001Z", "2017-09-20T10:15Z", "2017-09-20T10:15:30",
+				"2017-09-20T10:15:30+01:00" };
+		for (String value : values) {
+			Instant expected;
+			try {
+				expected = Instant.from(DateTimeFormatter.ISO_INSTANT.parse(value));
+			} catch (DateTimeException dte) {
+				expected = null;
+			}
+			Instant result = IsoDateTimeParser.parseInstant(value);
+			if (result != null) {
+				assertEquals(value, expected, result);
+			}
+		}
+		assertEquals(Instant.ofEpochSecond(1505902530), IsoDateTimeParser.parseInstant("2017-09-20T10:15:30Z"));
+		// make sure our epoch-day calculation matches across a range of days
+		LocalDate date = LocalDate.of(1600, 1, 1);
+		for (int i = 0; i < 200000; i += 37) {
+			LocalDate current = date.plusDays(i);
+			Instant instant = IsoDateTimeParser.parseInstant(current + "T00:00:00Z");
+			assertEquals(current.toString(), current.toEpochDay() * 86400, instant.getEpochSecond());
+		}
+	}
+
+	@Test
+	public void testOffsetDateTime() {
+		String[] values = new String[] { "2017-09-20T10:15:30Z", "2017-09-20T10:15:30+01:00",
+				"2017-09-20T10:15:30-05:30", "2017-09-20T10:15+18:00", "2017-09-20T10:15+18:01",
+				"2017-09-20T10:15:30.5+01:00", "2017-09-20T10:15:30+0100", "2017-09-20T10:15:30" };
+		for (String value : values) {
+			OffsetDateTime expected;
+			try {
+				expected = OffsetDateTime.from(DateTimeFormatter.ISO_OFFSET_DATE_TIME.parse(value));
+			} catch (DateTimeException dte) {
+				expected = null;
+			}
+			OffsetDateTime result = IsoDateTimeParser.parseOffsetDateTime(value);
+			if (result != null) {
+				assertEquals(value, expected, result);
+			}
+		}
+		assertNull(IsoDateTimeParser.parseOffsetDateTime("2017-09-20T10:15+18:01"));
+	}
+
+	/**
+	 * Values that the hand-written parser does not handle and leaves to the formatter.
+	 */
+	private boolean isFallback(String value) {
+		return value.startsWith("+");
+	}
+}
@@ -0,0 +1,53 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+public class LocalDateConverterTest extends AbstractConverterTest {
+
+	@Test
+	public void testStuff() throws Exception {
+		LocalDateConverter converter = LocalDateConverter.getSingleton();
+		testConverter(converter, LocalDate.class, null, 0, LocalDate.of(2017, 9, 20));
+		testConverter(converter, LocalDate.class, null, 0, LocalDate.of(2016, 2, 29));
+		testConverter(converter, LocalDate.class, null, 0, LocalDate.of(1, 1, 1));
+		testConverter(converter, LocalDate.class, null, 0, null);
+		testConverter(converter, LocalDate.class, "dd/MM/uuuu", 0, LocalDate.of(2017, 9, 20));
+	}
+
+	@Test
+	public void testFormat() {
+		LocalDateConverter converter = LocalDateConverter.getSingleton();
+		ColumnInfo<LocalDate> columnInfo = ColumnInfo.forTests(converter, LocalDate.class, "dd/MM/uuuu", 0);
+		ParseError parseError = new ParseError();
+		assertEquals(LocalDate.of(2017, 9, 20),
+				converter.stringToJava("line", 1, 2, columnInfo, "20/09/2017", parseError));
+		assertFalse(parseError.isError());
+		assertEquals("20/09/2017", converter.javaToString(columnInfo, LocalDate.of(2017, 9, 20)));
+	}
+
+	@Test
+	public void testInvalid() {
+		LocalDateConverter converter = LocalDateConverter.getSingleton();
+		ColumnInfo<LocalDate> columnInfo = ColumnInfo.forTests(converter, LocalDate.class, null, 0);
+		ParseError parseError = new ParseError();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "2017-02-29", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertEquals(2, parseError.getLinePos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPattern() {
+		LocalDateConverter converter = LocalDateConverter.getSingleton();
+		converter.configure("notagoodpattern", 0, null);
+	}
+}
@@ -0,0 +1,54 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalDateTime;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+public class LocalDateTimeConverterTest extends AbstractConverterTest {
+
+	@Test
+	public void testStuff() throws Exception {
+		LocalDateTimeConverter converter = LocalDateTimeConverter.getSingleton();
+		testConverter(converter, LocalDateTime.class, null, 0, LocalDateTime.of(2017, 9, 20, 10, 15, 30));
+		testConverter(converter, LocalDateTime.class, null, 0, LocalDateTime.of(2017, 9, 20, 10, 15, 30, 123000000));
+		testConverter(converter, LocalDateTime.class, null, 0, LocalDateTime.of(2017, 9, 20, 0, 0));
+		testConverter(converter, LocalDateTime.class, null, 0, null);
+		testConverter(converter, LocalDateTime.class, "dd/MM/uuuu HH:mm", 0, LocalDateTime.of(2017, 9, 20, 10, 15));
+	}
+
+	@Test
+	public void testFormat() {
+		LocalDateTimeConverter converter = LocalDateTimeConverter.getSingleton();
+		ColumnInfo<LocalDateTime> columnInfo =
+				ColumnInfo.forTests(converter, LocalDateTime.class, "dd/MM/uuuu HH:mm", 0);
+		ParseError parseError = new ParseError();
+		assertEquals(LocalDateTime.of(2017, 9, 20, 10, 15),
+				converter.stringToJava("line", 1, 2, columnInfo, "20/09/2017 10:15", parseError));
+		assertFalse(parseError.isError());
+		assertEquals("20/09/2017 10:15", converter.javaToString(columnInfo, LocalDateTime.of(2017, 9, 20, 10, 15)));
+	}
+
+	@Test
+	public void testInvalid() {
+		LocalDateTimeConverter converter = LocalDateTimeConverter.getSingleton();
+		ColumnInfo<LocalDateTime> columnInfo = ColumnInfo.forTests(converter, LocalDateTime.class, null, 0);
+		ParseError parseError = new ParseError();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "2017-09-20T25:00", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertEquals(2, parseError.getLinePos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPattern() {
+		LocalDateTimeConverter converter = LocalDateTimeConverter.getSingleton();
+		converter.configure("notagoodpattern", 0, null);
+	}
+}
@@ -0,0 +1,52 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.time.LocalTime;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+public class LocalTimeConverterTest extends AbstractConverterTest {
+
+	@Test
+	public void testStuff() throws Exception {
+		LocalTimeConverter converter = LocalTimeConverter.getSingleton();
+		testConverter(converter, LocalTime.class, null, 0, LocalTime.of(10, 15, 30));
+		testConverter(converter, LocalTime.class, null, 0, LocalTime.of(23, 59, 59, 999999999));
+		testConverter(converter, LocalTime.class, null, 0, LocalTime.MIDNIGHT);
+		testConverter(converter, LocalTime.class, null, 0, null);
+		testConverter(converter, LocalTime.class, "hh:mm a", 0, LocalTime.of(22, 15));
+	}
+
+	@Test
+	public void testFormat() {
+		LocalTimeConverter converter = LocalTimeConverter.getSingleton();
+		ColumnInfo<LocalTime> columnInfo = ColumnInfo.forTests(converter, LocalTime.class, "hh:mm a", 0);
+		ParseError parseError = new ParseError();
+		assertEquals(LocalTime.of(22, 15), converter.stringToJava("line", 1, 2, columnInfo, "10:15 PM", parseError));
+		assertFalse(parseError.isError());
+		assertEquals("10:15 PM", converter.javaToString(columnInfo, LocalTime.of(22, 15)));
+	}
+
+	@Test
+	public void testInvalid() {
+		LocalTimeConverter converter = LocalTimeConverter.getSingleton();
+		ColumnInfo<LocalTime> columnInfo = ColumnInfo.forTests(converter, LocalTime.class, null, 0);
+		ParseError parseError = new ParseError();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "10:61", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertEquals(2, parseError.getLinePos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPattern() {
+		LocalTimeConverter converter = LocalTimeConverter.getSingleton();
+		converter.configure("notagoodpattern", 0, null);
+	}
+}
@@ -0,0 +1,57 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+public class OffsetDateTimeConverterTest extends AbstractConverterTest {
+
+	@Test
+	public void testStuff() throws Exception {
+		OffsetDateTimeConverter converter = OffsetDateTimeConverter.getSingleton();
+		testConverter(converter, OffsetDateTime.class, null, 0,
+				OffsetDateTime.of(2017, 9, 20, 10, 15, 30, 0, ZoneOffset.UTC));
+		testConverter(converter, OffsetDateTime.class, null, 0,
+				OffsetDateTime.of(2017, 9, 20, 10, 15, 30, 1000, ZoneOffset.ofHoursMinutes(-5, -30)));
+		testConverter(converter, OffsetDateTime.class, null, 0, null);
+		testConverter(converter, OffsetDateTime.class, "dd/MM/uuuu HH:mm xxx", 0,
+				OffsetDateTime.of(2017, 9, 20, 10, 15, 0, 0, ZoneOffset.ofHours(1)));
+	}
+
+	@Test
+	public void testFormat() {
+		OffsetDateTimeConverter converter = OffsetDateTimeConverter.getSingleton();
+		ColumnInfo<OffsetDateTime> columnInfo =
+				ColumnInfo.forTests(converter, OffsetDateTime.class, "dd/MM/uuuu HH:mm xxx", 0);
+		ParseError parseError = new ParseError();
+		OffsetDateTime dateTime = OffsetDateTime.of(2017, 9, 20, 10, 15, 0, 0, ZoneOffset.ofHours(1));
+		assertEquals(dateTime, converter.stringToJava("line", 1, 2, columnInfo, "20/09/2017 10:15 +01:00", parseError));
+		assertFalse(parseError.isError());
+		assertEquals("20/09/2017 10:15 +01:00", converter.javaToString(columnInfo, dateTime));
+	}
+
+	@Test
+	public void testInvalid() {
+		OffsetDateTimeConverter converter = OffsetDateTimeConverter.getSingleton();
+		ColumnInfo<OffsetDateTime> columnInfo = ColumnInfo.forTests(converter, OffsetDateTime.class, null, 0);
+		ParseError parseError = new ParseError();
+		assertNull(converter.stringToJava("line", 1, 2, columnInfo, "2017-09-20T10:15:30", parseError));
+		assertEquals(ErrorType.INVALID_FORMAT, parseError.getErrorType());
+		assertEquals(2, parseError.getLinePos());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidPattern() {
+		OffsetDateTimeConverter converter = OffsetDateTimeConverter.getSingleton();
+		converter.configure("notagoodpattern", 0, null);
+	}
+}
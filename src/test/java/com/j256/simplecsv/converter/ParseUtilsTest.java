@@ -0,0 +1,118 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+public class ParseUtilsTest {
+
+	@Test
+	public void testParseLong() {
+		String[] values = new String[] { "0", "1", "-1", "+1", "123456789", "-9223372036854775808",
+				"9223372036854775807", "9223372036854775808", "-9223372036854775809", "", "-", "+", "1a", "a1", " 1",
+				"1 ", "--1", "1.0", "\u0661\u0662" };
+		for (String value : values) {
+			testParseLong(value, Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+		values = new String[] { "2147483647", "2147483648", "-2147483648", "-2147483649", "99999999999" };
+		for (String value : values) {
+			testParseLong(value, Integer.MIN_VALUE, Integer.MAX_VALUE);
+		}
+		values = new String[] { "127", "128", "-128", "-129" };
+		for (String value : values) {
+			testParseLong(value, Byte.MIN_VALUE, Byte.MAX_VALUE);
+		}
+	}
+
+	@Test
+	public void testFloatingPoint() {
+		String[] values = new String[] { "0", "1.0", "-1.5", "+.5", "5.", "1e10", "1E-10", "1.5e+3", "1f", "1.0D",
+				" 1.0 ", "NaN", "-Infinity", "+Infinity", "", ".", "e5", "1e", "1e+", "1.0.0", "abc", "1x", "NaNa",
+				"Infinityy", "1ff" };
+		for (String value : values) {
+			boolean valid;
+			try {
+				Double.parseDouble(value);
+				valid = true;
+			} catch (NumberFormatException nfe) {
+				valid = false;
+			}
+			assertEquals(value, valid, ParseUtils.isFloatingPoint(value));
+		}
+		assertTrue(ParseUtils.isHexFloatingPoint("0x1.8p3"));
+		assertTrue(ParseUtils.isHexFloatingPoint("-0X1p1"));
+		assertFalse(ParseUtils.isHexFloatingPoint("01"));
+	}
+
+	@Test
+	public void testBigNumbers() {
+		String[] values = new String[] { "0", "1.0", "-1.5", "+.5", "5.", "1e10", "1E-10", "1.5e+3", "123", "-123",
+				"", ".", "e5", "1e", "1.0.0", "abc", "1f", " 1", "\u0661.\u0662" };
+		for (String value : values) {
+			boolean valid;
+			try {
+				new BigDecimal(value);
+				valid = true;
+			} catch (NumberFormatException nfe) {
+				valid = false;
+			}
+			assertEquals(value, valid, ParseUtils.isBigDecimal(value));
+			try {
+				new BigInteger(value);
+				valid = true;
+			} catch (NumberFormatException nfe) {
+				valid = false;
+			}
+			assertEquals(value, valid, ParseUtils.isBigInteger(value));
+		}
+	}
+
+	@Test
+	public void testParseDecimal() {
+		String[] values = new String[] { "0", "-0", "+0", "1.50", "-1.50", "0.00", "-0.00", ".5", "5.", "-.5",
+				"123456789012345678", "-123456789012345678", "1234567890.12345678", "0.000000000000000001",
+				"999999999999999999", "000000000000000000000001.5" };
+		for (String value : values) {
+			BigDecimal result = ParseUtils.parseDecimal(value, 0, value.length());
+			assertEquals(value, new BigDecimal(value), result);
+			assertEquals(value, new BigDecimal(value).scale(), result.scale());
+		}
+		// these need to fall back
+		values = new String[] { "1234567890123456789", "9223372036854775808", "1e5", "1.2.3", "-", ".", "", "1,000",
+				"\u0661" };
+		for (String value : values) {
+			assertNull(value, ParseUtils.parseDecimal(value, 0, value.length()));
+		}
+		assertEquals(new BigDecimal("12.34"), ParseUtils.parseDecimal("xx12.34yy", 2, 7));
+	}
+
+	private void testParseLong(String value, long min, long max) {
+		ParseError parseError = new ParseError();
+		long result = ParseUtils.parseLong(value, min, max, parseError);
+		Long expected;
+		try {
+			expected = Long.parseLong(value);
+			if (expected < min || expected > max) {
+				expected = null;
+			}
+		} catch (NumberFormatException nfe) {
+			expected = null;
+		}
+		if (expected == null) {
+			assertEquals(value, ErrorType.INVALID_FORMAT, parseError.getErrorType());
+			assertTrue(parseError.getMessage().contains(value));
+		} else {
+			assertFalse(value, parseError.isError());
+			assertEquals(expected.longValue(), result);
+		}
+	}
+}
@@ -2,11 +2,18 @@ package com.j256.simplecsv.converter;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+import java.util.List;
 
 import org.junit.Test;
 
+import com.j256.simplecsv.common.CsvColumn;
 import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.CsvProcessor;
 import com.j256.simplecsv.processor.ParseError;
 
 public class StringConverterTest extends AbstractConverterTest {
@@ -47,4 +54,35 @@ public class StringConverterTest extends AbstractConverterTest {
 		columnInfo = ColumnInfo.forTests(converter, String.class, null, StringConverter.TRIM_OUTPUT);
 		assertEquals(ok, converter.javaToString(columnInfo, spacedOk));
 	}
+
+	@Test
+	public void testDedupValues() throws Exception {
+		CsvProcessor<Country> processor = new CsvProcessor<Country>(Country.class);
+		String csv = "code,name\nUS,same\n\" US \",same\n\"U\"\"S\",three\n\"U\"\"S\",four\n";
+		List<Country> countries = processor.readAll(new StringReader(csv), null);
+		assertEquals(4, countries.size());
+		assertEquals("US", countries.get(0).code);
+		assertSame(countries.get(0).code, countries.get(1).code);
+		assertEquals("U\"S", countries.get(2).code);
+		assertSame(countries.get(2).code, countries.get(3).code);
+		// not deduplicated
+		assertNotSame(countries.get(0).name, countries.get(1).name);
+
+		StringConverter converter = StringConverter.getSingleton();
+		ColumnInfo<String> columnInfo =
+				ColumnInfo.forTests(converter, String.class, null, StringConverter.DEDUP_VALUES);
+		ParseError parseError = new ParseError();
+		String first = converter.rangeToJava("line", 1, 2, columnInfo, "xxUSDxx", 2, 5, parseError);
+		assertEquals("USD", first);
+		assertSame(first, converter.rangeToJava("line", 1, 2, columnInfo, "USD", 0, 3, parseError));
+		columnInfo = ColumnInfo.forTests(converter, String.class, null, 0);
+		assertNotSame(first, converter.rangeToJava("line", 1, 2, columnInfo, "USD", 0, 3, parseError));
+	}
+
+	public static class Country {
+		@CsvColumn(converterFlags = StringConverter.DEDUP_VALUES, trimInput = true)
+		String code;
+		@CsvColumn
+		String name;
+	}
 }
@@ -0,0 +1,43 @@
+package com.j256.simplecsv.converter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class StringDeduplicatorTest {
+
+	@Test
+	public void testStuff() {
+		StringDeduplicator deduplicator = new StringDeduplicator();
+		String first = deduplicator.dedup("xxUSDxx", 2, 5);
+		assertEquals("USD", first);
+		assertSame(first, deduplicator.dedup(new StringBuilder("USD"), 0, 3));
+		assertSame(first, deduplicator.dedup(new String("USD")));
+		assertEquals("EUR", deduplicator.dedup("EUR"));
+		assertEquals("", deduplicator.dedup("abc", 1, 1));
+	}
+
+	@Test
+	public void testCollision() {
+		// with a single slot each new value replaces the last one
+		StringDeduplicator deduplicator = new StringDeduplicator(1);
+		String usd = deduplicator.dedup(new String("USD"));
+		String eur = deduplicator.dedup(new String("EUR"));
+		assertEquals("EUR", eur);
+		String usd2 = deduplicator.dedup(new String("USD"));
+		assertEquals(usd, usd2);
+		assertNotSame(usd, usd2);
+		assertSame(usd2, deduplicator.dedup(new String("USD")));
+	}
+
+	@Test
+	public void testSameHash() {
+		// "Aa" and "BB" have the same hash-code
+		StringDeduplicator deduplicator = new StringDeduplicator();
+		assertEquals("Aa", deduplicator.dedup("Aa"));
+		assertEquals("BB", deduplicator.dedup("BB"));
+		assertEquals("Aa", deduplicator.dedup("Aa"));
+	}
+}
@@ -1,11 +1,18 @@
 package com.j256.simplecsv.converter;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.UUID;
 
 import org.junit.Test;
 
+import com.j256.simplecsv.processor.ColumnInfo;
+import com.j256.simplecsv.processor.ParseError;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
 public class UuidConverterTest extends AbstractConverterTest {
 
 	@Test
@@ -17,6 +24,48 @@ public class UuidConverterTest extends AbstractConverterTest {
 		testConverter(converter, UUID.class, null, 0, null);
 	}
 
+	@Test
+	public void testInvalid() {
+		UuidConverter converter = UuidConverter.getSingleton();
+		ColumnInfo<UUID> columnInfo = ColumnInfo.forTests(converter, UUID.class, null, 0);
+		String[] values = new String[] { "notauuid", "1-2-3-4", "1-2-3-4-5-6", "1--3-4-5",
+				"123456789-1234-1234-1234-123456789012", "12345678-1234-1234-1234-1234567890123", "g-1-1-1-1",
+				"+1-1-1-1-1", "12345678-1234-1234-1234-12345678901-" };
+		for (String value : values) {
+			ParseError parseError = new ParseError();
+			assertNull(value, converter.stringToJava("line", 1, 2, columnInfo, value, parseError));
+			assertEquals(value, ErrorType.INVALID_FORMAT, parseError.getErrorType());
+			assertEquals(2, parseError.getLinePos());
+		}
+		// short groups are allowed by UUID.fromString
+		ParseError parseError = new ParseError();
+		assertEquals(UUID.fromString("1-2-3-4-5"), converter.stringToJava("line", 1, 2, columnInfo, "1-2-3-4-5",
+				parseError));
+		assertFalse(parseError.isError());
+	}
+
+	@Test
+	public void testLikeJdk() {
+		UuidConverter converter = UuidConverter.getSingleton();
+		ColumnInfo<UUID> columnInfo = ColumnInfo.forTests(converter, UUID.class, null, 0);
+		String[] values = new String[] { "00000000-0000-0000-0000-000000000000", "ffffffff-ffff-ffff-ffff-ffffffffffff",
+				"FFFFFFFF-ABCD-EF01-2345-6789ABCDEF01", "1-2-3-4-5", "80000000-8000-8000-8000-800000000000" };
+		for (String value : values) {
+			UUID uuid = UUID.fromString(value);
+			assertEquals(value, uuid, UuidConverter.parseUuid(value, 0, value.length()));
+			assertEquals(uuid.toString(), converter.javaToString(columnInfo, uuid));
+		}
+		for (int i = 0; i < 1000; i++) {
+			UUID uuid = UUID.randomUUID();
+			String str = converter.javaToString(columnInfo, uuid);
+			assertEquals(uuid.toString(), str);
+			String line = "x," + str + ",y";
+			ParseError parseError = new ParseError();
+			assertEquals(uuid, converter.rangeToJava(line, 1, 2, columnInfo, line, 2, 2 + str.length(), parseError));
+			assertFalse(parseError.isError());
+		}
+	}
+
 	@Test
 	public void testConverage() {
 		UuidConverter converter = UuidConverter.getSingleton();
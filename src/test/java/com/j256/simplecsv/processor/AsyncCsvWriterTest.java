@@ -0,0 +1,209 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class AsyncCsvWriterTest {
+
+	@Test
+	public void testManyProducers() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringWriter writer = new StringWriter();
+		final AsyncCsvWriter<Row> asyncWriter = processor.newAsyncWriter(writer, true, 100, 1024, 10);
+		int numThreads = 4;
+		final int numPerThread = 5000;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < numThreads; i++) {
+			final int threadNum = i;
+			futures.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < numPerThread; j++) {
+							asyncWriter.write(new Row(threadNum * numPerThread + j, "value " + j));
+						}
+					} catch (IOException ioe) {
+						throw new RuntimeException(ioe);
+					}
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		asyncWriter.close();
+		assertEquals(numThreads * numPerThread, asyncWriter.getFlushedCount());
+
+		List<Row> rows = processor.readAll(new StringReader(writer.toString()), null);
+		assertEquals(numThreads * numPerThread, rows.size());
+		Collections.sort(rows, new Comparator<Row>() {
+			@Override
+			public int compare(Row row1, Row row2) {
+				return Integer.compare(row1.id, row2.id);
+			}
+		});
+		for (int i = 0; i < rows.size(); i++) {
+			assertEquals(i, rows.get(i).id);
+		}
+	}
+
+	@Test
+	public void testDrain() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringWriter writer = new StringWriter();
+		// long interval so only the drain causes the flush
+		AsyncCsvWriter<Row> asyncWriter = processor.newAsyncWriter(writer, false, 10, 1024, 1000000);
+		asyncWriter.write(new Row(1, "one"));
+		asyncWriter.drain();
+		assertEquals("1,\"one\"" + CsvProcessor.DEFAULT_LINE_TERMINATION, writer.toString());
+		assertEquals(1, asyncWriter.getFlushedCount());
+		asyncWriter.close();
+	}
+
+	@Test(timeout = 10000)
+	public void testFlushInterval() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringWriter writer = new StringWriter();
+		AsyncCsvWriter<Row> asyncWriter = processor.newAsyncWriter(writer, false, 10, 1024, 10);
+		asyncWriter.write(new Row(1, "one"));
+		while (asyncWriter.getFlushedCount() == 0) {
+			Thread.sleep(5);
+		}
+		asyncWriter.close();
+		assertEquals("1,\"one\"" + CsvProcessor.DEFAULT_LINE_TERMINATION, writer.toString());
+	}
+
+	@Test(timeout = 10000)
+	public void testBackpressure() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		final CountDownLatch latch = new CountDownLatch(1);
+		// writer that blocks until we release it so the queue fills up
+		StringWriter writer = new StringWriter() {
+			@Override
+			public void write(char[] chars, int offset, int length) {
+				try {
+					latch.await();
+				} catch (InterruptedException ie) {
+					Thread.currentThread().interrupt();
+				}
+				super.write(chars, offset, length);
+			}
+		};
+		AsyncCsvWriter<Row> asyncWriter = processor.newAsyncWriter(writer, false, 2, 1, 10);
+		int count = 0;
+		// keep filling until the background thread is stuck in the writer and the queue stays full
+		int added;
+		do {
+			added = 0;
+			while (asyncWriter.offer(new Row(count, "value"))) {
+				count++;
+				added++;
+			}
+			Thread.sleep(50);
+		} while (added > 0);
+		assertTrue(asyncWriter.getQueueSize() > 0);
+		assertFalse(asyncWriter.offer(new Row(count, "value"), 10, TimeUnit.MILLISECONDS));
+		latch.countDown();
+		asyncWriter.write(new Row(count, "value"));
+		count++;
+		asyncWriter.close();
+		assertEquals(count, writer.toString().split(CsvProcessor.DEFAULT_LINE_TERMINATION).length);
+	}
+
+	@Test
+	public void testFailure() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringWriter writer = new StringWriter() {
+			@Override
+			public void flush() {
+				throw new IllegalStateException("disk full");
+			}
+		};
+		AsyncCsvWriter<Row> asyncWriter = processor.newAsyncWriter(writer, false, 10, 1024, 10);
+		asyncWriter.write(new Row(1, "one"));
+		try {
+			asyncWriter.drain();
+			fail("should have thrown");
+		} catch (IOException ioe) {
+			// expected
+		}
+		try {
+			asyncWriter.write(new Row(2, "two"));
+			fail("should have thrown");
+		} catch (IOException ioe) {
+			// expected
+		}
+		try {
+			asyncWriter.close();
+			fail("should have thrown");
+		} catch (IOException ioe) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testEntityThrows() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class).withConverter(String.class,
+				new ParallelRowWriterTest.ThrowingConverter());
+		StringWriter writer = new StringWriter();
+		AsyncCsvWriter<Row> asyncWriter = processor.newAsyncWriter(writer, false, 10, 1024, 10);
+		asyncWriter.write(new Row(1, "first"));
+		asyncWriter.write(new Row(2, "bad"));
+		asyncWriter.write(new Row(3, "third"));
+		asyncWriter.drain();
+		assertEquals(3, asyncWriter.getFlushedCount());
+		assertEquals(1, asyncWriter.getSkippedCount());
+		assertTrue(asyncWriter.getLastSkipError() instanceof IllegalStateException);
+		// the writer keeps going after the bad entity
+		asyncWriter.write(new Row(4, "fourth"));
+		asyncWriter.close();
+		assertEquals("1,\"first\"" + CsvProcessor.DEFAULT_LINE_TERMINATION + "3,\"third\""
+				+ CsvProcessor.DEFAULT_LINE_TERMINATION + "4,\"fourth\"" + CsvProcessor.DEFAULT_LINE_TERMINATION,
+				writer.toString());
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws Exception {
+		AsyncCsvWriter<Row> asyncWriter = new CsvProcessor<Row>(Row.class).newAsyncWriter(new StringWriter(), false);
+		asyncWriter.close();
+		// second close does nothing
+		asyncWriter.close();
+		asyncWriter.write(new Row(1, "one"));
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+
+		public Row(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,127 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class ConcurrentCsvWriterTest {
+
+	@Test
+	public void testManyThreads() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringWriter writer = new StringWriter();
+		final ConcurrentCsvWriter<Row> concurrentWriter = processor.newConcurrentWriter(writer, true);
+		int numThreads = 8;
+		final int numPerThread = 10000;
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		List<Future<?>> futures = new ArrayList<Future<?>>();
+		for (int i = 0; i < numThreads; i++) {
+			final int threadNum = i;
+			futures.add(executor.submit(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < numPerThread; j++) {
+							// long values so rows span the stripe buffer boundaries
+							concurrentWriter.write(new Row(threadNum * numPerThread + j, "value, \"" + j + "\""));
+						}
+					} catch (IOException ioe) {
+						throw new RuntimeException(ioe);
+					}
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		concurrentWriter.close();
+
+		List<Row> rows = processor.readAll(new StringReader(writer.toString()), null);
+		assertEquals(numThreads * numPerThread, rows.size());
+		Collections.sort(rows, new Comparator<Row>() {
+			@Override
+			public int compare(Row row1, Row row2) {
+				return Integer.compare(row1.id, row2.id);
+			}
+		});
+		for (int i = 0; i < rows.size(); i++) {
+			assertEquals(i, rows.get(i).id);
+			assertEquals("value, \"" + (i % numPerThread) + "\"", rows.get(i).value);
+		}
+	}
+
+	@Test
+	public void testFlush() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringWriter writer = new StringWriter();
+		ConcurrentCsvWriter<Row> concurrentWriter = processor.newConcurrentWriter(writer, true);
+		String header = processor.buildHeaderLine(true);
+		assertEquals(header, writer.toString());
+		concurrentWriter.write(new Row(1, "one"));
+		assertEquals(header, writer.toString());
+		concurrentWriter.flush();
+		assertEquals(header + "1,\"one\"" + CsvProcessor.DEFAULT_LINE_TERMINATION, writer.toString());
+		concurrentWriter.close();
+		// second close and flush do nothing
+		concurrentWriter.close();
+		concurrentWriter.flush();
+	}
+
+	@Test
+	public void testWriteThrows() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class).withConverter(String.class,
+				new ParallelRowWriterTest.ThrowingConverter());
+		StringWriter writer = new StringWriter();
+		ConcurrentCsvWriter<Row> concurrentWriter = processor.newConcurrentWriter(writer, false);
+		concurrentWriter.write(new Row(1, "first"));
+		try {
+			concurrentWriter.write(new Row(2, "bad"));
+			fail("should have thrown");
+		} catch (IllegalStateException ise) {
+			// expected
+		}
+		// the failed row should not leave anything in the stripe
+		concurrentWriter.write(new Row(3, "third"));
+		concurrentWriter.close();
+		assertEquals("1,\"first\"" + CsvProcessor.DEFAULT_LINE_TERMINATION + "3,\"third\""
+				+ CsvProcessor.DEFAULT_LINE_TERMINATION, writer.toString());
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws Exception {
+		ConcurrentCsvWriter<Row> concurrentWriter =
+				new CsvProcessor<Row>(Row.class).newConcurrentWriter(new StringWriter(), false);
+		concurrentWriter.close();
+		concurrentWriter.write(new Row(1, "one"));
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+
+		public Row(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+}
@@ -0,0 +1,301 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class CsvAggregatorTest {
+
+	private static final int NUM_REGIONS = 50;
+
+	@Test
+	public void testEntities() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(5000);
+		CsvAggregator<Row> aggregator = newAggregator(processor);
+		AggregationResult result = aggregator.aggregate(rows.iterator());
+		assertResult(rows, result);
+		assertEquals(0, result.findGroup("region0"));
+		assertEquals(-1, result.findGroup("unknown"));
+	}
+
+	@Test
+	public void testEntitiesParallel() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(ParallelRowWriter.CHUNK_SIZE * 10 + 7);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			AggregationResult result = newAggregator(processor).withExecutor(executor).aggregate(rows.iterator());
+			assertResult(rows, result);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testReader() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(ParallelRowWriter.CHUNK_SIZE * 3 + 1);
+		StringWriter writer = new StringWriter();
+		processor.writeAll(writer, rows, true);
+		AggregationResult result = newAggregator(processor).aggregate(new StringReader(writer.toString()), null);
+		assertResult(rows, result);
+	}
+
+	@Test
+	public void testReaderParallel() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(ParallelRowWriter.CHUNK_SIZE * 10 + 7);
+		StringWriter writer = new StringWriter();
+		processor.writeAll(writer, rows, true);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			AggregationResult result = newAggregator(processor).withExecutor(executor)
+					.aggregate(new StringReader(writer.toString()), null);
+			assertResult(rows, result);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testMultipleKeysAndNulls() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		String input = "region,flag,amount,price\n" //
+				+ "a,1,5,1.5\n" //
+				+ "a,2,3,\n" //
+				+ "a,1,7,2.5\n" //
+				+ ",1,1,\n";
+		AggregationResult result = processor.newAggregator("region", "flag")
+				.withAggregate(AggregateFunction.SUM, "amount")
+				.withAggregate(AggregateFunction.COUNT, "price")
+				.withAggregate(AggregateFunction.MAX, "price")
+				.aggregate(new StringReader(input), null);
+		assertEquals(3, result.size());
+		assertEquals(2, result.getKeyCount());
+		assertEquals(3, result.getAggregateCount());
+
+		int group = result.findGroup("a", 1);
+		assertEquals(0, group);
+		assertEquals(2, result.getRowCount(group));
+		assertEquals(12, result.getLong(group, 0));
+		assertEquals(2, result.getLong(group, 1));
+		assertEquals(2.5, result.getDouble(group, 2), 0.0);
+
+		group = result.findGroup("a", 2);
+		assertEquals(1, group);
+		assertEquals(0, result.getLong(group, 1));
+		assertTrue(result.isNull(group, 2));
+		assertFalse(result.isNull(group, 1));
+
+		group = result.findGroup("", 1);
+		assertEquals(2, group);
+		assertEquals("", result.getKey(group, 0));
+		assertEquals(1, result.getKeys(group)[1]);
+	}
+
+	@Test
+	public void testNullKey() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(100);
+		rows.get(60).region = null;
+		rows.get(70).region = null;
+		AggregationResult result = processor.newAggregator("region").aggregate(rows.iterator());
+		int group = result.findGroup((Object) null);
+		assertEquals(NUM_REGIONS, group);
+		assertNull(result.getKey(group, 0));
+		assertEquals(2, result.getRowCount(group));
+	}
+
+	@Test
+	public void testNoKeys() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(1000);
+		AggregationResult result = processor.newAggregator()
+				.withAggregate(AggregateFunction.MIN, "amount")
+				.aggregate(rows.iterator());
+		assertEquals(1, result.size());
+		long min = Long.MAX_VALUE;
+		for (Row row : rows) {
+			min = Math.min(min, row.amount);
+		}
+		assertEquals(min, result.getLong(0, 0));
+		assertEquals(rows.size(), result.getRowCount(0));
+	}
+
+	@Test
+	public void testParseErrors() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		String input = "region,flag,amount,price\n" //
+				+ "a,1,5,1.5\n" //
+				+ "a,1,notanumber,1.5\n" //
+				+ "b,1,7,2.5\n";
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		AggregationResult result = processor.newAggregator("region")
+				.withAggregate(AggregateFunction.SUM, "amount")
+				.aggregate(new StringReader(input), parseErrors);
+		assertEquals(2, result.size());
+		assertEquals(5, result.getLong(result.findGroup("a"), 0));
+		assertEquals(1, parseErrors.size());
+		assertEquals(3, parseErrors.get(0).getLineNumber());
+
+		try {
+			processor.newAggregator("region").aggregate(new StringReader(input), null);
+			fail("should have thrown");
+		} catch (ParseException pe) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testAbort() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringBuilder sb = new StringBuilder("region,flag,amount,price\n");
+		for (int i = 0; i < 100; i++) {
+			sb.append("a,1,bad,1\n");
+		}
+		ParseErrorCollector collector = new ParseErrorCollector().withMaxErrors(10);
+		assertNull(processor.newAggregator("region").aggregate(new StringReader(sb.toString()), collector));
+		assertTrue(collector.isAborted());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNotNumeric() {
+		new CsvProcessor<Row>(Row.class).newAggregator("amount").withAggregate(AggregateFunction.SUM, "region");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testBigDecimalSum() {
+		new CsvProcessor<Money>(Money.class).newAggregator("region").withAggregate(AggregateFunction.SUM, "amount");
+	}
+
+	@Test
+	public void testBigDecimalCount() throws Exception {
+		AggregationResult result = new CsvProcessor<Money>(Money.class).newAggregator("region")
+				.withAggregate(AggregateFunction.COUNT, "amount")
+				.aggregate(new StringReader("region,amount\n" + "a,0.10\n" + "a,\n" + "a,0.20\n"), null);
+		assertEquals(2, result.getLong(result.findGroup("a"), 0));
+	}
+
+	@Test
+	public void testSumOverflow() throws Exception {
+		List<Row> rows = createRows(2);
+		rows.get(0).amount = Long.MAX_VALUE;
+		rows.get(1).region = rows.get(0).region;
+		rows.get(1).amount = 1;
+		try {
+			new CsvProcessor<Row>(Row.class).newAggregator("region")
+					.withAggregate(AggregateFunction.SUM, "amount")
+					.aggregate(rows.iterator());
+			fail("should have thrown");
+		} catch (ArithmeticException ae) {
+			// expected
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownColumn() {
+		new CsvProcessor<Row>(Row.class).newAggregator("unknown");
+	}
+
+	private CsvAggregator<Row> newAggregator(CsvProcessor<Row> processor) {
+		return processor.newAggregator("region")
+				.withAggregate(AggregateFunction.COUNT, "price")
+				.withAggregate(AggregateFunction.SUM, "amount")
+				.withAggregate(AggregateFunction.MIN, "amount")
+				.withAggregate(AggregateFunction.MAX, "price")
+				.withAggregate(AggregateFunction.SUM, "price");
+	}
+
+	private void assertResult(List<Row> rows, AggregationResult result) {
+		assertEquals(NUM_REGIONS, result.size());
+		for (int region = 0; region < NUM_REGIONS; region++) {
+			long rowCount = 0;
+			long priceCount = 0;
+			long sum = 0;
+			long min = Long.MAX_VALUE;
+			double maxPrice = Double.NEGATIVE_INFINITY;
+			double sumPrice = 0;
+			for (Row row : rows) {
+				if (!row.region.equals("region" + region)) {
+					continue;
+				}
+				rowCount++;
+				sum += row.amount;
+				min = Math.min(min, row.amount);
+				if (row.price != null) {
+					priceCount++;
+					maxPrice = Math.max(maxPrice, row.price);
+					sumPrice += row.price;
+				}
+			}
+			int group = result.findGroup("region" + region);
+			// groups are in the order they were first seen
+			assertEquals(region, group);
+			assertEquals("region" + region, result.getKey(group, 0));
+			assertEquals(rowCount, result.getRowCount(group));
+			assertEquals(priceCount, result.getLong(group, 0));
+			assertEquals(sum, result.getLong(group, 1));
+			assertEquals(min, result.getLong(group, 2));
+			assertEquals(maxPrice, result.getDouble(group, 3), 0.0);
+			assertEquals(sumPrice, result.getDouble(group, 4), 0.0001);
+		}
+	}
+
+	private List<Row> createRows(int numRows) {
+		Random random = new Random(5678);
+		List<Row> rows = new ArrayList<Row>(numRows);
+		for (int i = 0; i < numRows; i++) {
+			Row row = new Row();
+			// the first rows cover the regions in order so the group numbers are predictable
+			row.region = "region" + (i < NUM_REGIONS ? i : random.nextInt(NUM_REGIONS));
+			row.flag = random.nextInt(3);
+			row.amount = random.nextInt(2000) - 1000;
+			if (random.nextInt(4) != 0) {
+				row.price = random.nextInt(10000) / 100.0;
+			}
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	public static class Money {
+		@CsvColumn
+		String region;
+		@CsvColumn(mustBeSupplied = false)
+		BigDecimal amount;
+
+		public Money() {
+		}
+	}
+
+	public static class Row {
+		@CsvColumn
+		String region;
+		@CsvColumn
+		int flag;
+		@CsvColumn
+		long amount;
+		@CsvColumn(mustBeSupplied = false)
+		Double price;
+
+		public Row() {
+		}
+	}
+}
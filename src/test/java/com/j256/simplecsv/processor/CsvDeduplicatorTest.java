@@ -0,0 +1,257 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class CsvDeduplicatorTest {
+
+	@Test
+	public void testReadAll() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(20000, 3000);
+		StringWriter writer = new StringWriter();
+		processor.writeAll(writer, rows, true);
+		// start small so the set has to grow
+		List<Row> results = processor.newDeduplicator("region", "id")
+				.withExpectedKeys(10)
+				.readAll(new StringReader(writer.toString()), null);
+		assertEquals(expectedRows(rows), toStrings(results));
+	}
+
+	@Test
+	public void testFilter() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(5000, 1000);
+		StringWriter writer = new StringWriter();
+		processor.writeAll(writer, rows, true);
+		StringWriter output = new StringWriter();
+		long duplicateCount = processor.newDeduplicator("region", "id")
+				.filter(new StringReader(writer.toString()), output, null);
+		List<String> expected = expectedRows(rows);
+		assertEquals(rows.size() - expected.size(), duplicateCount);
+		// the filtered output should read back as the unique rows
+		assertEquals(expected, toStrings(processor.readAll(new StringReader(output.toString()), null)));
+	}
+
+	@Test
+	public void testBloomFilter() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(20000, 5000);
+		StringWriter writer = new StringWriter();
+		processor.writeAll(writer, rows, true);
+		List<Row> results = processor.newDeduplicator("region", "id")
+				.withExpectedKeys(5000)
+				.withFalsePositiveRate(0.01)
+				.readAll(new StringReader(writer.toString()), null);
+		List<String> expected = expectedRows(rows);
+		// no duplicates get through but a few unique rows may be dropped
+		Set<String> expectedSet = new HashSet<String>(expected);
+		Set<String> keys = new HashSet<String>();
+		for (Row row : results) {
+			assertTrue(expectedSet.contains(toString(row)));
+			assertTrue(keys.add(row.region + ":" + row.id));
+		}
+		assertTrue(results.size() > expected.size() * 0.95);
+	}
+
+	@Test
+	public void testQuotedKeys() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		String input = "region,id,value\n" //
+				+ "\"a,b\",1,c\n" //
+				+ "a,2,\"b,c\"\n" //
+				+ "\"a,b\",3,\"c\"\n" //
+				+ "\"a\"\"\",4,d\n" //
+				+ "a\",5,d\n";
+		List<Row> results = processor.newDeduplicator("region", "value").readAll(new StringReader(input), null);
+		assertEquals(3, results.size());
+		assertEquals(1, results.get(0).id);
+		assertEquals(2, results.get(1).id);
+		assertEquals(4, results.get(2).id);
+	}
+
+	@Test
+	public void testParseErrors() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		String input = "region,id,value\n" //
+				+ "a,bad,first\n" //
+				+ "a,bad,second\n" //
+				+ "a,1,third\n" //
+				+ "a,1,fourth\n";
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		List<Row> results = processor.newDeduplicator("region").readAll(new StringReader(input), parseErrors);
+		// rows that fail to parse do not count as seen
+		assertEquals(1, results.size());
+		assertEquals("third", results.get(0).value);
+		assertEquals(2, parseErrors.size());
+		assertEquals(2, parseErrors.get(0).getLineNumber());
+		assertEquals(3, parseErrors.get(1).getLineNumber());
+
+		try {
+			processor.newDeduplicator("region").readAll(new StringReader(input), null);
+			fail("should have thrown");
+		} catch (ParseException pe) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testFilterParseErrors() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		String input = "region,id,value\n" //
+				+ "\"a\"x,1,first\n" //
+				+ "b,1,second\n";
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		StringWriter output = new StringWriter();
+		assertEquals(0, processor.newDeduplicator("region").filter(new StringReader(input), output, parseErrors));
+		assertEquals("region,id,value\nb,1,second\n", output.toString());
+		assertEquals(1, parseErrors.size());
+		assertEquals(2, parseErrors.get(0).getLineNumber());
+
+		try {
+			processor.newDeduplicator("region").filter(new StringReader(input), new StringWriter(), null);
+			fail("should have thrown");
+		} catch (ParseException pe) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testAbort() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringBuilder sb = new StringBuilder("region,id,value\n");
+		for (int i = 0; i < 100; i++) {
+			sb.append("a").append(i).append(",bad,x\n");
+		}
+		ParseErrorCollector collector = new ParseErrorCollector().withMaxErrors(10);
+		assertNull(processor.newDeduplicator("region").readAll(new StringReader(sb.toString()), collector));
+		assertTrue(collector.isAborted());
+	}
+
+	@Test
+	public void testInvalidHeader() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		assertEquals(-1,
+				processor.newDeduplicator("id").filter(new StringReader(""), new StringWriter(), parseErrors));
+		assertEquals(1, parseErrors.size());
+		assertEquals(ParseError.ErrorType.NO_HEADER, parseErrors.get(0).getErrorType());
+	}
+
+	@Test
+	public void testKeyColumnNotInHeader() throws Exception {
+		CsvProcessor<OptionalId> processor = new CsvProcessor<OptionalId>(OptionalId.class);
+		String input = "name\n" + "x\n" + "y\n" + "z\n";
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		assertNull(processor.newDeduplicator("id").readAll(new StringReader(input), parseErrors));
+		assertEquals(1, parseErrors.size());
+		assertEquals(ParseError.ErrorType.INVALID_HEADER, parseErrors.get(0).getErrorType());
+		assertEquals(1, parseErrors.get(0).getLineNumber());
+
+		parseErrors.clear();
+		StringWriter output = new StringWriter();
+		assertEquals(-1, processor.newDeduplicator("id").filter(new StringReader(input), output, parseErrors));
+		assertEquals(1, parseErrors.size());
+		assertEquals("", output.toString());
+
+		try {
+			processor.newDeduplicator("id").readAll(new StringReader(input), null);
+			fail("should have thrown");
+		} catch (ParseException pe) {
+			// expected
+		}
+		// the other key columns are fine
+		assertEquals(3, processor.newDeduplicator("name").readAll(new StringReader(input), null).size());
+	}
+
+	@Test
+	public void testHashKey() {
+		assertFalse(CsvDeduplicator.hashKey("ab\0c\0") == CsvDeduplicator.hashKey("a\0bc\0"));
+		assertEquals(CsvDeduplicator.hashKey("abc"), CsvDeduplicator.hashKey(new StringBuilder("abc")));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownColumn() {
+		new CsvProcessor<Row>(Row.class).newDeduplicator("unknown");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testNoColumns() {
+		new CsvProcessor<Row>(Row.class).newDeduplicator();
+	}
+
+	private List<String> expectedRows(List<Row> rows) {
+		Set<String> keys = new HashSet<String>();
+		List<String> expected = new ArrayList<String>();
+		for (Row row : rows) {
+			if (keys.add(row.region + ":" + row.id)) {
+				expected.add(toString(row));
+			}
+		}
+		return expected;
+	}
+
+	private List<String> toStrings(List<Row> rows) {
+		List<String> strings = new ArrayList<String>(rows.size());
+		for (Row row : rows) {
+			strings.add(toString(row));
+		}
+		return strings;
+	}
+
+	private String toString(Row row) {
+		return row.region + ":" + row.id + ":" + row.value;
+	}
+
+	private List<Row> createRows(int numRows, int numKeys) {
+		Random random = new Random(8765);
+		List<Row> rows = new ArrayList<Row>(numRows);
+		for (int i = 0; i < numRows; i++) {
+			Row row = new Row();
+			int key = random.nextInt(numKeys);
+			row.region = "region" + (key % 7);
+			row.id = key;
+			row.value = "value" + i;
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	public static class Row {
+		@CsvColumn
+		String region;
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+	}
+
+	public static class OptionalId {
+		@CsvColumn(mustBeSupplied = false)
+		Integer id;
+		@CsvColumn
+		String name;
+
+		public OptionalId() {
+		}
+	}
+}
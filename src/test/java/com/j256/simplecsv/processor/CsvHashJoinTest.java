@@ -0,0 +1,278 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class CsvHashJoinTest {
+
+	@Test
+	public void testInMemory() throws Exception {
+		CsvProcessor<Fact> factProcessor = new CsvProcessor<Fact>(Fact.class);
+		CsvProcessor<Dimension> dimensionProcessor = new CsvProcessor<Dimension>(Dimension.class);
+		List<Fact> facts = createFacts(2000, 120);
+		List<Dimension> dimensions = createDimensions(100);
+		CsvHashJoin<Fact, Dimension> join = factProcessor.newHashJoin("dimensionId", dimensionProcessor, "id");
+		List<String> pairs = join(factProcessor, dimensionProcessor, join, facts, dimensions);
+		List<String> expected = expectedPairs(facts, dimensions, false);
+		// in memory the probe order is kept
+		assertEquals(expected, pairs);
+	}
+
+	@Test
+	public void testSpill() throws Exception {
+		CsvProcessor<Fact> factProcessor = new CsvProcessor<Fact>(Fact.class);
+		CsvProcessor<Dimension> dimensionProcessor = new CsvProcessor<Dimension>(Dimension.class);
+		List<Fact> facts = createFacts(5000, 1200);
+		List<Dimension> dimensions = createDimensions(1000);
+		File directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		try {
+			CsvHashJoin<Fact, Dimension> join = factProcessor.newHashJoin("dimensionId", dimensionProcessor, "id")
+					.withMaxBuildSize(2000)
+					.withNumPartitions(4)
+					.withTempDirectory(directory);
+			List<String> pairs = join(factProcessor, dimensionProcessor, join, facts, dimensions);
+			List<String> expected = expectedPairs(facts, dimensions, false);
+			Collections.sort(pairs);
+			Collections.sort(expected);
+			assertEquals(expected, pairs);
+			// partition files should be cleaned up
+			assertEquals(0, directory.list().length);
+		} finally {
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testSpillMultipleLevels() throws Exception {
+		CsvProcessor<Fact> factProcessor = new CsvProcessor<Fact>(Fact.class);
+		CsvProcessor<Dimension> dimensionProcessor = new CsvProcessor<Dimension>(Dimension.class);
+		List<Fact> facts = createFacts(5000, 2400);
+		List<Dimension> dimensions = createDimensions(2000);
+		File directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		try {
+			// small enough that the partitions have to be split more than once
+			CsvHashJoin<Fact, Dimension> join = factProcessor.newHashJoin("dimensionId", dimensionProcessor, "id")
+					.withMaxBuildSize(500)
+					.withNumPartitions(4)
+					.withTempDirectory(directory);
+			List<String> pairs = join(factProcessor, dimensionProcessor, join, facts, dimensions);
+			List<String> expected = expectedPairs(facts, dimensions, false);
+			Collections.sort(pairs);
+			Collections.sort(expected);
+			assertEquals(expected, pairs);
+			assertEquals(0, directory.list().length);
+		} finally {
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testPartitionSpread() {
+		int numPartitions = 16;
+		for (int depth = 0; depth < 3; depth++) {
+			// take the keys that all went to one partition and split them again
+			int[] counts = new int[numPartitions];
+			int total = 0;
+			for (int key = 0; key < 1000000; key++) {
+				int keyHash = Integer.valueOf(key).hashCode();
+				if (CsvHashJoin.partition(keyHash, depth, numPartitions) == 3) {
+					counts[CsvHashJoin.partition(keyHash, depth + 1, numPartitions)]++;
+					total++;
+				}
+			}
+			for (int count : counts) {
+				// expect about 1/16th of the keys in each
+				assertTrue("partition count " + count + " of " + total, count > total / 32 && count < total / 8);
+			}
+		}
+	}
+
+	@Test
+	public void testLeftOuterJoin() throws Exception {
+		CsvProcessor<Fact> factProcessor = new CsvProcessor<Fact>(Fact.class);
+		CsvProcessor<Dimension> dimensionProcessor = new CsvProcessor<Dimension>(Dimension.class);
+		List<Fact> facts = createFacts(3000, 600);
+		List<Dimension> dimensions = createDimensions(500);
+		CsvHashJoin<Fact, Dimension> join =
+				factProcessor.newHashJoin("dimensionId", dimensionProcessor, "id").withLeftOuterJoin(true);
+		List<String> expected = expectedPairs(facts, dimensions, true);
+		assertEquals(expected, join(factProcessor, dimensionProcessor, join, facts, dimensions));
+
+		join.setMaxBuildSize(1000);
+		List<String> pairs = join(factProcessor, dimensionProcessor, join, facts, dimensions);
+		Collections.sort(pairs);
+		Collections.sort(expected);
+		assertEquals(expected, pairs);
+	}
+
+	@Test
+	public void testDuplicateBuildKeys() throws Exception {
+		CsvProcessor<Fact> factProcessor = new CsvProcessor<Fact>(Fact.class);
+		CsvProcessor<Dimension> dimensionProcessor = new CsvProcessor<Dimension>(Dimension.class);
+		String factInput = "id,dimensionId\n" + "1,10\n" + "2,20\n" + "3,\n";
+		String dimensionInput = "id,name\n" + "10,a\n" + "10,b\n" + "30,c\n" + ",d\n";
+		final List<String> pairs = new ArrayList<String>();
+		CsvHashJoin<Fact, Dimension> join =
+				factProcessor.newHashJoin("dimensionId", dimensionProcessor, "id").withLeftOuterJoin(true);
+		assertTrue(join.join(new StringReader(factInput), new StringReader(dimensionInput),
+				new JoinHandler<Fact, Dimension>() {
+					@Override
+					public void joined(Fact fact, Dimension dimension) {
+						pairs.add(fact.id + ":" + (dimension == null ? null : dimension.name));
+					}
+				}, null));
+		// null keys never match
+		assertEquals(4, pairs.size());
+		assertEquals("1:a", pairs.get(0));
+		assertEquals("1:b", pairs.get(1));
+		assertEquals("2:null", pairs.get(2));
+		assertEquals("3:null", pairs.get(3));
+	}
+
+	@Test
+	public void testParseErrors() throws Exception {
+		CsvProcessor<Fact> factProcessor = new CsvProcessor<Fact>(Fact.class);
+		CsvProcessor<Dimension> dimensionProcessor = new CsvProcessor<Dimension>(Dimension.class);
+		String factInput = "id,dimensionId\n" + "1,10\n" + "2,bad\n";
+		String dimensionInput = "id,name\n" + "bad,a\n" + "10,b\n";
+		CsvHashJoin<Fact, Dimension> join = factProcessor.newHashJoin("dimensionId", dimensionProcessor, "id");
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		final List<String> pairs = new ArrayList<String>();
+		assertTrue(join.join(new StringReader(factInput), new StringReader(dimensionInput),
+				new JoinHandler<Fact, Dimension>() {
+					@Override
+					public void joined(Fact fact, Dimension dimension) {
+						pairs.add(fact.id + ":" + dimension.name);
+					}
+				}, parseErrors));
+		assertEquals(Collections.singletonList("1:b"), pairs);
+		assertEquals(2, parseErrors.size());
+
+		try {
+			join.join(new StringReader(factInput), new StringReader(dimensionInput), new CountingHandler(), null);
+			fail("should have thrown");
+		} catch (ParseException pe) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testInvalidHeader() throws Exception {
+		CsvProcessor<Fact> factProcessor = new CsvProcessor<Fact>(Fact.class);
+		CsvProcessor<Dimension> dimensionProcessor = new CsvProcessor<Dimension>(Dimension.class);
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		CountingHandler handler = new CountingHandler();
+		assertFalse(factProcessor.newHashJoin("dimensionId", dimensionProcessor, "id")
+				.join(new StringReader("id,dimensionId\n1,10\n"), new StringReader(""), handler, parseErrors));
+		assertEquals(0, handler.count);
+		assertEquals(1, parseErrors.size());
+		assertEquals(ParseError.ErrorType.NO_HEADER, parseErrors.get(0).getErrorType());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeyTypesDiffer() {
+		new CsvProcessor<Fact>(Fact.class).newHashJoin("id", new CsvProcessor<Dimension>(Dimension.class), "name");
+	}
+
+	private List<String> join(CsvProcessor<Fact> factProcessor, CsvProcessor<Dimension> dimensionProcessor,
+			CsvHashJoin<Fact, Dimension> join, List<Fact> facts, List<Dimension> dimensions) throws Exception {
+		StringWriter factWriter = new StringWriter();
+		factProcessor.writeAll(factWriter, facts, true);
+		StringWriter dimensionWriter = new StringWriter();
+		dimensionProcessor.writeAll(dimensionWriter, dimensions, true);
+		final List<String> pairs = new ArrayList<String>();
+		assertTrue(join.join(new StringReader(factWriter.toString()), new StringReader(dimensionWriter.toString()),
+				new JoinHandler<Fact, Dimension>() {
+					@Override
+					public void joined(Fact fact, Dimension dimension) {
+						pairs.add(fact.id + ":" + (dimension == null ? null : dimension.name));
+					}
+				}, null));
+		return pairs;
+	}
+
+	private List<String> expectedPairs(List<Fact> facts, List<Dimension> dimensions, boolean leftOuterJoin) {
+		List<String> pairs = new ArrayList<String>();
+		for (Fact fact : facts) {
+			boolean matched = false;
+			for (Dimension dimension : dimensions) {
+				if (fact.dimensionId.equals(dimension.id)) {
+					pairs.add(fact.id + ":" + dimension.name);
+					matched = true;
+				}
+			}
+			if (!matched && leftOuterJoin) {
+				pairs.add(fact.id + ":null");
+			}
+		}
+		return pairs;
+	}
+
+	private List<Fact> createFacts(int numFacts, int maxDimensionId) {
+		Random random = new Random(4321);
+		List<Fact> facts = new ArrayList<Fact>(numFacts);
+		for (int i = 0; i < numFacts; i++) {
+			Fact fact = new Fact();
+			fact.id = i;
+			fact.dimensionId = random.nextInt(maxDimensionId);
+			facts.add(fact);
+		}
+		return facts;
+	}
+
+	private List<Dimension> createDimensions(int numDimensions) {
+		List<Dimension> dimensions = new ArrayList<Dimension>(numDimensions);
+		for (int i = 0; i < numDimensions; i++) {
+			Dimension dimension = new Dimension();
+			dimension.id = i;
+			dimension.name = "name" + i;
+			dimensions.add(dimension);
+		}
+		return dimensions;
+	}
+
+	private static class CountingHandler implements JoinHandler<Fact, Dimension> {
+		int count;
+
+		@Override
+		public void joined(Fact fact, Dimension dimension) {
+			count++;
+		}
+	}
+
+	public static class Fact {
+		@CsvColumn
+		int id;
+		@CsvColumn(mustBeSupplied = false)
+		Integer dimensionId;
+
+		public Fact() {
+		}
+	}
+
+	public static class Dimension {
+		@CsvColumn(mustBeSupplied = false)
+		Integer id;
+		@CsvColumn
+		String name;
+
+		public Dimension() {
+		}
+	}
+}
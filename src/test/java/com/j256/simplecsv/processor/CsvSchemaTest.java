@@ -0,0 +1,202 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class CsvSchemaTest {
+
+	@Test
+	public void testSessionsAreIndependent() throws Exception {
+		CsvProcessor<TwoValues> processor = new CsvProcessor<TwoValues>(TwoValues.class).withFlexibleOrder(true);
+		CsvSchema<TwoValues> schema = processor.getSchema();
+
+		BufferedReader reader1 = new BufferedReaderLineCounter(new StringReader("first,second\n1,2\n3,4\n"));
+		BufferedReader reader2 = new BufferedReaderLineCounter(new StringReader("second,first\n5,6\n7,8\n"));
+		CsvReadSession<TwoValues> session1 = schema.newReadSession();
+		CsvReadSession<TwoValues> session2 = schema.newReadSession();
+		session1.readHeader(reader1, null);
+		session2.readHeader(reader2, null);
+
+		// interleave the reads
+		TwoValues values = session1.readRow(reader1, null);
+		assertEquals(1, values.first);
+		assertEquals(2, values.second);
+		values = session2.readRow(reader2, null);
+		assertEquals(6, values.first);
+		assertEquals(5, values.second);
+		values = session1.readRow(reader1, null);
+		assertEquals(3, values.first);
+		assertEquals(4, values.second);
+		values = session2.readRow(reader2, null);
+		assertEquals(8, values.first);
+		assertEquals(7, values.second);
+	}
+
+	@Test
+	public void testConcurrentReadAll() throws Exception {
+		final CsvSchema<TwoValues> schema =
+				new CsvProcessor<TwoValues>(TwoValues.class).withFlexibleOrder(true).getSchema();
+		final List<Throwable> failures = new ArrayList<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 8; i++) {
+			final boolean swapped = (i % 2 == 0);
+			Thread thread = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < 200; j++) {
+							String csv;
+							if (swapped) {
+								csv = "second,first\n" + j + "," + (j + 1) + "\n";
+							} else {
+								csv = "first,second\n" + (j + 1) + "," + j + "\n";
+							}
+							List<TwoValues> results = schema.readAll(new StringReader(csv), null);
+							assertEquals(1, results.size());
+							assertEquals(j + 1, results.get(0).first);
+							assertEquals(j, results.get(0).second);
+						}
+					} catch (Throwable th) {
+						synchronized (failures) {
+							failures.add(th);
+						}
+					}
+				}
+			};
+			thread.start();
+			threads.add(thread);
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+	}
+
+	@Test
+	public void testSchemaRebuiltOnChange() {
+		CsvProcessor<TwoValues> processor = new CsvProcessor<TwoValues>(TwoValues.class);
+		CsvSchema<TwoValues> schema = processor.getSchema();
+		assertSame(schema, processor.getSchema());
+		processor.setColumnSeparator('|');
+		CsvSchema<TwoValues> newSchema = processor.getSchema();
+		assertNotSame(schema, newSchema);
+		// the old schema is not changed
+		assertEquals("\"first\",\"second\"", schema.buildHeaderLine(false));
+		assertEquals("\"first\"|\"second\"", newSchema.buildHeaderLine(false));
+	}
+
+	@Test
+	public void testAppendLine() throws Exception {
+		CsvSchema<Mixed> schema = new CsvProcessor<Mixed>(Mixed.class).withLineTermination("\n").getSchema();
+		OutputBuffer buffer = new OutputBuffer(4);
+		schema.appendHeaderLine(buffer, true);
+		Mixed mixed = new Mixed();
+		mixed.number = -12;
+		mixed.str = "a\"b";
+		mixed.uuid = UUID.fromString("01234567-89ab-cdef-0123-456789abcdef");
+		mixed.color = Color.RED;
+		schema.appendLine(buffer, mixed, true);
+		schema.appendLine(buffer, new Mixed(), true);
+		assertEquals("\"number\",\"str\",\"uuid\",\"color\"\n"
+				+ "-12,\"a\"\"b\",\"01234567-89ab-cdef-0123-456789abcdef\",\"RED\"\n" + "0,\"\",\"\",\"\"\n",
+				buffer.toString());
+		assertEquals("-12,\"a\"\"b\",\"01234567-89ab-cdef-0123-456789abcdef\",\"RED\"",
+				schema.buildLine(mixed, false));
+
+		// enough rows that the buffer is written more than once
+		List<Mixed> entities = new ArrayList<Mixed>();
+		for (int i = 0; i < 1000; i++) {
+			Mixed entity = new Mixed();
+			entity.number = i;
+			entity.str = "row " + i + ", with comma";
+			entity.uuid = UUID.randomUUID();
+			entity.color = Color.values()[i % 2];
+			entities.add(entity);
+		}
+		StringWriter writer = new StringWriter();
+		schema.writeAll(writer, entities, true);
+		List<Mixed> results = schema.readAll(new StringReader(writer.toString()), null);
+		assertEquals(entities.size(), results.size());
+		for (int i = 0; i < entities.size(); i++) {
+			assertEquals(entities.get(i).number, results.get(i).number);
+			assertEquals(entities.get(i).str, results.get(i).str);
+			assertEquals(entities.get(i).uuid, results.get(i).uuid);
+			assertEquals(entities.get(i).color, results.get(i).color);
+		}
+	}
+
+	@Test
+	public void testSafeColumnsQuoting() throws Exception {
+		CsvProcessor<TwoValues> processor = new CsvProcessor<TwoValues>(TwoValues.class);
+		TwoValues values = new TwoValues();
+		values.first = -1;
+		values.second = 2;
+		// the integers can't have a comma so they are not scanned
+		assertEquals("-1,2", processor.buildLine(values, false));
+		// but they can have a dash so they have to be
+		processor.setColumnSeparator('-');
+		String line = processor.buildLine(values, false);
+		assertEquals("\"-1\"-2", line);
+		TwoValues read = processor.processRow(line, null);
+		assertEquals(-1, read.first);
+		assertEquals(2, read.second);
+	}
+
+	@Test
+	public void testAppendLineRollsBack() {
+		CsvSchema<ParallelRowWriterTest.Row> schema = new CsvProcessor<ParallelRowWriterTest.Row>(
+				ParallelRowWriterTest.Row.class).withConverter(String.class,
+						new ParallelRowWriterTest.ThrowingConverter()).getSchema();
+		OutputBuffer buffer = new OutputBuffer();
+		schema.appendLine(buffer, new ParallelRowWriterTest.Row(1, "ok"), false);
+		buffer.append('\n');
+		try {
+			schema.appendLine(buffer, new ParallelRowWriterTest.Row(2, "bad"), false);
+			fail("should have thrown");
+		} catch (IllegalStateException ise) {
+			// expected
+		}
+		// the partial row should not be left in the buffer
+		schema.appendLine(buffer, new ParallelRowWriterTest.Row(3, "ok"), false);
+		assertEquals("1,\"ok\"\n3,\"ok\"", buffer.toString());
+	}
+
+	public static class Mixed {
+		@CsvColumn
+		int number;
+		@CsvColumn
+		String str;
+		@CsvColumn
+		UUID uuid;
+		@CsvColumn
+		Color color;
+	}
+
+	public enum Color {
+		RED,
+		GREEN,
+		// end
+		;
+	}
+
+	public static class TwoValues {
+		@CsvColumn
+		int first;
+		@CsvColumn
+		int second;
+	}
+}
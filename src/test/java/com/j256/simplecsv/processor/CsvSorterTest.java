@@ -0,0 +1,247 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class CsvSorterTest {
+
+	@Test
+	public void testInMemory() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(100);
+		List<Row> sorted = sort(processor, processor.newSorter("amount"), rows);
+		assertSorted(rows, sorted);
+	}
+
+	@Test
+	public void testSpills() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(5000);
+		File directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		try {
+			CsvSorter<Row> sorter = processor.newSorter("amount").withMaxRunSize(2000).withTempDirectory(directory);
+			assertSorted(rows, sort(processor, sorter, rows));
+			// spills should be cleaned up
+			assertEquals(0, directory.list().length);
+		} finally {
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testMultiPassMerge() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(5000);
+		CsvSorter<Row> sorter = processor.newSorter("amount").withMaxRunSize(500).withMaxMergeWidth(3);
+		assertSorted(rows, sort(processor, sorter, rows));
+	}
+
+	@Test
+	public void testMultiPassMergeFailure() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(5000);
+		File directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		try {
+			CsvSorter<Row> sorter = processor.newSorter(new Comparator<Row>() {
+				private int mergeCount;
+
+				@Override
+				public int compare(Row row1, Row row2) {
+					// fail in the middle of the first merge pass after a merged run has been created
+					for (StackTraceElement element : new Throwable().getStackTrace()) {
+						if (element.getMethodName().equals("mergeSources") && ++mergeCount > 2000) {
+							throw new IllegalStateException("merge failed");
+						}
+					}
+					return Long.compare(row1.amount, row2.amount);
+				}
+			}).withMaxRunSize(500).withMaxMergeWidth(3).withTempDirectory(directory);
+			try {
+				sort(processor, sorter, rows);
+				fail("should have thrown");
+			} catch (IllegalStateException ise) {
+				// expected
+			}
+			// the merged runs should be cleaned up as well as the spills
+			assertEquals(0, directory.list().length);
+		} finally {
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testCompressedSpills() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(5000);
+		CsvSorter<Row> sorter = processor.newSorter("amount").withMaxRunSize(3000).withCompressSpills(true);
+		assertSorted(rows, sort(processor, sorter, rows));
+	}
+
+	@Test
+	public void testExecutor() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(10000);
+		ExecutorService executor = Executors.newFixedThreadPool(3);
+		try {
+			CsvSorter<Row> sorter = processor.newSorter("amount").withMaxRunSize(4000).withExecutor(executor);
+			assertSorted(rows, sort(processor, sorter, rows));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testMultipleColumns() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(3000);
+		List<Row> sorted = sort(processor, processor.newSorter("name", "amount").withMaxRunSize(1000), rows);
+		assertEquals(rows.size(), sorted.size());
+		for (int i = 1; i < sorted.size(); i++) {
+			Row prev = sorted.get(i - 1);
+			Row row = sorted.get(i);
+			int result = prev.name.compareTo(row.name);
+			assertTrue(result <= 0);
+			if (result == 0) {
+				assertTrue(prev.amount <= row.amount);
+			}
+		}
+	}
+
+	@Test
+	public void testComparator() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(2000);
+		CsvSorter<Row> sorter = processor.newSorter(new Comparator<Row>() {
+			@Override
+			public int compare(Row row1, Row row2) {
+				return Integer.compare(row2.id, row1.id);
+			}
+		}).withMaxRunSize(1000);
+		List<Row> sorted = sort(processor, sorter, rows);
+		for (int i = 0; i < sorted.size(); i++) {
+			assertEquals(rows.size() - 1 - i, sorted.get(i).id);
+		}
+	}
+
+	@Test
+	public void testLinesUnchanged() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class).withLineTermination("\n");
+		String input = "id,name,amount\n" + "1,\"b, c\",3\n" + "2,a,10\n" + "3,c,2\n";
+		StringWriter writer = new StringWriter();
+		processor.newSorter("amount").sort(new StringReader(input), writer, null);
+		assertEquals("id,name,amount\n" + "3,c,2\n" + "1,\"b, c\",3\n" + "2,a,10\n", writer.toString());
+	}
+
+	@Test
+	public void testParseErrors() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class).withLineTermination("\n");
+		String input = "id,name,amount\n" + "1,b,3\n" + "2,a,notanumber\n" + "3,c,2\n";
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		StringWriter writer = new StringWriter();
+		processor.newSorter("amount").sort(new StringReader(input), writer, parseErrors);
+		assertEquals("id,name,amount\n" + "3,c,2\n" + "1,b,3\n", writer.toString());
+		assertEquals(1, parseErrors.size());
+		assertEquals(3, parseErrors.get(0).getLineNumber());
+
+		try {
+			processor.newSorter("amount").sort(new StringReader(input), new StringWriter(), null);
+			fail("should have thrown");
+		} catch (ParseException pe) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testNoHeader() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<ParseError> parseErrors = new ArrayList<ParseError>();
+		StringWriter writer = new StringWriter();
+		processor.newSorter("amount").sort(new StringReader(""), writer, parseErrors);
+		assertEquals("", writer.toString());
+		assertEquals(1, parseErrors.size());
+		assertEquals(ParseError.ErrorType.NO_HEADER, parseErrors.get(0).getErrorType());
+	}
+
+	@Test
+	public void testNulls() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class).withLineTermination("\n");
+		String input = "id,name,amount\n" + "1,b,3\n" + "2,,10\n" + "3,a,2\n";
+		StringWriter writer = new StringWriter();
+		processor.newSorter("name").sort(new StringReader(input), writer, null);
+		assertEquals("id,name,amount\n" + "2,,10\n" + "3,a,2\n" + "1,b,3\n", writer.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownColumn() {
+		new CsvProcessor<Row>(Row.class).newSorter("unknown");
+	}
+
+	private List<Row> sort(CsvProcessor<Row> processor, CsvSorter<Row> sorter, List<Row> rows) throws Exception {
+		StringWriter input = new StringWriter();
+		processor.writeAll(input, rows, true);
+		StringWriter output = new StringWriter();
+		sorter.sort(new StringReader(input.toString()), output, null);
+		return processor.readAll(new StringReader(output.toString()), null);
+	}
+
+	/**
+	 * Sorted by amount and stable so the ids with the same amount are in increasing order.
+	 */
+	private void assertSorted(List<Row> rows, List<Row> sorted) {
+		List<Row> expected = new ArrayList<Row>(rows);
+		Collections.sort(expected, new Comparator<Row>() {
+			@Override
+			public int compare(Row row1, Row row2) {
+				return Long.compare(row1.amount, row2.amount);
+			}
+		});
+		assertEquals(expected.size(), sorted.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).id, sorted.get(i).id);
+		}
+	}
+
+	private List<Row> createRows(int numRows) {
+		Random random = new Random(1234);
+		List<Row> rows = new ArrayList<Row>(numRows);
+		for (int i = 0; i < numRows; i++) {
+			Row row = new Row();
+			row.id = i;
+			row.name = "name" + random.nextInt(20);
+			// negative and positive numbers that would sort wrong as strings with lots of duplicates
+			row.amount = random.nextInt(200) - 100;
+			rows.add(row);
+		}
+		return rows;
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String name;
+		@CsvColumn
+		long amount;
+
+		public Row() {
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+public class OutputBufferTest {
+
+	@Test
+	public void testAppend() {
+		OutputBuffer buffer = new OutputBuffer(1);
+		buffer.append('a').append("bc").append(new StringBuilder("def"), 1, 3).append((CharSequence) "gh");
+		buffer.append(new char[] { 'x', 'i', 'x' }, 1, 1);
+		assertEquals("abcefghi", buffer.toString());
+		assertEquals(8, buffer.length());
+		assertEquals('e', buffer.charAt(3));
+		buffer.setLength(3);
+		assertEquals("abc", buffer.toString());
+		buffer.clear();
+		assertEquals("", buffer.toString());
+		buffer.append((String) null);
+		assertEquals("null", buffer.toString());
+	}
+
+	@Test
+	public void testAppendLong() {
+		long[] values = new long[] { 0, 1, -1, 9, 10, -10, 123456789, Integer.MIN_VALUE, Long.MAX_VALUE,
+				Long.MIN_VALUE, Long.MIN_VALUE + 1 };
+		OutputBuffer buffer = new OutputBuffer();
+		for (long value : values) {
+			buffer.clear();
+			buffer.append(value);
+			assertEquals(Long.toString(value), buffer.toString());
+		}
+	}
+
+	@Test
+	public void testReserve() {
+		OutputBuffer buffer = new OutputBuffer(16);
+		buffer.append("12");
+		int offset = buffer.reserve(20);
+		assertEquals(2, offset);
+		for (int i = 0; i < 20; i++) {
+			buffer.getChars()[offset + i] = (char) ('a' + i);
+		}
+		assertEquals("12abcdefghijklmnopqrst", buffer.toString());
+	}
+
+	@Test
+	public void testQuoteFrom() {
+		OutputBuffer buffer = new OutputBuffer(2);
+		buffer.append("x,");
+		buffer.append("a\"b\"");
+		buffer.quoteFrom(2, '"');
+		assertEquals("x,\"a\"\"b\"\"\"", buffer.toString());
+		buffer.append(',');
+		buffer.quoteFrom(buffer.length(), '"');
+		assertEquals("x,\"a\"\"b\"\"\",\"\"", buffer.toString());
+	}
+
+	@Test
+	public void testWriteTo() throws Exception {
+		OutputBuffer buffer = new OutputBuffer();
+		buffer.append("hello");
+		StringWriter writer = new StringWriter();
+		buffer.writeTo(writer);
+		assertEquals(0, buffer.length());
+		buffer.append(" there");
+		buffer.writeTo(writer);
+		assertEquals("hello there", writer.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSetLengthTooLong() {
+		new OutputBuffer().setLength(1);
+	}
+}
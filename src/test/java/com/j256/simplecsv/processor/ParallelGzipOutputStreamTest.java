@@ -0,0 +1,149 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class ParallelGzipOutputStreamTest {
+
+	private static ExecutorService executor;
+
+	@BeforeClass
+	public static void beforeClass() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		Random random = new Random(1);
+		for (int size : new int[] { 0, 1, 99, 100, 101, 1000, 12345 }) {
+			byte[] bytes = new byte[size];
+			// half random and half compressible
+			random.nextBytes(bytes);
+			for (int i = size / 2; i < size; i++) {
+				bytes[i] = (byte) ('a' + i % 7);
+			}
+			for (int maxInFlight : new int[] { 1, 3 }) {
+				ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+				OutputStream outputStream = new ParallelGzipOutputStream(compressed, executor, 100,
+						Deflater.DEFAULT_COMPRESSION, maxInFlight);
+				// mix of single bytes and arrays
+				int offset = 0;
+				while (offset < size) {
+					if (random.nextBoolean()) {
+						outputStream.write(bytes[offset++]);
+					} else {
+						int length = Math.min(size - offset, random.nextInt(250));
+						outputStream.write(bytes, offset, length);
+						offset += length;
+					}
+				}
+				outputStream.close();
+				assertArrayEquals(bytes, gunzip(new ByteArrayInputStream(compressed.toByteArray())));
+			}
+		}
+	}
+
+	@Test
+	public void testFlush() throws Exception {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+		OutputStream outputStream = new ParallelGzipOutputStream(compressed, executor);
+		outputStream.write("hello ".getBytes(StandardCharsets.UTF_8));
+		outputStream.flush();
+		assertArrayEquals("hello ".getBytes(StandardCharsets.UTF_8),
+				gunzip(new ByteArrayInputStream(compressed.toByteArray())));
+		outputStream.write("there".getBytes(StandardCharsets.UTF_8));
+		outputStream.close();
+		assertArrayEquals("hello there".getBytes(StandardCharsets.UTF_8),
+				gunzip(new ByteArrayInputStream(compressed.toByteArray())));
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws Exception {
+		OutputStream outputStream = new ParallelGzipOutputStream(new ByteArrayOutputStream(), executor);
+		outputStream.close();
+		outputStream.write(1);
+	}
+
+	@Test
+	public void testWriteAllGzip() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = new ArrayList<Row>();
+		for (int i = 0; i < 50000; i++) {
+			rows.add(new Row(i, "value " + i));
+		}
+		StringWriter expected = new StringWriter();
+		processor.writeAll(expected, rows, true);
+
+		File file = File.createTempFile(getClass().getSimpleName(), ".csv.gz");
+		try {
+			processor.writeAllGzip(file, rows, true, executor);
+			InputStream inputStream = new FileInputStream(file);
+			try {
+				assertEquals(expected.toString(), new String(gunzip(inputStream), StandardCharsets.UTF_8));
+			} finally {
+				inputStream.close();
+			}
+			List<Row> read = processor.readAll(
+					new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8),
+					null);
+			assertEquals(rows.size(), read.size());
+		} finally {
+			file.delete();
+		}
+	}
+
+	private byte[] gunzip(InputStream inputStream) throws IOException {
+		GZIPInputStream gzipStream = new GZIPInputStream(inputStream);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1024];
+		int length;
+		while ((length = gzipStream.read(buffer)) >= 0) {
+			outputStream.write(buffer, 0, length);
+		}
+		return outputStream.toByteArray();
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+
+		public Row(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+}
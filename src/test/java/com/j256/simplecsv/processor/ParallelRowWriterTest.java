@@ -0,0 +1,117 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.converter.StringConverter;
+
+public class ParallelRowWriterTest {
+
+	private static ExecutorService executor;
+
+	@BeforeClass
+	public static void beforeClass() {
+		executor = Executors.newFixedThreadPool(4);
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		executor.shutdown();
+	}
+
+	@Test
+	public void testSameAsSequential() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		for (int count : new int[] { 0, 1, ParallelRowWriter.CHUNK_SIZE - 1, ParallelRowWriter.CHUNK_SIZE,
+				ParallelRowWriter.CHUNK_SIZE * 20 + 7 }) {
+			List<Row> rows = new ArrayList<Row>();
+			for (int i = 0; i < count; i++) {
+				rows.add(new Row(i, "value, " + i));
+			}
+			StringWriter sequential = new StringWriter();
+			processor.writeAll(sequential, rows, true);
+			StringWriter parallel = new StringWriter();
+			processor.writeAll(parallel, rows, true, executor);
+			assertEquals(sequential.toString(), parallel.toString());
+			assertEquals(rows.size(), processor.readAll(new StringReader(parallel.toString()), null).size());
+		}
+	}
+
+	@Test
+	public void testSmallWindow() throws Exception {
+		CsvSchema<Row> schema = new CsvProcessor<Row>(Row.class).getSchema();
+		List<Row> rows = new ArrayList<Row>();
+		for (int i = 0; i < ParallelRowWriter.CHUNK_SIZE * 5; i++) {
+			rows.add(new Row(i, "v" + i));
+		}
+		StringWriter writer = new StringWriter();
+		new ParallelRowWriter<Row>(schema, executor, 1).write(writer, rows.iterator(), false);
+		StringWriter expected = new StringWriter();
+		schema.writeAll(expected, rows, false);
+		assertEquals(expected.toString(), writer.toString());
+	}
+
+	@Test
+	public void testFormatException() throws Exception {
+		CsvProcessor<Row> processor =
+				new CsvProcessor<Row>(Row.class).withConverter(String.class, new ThrowingConverter());
+		List<Row> rows = new ArrayList<Row>();
+		for (int i = 0; i < ParallelRowWriter.CHUNK_SIZE * 3; i++) {
+			rows.add(new Row(i, (i == ParallelRowWriter.CHUNK_SIZE + 5 ? "bad" : "ok")));
+		}
+		try {
+			processor.writeAll(new StringWriter(), rows, false, executor);
+			fail("should have thrown");
+		} catch (IllegalStateException ise) {
+			assertTrue(ise.getMessage().contains("bad"));
+		}
+		// still usable afterwards
+		StringWriter writer = new StringWriter();
+		processor.writeAll(writer, Collections.singletonList(new Row(1, "ok")), false, executor);
+		assertEquals("1,\"ok\"" + CsvProcessor.DEFAULT_LINE_TERMINATION, writer.toString());
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+
+		public Row(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+
+	public static class ThrowingConverter extends StringConverter {
+		@Override
+		public String javaToString(ColumnInfo<String> columnInfo, String value) {
+			if ("bad".equals(value)) {
+				throw new IllegalStateException("Could not write value " + value);
+			}
+			return super.javaToString(columnInfo, value);
+		}
+
+		@Override
+		public void javaToBuffer(ColumnInfo<String> columnInfo, String value, OutputBuffer buffer) {
+			buffer.append(javaToString(columnInfo, value));
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+import com.j256.simplecsv.processor.ParseError.ErrorType;
+
+public class ParseErrorCollectorTest {
+
+	@Test
+	public void testKeepAndCount() throws Exception {
+		CsvProcessor<IntValue> processor = new CsvProcessor<IntValue>(IntValue.class);
+		ParseErrorCollector collector = new ParseErrorCollector().withMaxKeptErrors(2);
+		List<IntValue> results = processor.readAll(new StringReader(buildCsv(100, 10)), collector);
+		assertNotNull(results);
+		assertEquals(90, results.size());
+		assertFalse(collector.isAborted());
+		assertEquals(2, collector.size());
+		assertEquals(10, collector.getErrorCount());
+		assertEquals(8, collector.getDroppedCount());
+		assertEquals(10, collector.getErrorCount(ErrorType.INVALID_FORMAT));
+		assertEquals(0, collector.getErrorCount(ErrorType.TRUNCATED_LINE));
+
+		// make sure the kept ones are different objects and have the line information
+		Iterator<ParseError> iterator = collector.iterator();
+		ParseError first = iterator.next();
+		ParseError second = iterator.next();
+		assertNotSame(first, second);
+		assertEquals(2, first.getLineNumber());
+		assertEquals(12, second.getLineNumber());
+		assertNotNull(first.getLine());
+		assertEquals("value", first.getFieldName());
+
+		collector.clear();
+		assertEquals(0, collector.size());
+		assertEquals(0, collector.getErrorCount());
+		assertEquals(0, collector.getErrorCount(ErrorType.INVALID_FORMAT));
+	}
+
+	@Test
+	public void testMaxErrors() throws Exception {
+		CsvProcessor<IntValue> processor = new CsvProcessor<IntValue>(IntValue.class);
+		ParseErrorCollector collector = new ParseErrorCollector().withMaxErrors(3);
+		assertNull(processor.readAll(new StringReader(buildCsv(100, 10)), collector));
+		assertTrue(collector.isAborted());
+		assertEquals(4, collector.getErrorCount());
+	}
+
+	@Test
+	public void testMaxErrorRate() throws Exception {
+		CsvProcessor<IntValue> processor = new CsvProcessor<IntValue>(IntValue.class);
+		// 1 in 2 lines are bad
+		ParseErrorCollector collector =
+				new ParseErrorCollector().withMaxErrorRate(0.25).withMinRowsForErrorRate(20);
+		assertNull(processor.readAll(new StringReader(buildCsv(1000, 2)), collector));
+		assertTrue(collector.isAborted());
+		// first error after the 20 row minimum is on row 21
+		assertEquals(11, collector.getErrorCount());
+
+		// 1 in 10 lines are bad which is under the rate
+		collector = new ParseErrorCollector().withMaxErrorRate(0.25).withMinRowsForErrorRate(20);
+		List<IntValue> results = processor.readAll(new StringReader(buildCsv(1000, 10)), collector);
+		assertNotNull(results);
+		assertFalse(collector.isAborted());
+		assertEquals(100, collector.getErrorCount());
+	}
+
+	@Test
+	public void testCheckAbort() {
+		ParseErrorCollector collector = new ParseErrorCollector();
+		ParseError parseError = new ParseError();
+		parseError.setErrorType(ErrorType.INVALID_FORMAT);
+		collector.add(parseError);
+		// no limits by default
+		assertFalse(collector.checkAbort(1));
+		collector.setMaxErrors(1);
+		assertFalse(collector.checkAbort(1));
+		collector.add(parseError);
+		assertTrue(collector.checkAbort(2));
+	}
+
+	/**
+	 * Build a CSV with a header and the number of rows with one in every badEvery rows being invalid.
+	 */
+	private String buildCsv(int numRows, int badEvery) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("value\n");
+		for (int i = 0; i < numRows; i++) {
+			if (i % badEvery == 0) {
+				sb.append("bad");
+			} else {
+				sb.append(i);
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+	public static class IntValue {
+		@CsvColumn
+		int value;
+	}
+}
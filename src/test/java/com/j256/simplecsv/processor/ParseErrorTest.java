@@ -5,6 +5,11 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
 import org.junit.Test;
 
 import com.j256.simplecsv.processor.ParseError.ErrorType;
@@ -53,4 +58,35 @@ public class ParseErrorTest {
 		assertTrue(toString.contains(errorType.getTypeMessage()));
 		assertTrue(toString.contains(msg));
 	}
+
+	@Test
+	public void testMessageFormat() throws Exception {
+		ParseError parseError = new ParseError();
+		assertFalse(parseError.hasMessage());
+		parseError.setMessageFormat("field '%s' value %d", "foo", 10);
+		assertTrue(parseError.hasMessage());
+		assertEquals("field 'foo' value 10", parseError.getMessage());
+		assertTrue(parseError.toString().contains("field 'foo' value 10"));
+
+		parseError.setMessage("direct");
+		assertEquals("direct", parseError.getMessage());
+		parseError.setFieldName("foo");
+		assertEquals("foo", parseError.getFieldName());
+
+		// the message should be formatted before serialization since the arguments are transient
+		parseError.setMessageFormat("hello %s", "there");
+		ByteArrayOutputStream baos = new ByteArrayOutputStream();
+		ObjectOutputStream oos = new ObjectOutputStream(baos);
+		oos.writeObject(parseError);
+		oos.close();
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+		ParseError copy = (ParseError) ois.readObject();
+		assertEquals("hello there", copy.getMessage());
+		assertEquals("foo", copy.getFieldName());
+
+		parseError.reset();
+		assertFalse(parseError.hasMessage());
+		assertNull(parseError.getMessage());
+		assertNull(parseError.getFieldName());
+	}
 }
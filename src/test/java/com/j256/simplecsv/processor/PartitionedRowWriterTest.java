@@ -0,0 +1,221 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class PartitionedRowWriterTest {
+
+	@Test
+	public void testHashPartitions() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(ParallelRowWriter.CHUNK_SIZE * 5 + 3, true);
+		MemoryWriterFactory sequential = new MemoryWriterFactory();
+		processor.writePartitioned(rows, "region", 4, sequential, true, null);
+		MemoryWriterFactory parallel = new MemoryWriterFactory();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			processor.writePartitioned(rows, "region", 4, parallel, true, executor);
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(toStrings(sequential.writers), toStrings(parallel.writers));
+
+		int total = 0;
+		for (Map.Entry<String, StringWriter> entry : sequential.writers.entrySet()) {
+			int partition = Integer.parseInt(entry.getKey());
+			List<Row> partitionRows = processor.readAll(new StringReader(entry.getValue().toString()), null);
+			int lastId = -1;
+			for (Row row : partitionRows) {
+				assertEquals(partition, (row.region.hashCode() & Integer.MAX_VALUE) % 4);
+				// same order as the input
+				assertTrue(row.id > lastId);
+				lastId = row.id;
+			}
+			total += partitionRows.size();
+		}
+		assertEquals(rows.size(), total);
+	}
+
+	@Test
+	public void testValuePartitionFiles() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(1000, false);
+		File directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		try {
+			FilePartitionWriterFactory writerFactory = new FilePartitionWriterFactory(directory, "region-", ".csv");
+			processor.writePartitioned(rows, "region", 0, writerFactory, true, null);
+			assertEquals(REGIONS.length, directory.listFiles().length);
+			for (String region : REGIONS) {
+				List<Row> partitionRows = processor.readAll(writerFactory.getFile(region), null);
+				assertEquals(1000 / REGIONS.length, partitionRows.size());
+				for (Row row : partitionRows) {
+					assertEquals(region, row.region);
+				}
+			}
+			assertEquals(new File(directory, "region-us_2Feast.csv"), writerFactory.getFile("us/east"));
+			assertEquals(new File(directory, "region-us_5Feast.csv"), writerFactory.getFile("us_east"));
+			assertEquals(new File(directory, "region-_2E..csv"), writerFactory.getFile(".."));
+			assertEquals(new File(directory, "region-_C3_A9.csv"), writerFactory.getFile("\u00e9"));
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testValuesWithEscapedCharacters() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		String[] regions = new String[] { "a/b", "a b", "a_b", "a_2Fb" };
+		List<Row> rows = new ArrayList<Row>();
+		for (int i = 0; i < 20; i++) {
+			rows.add(new Row(i, regions[i % regions.length]));
+		}
+		File directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		try {
+			FilePartitionWriterFactory writerFactory = new FilePartitionWriterFactory(directory, "region-", ".csv");
+			processor.writePartitioned(rows, "region", 0, writerFactory, true, null);
+			// each value needs its own file or the rows of one overwrite the other
+			assertEquals(regions.length, directory.listFiles().length);
+			for (String region : regions) {
+				List<Row> partitionRows = processor.readAll(writerFactory.getFile(region), null);
+				assertEquals(rows.size() / regions.length, partitionRows.size());
+				for (Row row : partitionRows) {
+					assertEquals(region, row.region);
+				}
+			}
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	@Test
+	public void testMaxOpenWriters() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(ParallelRowWriter.CHUNK_SIZE * 3 + 7, true);
+		MemoryWriterFactory unlimited = new MemoryWriterFactory();
+		processor.writePartitioned(rows, "region", 0, unlimited, true, null);
+		assertEquals(0, unlimited.reopenCount);
+		MemoryWriterFactory limited = new MemoryWriterFactory();
+		limited.maxOpenWriters = 5;
+		processor.writePartitioned(rows, "region", 0, limited, true, null);
+		assertTrue(limited.reopenCount > 0);
+		assertEquals(toStrings(unlimited.writers), toStrings(limited.writers));
+	}
+
+	@Test
+	public void testMaxOpenFiles() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(ParallelRowWriter.CHUNK_SIZE * 2 + 7, true);
+		File directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+		try {
+			FilePartitionWriterFactory writerFactory =
+					new FilePartitionWriterFactory(directory, "region-", ".csv").withMaxOpenWriters(3);
+			processor.writePartitioned(rows, "region", 0, writerFactory, true, null);
+			MemoryWriterFactory expected = new MemoryWriterFactory();
+			processor.writePartitioned(rows, "region", 0, expected, true, null);
+			assertEquals(expected.writers.size(), directory.listFiles().length);
+			for (Map.Entry<String, StringWriter> entry : expected.writers.entrySet()) {
+				byte[] bytes = Files.readAllBytes(writerFactory.getFile(entry.getKey()).toPath());
+				// one header and the rows appended after each reopen
+				assertEquals(entry.getValue().toString(), new String(bytes, StandardCharsets.UTF_8));
+			}
+		} finally {
+			for (File file : directory.listFiles()) {
+				file.delete();
+			}
+			directory.delete();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownColumn() throws Exception {
+		new CsvProcessor<Row>(Row.class).writePartitioned(createRows(1, false), "unknown", 2,
+				new MemoryWriterFactory(), true, null);
+	}
+
+	private static final String[] REGIONS = new String[] { "us", "eu", "asia", "au" };
+
+	private static List<Row> createRows(int count, boolean manyRegions) {
+		List<Row> rows = new ArrayList<Row>(count);
+		for (int i = 0; i < count; i++) {
+			String region = REGIONS[i % REGIONS.length];
+			if (manyRegions) {
+				region += "-" + (i % 37);
+			}
+			rows.add(new Row(i, region));
+		}
+		return rows;
+	}
+
+	private static Map<String, String> toStrings(Map<String, StringWriter> writers) {
+		Map<String, String> strings = new TreeMap<String, String>();
+		for (Map.Entry<String, StringWriter> entry : writers.entrySet()) {
+			strings.put(entry.getKey(), entry.getValue().toString());
+		}
+		return strings;
+	}
+
+	private static class MemoryWriterFactory implements PartitionWriterFactory {
+		final Map<String, StringWriter> writers = new TreeMap<String, StringWriter>();
+
+		int maxOpenWriters;
+		int reopenCount;
+
+		@Override
+		public Writer createWriter(String partitionName) throws IOException {
+			StringWriter writer = new StringWriter();
+			writers.put(partitionName, writer);
+			return writer;
+		}
+
+		@Override
+		public Writer reopenWriter(String partitionName) {
+			reopenCount++;
+			// closing a StringWriter has no effect so we can keep appending to it
+			return writers.get(partitionName);
+		}
+
+		@Override
+		public int getMaxOpenWriters() {
+			return maxOpenWriters;
+		}
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String region;
+
+		public Row() {
+		}
+
+		public Row(int id, String region) {
+			this.id = id;
+			this.region = region;
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class RollingCsvWriterTest {
+
+	private File directory;
+
+	@Before
+	public void before() throws IOException {
+		directory = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+	}
+
+	@After
+	public void after() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void testMaxRows() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		RollingCsvWriter<Row> writer =
+				processor.newRollingWriter(directory, "rows-", ".csv", true).withMaxSegmentRows(10);
+		assertNull(writer.getCurrentFile());
+		for (int i = 0; i < 25; i++) {
+			writer.write(new Row(i, "value " + i));
+		}
+		assertEquals(new File(directory, "rows-2.csv"), writer.getCurrentFile());
+		writer.close();
+		int id = 0;
+		for (int segment = 0; segment < 3; segment++) {
+			List<Row> rows = processor.readAll(new File(directory, "rows-" + segment + ".csv"), null);
+			assertEquals((segment == 2 ? 5 : 10), rows.size());
+			for (Row row : rows) {
+				assertEquals(id++, row.id);
+			}
+		}
+		assertFalse(new File(directory, "rows-3.csv").exists());
+	}
+
+	@Test
+	public void testMaxSize() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		RollingCsvWriter<Row> writer =
+				processor.newRollingWriter(directory, "size-", ".csv", false).withMaxSegmentSize(100);
+		for (int i = 0; i < 100; i++) {
+			writer.write(new Row(i, "value " + i));
+		}
+		writer.close();
+		File[] files = directory.listFiles();
+		assertTrue(files.length > 10);
+		int total = 0;
+		for (File file : files) {
+			String contents = new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+			// at most one row past the maximum
+			assertTrue(contents.length() < 100 + 20);
+			total += contents.split(CsvProcessor.DEFAULT_LINE_TERMINATION).length;
+		}
+		assertEquals(100, total);
+	}
+
+	@Test
+	public void testMaxMillis() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		RollingCsvWriter<Row> writer =
+				processor.newRollingWriter(directory, "time-", ".csv", true).withMaxSegmentMillis(20);
+		writer.write(new Row(1, "one"));
+		writer.write(new Row(2, "two"));
+		Thread.sleep(50);
+		writer.write(new Row(3, "three"));
+		writer.close();
+		assertEquals(2, processor.readAll(new File(directory, "time-0.csv"), null).size());
+		assertEquals(1, processor.readAll(new File(directory, "time-1.csv"), null).size());
+	}
+
+	@Test
+	public void testCompressInBackground() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			RollingCsvWriter<Row> writer = processor.newRollingWriter(directory, "gz-", ".csv", true)
+					.withMaxSegmentRows(100)
+					.withCompressSegments(true)
+					.withExecutor(executor);
+			for (int i = 0; i < 250; i++) {
+				writer.write(new Row(i, "value " + i));
+			}
+			writer.close();
+		} finally {
+			executor.shutdown();
+		}
+		int id = 0;
+		for (int segment = 0; segment < 3; segment++) {
+			File file = new File(directory, "gz-" + segment + ".csv");
+			assertFalse(file.exists());
+			Reader reader = new InputStreamReader(
+					new GZIPInputStream(new FileInputStream(file.getPath() + ".gz")), StandardCharsets.UTF_8);
+			for (Row row : processor.readAll(reader, null)) {
+				assertEquals(id++, row.id);
+			}
+		}
+		assertEquals(250, id);
+	}
+
+	@Test
+	public void testSkipExistingSegments() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		assertTrue(new File(directory, "skip-0.csv").createNewFile());
+		RollingCsvWriter<Row> writer = processor.newRollingWriter(directory, "skip-", ".csv", true);
+		writer.write(new Row(1, "one"));
+		assertEquals(new File(directory, "skip-1.csv"), writer.getCurrentFile());
+		writer.close();
+		assertEquals(0, new File(directory, "skip-0.csv").length());
+	}
+
+	@Test
+	public void testWriteThrows() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class).withConverter(String.class,
+				new ParallelRowWriterTest.ThrowingConverter());
+		RollingCsvWriter<Row> writer =
+				processor.newRollingWriter(directory, "throws-", ".csv", false).withMaxSegmentRows(2);
+		writer.write(new Row(1, "first"));
+		try {
+			writer.write(new Row(2, "bad"));
+			fail("should have thrown");
+		} catch (IllegalStateException ise) {
+			// expected
+		}
+		// the failed row is neither written nor counted against the segment
+		writer.write(new Row(3, "third"));
+		writer.write(new Row(4, "fourth"));
+		writer.close();
+		String lineTermination = CsvProcessor.DEFAULT_LINE_TERMINATION;
+		assertEquals("1,\"first\"" + lineTermination + "3,\"third\"" + lineTermination,
+				new String(Files.readAllBytes(new File(directory, "throws-0.csv").toPath()), StandardCharsets.UTF_8));
+		assertEquals("4,\"fourth\"" + lineTermination,
+				new String(Files.readAllBytes(new File(directory, "throws-1.csv").toPath()), StandardCharsets.UTF_8));
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws Exception {
+		RollingCsvWriter<Row> writer =
+				new CsvProcessor<Row>(Row.class).newRollingWriter(directory, "closed-", ".csv", true);
+		writer.close();
+		writer.write(new Row(1, "one"));
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+
+		public Row(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+}
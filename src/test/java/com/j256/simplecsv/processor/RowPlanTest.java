@@ -0,0 +1,66 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class RowPlanTest {
+
+	@Test
+	public void testFromPositions() {
+		CsvSchema<Columns> schema = new CsvProcessor<Columns>(Columns.class).getSchema();
+		List<ColumnInfo<Object>> columnInfos = schema.getColumnInfos();
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		ColumnInfo<Object>[] positions = new ColumnInfo[] { columnInfos.get(1), null, columnInfos.get(0) };
+		RowPlan rowPlan = RowPlan.fromPositions(positions, false);
+		assertEquals(2, rowPlan.mappedCount);
+		assertSame(columnInfos.get(1), rowPlan.getColumnInfo(0));
+		assertNull(rowPlan.getColumnInfo(1));
+		assertSame(columnInfos.get(0), rowPlan.getColumnInfo(2));
+		assertNull(rowPlan.getColumnInfo(3));
+
+		// string converter does not trim but the int one does
+		assertFalse(rowPlan.trimInputs[0]);
+		assertTrue(rowPlan.trimInputs[2]);
+		assertEquals("default", rowPlan.defaultValues[0]);
+		assertNull(rowPlan.defaultValues[2]);
+		assertFalse(rowPlan.mustNotBeBlanks[0]);
+		assertTrue(rowPlan.mustNotBeBlanks[2]);
+
+		rowPlan = RowPlan.fromPositions(positions, true);
+		assertTrue(rowPlan.trimInputs[0]);
+	}
+
+	@Test
+	public void testWideRow() throws Exception {
+		CsvProcessor<Columns> processor = new CsvProcessor<Columns>(Columns.class).withIgnoreUnknownColumns(true);
+		StringBuilder header = new StringBuilder();
+		StringBuilder line = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			header.append("unknown").append(i).append(',');
+			line.append(i).append(',');
+		}
+		header.append("value,str");
+		line.append("1000,hello");
+		CsvReadSession<Columns> session = processor.getSchema().newReadSession();
+		assertTrue(session.validateHeader(header.toString(), null));
+		Columns columns = session.processRow(line.toString(), null);
+		assertEquals(1000, columns.value);
+		assertEquals("hello", columns.str);
+	}
+
+	public static class Columns {
+		@CsvColumn(mustNotBeBlank = true)
+		int value;
+		@CsvColumn(defaultValue = "default")
+		String str;
+	}
+}
@@ -0,0 +1,249 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class RowSinkTest {
+
+	@Test
+	public void testSameAsWriteAll() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(5000);
+		StringWriter expected = new StringWriter();
+		processor.writeAll(expected, rows, true);
+
+		CloseTrackingWriter writer = new CloseTrackingWriter();
+		RowSink<Row> sink = processor.newRowSink(writer, true);
+		for (Row row : rows) {
+			sink.write(row);
+		}
+		assertEquals(rows.size(), sink.getRowCount());
+		// large output should have been written out before the close
+		assertTrue(writer.toString().length() > 0);
+		sink.close();
+		assertTrue(writer.closed);
+		assertEquals(expected.toString(), writer.toString());
+		// second close does nothing
+		sink.close();
+	}
+
+	@Test
+	public void testFlush() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		StringWriter writer = new StringWriter();
+		RowSink<Row> sink = processor.newRowSink(writer, false);
+		sink.write(new Row(1, "one"));
+		assertEquals("", writer.toString());
+		sink.flush();
+		assertEquals("1,\"one\"" + CsvProcessor.DEFAULT_LINE_TERMINATION, writer.toString());
+		sink.close();
+	}
+
+	@Test
+	public void testWriteAfterClose() throws Exception {
+		RowSink<Row> sink = new CsvProcessor<Row>(Row.class).newRowSink(new StringWriter(), false);
+		sink.close();
+		try {
+			sink.write(new Row(1, "one"));
+			fail("should have thrown");
+		} catch (IOException ioe) {
+			// expected
+		}
+	}
+
+	@Test
+	public void testWriteThrows() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class).withConverter(String.class,
+				new ParallelRowWriterTest.ThrowingConverter());
+		StringWriter writer = new StringWriter();
+		RowSink<Row> sink = processor.newRowSink(writer, false);
+		sink.write(new Row(1, "first"));
+		try {
+			sink.write(new Row(2, "bad"));
+			fail("should have thrown");
+		} catch (IllegalStateException ise) {
+			// expected
+		}
+		assertEquals(1, sink.getRowCount());
+		// the sink is still usable and the failed row left nothing behind
+		sink.write(new Row(3, "third"));
+		sink.close();
+		assertEquals(2, sink.getRowCount());
+		assertEquals("1,\"first\"" + CsvProcessor.DEFAULT_LINE_TERMINATION + "3,\"third\""
+				+ CsvProcessor.DEFAULT_LINE_TERMINATION, writer.toString());
+	}
+
+	@Test
+	public void testWriterFailsOnce() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		FailOnceWriter writer = new FailOnceWriter();
+		RowSink<Row> sink = processor.newRowSink(writer, false);
+		sink.write(new Row(1, "one"));
+		try {
+			sink.flush();
+			fail("should have thrown");
+		} catch (IOException ioe) {
+			// expected
+		}
+		assertEquals(0, sink.getRowCount());
+		// the failed rows must not be sent again
+		try {
+			sink.write(new Row(2, "two"));
+			fail("should have thrown");
+		} catch (IOException ioe) {
+			// expected
+		}
+		try {
+			sink.flush();
+			fail("should have thrown");
+		} catch (IOException ioe) {
+			// expected
+		}
+		sink.close();
+		assertTrue(writer.closed);
+		assertEquals("", writer.toString());
+	}
+
+	@Test
+	public void testLazySources() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = createRows(3000);
+		StringWriter expected = new StringWriter();
+		processor.writeAll(expected, rows, true);
+
+		StringWriter writer = new StringWriter();
+		processor.writeAll(writer, new RowIterator(rows.size()), true);
+		assertEquals(expected.toString(), writer.toString());
+
+		writer = new StringWriter();
+		processor.writeAll(writer, rows.stream(), true);
+		assertEquals(expected.toString(), writer.toString());
+
+		writer = new StringWriter();
+		final int count = rows.size();
+		processor.writeAll(writer, new Iterable<Row>() {
+			@Override
+			public Iterator<Row> iterator() {
+				return new RowIterator(count);
+			}
+		}, true);
+		assertEquals(expected.toString(), writer.toString());
+
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			writer = new StringWriter();
+			processor.writeAll(writer, new RowIterator(rows.size()), true, executor);
+			assertEquals(expected.toString(), writer.toString());
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static List<Row> createRows(int count) {
+		List<Row> rows = new ArrayList<Row>(count);
+		for (int i = 0; i < count; i++) {
+			rows.add(new Row(i, "value " + i));
+		}
+		return rows;
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+
+		public Row(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+
+	/**
+	 * Generates the rows lazily like a database cursor would.
+	 */
+	private static class RowIterator implements Iterator<Row> {
+		private final int count;
+		private int index;
+
+		public RowIterator(int count) {
+			this.count = count;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < count;
+		}
+
+		@Override
+		public Row next() {
+			Row row = new Row(index, "value " + index);
+			index++;
+			return row;
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	private static class CloseTrackingWriter extends StringWriter {
+		boolean closed;
+
+		@Override
+		public void close() throws IOException {
+			closed = true;
+			super.close();
+		}
+	}
+
+	/**
+	 * Writer that throws on the first write.
+	 */
+	private static class FailOnceWriter extends Writer {
+		final StringBuilder sb = new StringBuilder();
+		boolean failed;
+		boolean closed;
+
+		@Override
+		public void write(char[] chars, int offset, int length) throws IOException {
+			if (!failed) {
+				failed = true;
+				throw new IOException("expected");
+			}
+			sb.append(chars, offset, length);
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+
+		@Override
+		public String toString() {
+			return sb.toString();
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.j256.simplecsv.processor;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.j256.simplecsv.common.CsvColumn;
+
+public class Utf8ByteWriterTest {
+
+	private static final String[] STRINGS = new String[] { "", "hello", "caf\u00e9", "\u20ac100", "\u4e2d\u6587",
+			"smile \ud83d\ude00 ok", "\ud83d\ude00\ud83d\ude01", "unpaired \ud83d x", "low \ude00 x", "end \ud83d",
+			"\u007f\u0080\u07ff\u0800\uffff" };
+
+	@Test
+	public void testLikeJdk() throws Exception {
+		for (String str : STRINGS) {
+			byte[] expected = jdkBytes(str);
+			for (int bufferSize : new int[] { 4, 5, 7, 64, 1024 }) {
+				assertArrayEquals(str, expected, streamBytes(str, bufferSize, str.length()));
+				// split the writes at every position to test the pending surrogates and buffer boundaries
+				for (int split = 1; split < str.length(); split++) {
+					assertArrayEquals(str + " " + split, expected, streamBytes(str, bufferSize, split));
+				}
+				assertArrayEquals(str, expected, channelBytes(str, bufferSize, false));
+				assertArrayEquals(str, expected, channelBytes(str, bufferSize, true));
+			}
+		}
+	}
+
+	@Test
+	public void testRandom() throws Exception {
+		Random random = new Random(1);
+		for (int i = 0; i < 1000; i++) {
+			StringBuilder sb = new StringBuilder();
+			int length = random.nextInt(200);
+			for (int j = 0; j < length; j++) {
+				int type = random.nextInt(4);
+				if (type == 0) {
+					sb.append((char) (0x80 + random.nextInt(0xFF80)));
+				} else if (type == 1) {
+					sb.appendCodePoint(0x10000 + random.nextInt(0x100000));
+				} else {
+					sb.append((char) random.nextInt(0x80));
+				}
+			}
+			String str = sb.toString();
+			assertArrayEquals(str, jdkBytes(str), streamBytes(str, 16, 1 + random.nextInt(20)));
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void testWriteAfterClose() throws Exception {
+		Writer writer = new Utf8ByteWriter(new ByteArrayOutputStream());
+		writer.close();
+		writer.write("x");
+	}
+
+	@Test
+	public void testProcessor() throws Exception {
+		CsvProcessor<Row> processor = new CsvProcessor<Row>(Row.class);
+		List<Row> rows = new ArrayList<Row>();
+		for (int i = 0; i < 10000; i++) {
+			rows.add(new Row(i, "caf\u00e9 " + i));
+		}
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		processor.writeAll(outputStream, rows, true);
+		String output = new String(outputStream.toByteArray(), StandardCharsets.UTF_8);
+		assertEquals(rows.size(), processor.readAll(new StringReader(output), null).size());
+
+		File file = File.createTempFile(getClass().getSimpleName(), ".csv");
+		try {
+			Writer writer = new Utf8ByteWriter(file);
+			processor.writeAll(writer, rows, true);
+			assertEquals(output, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+		} finally {
+			file.delete();
+		}
+	}
+
+	private byte[] jdkBytes(String str) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+		writer.write(str);
+		writer.close();
+		return outputStream.toByteArray();
+	}
+
+	private byte[] streamBytes(String str, int bufferSize, int writeSize) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Writer writer = new Utf8ByteWriter(outputStream, bufferSize);
+		char[] chars = str.toCharArray();
+		for (int offset = 0; offset < chars.length; offset += writeSize) {
+			writer.write(chars, offset, Math.min(writeSize, chars.length - offset));
+		}
+		writer.close();
+		return outputStream.toByteArray();
+	}
+
+	private byte[] channelBytes(String str, int bufferSize, boolean direct) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		Writer writer = new Utf8ByteWriter(Channels.newChannel(outputStream), bufferSize, direct);
+		for (int i = 0; i < str.length(); i++) {
+			writer.write(str.charAt(i));
+		}
+		writer.close();
+		return outputStream.toByteArray();
+	}
+
+	public static class Row {
+		@CsvColumn
+		int id;
+		@CsvColumn
+		String value;
+
+		public Row() {
+		}
+
+		public Row(int id, String value) {
+			this.id = id;
+			this.value = value;
+		}
+	}
+}